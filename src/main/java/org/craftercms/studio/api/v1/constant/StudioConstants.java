@@ -209,6 +209,7 @@ public final class StudioConstants {
      */
     public static final String REPO_COMMIT_MESSAGE_USERNAME_VAR = "{username}";
     public static final String REPO_COMMIT_MESSAGE_PATH_VAR = "{path}";
+    public static final String REPO_COMMIT_MESSAGE_COUNT_VAR = "{count}";
 
     /**
      * Session attributes
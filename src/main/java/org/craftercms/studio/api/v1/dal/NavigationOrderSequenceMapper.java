@@ -26,5 +26,9 @@ public interface NavigationOrderSequenceMapper {
 
     NavigationOrderSequence getPageNavigationOrderForSiteAndPath(Map params);
 
+    NavigationOrderSequence getPageNavigationOrderForFolder(Map params);
+
+    void increment(Map params);
+
     void deleteSequencesForSite(Map params);
 }
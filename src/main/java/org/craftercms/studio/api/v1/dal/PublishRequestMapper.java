@@ -16,6 +16,8 @@
 
 package org.craftercms.studio.api.v1.dal;
 
+import org.apache.ibatis.annotations.Param;
+
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +28,13 @@ public interface PublishRequestMapper {
 
     void insertItemForDeployment(PublishRequest copyToEnvironment);
 
+    /**
+     * Insert a set of publish requests using a single multi-row statement
+     *
+     * @param publishRequests publish requests to insert
+     */
+    void insertItemsForDeployment(@Param("publishRequests") List<PublishRequest> publishRequests);
+
     void cancelWorkflow(Map params);
 
     void cancelWorkflowBulk(Map params);
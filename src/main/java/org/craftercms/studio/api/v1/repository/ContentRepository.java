@@ -25,6 +25,7 @@ import org.craftercms.studio.api.v1.to.RemoteRepositoryInfoTO;
 import org.craftercms.studio.api.v1.to.VersionTO;
 
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -89,6 +90,20 @@ public interface ContentRepository {
      */
     String writeContent(String site, String path, InputStream content) throws ServiceLayerException;
 
+    /**
+     * write, copy and create multiple items in a single commit
+     *
+     * @param site     site id where the operation will be executed
+     * @param contents streams of content to write, by path
+     * @param copies   paths of the existing content to copy, by target path
+     * @param folders  paths of the folders to create
+     * @return Commit Id if successful, null otherwise
+     *
+     * @throws ServiceLayerException if error happens during write
+     */
+    String writeContents(String site, Map<String, InputStream> contents, Map<String, String> copies,
+                         Collection<String> folders) throws ServiceLayerException;
+
     /**
      * create a folder
      *
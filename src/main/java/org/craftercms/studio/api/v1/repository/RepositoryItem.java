@@ -19,4 +19,6 @@ public class RepositoryItem {
 	public String path;
 	public String name;
 	public boolean isFolder;
+	/** Size in bytes, -1 if unknown or not loaded */
+	public long size = -1L;
 }
@@ -18,8 +18,21 @@ package org.craftercms.studio.api.v1.script;
 
 import javax.script.ScriptException;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public interface ScriptExecutor {
 
     void executeScriptString(String script, Map<String, Object> model) throws ScriptException;
+
+    /**
+     * Execute a script, reusing the compiled version if the same version of the script was already executed
+     *
+     * @param site the id of the site
+     * @param scriptId the id of the current version of the script, e.g. the blob id
+     * @param scriptLoader supplies the source of the script, only called if it needs to be compiled
+     * @param model the variables available to the script
+     * @throws ScriptException if the script can't be compiled or fails
+     */
+    void executeScript(String site, String scriptId, Supplier<String> scriptLoader, Map<String, Object> model)
+            throws ScriptException;
 }
@@ -29,6 +29,7 @@ import org.craftercms.studio.api.v1.exception.repository.InvalidRemoteUrlExcepti
 import org.craftercms.studio.api.v1.exception.security.AuthenticationException;
 import org.craftercms.studio.api.v1.exception.security.UserNotFoundException;
 import org.craftercms.studio.api.v1.to.*;
+import org.craftercms.studio.model.clipboard.PasteItem;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.springframework.core.io.Resource;
@@ -197,6 +198,19 @@ public interface ContentService {
      */
     String copyContent(String site, String fromPath, String toPath) throws ServiceLayerException, UserNotFoundException;
 
+    /**
+     * copy content fromPath to toPath including the given children, all the new files are written in a single
+     * commit and the new items are created in the database in a single batch
+     *
+     * @param site     - the project ID
+     * @param fromPath the source path
+     * @param toPath   the target path to copy content to
+     * @param children the children of the source item to include, each with its own children
+     * @return final paths of the copied items, children before their parent, null for items not copied
+     */
+    List<String> copyContentTree(String site, String fromPath, String toPath, List<PasteItem> children)
+            throws ServiceLayerException, UserNotFoundException;
+
     /**
      * move content fromPath to toPath
      *
@@ -238,6 +252,19 @@ public interface ContentService {
      */
     ContentItemTO getContentItem(String site, String path, int depth);
 
+    /**
+     * get the content items (metadata) for a set of paths, without children. The items are built from the item
+     * table using a single query instead of loading each content file, so the properties that only exist in the
+     * XML (e.g. navigation or ordering) and the workflow details are not populated. Paths missing from the item
+     * table fall back to {@link #getContentItem(String, String, int)}.
+     *
+     * @param site - the project ID
+     * @param paths - the paths of the content items
+     *
+     * @return content item representations, in the same order as the paths
+     */
+    List<ContentItemTO> getContentItems(String site, List<String> paths);
+
     /**
      * Retrieves the content type for a given path
      * @param site the site id
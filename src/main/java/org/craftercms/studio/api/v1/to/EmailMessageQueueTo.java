@@ -16,39 +16,68 @@
 package org.craftercms.studio.api.v1.to;
 
 import java.io.Serializable;
-import java.util.Queue;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Bounded queue of outbound email messages. Producers never block: once the queue is full new messages are
+ * rejected, so a slow or unavailable mail relay can't hold up the operations that trigger notifications.
+ */
 public class EmailMessageQueueTo implements Serializable {
 
     private static final long serialVersionUID = -8731745205175488556L;
-    protected Queue<EmailMessageTO> pendingEmailMessages= new LinkedList<>();
-	
-	public synchronized EmailMessageTO getNext()
-	{
-		return pendingEmailMessages.poll();
-	}
-	
-	public synchronized List<EmailMessageTO> getAll()
-	{
-		ArrayList<EmailMessageTO> list = new ArrayList<>();
-		int size = pendingEmailMessages.size();
-		for(int i=0;i<size;i++)
-		{
-			list.add(pendingEmailMessages.poll());
-		}
-		return list;
-	}
-	
-	public synchronized void addEmailMessage(EmailMessageTO emailMessage)
-	{
-		pendingEmailMessages.add(emailMessage);
-	}
-	
-	public synchronized int size()
-	{
-		return pendingEmailMessages.size();
-	}
+    protected BlockingQueue<EmailMessageTO> pendingEmailMessages;
+
+    public EmailMessageQueueTo() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public EmailMessageQueueTo(int capacity) {
+        pendingEmailMessages = new LinkedBlockingQueue<>(capacity);
+    }
+
+    public EmailMessageTO getNext() {
+        return pendingEmailMessages.poll();
+    }
+
+    public List<EmailMessageTO> getAll() {
+        List<EmailMessageTO> list = new ArrayList<>();
+        pendingEmailMessages.drainTo(list);
+        return list;
+    }
+
+    /**
+     * Waits up to the given time for messages to be available and returns all the pending ones
+     *
+     * @param timeout the max time to wait
+     * @param unit the unit of the timeout
+     * @return the pending messages, empty if none were added before the timeout
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public List<EmailMessageTO> waitForAll(long timeout, TimeUnit unit) throws InterruptedException {
+        List<EmailMessageTO> list = new ArrayList<>();
+        EmailMessageTO first = pendingEmailMessages.poll(timeout, unit);
+        if (first != null) {
+            list.add(first);
+            pendingEmailMessages.drainTo(list);
+        }
+        return list;
+    }
+
+    /**
+     * Adds a message to the queue
+     *
+     * @param emailMessage the message
+     * @return true if the message was added, false if the queue is full
+     */
+    public boolean addEmailMessage(EmailMessageTO emailMessage) {
+        return pendingEmailMessages.offer(emailMessage);
+    }
+
+    public int size() {
+        return pendingEmailMessages.size();
+    }
 }
@@ -36,6 +36,9 @@ public class EmailMessageTO implements Serializable {
 	protected String browserUrl;
 	protected String adminEmail;
 	protected String rejectReason;
+	protected int attempts;
+	protected long nextAttemptTime;
+	protected boolean preprocessed;
 	
 	public String getBrowserUrl() {
 		return browserUrl;
@@ -129,6 +132,22 @@ public class EmailMessageTO implements Serializable {
 		return rejectReason;
 	}
 
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public long getNextAttemptTime() {
+		return nextAttemptTime;
+	}
+
+	public void setNextAttemptTime(long nextAttemptTime) {
+		this.nextAttemptTime = nextAttemptTime;
+	}
+
 	protected Map<String,String> keyValueMap;
 	protected String[] emailTemplateKeywords= {
 			"title",
@@ -203,6 +222,12 @@ public class EmailMessageTO implements Serializable {
 	}
 	public void preprocessEmail()
 	{
+		// Values may contain keywords themselves, so only replace them once
+		if (preprocessed) {
+			return;
+		}
+		preprocessed = true;
+
 		String newSubject= replaceKeywordsByValue(subject);
 		subject=newSubject;
 		
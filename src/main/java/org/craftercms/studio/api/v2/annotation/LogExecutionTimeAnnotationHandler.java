@@ -17,17 +17,25 @@
 package org.craftercms.studio.api.v2.annotation;
 
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.craftercms.studio.api.v2.utils.metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
 
+import java.beans.ConstructorProperties;
+import java.lang.reflect.Method;
 import java.util.Arrays;
 
+import static java.util.stream.Collectors.joining;
+
 /**
  * Handles the {@link LogExecutionTime} annotation.
- * Log execution time of a method if the method's class logger is enabled trace
+ * Records the execution time of the method in the {@link MetricsRegistry} if metrics are enabled, and logs it if
+ * the method's class logger is enabled for trace. If neither is enabled the method is just invoked.
  */
 @Aspect
 @Order()
@@ -35,6 +43,13 @@ public class LogExecutionTimeAnnotationHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(LogExecutionTimeAnnotationHandler.class);
 
+    protected final MetricsRegistry metricsRegistry;
+
+    @ConstructorProperties({"metricsRegistry"})
+    public LogExecutionTimeAnnotationHandler(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
     // This method matches public methods and not internal call with one of the following conditions:
     // - methods declared on classes annotated with LogExecutionTime
     // - methods declared on classes meta-annotated with LogExecutionTime (only one level deep). e.g.: @LogExecutionTime, which is annotated with @LogExecutionTime
@@ -46,24 +61,46 @@ public class LogExecutionTimeAnnotationHandler {
             "@annotation(LogExecutionTime) || " +
             "execution(@(@LogExecutionTime *) * *(..))")
     public Object logExecutionTime(ProceedingJoinPoint pjp) throws Throwable {
-        String methodName = pjp.getSignature().toShortString();
-        String args = Arrays.toString(pjp.getArgs());
+        boolean metricsEnabled = metricsRegistry.isEnabled();
         Logger methodLogger = LoggerFactory.getLogger(pjp.getSignature().getDeclaringType());
-        if (methodLogger == null) {
-            logger.debug("Method '{}' is annotated with @LogExecutionTime but does not have a valid logger. " +
-                    "This annotation will be ignored.", methodName);
+        boolean traceEnabled = methodLogger != null && methodLogger.isTraceEnabled();
+        if (!metricsEnabled && !traceEnabled) {
             return pjp.proceed();
         }
 
-        long startTime = 0;
-        if (methodLogger.isTraceEnabled()) {
-            startTime = System.currentTimeMillis();
-        }
-        Object process = pjp.proceed();
-        if (methodLogger.isTraceEnabled()) {
-            methodLogger.trace("Method '{}' with parameters '{}' executed in '{}' milliseconds", methodName, args, System.currentTimeMillis() - startTime);
+        long startTime = System.nanoTime();
+        boolean error = true;
+        try {
+            Object process = pjp.proceed();
+            error = false;
+            return process;
+        } finally {
+            long elapsed = System.nanoTime() - startTime;
+            if (metricsEnabled) {
+                Object key = pjp.getSignature() instanceof MethodSignature ?
+                        ((MethodSignature) pjp.getSignature()).getMethod() : pjp.getSignature().toLongString();
+                metricsRegistry.getTimer(key, () -> getTimerName(pjp.getSignature())).record(elapsed, error);
+            }
+            if (traceEnabled) {
+                methodLogger.trace("Method '{}' with parameters '{}' executed in '{}' milliseconds",
+                        pjp.getSignature().toShortString(), Arrays.toString(pjp.getArgs()), elapsed / 1_000_000);
+            }
         }
+    }
 
-        return process;
+    /**
+     * Returns the name of the timer for the method, using the fully qualified class name so that classes with the
+     * same simple name (e.g. the v1 and v2 {@code GitContentRepository}) don't look the same, and the parameter
+     * types so that overloads can be told apart
+     */
+    protected String getTimerName(Signature signature) {
+        String name = signature.getDeclaringTypeName() + "." + signature.getName();
+        if (signature instanceof MethodSignature) {
+            Method method = ((MethodSignature) signature).getMethod();
+            return name + Arrays.stream(method.getParameterTypes())
+                    .map(Class::getSimpleName)
+                    .collect(joining(", ", "(", ")"));
+        }
+        return name;
     }
 }
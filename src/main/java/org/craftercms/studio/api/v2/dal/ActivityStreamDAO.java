@@ -24,6 +24,7 @@ import java.util.List;
 
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.ACTION;
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.ACTIONS;
+import static org.craftercms.studio.api.v2.dal.QueryParameterNames.ACTIVITIES;
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.ACTION_TIMESTAMP;
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.DATE_FROM;
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.DATE_TO;
@@ -51,6 +52,13 @@ public interface ActivityStreamDAO {
                         @Param(ACTION_TIMESTAMP) ZonedDateTime actionTimestamp, @Param(ITEM) Item item,
                         @Param(PACKAGE_ID) String packageId);
 
+    /**
+     * Insert multiple records into activity stream using a single statement
+     *
+     * @param activities the records to insert
+     */
+    void insertActivities(@Param(ACTIVITIES) List<ActivityStreamEntry> activities);
+
     /**
      * Get total number activities for users
      * @param siteId site identifier
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.api.v2.dal;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Activity stream record waiting to be inserted. The item values are copied when the record is created
+ * so later changes to the item don't affect the recorded activity.
+ */
+public class ActivityStreamEntry {
+
+    private final long siteId;
+    private final long userId;
+    private final String action;
+    private final ZonedDateTime actionTimestamp;
+    private final Long itemId;
+    private final String itemPath;
+    private final String itemLabel;
+    private final String packageId;
+
+    public ActivityStreamEntry(long siteId, long userId, String action, ZonedDateTime actionTimestamp, Item item,
+                               String packageId) {
+        this.siteId = siteId;
+        this.userId = userId;
+        this.action = action;
+        this.actionTimestamp = actionTimestamp;
+        this.itemId = item != null ? item.getId() : null;
+        this.itemPath = item != null ? item.getPath() : null;
+        this.itemLabel = item != null ? item.getLabel() : null;
+        this.packageId = packageId;
+    }
+
+    public long getSiteId() {
+        return siteId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public ZonedDateTime getActionTimestamp() {
+        return actionTimestamp;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public String getItemPath() {
+        return itemPath;
+    }
+
+    public String getItemLabel() {
+        return itemLabel;
+    }
+
+    public String getPackageId() {
+        return packageId;
+    }
+
+}
@@ -23,7 +23,10 @@ import java.util.List;
 import java.util.Map;
 
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.COMMIT_ID;
+import static org.craftercms.studio.api.v2.dal.QueryParameterNames.PARAMETERS;
+import static org.craftercms.studio.api.v2.dal.QueryParameterNames.PARTITIONS;
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.SITE_ID;
+import static org.craftercms.studio.api.v2.dal.QueryParameterNames.TABLE_NAME;
 
 public interface AuditDAO {
 
@@ -35,7 +38,13 @@ public interface AuditDAO {
 
     int insertAuditLog(AuditLog auditLog);
 
-    void insertAuditLogParams(Map params);
+    /**
+     * Insert audit log parameters in a single statement.
+     * Each parameter must have its audit id and audit timestamp set
+     *
+     * @param parameters the parameters to insert
+     */
+    void insertAuditLogParameters(@Param(PARAMETERS) List<AuditLogParameter> parameters);
 
     List<AuditLog> selectUserFeedEntriesHideLive(Map params);
 
@@ -69,4 +78,29 @@ public interface AuditDAO {
      * @return true if an entry exists in audit table for the given commit id, false otherwise.
      */
     boolean isAudited(@Param(SITE_ID) long siteId, @Param(COMMIT_ID) String commitId);
+
+    /**
+     * Get the range partitions of an audit table
+     *
+     * @param tableName the table name
+     * @return the partitions ordered by position, empty if the table is not partitioned
+     */
+    List<AuditPartition> getAuditPartitions(@Param(TABLE_NAME) String tableName);
+
+    /**
+     * Split the future partition of an audit table into the given partitions, followed by a new future partition
+     *
+     * @param tableName  the table name
+     * @param partitions the partitions to add, ordered by upper bound
+     */
+    void addAuditPartitions(@Param(TABLE_NAME) String tableName,
+                            @Param(PARTITIONS) List<AuditPartition> partitions);
+
+    /**
+     * Drop partitions of an audit table along with all their rows
+     *
+     * @param tableName  the table name
+     * @param partitions the names of the partitions to drop
+     */
+    void dropAuditPartitions(@Param(TABLE_NAME) String tableName, @Param(PARTITIONS) List<String> partitions);
 }
@@ -16,10 +16,13 @@
 
 package org.craftercms.studio.api.v2.dal;
 
+import java.time.ZonedDateTime;
+
 public class AuditLogParameter {
 
     private long id;
     private long auditId;
+    private ZonedDateTime auditTimestamp;
     private String targetId;
     private String targetType;
     private String targetValue;
@@ -40,6 +43,14 @@ public class AuditLogParameter {
         this.auditId = auditId;
     }
 
+    public ZonedDateTime getAuditTimestamp() {
+        return auditTimestamp;
+    }
+
+    public void setAuditTimestamp(ZonedDateTime auditTimestamp) {
+        this.auditTimestamp = auditTimestamp;
+    }
+
     public String getTargetId() {
         return targetId;
     }
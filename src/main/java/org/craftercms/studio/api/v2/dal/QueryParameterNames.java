@@ -254,8 +254,14 @@ public final class  QueryParameterNames {
     public static final String ACTION = "action";
     public static final String ACTION_TIMESTAMP = "actionTimestamp";
     public static final String ITEM = "item";
+    public static final String ACTIVITIES = "activities";
     public static final String DEPENDENCIES = "dependencies";
 
+    /** Audit */
+    public static final String PARAMETERS = "parameters";
+    public static final String TABLE_NAME = "tableName";
+    public static final String PARTITIONS = "partitions";
+
     private QueryParameterNames() {
     }
 }
@@ -85,6 +85,22 @@ public interface SiteDAO {
      */
     void updateLastCommitId(@Param(SITE_ID) String siteId, @Param(COMMIT_ID) String commitId);
 
+    /**
+     * Get the last commit id indexed by the authoring search for the given site
+     *
+     * @param siteId site id
+     * @return the last indexed commit id
+     */
+    String getLastIndexedCommitId(@Param(SITE_ID) String siteId);
+
+    /**
+     * Update a site's last commit id indexed by the authoring search
+     *
+     * @param siteId   site id
+     * @param commitId commit id
+     */
+    void updateLastIndexedCommitId(@Param(SITE_ID) String siteId, @Param(COMMIT_ID) String commitId);
+
     /**
      * Get the sites matching the given state
      * @param state the state
@@ -19,6 +19,7 @@ package org.craftercms.studio.api.v2.dal;
 import org.apache.ibatis.annotations.Param;
 import org.craftercms.studio.model.rest.dashboard.DashboardPublishingPackage;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +49,16 @@ public interface WorkflowDAO {
     WorkflowItem getWorkflowEntryOpened(@Param(SITE_ID) String siteId, @Param(PATH) String path,
                                     @Param(STATE_OPENED) String stateOpened);
 
+    /**
+     * Get the workflow entries for a set of items
+     * @param siteId site identifier
+     * @param paths paths of the items
+     * @param stateOpened state opened
+     * @return list of workflow entries
+     */
+    List<WorkflowItem> getWorkflowEntriesOpened(@Param(SITE_ID) String siteId, @Param(PATHS) Collection<String> paths,
+                                                @Param(STATE_OPENED) String stateOpened);
+
     /**
      * Get workflow entry for approval
      * @param itemId item identifier
@@ -105,6 +116,14 @@ public interface WorkflowDAO {
      */
     void deleteWorkflowEntries(@Param(SITE_ID) String siteId, @Param(PATHS) List<String> paths);
 
+    /**
+     * Get the paths of the items in a workflow package
+     * @param siteId site identifier
+     * @param packageId workflow package identifier
+     * @return list of paths
+     */
+    List<String> getWorkflowPackagePaths(@Param(SITE_ID) String siteId, @Param(PACKAGE_ID) String packageId);
+
     /**
      * Delete workflow entry
      * @param siteId site identifier
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.api.v2.deployment;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Target that keeps the authoring search index of a site up to date.
+ */
+public interface SearchIndexTarget {
+
+    /**
+     * Requests the target to index the changes made after the given commit, blocking until they have been
+     * processed.
+     *
+     * @param siteId       the site
+     * @param fromCommitId the last commit already indexed, it must exist in the repository
+     * @param toCommitId   the commit being indexed
+     * @throws RestClientException if an error occurs
+     */
+    void reindex(String siteId, String fromCommitId, String toCommitId) throws RestClientException;
+
+    /**
+     * Requests the target to index all the files of the site, blocking until they have been processed.
+     *
+     * @param siteId the site
+     * @throws RestClientException if an error occurs
+     */
+    void reindexAll(String siteId) throws RestClientException;
+
+}
@@ -15,6 +15,8 @@
  */
 package org.craftercms.studio.api.v2.event;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Base interface for events that should be broadcast to the WS clients
  *
@@ -28,4 +30,15 @@ public interface BroadcastEvent {
 
     String getEventType();
 
+    /**
+     * Returns the key used to coalesce redundant events when they are broadcast in batches. Within the same batch
+     * only the latest event for a given key is sent.
+     *
+     * @return the coalescing key, or {@code null} if the event should never be coalesced
+     */
+    @JsonIgnore
+    default String getCoalescingKey() {
+        return null;
+    }
+
 }
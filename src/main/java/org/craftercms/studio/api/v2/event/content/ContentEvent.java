@@ -56,6 +56,12 @@ public class ContentEvent extends SiteAwareEvent implements SiteBroadcastEvent {
         return "CONTENT_EVENT";
     }
 
+    @Override
+    @JsonIgnore
+    public String getCoalescingKey() {
+        return getEventType() + ":" + targetPath;
+    }
+
     @Override
     public String toString() {
         return "ContentEvent{" +
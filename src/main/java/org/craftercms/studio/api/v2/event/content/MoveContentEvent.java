@@ -15,6 +15,7 @@
  */
 package org.craftercms.studio.api.v2.event.content;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.Authentication;
 
 /**
@@ -46,6 +47,12 @@ public class MoveContentEvent extends ContentEvent {
         return "MOVE_CONTENT_EVENT";
     }
 
+    @Override
+    @JsonIgnore
+    public String getCoalescingKey() {
+        return getEventType() + ":" + sourcePath + ":" + targetPath;
+    }
+
     @Override
     public String toString() {
         return "MoveContentEvent{" +
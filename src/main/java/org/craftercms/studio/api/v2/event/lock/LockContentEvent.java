@@ -15,6 +15,7 @@
  */
 package org.craftercms.studio.api.v2.event.lock;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.craftercms.studio.api.v2.event.SiteAwareEvent;
 import org.craftercms.studio.api.v2.event.SiteBroadcastEvent;
 import org.springframework.security.core.Authentication;
@@ -52,6 +53,12 @@ public class LockContentEvent extends SiteAwareEvent implements SiteBroadcastEve
         return "LOCK_CONTENT_EVENT";
     }
 
+    @Override
+    @JsonIgnore
+    public String getCoalescingKey() {
+        return getEventType() + ":" + targetPath;
+    }
+
     @Override
     public String toString() {
         return "LockContentEvent{" +
@@ -15,6 +15,7 @@
  */
 package org.craftercms.studio.api.v2.event.repository;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.craftercms.studio.api.v2.event.SiteAwareEvent;
 import org.craftercms.studio.api.v2.event.SiteBroadcastEvent;
 
@@ -37,6 +38,13 @@ public class RepositoryEvent extends SiteAwareEvent implements SiteBroadcastEven
         return "REPOSITORY_EVENT";
     }
 
+    @Override
+    @JsonIgnore
+    public String getCoalescingKey() {
+        // The event carries no details, clients just reload, so one per batch is enough
+        return getEventType();
+    }
+
     @Override
     public String toString() {
         return "RepositoryEvent{" +
@@ -24,7 +24,22 @@ import org.craftercms.studio.api.v2.event.SiteAwareEvent;
  * @since 4.2.0
  */
 public class SyncFromRepoEvent extends SiteAwareEvent {
+
+    /**
+     * Optional commit to sync up to, when null the sync will process up to the current HEAD
+     */
+    private final String commitId;
+
     public SyncFromRepoEvent(final String siteId) {
+        this(siteId, null);
+    }
+
+    public SyncFromRepoEvent(final String siteId, final String commitId) {
         super(siteId);
+        this.commitId = commitId;
+    }
+
+    public String getCommitId() {
+        return commitId;
     }
 }
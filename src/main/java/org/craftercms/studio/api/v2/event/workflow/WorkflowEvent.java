@@ -15,6 +15,7 @@
  */
 package org.craftercms.studio.api.v2.event.workflow;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.craftercms.studio.api.v2.event.SiteAwareEvent;
 import org.craftercms.studio.api.v2.event.SiteBroadcastEvent;
 import org.springframework.security.core.Authentication;
@@ -38,6 +39,13 @@ public class WorkflowEvent extends SiteAwareEvent implements SiteBroadcastEvent
         return "WORKFLOW_EVENT";
     }
 
+    @Override
+    @JsonIgnore
+    public String getCoalescingKey() {
+        // The event carries no details, clients just reload, so one per batch is enough
+        return getEventType();
+    }
+
     @Override
     public String toString() {
         return "WorkflowEvent{" +
@@ -23,6 +23,7 @@ import org.craftercms.studio.api.v1.exception.SiteNotFoundException;
 import org.craftercms.studio.api.v1.exception.repository.InvalidRemoteRepositoryCredentialsException;
 import org.craftercms.studio.api.v1.exception.repository.InvalidRemoteRepositoryException;
 import org.craftercms.studio.api.v1.exception.repository.RemoteRepositoryNotFoundException;
+import org.craftercms.studio.api.v1.repository.RepositoryItem;
 import org.craftercms.studio.api.v1.service.deployment.DeploymentException;
 import org.craftercms.studio.api.v1.to.DeploymentItemTO;
 import org.craftercms.studio.api.v2.dal.PublishingHistoryItem;
@@ -34,6 +35,7 @@ import org.springframework.core.io.Resource;
 
 import java.io.IOException;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -242,6 +244,35 @@ public interface ContentRepository {
      */
     long getContentSize(String site, String path);
 
+    /**
+     * Get the size of several files using a single tree walk
+     *
+     * @param site site id where the operation will be executed
+     * @param paths paths of the files
+     * @return the size in bytes of each file found, keyed by its path
+     */
+    Map<String, Long> getContentSizes(String site, Collection<String> paths);
+
+    /**
+     * Get the id of the blob holding the given content in the last commit. The id changes every time the content
+     * changes, so it can be used to cheaply validate anything derived from the content.
+     *
+     * @param site site id where the operation will be executed
+     * @param path path to content
+     * @return the blob id, or null if the content does not exist
+     */
+    String getContentBlobId(String site, String path);
+
+    /**
+     * Get all the descendants of a folder, files and folders at any depth, using a single tree walk. Files include
+     * their size so no additional lookups are needed.
+     *
+     * @param site site id where the operation will be executed
+     * @param path path of the folder
+     * @return the descendants of the folder, parents are always listed before their children
+     */
+    List<RepositoryItem> getContentDescendants(String site, String path);
+
 
     String getLastEditCommitId(String siteId, String path);
 
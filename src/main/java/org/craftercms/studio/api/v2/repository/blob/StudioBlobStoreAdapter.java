@@ -26,7 +26,9 @@ import org.craftercms.studio.model.history.ItemVersion;
 import org.craftercms.studio.model.rest.content.DetailedItem;
 import org.springframework.core.io.Resource;
 
+import java.io.InputStream;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -61,6 +63,13 @@ public interface StudioBlobStoreAdapter extends StudioBlobStore {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    default String writeContents(String site, Map<String, InputStream> contents, Map<String, String> copies,
+                                 Collection<String> folders) {
+        // This should be handled by the blob aware repository, one item at a time
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     default List<String> getCommitIdsBetween(String siteId, final String commitFrom, final String commitTo) {
         throw new UnsupportedOperationException();
@@ -84,6 +84,14 @@ public interface AuditServiceInternal {
      */
     boolean insertAuditLog(AuditLog auditLog);
 
+    /**
+     * Insert audit log entries and their parameters in batches
+     *
+     * @param auditLogs Audit logs to insert
+     * @return true if all the entries were inserted, otherwise false
+     */
+    boolean insertAuditLogs(List<AuditLog> auditLogs);
+
     /**
      * Create Audit log entry and populate common properties
      *
@@ -120,4 +128,9 @@ public interface AuditServiceInternal {
      * @return true if there is an audit entry for the given commit id, otherwise false
      */
     boolean isAudited(long siteId, String commitId);
+
+    /**
+     * Create the upcoming monthly partitions of the audit tables and drop the ones past the retention period
+     */
+    void maintainPartitions();
 }
@@ -15,6 +15,9 @@
  */
 package org.craftercms.studio.api.v2.service.monitor;
 
+import org.craftercms.studio.api.v2.sync.SiteBootstrapStatus;
+import org.craftercms.studio.api.v2.utils.metrics.MethodTimer;
+
 import java.util.List;
 import java.util.Map;
 
@@ -27,10 +30,42 @@ import java.util.Map;
 public interface MonitorService {
 
     /**
-     * Retrieves a list of global events logged since the timestamp indicated by {@code since} parameter
+     * Retrieves a list of events logged for a site since the timestamp indicated by {@code since} parameter
      *
+     * @param siteId the site, if empty the events of all sites are returned
      * @param since  timestamp. Events before this value will not be included.
      * @return a list of log events
      */
     List<Map<String, Object>> getLogEvents(final String siteId, final long since);
+
+    /**
+     * Retrieves a list of events logged for a site starting at the given sequence number. Each event includes its
+     * own sequence number, so clients can poll for new events using the last one they received plus one.
+     *
+     * @param siteId the site, if empty the events of all sites are returned
+     * @param sequence the sequence number of the first event to return
+     * @return a list of log events
+     */
+    List<Map<String, Object>> getLogEventsFromSequence(final String siteId, final long sequence);
+
+    /**
+     * Retrieves the execution time metrics recorded for the monitored methods
+     *
+     * @return the metrics for each method, the ones with the highest total time first
+     */
+    List<MethodTimer> getMetrics();
+
+    /**
+     * Retrieves the progress of the registration and sync of the sites on startup
+     *
+     * @return the state of each site
+     */
+    SiteBootstrapStatus getSiteBootstrapStatus();
+
+    /**
+     * Retrieves the queue depth, latency and cache metrics of the image transformation worker pool
+     *
+     * @return the metrics of the worker pool
+     */
+    Map<String, Object> getImageTransformationStatistics();
 }
@@ -19,6 +19,8 @@ import org.craftercms.studio.api.v1.exception.SiteNotFoundException;
 import org.springframework.http.ResponseEntity;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URISyntaxException;
 
 /**
@@ -40,6 +42,20 @@ public interface ProxyService {
      */
     ResponseEntity<Object> proxyEngine(String body, String siteId, HttpServletRequest request) throws URISyntaxException, SiteNotFoundException;
 
+    /**
+     * Proxies a request to Crafter Engine, streaming the request and response bodies without buffering or parsing
+     * them.
+     *
+     * @param siteId   ID of the crafter site
+     * @param request  the request
+     * @param response the response where the Crafter Engine response will be written
+     * @throws URISyntaxException if request URI is not valid
+     * @throws IOException if there is any error communicating with Crafter Engine or the client
+     * @throws SiteNotFoundException if site is not found
+     */
+    void proxyEngine(String siteId, HttpServletRequest request, HttpServletResponse response)
+            throws URISyntaxException, IOException, SiteNotFoundException;
+
     /**
      * Proxies a request to Crafter Engine log monitor service, after checking
      * current user has permission to access log data for siteId.
@@ -16,8 +16,6 @@
 
 package org.craftercms.studio.api.v2.service.repository;
 
-import org.eclipse.jgit.api.PullResult;
-
 import java.util.Collection;
 
 /**
@@ -74,8 +72,7 @@ public class MergeResult {
         return new MergeResult(false, 0, null);
     }
 
-    public static MergeResult from(PullResult pullResult, Collection<String> mergedCommits) {
-        org.eclipse.jgit.api.MergeResult mergeResult = pullResult.getMergeResult();
+    public static MergeResult from(org.eclipse.jgit.api.MergeResult mergeResult, Collection<String> mergedCommits) {
         long commitsMerged = 0;
         String mergeCommitId = null;
         // Don't check the values if the status is not MERGED, for some reason JGit keeps returning the previous values
@@ -85,7 +82,8 @@ public class MergeResult {
             commitsMerged = mergedCommits.size();
             mergeCommitId = mergeResult.getNewHead().name();
         }
-        return new MergeResult(pullResult.isSuccessful(), commitsMerged, mergeCommitId);
+        return new MergeResult(mergeResult != null && mergeResult.getMergeStatus().isSuccessful(),
+                commitsMerged, mergeCommitId);
     }
 
 }
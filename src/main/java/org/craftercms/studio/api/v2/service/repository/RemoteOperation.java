@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.craftercms.studio.api.v2.service.repository;
+
+import java.time.ZonedDateTime;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Tracks a pull from or a push to a remote repository that runs in the background
+ *
+ * @since 4.2.0
+ */
+public class RemoteOperation {
+
+    public enum Type {
+        PULL,
+        PUSH
+    }
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    protected final String id;
+    protected final String siteId;
+    protected final Type type;
+    protected final String remoteName;
+    protected final String remoteBranch;
+    protected final String submittedBy;
+    protected final ZonedDateTime submittedOn;
+
+    protected volatile State state = State.QUEUED;
+    protected volatile boolean cancelRequested;
+    protected volatile ZonedDateTime startedOn;
+    protected volatile ZonedDateTime finishedOn;
+
+    /**
+     * Title of the JGit task currently in progress (e.g. 'Receiving objects')
+     */
+    protected volatile String task;
+
+    /**
+     * Total units of work for the current task, 0 if unknown
+     */
+    protected volatile int totalWork;
+
+    /**
+     * Completed units of work for the current task
+     */
+    protected volatile int completedWork;
+
+    /**
+     * Result of the merge, only for pull operations
+     */
+    protected volatile MergeResult mergeResult;
+
+    protected volatile String error;
+
+    public RemoteOperation(String id, String siteId, Type type, String remoteName, String remoteBranch,
+                           String submittedBy) {
+        this.id = id;
+        this.siteId = siteId;
+        this.type = type;
+        this.remoteName = remoteName;
+        this.remoteBranch = remoteBranch;
+        this.submittedBy = submittedBy;
+        this.submittedOn = ZonedDateTime.now(UTC);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSiteId() {
+        return siteId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getRemoteName() {
+        return remoteName;
+    }
+
+    public String getRemoteBranch() {
+        return remoteBranch;
+    }
+
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public ZonedDateTime getSubmittedOn() {
+        return submittedOn;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public ZonedDateTime getStartedOn() {
+        return startedOn;
+    }
+
+    public ZonedDateTime getFinishedOn() {
+        return finishedOn;
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    public int getTotalWork() {
+        return totalWork;
+    }
+
+    public int getCompletedWork() {
+        return completedWork;
+    }
+
+    public MergeResult getMergeResult() {
+        return mergeResult;
+    }
+
+    public void setMergeResult(MergeResult mergeResult) {
+        this.mergeResult = mergeResult;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    /**
+     * Requests the cancellation of the operation, a running operation will stop the next time JGit checks for it.
+     * Only the transfer (fetch or push) can be cancelled, once a pull starts merging it runs to completion
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public void start() {
+        startedOn = ZonedDateTime.now(UTC);
+        state = State.RUNNING;
+    }
+
+    public void beginTask(String task, int totalWork) {
+        this.task = task;
+        this.totalWork = totalWork;
+        this.completedWork = 0;
+    }
+
+    public void update(int completed) {
+        completedWork += completed;
+    }
+
+    public void finish(State state, String error) {
+        this.error = error;
+        this.finishedOn = ZonedDateTime.now(UTC);
+        this.state = state;
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteOperation{" +
+                "id='" + id + '\'' +
+                ", siteId='" + siteId + '\'' +
+                ", type=" + type +
+                ", remoteName='" + remoteName + '\'' +
+                ", remoteBranch='" + remoteBranch + '\'' +
+                ", state=" + state +
+                '}';
+    }
+
+}
@@ -45,6 +45,60 @@ public interface RepositoryManagementService {
             throws InvalidRemoteUrlException, ServiceLayerException,
             InvalidRemoteRepositoryCredentialsException, RemoteRepositoryNotFoundException;
 
+    /**
+     * Queue a pull from a remote repository to run in the background
+     *
+     * @param siteId site identifier
+     * @param remoteName remote name
+     * @param remoteBranch remote branch
+     * @param mergeStrategy merge strategy
+     * @return the queued operation, to be used for checking its progress
+     * @throws RemoteRepositoryNotFoundException if the remote does not exist
+     * @throws ServiceLayerException if the site already has too many pending operations
+     */
+    RemoteOperation pullFromRemoteAsync(String siteId, String remoteName, String remoteBranch, String mergeStrategy)
+            throws ServiceLayerException, RemoteRepositoryNotFoundException;
+
+    /**
+     * Queue a push to a remote repository to run in the background
+     *
+     * @param siteId site identifier
+     * @param remoteName remote name
+     * @param remoteBranch remote branch
+     * @param force true to force the push
+     * @return the queued operation, to be used for checking its progress
+     * @throws RemoteRepositoryNotFoundException if the remote does not exist
+     * @throws ServiceLayerException if the site already has too many pending operations
+     */
+    RemoteOperation pushToRemoteAsync(String siteId, String remoteName, String remoteBranch, boolean force)
+            throws ServiceLayerException, RemoteRepositoryNotFoundException;
+
+    /**
+     * Get the pending and recently finished background remote operations of a site
+     *
+     * @param siteId site identifier
+     * @return the operations, most recent first
+     */
+    List<RemoteOperation> getRemoteOperations(String siteId) throws SiteNotFoundException;
+
+    /**
+     * Get a background remote operation
+     *
+     * @param siteId site identifier
+     * @param operationId operation identifier
+     * @return the operation
+     */
+    RemoteOperation getRemoteOperation(String siteId, String operationId) throws SiteNotFoundException;
+
+    /**
+     * Cancel a background remote operation
+     *
+     * @param siteId site identifier
+     * @param operationId operation identifier
+     * @return the operation
+     */
+    RemoteOperation cancelRemoteOperation(String siteId, String operationId) throws SiteNotFoundException;
+
     boolean removeRemote(String siteId, String remoteName)
             throws SiteNotFoundException, RemoteNotRemovableException;
 
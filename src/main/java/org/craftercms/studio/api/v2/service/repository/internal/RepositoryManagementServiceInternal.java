@@ -26,9 +26,13 @@ import org.craftercms.studio.api.v2.dal.DiffConflictedFile;
 import org.craftercms.studio.api.v2.dal.RemoteRepository;
 import org.craftercms.studio.api.v2.dal.RemoteRepositoryInfo;
 import org.craftercms.studio.api.v2.dal.RepositoryStatus;
+import org.craftercms.studio.api.v2.exception.RemoteOperationQueueFullException;
 import org.craftercms.studio.api.v2.service.repository.MergeResult;
+import org.craftercms.studio.api.v2.service.repository.RemoteOperation;
 
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 public interface RepositoryManagementServiceInternal {
 
@@ -46,6 +50,68 @@ public interface RepositoryManagementServiceInternal {
             throws ServiceLayerException, InvalidRemoteUrlException,
             InvalidRemoteRepositoryCredentialsException, RemoteRepositoryNotFoundException;
 
+    /**
+     * Queue a pull from a remote repository to run in the background
+     *
+     * @param siteId site identifier
+     * @param remoteName remote name
+     * @param remoteBranch remote branch
+     * @param mergeStrategy merge strategy
+     * @param callback called in the background once the pull has run, even if the merge has conflicts, but not if
+     *                 it fails or is cancelled
+     * @return the queued operation
+     * @throws RemoteRepositoryNotFoundException if the remote does not exist
+     * @throws RemoteOperationQueueFullException if the site already has too many pending operations
+     */
+    RemoteOperation submitPullFromRemote(String siteId, String remoteName, String remoteBranch, String mergeStrategy,
+                                         Consumer<RemoteOperation> callback)
+            throws RemoteRepositoryNotFoundException, RemoteOperationQueueFullException;
+
+    /**
+     * Queue a push to a remote repository to run in the background
+     *
+     * @param siteId site identifier
+     * @param remoteName remote name
+     * @param remoteBranch remote branch
+     * @param force true to force the push
+     * @param callback called in the background once the push has run, even if it was rejected, but not if it fails
+     *                 or is cancelled
+     * @return the queued operation
+     * @throws RemoteRepositoryNotFoundException if the remote does not exist
+     * @throws RemoteOperationQueueFullException if the site already has too many pending operations
+     */
+    RemoteOperation submitPushToRemote(String siteId, String remoteName, String remoteBranch, boolean force,
+                                       Consumer<RemoteOperation> callback)
+            throws RemoteRepositoryNotFoundException, RemoteOperationQueueFullException;
+
+    /**
+     * Get the background remote operations of a site, most recent first
+     *
+     * @param siteId site identifier
+     * @return the pending and recently finished operations
+     */
+    List<RemoteOperation> getRemoteOperations(String siteId);
+
+    /**
+     * Get a background remote operation
+     *
+     * @param siteId site identifier
+     * @param operationId operation identifier
+     * @return the operation
+     * @throws NoSuchElementException if the operation does not exist in the site
+     */
+    RemoteOperation getRemoteOperation(String siteId, String operationId);
+
+    /**
+     * Cancel a background remote operation, it is a no-op if the operation is already finished
+     *
+     * @param siteId site identifier
+     * @param operationId operation identifier
+     * @return the operation
+     * @throws NoSuchElementException if the operation does not exist in the site
+     */
+    RemoteOperation cancelRemoteOperation(String siteId, String operationId);
+
     boolean removeRemote(String siteId, String remoteName) throws RemoteNotRemovableException;
 
     RepositoryStatus getRepositoryStatus(String siteId) throws ServiceLayerException;
@@ -167,6 +167,23 @@ public interface SitesService {
      * @return the last commit id
      */
     String getLastCommitId(String siteId);
+
+    /**
+     * Update a site's last commit id indexed by the authoring search
+     *
+     * @param siteId   site id
+     * @param commitId commit id
+     */
+    void updateLastIndexedCommitId(String siteId, String commitId);
+
+    /**
+     * Get the last commit id indexed by the authoring search for the given site
+     *
+     * @param siteId site id
+     * @return the last indexed commit id
+     */
+    String getLastIndexedCommitId(String siteId);
+
     /**
      * Duplicate a site
      *
@@ -20,6 +20,7 @@ import org.craftercms.studio.api.v2.dal.Workflow;
 import org.craftercms.studio.api.v2.dal.WorkflowItem;
 import org.craftercms.studio.model.rest.dashboard.DashboardPublishingPackage;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface WorkflowServiceInternal {
@@ -34,6 +35,31 @@ public interface WorkflowServiceInternal {
      */
     WorkflowItem getWorkflowEntry(String siteId, String path);
 
+    /**
+     * Get the workflow entries for a set of items using a single query
+     * @param siteId site identifier
+     * @param paths paths of the items
+     * @return list of workflow entries, items without entries are not included
+     */
+    List<WorkflowItem> getWorkflowEntries(String siteId, Collection<String> paths);
+
+    /**
+     * Cancel the workflow for a set of items. Cancels the scheduled publish requests, deletes the workflow entries
+     * and clears the workflow state bits of the items using one bulk statement for each, in a single transaction.
+     * @param siteId site identifier
+     * @param paths paths of the items
+     */
+    void cancelWorkflow(String siteId, Collection<String> paths);
+
+    /**
+     * Cancel the workflow for all the items in a workflow package, same as
+     * {@link #cancelWorkflow(String, Collection)} with the paths of the package
+     * @param siteId site identifier
+     * @param packageId workflow package identifier
+     * @return paths of the items in the package
+     */
+    List<String> cancelPackageWorkflow(String siteId, String packageId);
+
     /**
      * Get workflow entry for approval
      * @param itemId item identifier
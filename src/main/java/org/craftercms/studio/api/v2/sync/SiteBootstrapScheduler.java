@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.craftercms.studio.api.v2.sync;
+
+/**
+ * Registers the existing sites for repository events after the system bootstrap, and syncs the database of the
+ * ones that have commits that were not processed yet.
+ */
+public interface SiteBootstrapScheduler {
+
+    /**
+     * Get the progress of the site bootstrap
+     * @return the state of each site, empty if the bootstrap has not started yet
+     */
+    SiteBootstrapStatus getStatus();
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.craftercms.studio.api.v2.sync;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+/**
+ * Snapshot of the progress of the site bootstrap
+ */
+public class SiteBootstrapStatus {
+
+    public enum SiteState {
+        /**
+         * Waiting for the repository to be opened and registered
+         */
+        PENDING,
+        /**
+         * Registered, waiting for a free slot to sync the database
+         */
+        SYNC_QUEUED,
+        /**
+         * Syncing the database with the repository
+         */
+        SYNCING,
+        READY,
+        FAILED
+    }
+
+    protected final ZonedDateTime startedOn;
+    protected final ZonedDateTime finishedOn;
+    protected final Map<String, SiteState> sites;
+
+    public SiteBootstrapStatus(ZonedDateTime startedOn, ZonedDateTime finishedOn, Map<String, SiteState> sites) {
+        this.startedOn = startedOn;
+        this.finishedOn = finishedOn;
+        this.sites = sites;
+    }
+
+    public ZonedDateTime getStartedOn() {
+        return startedOn;
+    }
+
+    public ZonedDateTime getFinishedOn() {
+        return finishedOn;
+    }
+
+    public boolean isFinished() {
+        return finishedOn != null;
+    }
+
+    public Map<String, SiteState> getSites() {
+        return sites;
+    }
+
+    public int getTotal() {
+        return sites.size();
+    }
+
+    public long getReady() {
+        return sites.values().stream().filter(state -> state == SiteState.READY).count();
+    }
+
+    public long getFailed() {
+        return sites.values().stream().filter(state -> state == SiteState.FAILED).count();
+    }
+
+}
@@ -1323,7 +1323,7 @@ public class GitRepositoryHelper implements DisposableBean {
      * @param site the site
      * @param paths the paths
      */
-    private void restorePaths(Repository repo, String site, String... paths) {
+    public void restorePaths(Repository repo, String site, String... paths) {
         // TODO: JM: Refactor this class to implement Strategy pattern and get rid of these if-else statements
         if (gitCliEnabled) {
             try {
@@ -41,11 +41,15 @@ public interface StudioConfiguration {
     String REPO_COMMIT_MESSAGE_PROLOGUE = "studio.repo.commitMessagePrologue";
     String REPO_COMMIT_MESSAGE_POSTSCRIPT = "studio.repo.commitMessagePostscript";
     String REPO_SANDBOX_WRITE_COMMIT_MESSAGE = "studio.repo.sandbox.write.commitMessage";
+    String REPO_SANDBOX_WRITE_MULTIPLE_COMMIT_MESSAGE = "studio.repo.sandbox.writeMultiple.commitMessage";
     String REPO_PUBLISHED_COMMIT_MESSAGE = "studio.repo.published.commitMessage";
     String REPO_PUBLISHED_LIVE = "studio.repo.published.live";
     String REPO_PUBLISHED_STAGING = "studio.repo.published.staging";
     String REPO_SYNC_DB_COMMIT_MESSAGE_NO_PROCESSING = "studio.repo.syncDB.commitMessage.noProcessing";
     String REPO_CLEANUP_CRON = "studio.repo.cleanup.cron";
+    String REPO_STARTUP_CLEANUP_THREAD_COUNT = "studio.repo.startupCleanup.threadCount";
+    String REPO_STARTUP_CLEANUP_TIMEOUT_SECONDS = "studio.repo.startupCleanup.timeoutSeconds";
+    String REPO_DUPLICATE_SHARE_OBJECTS = "studio.repo.duplicate.shareObjects";
     String REPO_CREATE_REPOSITORY_COMMIT_MESSAGE = "studio.repo.createRepository.commitMessage";
     String REPO_CREATE_SANDBOX_BRANCH_COMMIT_MESSAGE = "studio.repo.createSandboxBranch.commitMessage";
     String REPO_INITIAL_COMMIT_COMMIT_MESSAGE = "studio.repo.initialCommit.commitMessage";
@@ -60,12 +64,30 @@ public interface StudioConfiguration {
     String REPO_COPY_CONTENT_COMMIT_MESSAGE = "studio.repo.copyContent.commitMessage";
     String REPO_PULL_FROM_REMOTE_CONFLICT_NOTIFICATION_ENABLED =
             "studio.repo.pullFromRemote.conflict.notificationEnabled";
+    String REPO_REMOTE_OPERATIONS_MAX_PENDING_PER_SITE = "studio.repo.remoteOperations.maxPendingPerSite";
+    String REPO_REMOTE_OPERATIONS_RETENTION_MINUTES = "studio.repo.remoteOperations.retentionMinutes";
+    String REPO_REMOTE_OPERATIONS_EXECUTOR_POOL_SIZE = "studio.repo.remoteOperations.executor.poolSize";
     String REPO_IGNORE_FILES = "studio.repo.ignoreFiles";
     String REPO_RETRYING_OPERATION_MAX_ATTEMPTS = "studio.repo.retryingOperation.maxAttempts";
     String REPO_RETRYING_OPERATION_MAX_SLEEP = "studio.repo.retryingOperation.maxSleep";
 
     String REPO_SYNC_EVENT_DELAY_MILLIS = "studio.repo.sync.event.delayMillis";
     String REPO_SYNC_EVENT_MAX_RESET_COUNT = "studio.repo.sync.event.maxResets";
+    String SITE_BOOTSTRAP_THREAD_COUNT = "studio.repo.sync.bootstrap.threadCount";
+    String SITE_BOOTSTRAP_SYNC_CONCURRENCY = "studio.repo.sync.bootstrap.syncConcurrency";
+    String SITE_BOOTSTRAP_TIMEOUT_SECONDS = "studio.repo.sync.bootstrap.timeoutSeconds";
+
+    /** Metrics **/
+    String METRICS_ENABLED = "studio.metrics.enabled";
+    String MONITORING_LOG_EVENTS_CAPACITY = "studio.monitoring.logEvents.capacity";
+    String MONITORING_LOG_EVENTS_MAX_SITES = "studio.monitoring.logEvents.maxSites";
+
+    /** Event Broadcasting **/
+    String EVENTS_BROADCAST_BATCH_ENABLED = "studio.events.broadcast.batch.enabled";
+    String EVENTS_BROADCAST_BATCH_WINDOW = "studio.events.broadcast.batch.window";
+    String EVENTS_BROADCAST_BATCH_MAX_SIZE = "studio.events.broadcast.batch.maxSize";
+    String WEBSOCKET_SEND_BUFFER_SIZE_LIMIT = "studio.websocket.sendBufferSizeLimit";
+    String WEBSOCKET_SEND_TIME_LIMIT = "studio.websocket.sendTimeLimit";
 
     /** Database */
     String DB_DRIVER = "studio.db.driver";
@@ -167,6 +189,16 @@ public interface StudioConfiguration {
     String NOTIFICATION_TIMEZONE = "studio.notification.timezone";
     /** Activity Service */
     String ACTIVITY_USERNAME_CASE_SENSITIVE = "studio.activity.user.name.caseSensitive";
+    String ACTIVITY_STREAM_WRITE_BEHIND_ENABLED = "studio.activity.stream.writeBehind.enabled";
+    String ACTIVITY_STREAM_WRITE_BEHIND_FLUSH_INTERVAL = "studio.activity.stream.writeBehind.flushInterval";
+    String ACTIVITY_STREAM_WRITE_BEHIND_BATCH_SIZE = "studio.activity.stream.writeBehind.batchSize";
+    String ACTIVITY_STREAM_WRITE_BEHIND_QUEUE_CAPACITY = "studio.activity.stream.writeBehind.queueCapacity";
+
+    /** Audit Service */
+    String AUDIT_PARAMETERS_BATCH_SIZE = "studio.audit.parameters.batchSize";
+    String AUDIT_PARTITIONS_CRON = "studio.audit.partitions.cron";
+    String AUDIT_PARTITIONS_MONTHS_AHEAD = "studio.audit.partitions.monthsAhead";
+    String AUDIT_RETENTION_MONTHS = "studio.audit.retention.months";
 
     /** Object State Service */
     String OBJECT_STATE_BULK_OPERATIONS_BATCH_SIZE = "studio.objectState.bulkOperationsBatchSize";
@@ -187,10 +219,14 @@ public interface StudioConfiguration {
 
     /** Page Navigation Order Service */
     String PAGE_NAVIGATION_ORDER_INCREMENT = "studio.pageNavigationOrder.increment";
+    String PAGE_NAVIGATION_ORDER_RESERVATION_SIZE = "studio.pageNavigationOrder.reservation.size";
+    String PAGE_NAVIGATION_ORDER_RESERVATION_CACHE_CONFIG = "studio.pageNavigationOrder.reservation.cache.config";
 
     /** Content Processors */
     String CONTENT_PROCESSOR_CONTENT_LIFE_CYCLE_SCRIPT_LOCATION =
             "studio.contentProcessor.contentLifeCycle.scriptLocation";
+    String CONTENT_PROCESSOR_CONTENT_LIFE_CYCLE_SCRIPT_CACHE_CONFIG =
+            "studio.contentProcessor.contentLifeCycle.scriptCache.config";
 
     /** Email Service */
     String MAIL_FROM_DEFAULT = "studio.mail.from.default";
@@ -202,6 +238,10 @@ public interface StudioConfiguration {
     String MAIL_SMTP_START_TLS_ENABLE = "studio.mail.smtp.starttls.enable";
     String MAIL_SMTP_EHLO = "studio.mail.smtp.ehlo";
     String MAIL_DEBUG = "studio.mail.debug";
+    String MAIL_QUEUE_CAPACITY = "studio.mail.queue.capacity";
+    String MAIL_QUEUE_POLL_INTERVAL = "studio.mail.queue.pollInterval";
+    String MAIL_QUEUE_MAX_RETRIES = "studio.mail.queue.maxRetries";
+    String MAIL_QUEUE_RETRY_DELAY = "studio.mail.queue.retryDelay";
 
     /** Content Types Filter Patterns */
     String CONTENT_TYPES_FILTER_PAGES_INCLUDE_PATTERN = "studio.contentTypes.filter.pages.includePattern";
@@ -217,6 +257,9 @@ public interface StudioConfiguration {
     String PREVIEW_DISABLE_DEPLOY_CRON = "studio.preview.disableDeployCron";
     String PREVIEW_TEMPLATE_NAME = "studio.preview.templateName";
     String PREVIEW_REPO_URL = "studio.preview.repoUrl";
+    String PREVIEW_PROXY_CONNECT_TIMEOUT = "studio.preview.proxy.connectTimeout";
+    String PREVIEW_PROXY_REQUEST_TIMEOUT = "studio.preview.proxy.requestTimeout";
+    String PREVIEW_PROXY_ROUTE_CACHE_CONFIG = "studio.preview.proxy.routeCache.config";
 
     /** Authoring Deployer **/
     String AUTHORING_REPLACE = "studio.authoring.replace";
@@ -228,6 +271,16 @@ public interface StudioConfiguration {
 
     /** Asset processing **/
     String CONFIGURATION_ASSET_PROCESSING_TINIFY_API_KEY = "studio.configuration.asset.processing.tinify.apiKey";
+    String CONFIGURATION_ASSET_PROCESSING_IMAGE_MAGICK_POOL_SIZE =
+            "studio.configuration.asset.processing.imageMagick.poolSize";
+    String CONFIGURATION_ASSET_PROCESSING_IMAGE_MAGICK_QUEUE_CAPACITY =
+            "studio.configuration.asset.processing.imageMagick.queueCapacity";
+    String CONFIGURATION_ASSET_PROCESSING_IMAGE_MAGICK_TIMEOUT =
+            "studio.configuration.asset.processing.imageMagick.timeoutSeconds";
+    String CONFIGURATION_ASSET_PROCESSING_DERIVATIVE_CACHE_ENABLED =
+            "studio.configuration.asset.processing.derivativeCache.enabled";
+    String CONFIGURATION_ASSET_PROCESSING_DERIVATIVE_CACHE_CONFIG =
+            "studio.configuration.asset.processing.derivativeCache.config";
 
     /** Upgrade Configuration **/
     String UPGRADE_BRANCH_NAME = "studio.upgrade.branchName";
@@ -246,6 +299,9 @@ public interface StudioConfiguration {
     String UPGRADE_PIPELINE_BLUEPRINT = "studio.upgrade.pipeline.blueprint";
     String UPGRADE_PIPELINE_CONFIGURATIONS = "studio.upgrade.pipeline.configurations";
     String UPGRADE_SCRIPT_FOLDER = "studio.upgrade.scriptFolder";
+    String UPGRADE_DB_SITE_THREAD_COUNT = "studio.upgrade.db.siteThreadCount";
+    String UPGRADE_DB_FAIL_ON_SITE_ERRORS = "studio.upgrade.db.failOnSiteErrors";
+    String UPGRADE_SITES_THREAD_COUNT = "studio.upgrade.sites.threadCount";
 
     /** Serverless Delivery Configuration **/
     String SERVERLESS_DELIVERY_ENABLED = "studio.serverless.delivery.enabled";
@@ -274,6 +330,8 @@ public interface StudioConfiguration {
             "studio.clockJob.task.publisher.executeEveryNCycles";
     String CLOCK_JOB_TASK_PUBLISHER_MAX_RETRY_COUNT =
             "studio.clockJob.task.publisher.maxRetryCount";
+    String CLOCK_JOB_TASK_SEARCH_INDEX_EXECUTE_EVERY_N_CYCLES =
+            "studio.clockJob.task.searchIndex.executeEveryNCycles";
 
     String PLUGIN_BASE_PATTERN = "studio.configuration.plugin.base.pattern";
 
@@ -306,6 +364,9 @@ public interface StudioConfiguration {
     String SEARCH_NUMBER_OF_SNIPPETS = "studio.search.snippets.number";
     String SEARCH_DEFAULT_TYPE = "studio.search.default.type";
     String SEARCH_KEYWORD_SPLIT_REGEX = "studio.search.keyword.split.regex";
+    String SEARCH_CACHE_TTL_SECONDS = "studio.search.cache.ttlSeconds";
+    String SEARCH_CACHE_MAX_SIZE = "studio.search.cache.maxSize";
+    String SEARCH_CACHE_INVALIDATION_GRACE_SECONDS = "studio.search.cache.invalidationGraceSeconds";
 
     // Blob
     String BLOB_STORES_CONFIG_PATH = "studio.blob.config.path";
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.api.v2.utils.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated execution times of a single method. Keeps counters, the total and max time, and a fixed-bucket
+ * histogram used to estimate percentiles. All updates are lock-free.
+ *
+ * @since 4.2.0
+ */
+public class MethodTimer {
+
+    /**
+     * Upper bounds in milliseconds of the histogram buckets, an extra bucket holds everything above the last one
+     */
+    private static final long[] BUCKETS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS.length + 1);
+
+    public MethodTimer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a single execution of the method
+     *
+     * @param nanos the execution time in nanoseconds
+     * @param error true if the execution ended with an exception
+     */
+    public void record(long nanos, boolean error) {
+        count.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        histogram.incrementAndGet(getBucket(TimeUnit.NANOSECONDS.toMillis(nanos)));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getTotalTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+    }
+
+    public double getAverageTime() {
+        long currentCount = count.sum();
+        return currentCount > 0 ? (totalNanos.sum() / (double) currentCount) / 1_000_000 : 0;
+    }
+
+    public long getMaxTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    public long getP50() {
+        return getPercentile(0.5);
+    }
+
+    public long getP95() {
+        return getPercentile(0.95);
+    }
+
+    public long getP99() {
+        return getPercentile(0.99);
+    }
+
+    /**
+     * Estimates a percentile of the execution time using the histogram
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the upper bound in milliseconds of the bucket containing the percentile
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[histogram.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * percentile);
+        long accumulated = 0;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            accumulated += counts[i];
+            if (accumulated >= threshold) {
+                return BUCKETS[i];
+            }
+        }
+        // Everything above the last bucket, the max is the best estimate available
+        return getMaxTime();
+    }
+
+    private static int getBucket(long millis) {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            if (millis <= BUCKETS[i]) {
+                return i;
+            }
+        }
+        return BUCKETS.length;
+    }
+
+}
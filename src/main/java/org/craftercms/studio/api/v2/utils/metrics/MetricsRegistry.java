@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.api.v2.utils.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Holds the {@link MethodTimer}s for the methods annotated with
+ * {@link org.craftercms.studio.api.v2.annotation.LogExecutionTime}. When disabled nothing is recorded, so callers
+ * should check {@link #isEnabled()} before measuring anything.
+ *
+ * @since 4.2.0
+ */
+public class MetricsRegistry {
+
+    private final Map<Object, MethodTimer> timers = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the timer for the given key, creating it if needed
+     *
+     * @param key the key for the timer, usually the {@link java.lang.reflect.Method}
+     * @param name supplier for the name of the timer, only called the first time
+     * @return the timer
+     */
+    public MethodTimer getTimer(Object key, Supplier<String> name) {
+        MethodTimer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> new MethodTimer(name.get()));
+        }
+        return timer;
+    }
+
+    /**
+     * Returns all the timers, the ones with the highest total time first
+     */
+    public List<MethodTimer> getTimers() {
+        return timers.values().stream()
+                .sorted(Comparator.comparingLong(MethodTimer::getTotalTime).reversed())
+                .collect(toList());
+    }
+
+    /**
+     * Discards all the recorded metrics
+     */
+    public void reset() {
+        timers.clear();
+    }
+
+}
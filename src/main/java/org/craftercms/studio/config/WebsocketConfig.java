@@ -22,9 +22,12 @@ import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 import static org.craftercms.commons.spring.cors.FixedCorsConfigurationSource.getOrigins;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_CORS_ALLOWED_ORIGINS;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.WEBSOCKET_SEND_BUFFER_SIZE_LIMIT;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.WEBSOCKET_SEND_TIME_LIMIT;
 
 /**
  * Spring Websocket Configuration
@@ -64,4 +67,12 @@ public class WebsocketConfig implements WebSocketMessageBrokerConfigurer {
             .enableSimpleBroker("/topic");
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registry) {
+        registry
+            // Bound the messages buffered for each session, slow clients are disconnected instead of using memory
+            .setSendBufferSizeLimit(studioConfiguration.getProperty(WEBSOCKET_SEND_BUFFER_SIZE_LIMIT, Integer.class))
+            .setSendTimeLimit(studioConfiguration.getProperty(WEBSOCKET_SEND_TIME_LIMIT, Integer.class));
+    }
+
 }
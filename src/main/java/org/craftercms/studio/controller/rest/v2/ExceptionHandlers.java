@@ -349,6 +349,14 @@ public class ExceptionHandlers {
         return handleExceptionInternal(request, e, response);
     }
 
+    @ExceptionHandler(RemoteOperationQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseBody handleRemoteOperationQueueFullException(HttpServletRequest request,
+                                                                RemoteOperationQueueFullException e) {
+        ApiResponse response = new ApiResponse(ApiResponse.REMOTE_OPERATION_QUEUE_FULL);
+        return handleExceptionInternal(request, e, response);
+    }
+
     @ExceptionHandler(ContentNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ResponseBody handleContentNotFoundException(HttpServletRequest request, ContentNotFoundException e) {
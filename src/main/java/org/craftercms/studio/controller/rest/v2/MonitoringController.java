@@ -20,9 +20,12 @@ import org.craftercms.commons.exceptions.InvalidManagementTokenException;
 import org.craftercms.commons.monitoring.MemoryInfo;
 import org.craftercms.commons.monitoring.StatusInfo;
 import org.craftercms.commons.monitoring.VersionInfo;
+import org.craftercms.commons.validation.annotations.param.ValidSiteId;
 import org.craftercms.studio.api.v1.service.security.SecurityService;
 import org.craftercms.studio.api.v2.exception.InvalidParametersException;
 import org.craftercms.studio.api.v2.service.monitor.MonitorService;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapStatus;
+import org.craftercms.studio.api.v2.utils.metrics.MethodTimer;
 import org.craftercms.studio.api.v2.utils.StudioConfiguration;
 import org.craftercms.studio.model.rest.ApiResponse;
 import org.craftercms.studio.model.rest.ResultList;
@@ -34,6 +37,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.beans.ConstructorProperties;
 import java.io.IOException;
 import java.util.Map;
@@ -44,7 +48,10 @@ import static org.craftercms.commons.monitoring.rest.MonitoringRestControllerBas
 import static org.craftercms.commons.monitoring.rest.MonitoringRestControllerBase.VERSION_URL;
 import static org.craftercms.engine.controller.rest.MonitoringController.LOG_URL;
 import static org.craftercms.studio.controller.rest.v2.ResultConstants.RESULT_KEY_EVENTS;
+import static org.craftercms.studio.controller.rest.v2.ResultConstants.RESULT_KEY_IMAGE_TRANSFORMATION;
 import static org.craftercms.studio.controller.rest.v2.ResultConstants.RESULT_KEY_MEMORY;
+import static org.craftercms.studio.controller.rest.v2.ResultConstants.RESULT_KEY_METRICS;
+import static org.craftercms.studio.controller.rest.v2.ResultConstants.RESULT_KEY_SITE_BOOTSTRAP;
 import static org.craftercms.studio.controller.rest.v2.ResultConstants.RESULT_KEY_STATUS;
 import static org.craftercms.studio.controller.rest.v2.ResultConstants.RESULT_KEY_VERSION;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -58,6 +65,11 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @RequestMapping("/api/2")
 public class MonitoringController extends ManagementTokenAware {
 
+    public static final String METRICS_URL = "/metrics";
+    public static final String LOG_EVENTS_URL = "/log/events";
+    public static final String SITE_BOOTSTRAP_URL = "/site_bootstrap";
+    public static final String IMAGE_TRANSFORMATION_URL = "/image_transformation";
+
     protected final MonitorService monitorService;
 
     @ConstructorProperties({"studioConfiguration", "securityService", "monitorService"})
@@ -97,13 +109,56 @@ public class MonitoringController extends ManagementTokenAware {
     }
 
     @GetMapping(value = ROOT_URL + LOG_URL, produces = APPLICATION_JSON_VALUE)
-    public ResultList<Map<String,Object>> getLogEvents(@Positive @RequestParam long since,
+    public ResultList<Map<String,Object>> getLogEvents(@ValidSiteId @RequestParam(required = false) String siteId,
+                                                       @Positive @RequestParam long since,
                                                        @RequestParam(name = "token", required = false) String token)
         throws InvalidManagementTokenException, InvalidParametersException {
         validateToken(token);
         ResultList<Map<String, Object>> result = new ResultList<>();
         result.setResponse(ApiResponse.OK);
-        result.setEntities(RESULT_KEY_EVENTS, monitorService.getLogEvents("craftercms", since));
+        result.setEntities(RESULT_KEY_EVENTS, monitorService.getLogEvents(siteId, since));
+        return result;
+    }
+
+    @GetMapping(value = ROOT_URL + LOG_EVENTS_URL, produces = APPLICATION_JSON_VALUE)
+    public ResultList<Map<String,Object>> getLogEventsFromSequence(@ValidSiteId @RequestParam(required = false) String siteId,
+                                                                   @PositiveOrZero @RequestParam long sequence,
+                                                                   @RequestParam(name = "token", required = false) String token)
+        throws InvalidManagementTokenException, InvalidParametersException {
+        validateToken(token);
+        ResultList<Map<String, Object>> result = new ResultList<>();
+        result.setResponse(ApiResponse.OK);
+        result.setEntities(RESULT_KEY_EVENTS, monitorService.getLogEventsFromSequence(siteId, sequence));
+        return result;
+    }
+
+    @GetMapping(value = ROOT_URL + METRICS_URL, produces = APPLICATION_JSON_VALUE)
+    public ResultList<MethodTimer> getMetrics(@RequestParam(name = "token", required = false) String token)
+        throws InvalidManagementTokenException, InvalidParametersException {
+        validateToken(token);
+        ResultList<MethodTimer> result = new ResultList<>();
+        result.setResponse(ApiResponse.OK);
+        result.setEntities(RESULT_KEY_METRICS, monitorService.getMetrics());
+        return result;
+    }
+
+    @GetMapping(value = ROOT_URL + SITE_BOOTSTRAP_URL, produces = APPLICATION_JSON_VALUE)
+    public ResultOne<SiteBootstrapStatus> getSiteBootstrapStatus(@RequestParam(name = "token", required = false) String token)
+        throws InvalidManagementTokenException, InvalidParametersException {
+        validateToken(token);
+        ResultOne<SiteBootstrapStatus> result = new ResultOne<>();
+        result.setResponse(ApiResponse.OK);
+        result.setEntity(RESULT_KEY_SITE_BOOTSTRAP, monitorService.getSiteBootstrapStatus());
+        return result;
+    }
+
+    @GetMapping(value = ROOT_URL + IMAGE_TRANSFORMATION_URL, produces = APPLICATION_JSON_VALUE)
+    public ResultOne<Map<String, Object>> getImageTransformationStatistics(@RequestParam(name = "token", required = false) String token)
+        throws InvalidManagementTokenException, InvalidParametersException {
+        validateToken(token);
+        ResultOne<Map<String, Object>> result = new ResultOne<>();
+        result.setResponse(ApiResponse.OK);
+        result.setEntity(RESULT_KEY_IMAGE_TRANSFORMATION, monitorService.getImageTransformationStatistics());
         return result;
     }
 
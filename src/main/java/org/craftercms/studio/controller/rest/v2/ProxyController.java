@@ -24,7 +24,9 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.beans.ConstructorProperties;
+import java.io.IOException;
 import java.net.URISyntaxException;
 
 import static org.craftercms.studio.controller.rest.v2.RequestMappingConstants.*;
@@ -55,12 +57,14 @@ public class ProxyController {
     }
 
 
+    /**
+     * The request body is not bound so it can be streamed to Crafter Engine
+     */
     @RequestMapping(ALL_SUB_URLS)
-    public ResponseEntity<Object> proxyEngine(@RequestBody(required = false) final String body,
-                                              @ValidSiteId @RequestParam("crafterSite") final String siteId,
-                                              final HttpServletRequest request)
-            throws URISyntaxException, SiteNotFoundException {
-        return proxyService.proxyEngine(body, siteId, request);
+    public void proxyEngine(@ValidSiteId @RequestParam("crafterSite") final String siteId,
+                            final HttpServletRequest request, final HttpServletResponse response)
+            throws URISyntaxException, IOException, SiteNotFoundException {
+        proxyService.proxyEngine(siteId, request, response);
     }
 
 }
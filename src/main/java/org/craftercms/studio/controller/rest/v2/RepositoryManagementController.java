@@ -30,6 +30,7 @@ import org.craftercms.studio.api.v2.dal.RemoteRepository;
 import org.craftercms.studio.api.v2.dal.RemoteRepositoryInfo;
 import org.craftercms.studio.api.v2.dal.RepositoryStatus;
 import org.craftercms.studio.api.v2.service.repository.MergeResult;
+import org.craftercms.studio.api.v2.service.repository.RemoteOperation;
 import org.craftercms.studio.api.v2.service.repository.RepositoryManagementService;
 import org.craftercms.studio.model.rest.*;
 import org.springframework.http.HttpStatus;
@@ -42,6 +43,7 @@ import java.beans.ConstructorProperties;
 import java.util.List;
 
 import static org.craftercms.studio.api.v1.constant.StudioConstants.FILE_SEPARATOR;
+import static org.craftercms.studio.controller.rest.v2.RequestConstants.REQUEST_PARAM_ID;
 import static org.craftercms.studio.controller.rest.v2.RequestConstants.REQUEST_PARAM_PATH;
 import static org.craftercms.studio.controller.rest.v2.RequestConstants.REQUEST_PARAM_SITEID;
 import static org.craftercms.studio.controller.rest.v2.RequestMappingConstants.*;
@@ -120,6 +122,69 @@ public class RepositoryManagementController {
         return result;
     }
 
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PostMapping(PULL_FROM_REMOTE_ASYNC)
+    public ResultOne<RemoteOperation> pullFromRemoteAsync(@Valid @RequestBody PullFromRemoteRequest pullFromRemoteRequest)
+            throws ServiceLayerException, RemoteRepositoryNotFoundException {
+        RemoteOperation operation = repositoryManagementService.pullFromRemoteAsync(pullFromRemoteRequest.getSiteId(),
+                pullFromRemoteRequest.getRemoteName(), pullFromRemoteRequest.getRemoteBranch(),
+                pullFromRemoteRequest.getMergeStrategy());
+
+        ResultOne<RemoteOperation> result = new ResultOne<>();
+        result.setResponse(OK);
+        result.setEntity(RESULT_KEY_REMOTE_OPERATION, operation);
+        return result;
+    }
+
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PostMapping(PUSH_TO_REMOTE_ASYNC)
+    public ResultOne<RemoteOperation> pushToRemoteAsync(@Valid @RequestBody PushToRemoteRequest pushToRemoteRequest)
+            throws ServiceLayerException, RemoteRepositoryNotFoundException {
+        RemoteOperation operation = repositoryManagementService.pushToRemoteAsync(pushToRemoteRequest.getSiteId(),
+                pushToRemoteRequest.getRemoteName(), pushToRemoteRequest.getRemoteBranch(),
+                pushToRemoteRequest.isForce());
+
+        ResultOne<RemoteOperation> result = new ResultOne<>();
+        result.setResponse(OK);
+        result.setEntity(RESULT_KEY_REMOTE_OPERATION, operation);
+        return result;
+    }
+
+    @GetMapping(value = REMOTE_OPERATIONS, produces = APPLICATION_JSON_VALUE)
+    public ResultList<RemoteOperation> getRemoteOperations(@ValidSiteId @RequestParam(value = REQUEST_PARAM_SITEID) String siteId)
+            throws SiteNotFoundException {
+        List<RemoteOperation> operations = repositoryManagementService.getRemoteOperations(siteId);
+
+        ResultList<RemoteOperation> result = new ResultList<>();
+        result.setEntities(RESULT_KEY_REMOTE_OPERATIONS, operations);
+        result.setResponse(OK);
+        return result;
+    }
+
+    @GetMapping(value = REMOTE_OPERATIONS + PATH_PARAM_ID, produces = APPLICATION_JSON_VALUE)
+    public ResultOne<RemoteOperation> getRemoteOperation(@ValidSiteId @RequestParam(value = REQUEST_PARAM_SITEID) String siteId,
+                                                         @PathVariable(REQUEST_PARAM_ID) String operationId)
+            throws SiteNotFoundException {
+        RemoteOperation operation = repositoryManagementService.getRemoteOperation(siteId, operationId);
+
+        ResultOne<RemoteOperation> result = new ResultOne<>();
+        result.setEntity(RESULT_KEY_REMOTE_OPERATION, operation);
+        result.setResponse(OK);
+        return result;
+    }
+
+    @PostMapping(REMOTE_OPERATIONS + PATH_PARAM_ID + CANCEL)
+    public ResultOne<RemoteOperation> cancelRemoteOperation(@ValidSiteId @RequestParam(value = REQUEST_PARAM_SITEID) String siteId,
+                                                            @PathVariable(REQUEST_PARAM_ID) String operationId)
+            throws SiteNotFoundException {
+        RemoteOperation operation = repositoryManagementService.cancelRemoteOperation(siteId, operationId);
+
+        ResultOne<RemoteOperation> result = new ResultOne<>();
+        result.setEntity(RESULT_KEY_REMOTE_OPERATION, operation);
+        result.setResponse(OK);
+        return result;
+    }
+
     @PostMapping(REMOVE_REMOTE)
     public Result removeRemote(HttpServletResponse response, @Valid @RequestBody RemoveRemoteRequest removeRemoteRequest)
             throws SiteNotFoundException, RemoteNotRemovableException {
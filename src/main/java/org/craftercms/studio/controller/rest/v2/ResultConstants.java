@@ -54,9 +54,14 @@ public final class ResultConstants {
     public static final String RESULT_KEY_VERSION = "version";
     public static final String RESULT_KEY_MEMORY = "memory";
     public static final String RESULT_KEY_EVENTS = "events";
+    public static final String RESULT_KEY_METRICS = "metrics";
+    public static final String RESULT_KEY_SITE_BOOTSTRAP = "siteBootstrap";
+    public static final String RESULT_KEY_IMAGE_TRANSFORMATION = "imageTransformation";
 
     /* Repository management controller */
     public static final String RESULT_KEY_REMOTES = "remotes";
+    public static final String RESULT_KEY_REMOTE_OPERATION = "remoteOperation";
+    public static final String RESULT_KEY_REMOTE_OPERATIONS = "remoteOperations";
     public static final String RESULT_KEY_REPOSITORY_STATUS = "repositoryStatus";
     public static final String RESULT_KEY_DIFF = "diff";
 
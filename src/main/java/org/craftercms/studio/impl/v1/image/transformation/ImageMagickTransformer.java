@@ -17,18 +17,25 @@ package org.craftercms.studio.impl.v1.image.transformation;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections4.MapUtils;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.craftercms.studio.api.v1.exception.ImageTransformationException;
 import org.craftercms.studio.api.v1.image.transformation.ImageTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.lang.String.format;
+import static org.craftercms.studio.api.v2.utils.StudioUtils.getStudioTemporaryFilesRoot;
+
 /**
  * Transformer that calls ImageMagick from the command line with the options specified in the parameters.
  *
@@ -61,51 +68,67 @@ public class ImageMagickTransformer implements ImageTransformer {
     }
 
     public void transform(Path sourcePath, Path targetPath, Map<String, String> parameters) throws ImageTransformationException {
-        String cmdLine = createCmdLine(sourcePath, targetPath, parameters);
+        List<String> cmdLine = createCmdLine(sourcePath, targetPath, parameters);
+        Path outputFile = null;
+        Process proc = null;
 
         try {
             logger.debug("Executing ImageMagick command '{}'", cmdLine);
 
-            Process proc = Runtime.getRuntime().exec(cmdLine);
-            // TODO: This might hang in certain OS. It's better to first read the stout and stderr before calling waitFor()
-            proc.waitFor(processTimeoutSecs, TimeUnit.SECONDS);
-
-            String stdOut = getProcessStdOut(proc);
-            String stdErr = getProcessStdErr(proc);
+            // Redirect the output to a file so the process never blocks on a full pipe buffer while we wait for it
+            outputFile = Files.createTempFile(getStudioTemporaryFilesRoot(), "imagemagick", ".log");
+            proc = new ProcessBuilder(cmdLine)
+                    .redirectErrorStream(true)
+                    .redirectOutput(outputFile.toFile())
+                    .start();
+
+            if (!proc.waitFor(processTimeoutSecs, TimeUnit.SECONDS)) {
+                proc.destroyForcibly();
+                throw new ImageTransformationException(format("ImageMagick command '%s' timed out after %d seconds",
+                        cmdLine, processTimeoutSecs), null);
+            }
 
-            if (StringUtils.isNotEmpty(stdOut)) {
-                logger.debug("ImageMagick STDOUT for command '{}' is '{}'", cmdLine, stdOut);
+            String output = getProcessOutput(outputFile);
+            if (StringUtils.isNotEmpty(output)) {
+                logger.debug("ImageMagick output for command '{}' is '{}'", cmdLine, output);
             }
-            if (StringUtils.isNotEmpty(stdErr)) {
-                logger.debug("ImageMagick STDERR for command '{}' is '{}'", cmdLine, stdErr);
+            if (proc.exitValue() != 0) {
+                throw new ImageTransformationException(format("ImageMagick command '%s' failed with exit code %d: %s",
+                        cmdLine, proc.exitValue(), output), null);
             }
+        } catch (ImageTransformationException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            // Don't leave the process running when the transformation is cancelled
+            proc.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new ImageTransformationException("Interrupted while running Image Magick process from the command line", e);
         } catch (Exception e) {
             throw new ImageTransformationException("Error while running Image Magick process from the command line", e);
+        } finally {
+            if (outputFile != null) {
+                FileUtils.deleteQuietly(outputFile.toFile());
+            }
         }
     }
 
-
-    private String createCmdLine(Path sourcePath, Path targetPath, Map<String, String> parameters) {
-        StringBuilder cmdLine = new StringBuilder(imgMgkPath);
-
-        cmdLine.append(" ").append(sourcePath.toAbsolutePath().toString());
+    private List<String> createCmdLine(Path sourcePath, Path targetPath, Map<String, String> parameters) {
+        List<String> cmdLine = new ArrayList<>();
+        cmdLine.add(imgMgkPath);
+        cmdLine.add(sourcePath.toAbsolutePath().toString());
 
         String options = MapUtils.getString(parameters, PARAM_OPTIONS);
         if (StringUtils.isNotEmpty(options)) {
-            cmdLine.append(" ").append(options);
+            cmdLine.addAll(Arrays.asList(StringUtils.split(options)));
         }
 
-        cmdLine.append(" ").append(targetPath.toAbsolutePath().toString());
-
-        return cmdLine.toString();
-    }
+        cmdLine.add(targetPath.toAbsolutePath().toString());
 
-    private String getProcessStdOut(Process proc) throws IOException {
-        return IOUtils.toString(proc.getInputStream(), Charset.defaultCharset());
+        return cmdLine;
     }
 
-    private String getProcessStdErr(Process proc) throws IOException {
-        return IOUtils.toString(proc.getErrorStream(), Charset.defaultCharset());
+    private String getProcessOutput(Path outputFile) throws IOException {
+        return StringUtils.trim(Files.readString(outputFile, Charset.defaultCharset()));
     }
 
 }
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.impl.v1.image.transformation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.craftercms.studio.api.v1.exception.ImageTransformationException;
+import org.craftercms.studio.api.v1.image.transformation.ImageTransformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import static java.lang.String.format;
+import static org.craftercms.studio.api.v2.utils.StudioUtils.getStudioTemporaryFilesRoot;
+
+/**
+ * {@link ImageTransformer} that runs the transformations of another transformer in a bounded worker pool, so that
+ * concurrent uploads can't start an unbounded number of external processes. Tasks wait in a bounded queue and are
+ * rejected once it is full, giving callers backpressure instead of piling up work.
+ * <p>
+ * Optionally keeps a cache of the generated derivatives keyed by the content hash of the source and the
+ * transformation parameters, so transforming an identical source again just copies the cached derivative.
+ */
+public class PooledImageTransformer implements ImageTransformer, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledImageTransformer.class);
+
+    private static final String CACHE_FOLDER_NAME = "image-derivatives";
+
+    private final ImageTransformer transformer;
+    private final ThreadPoolExecutor executor;
+    private final int timeoutSecs;
+    private final Cache<String, Path> derivativeCache;
+
+    private final AtomicLong transformCount = new AtomicLong();
+    private final AtomicLong totalTransformTime = new AtomicLong();
+    private final AtomicLong maxTransformTime = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong cacheHitCount = new AtomicLong();
+
+    /**
+     * @param transformer       the actual transformer
+     * @param poolSize          the max number of transformations running at the same time
+     * @param queueCapacity     the max number of transformations waiting for a worker
+     * @param timeoutSecs       the max time to wait for a transformation, including the time it was queued
+     * @param cacheEnabled      if the generated derivatives should be cached
+     * @param cacheSpec         the Guava cache spec for the derivative cache
+     */
+    public PooledImageTransformer(ImageTransformer transformer, int poolSize, int queueCapacity, int timeoutSecs,
+                                  boolean cacheEnabled, String cacheSpec) {
+        this.transformer = transformer;
+        this.timeoutSecs = timeoutSecs;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new BasicThreadFactory.Builder().namingPattern("image-transformer-%d").daemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        if (cacheEnabled) {
+            derivativeCache = CacheBuilder.from(cacheSpec)
+                    .removalListener((RemovalListener<String, Path>) notification -> {
+                        if (notification.getValue() != null) {
+                            FileUtils.deleteQuietly(notification.getValue().toFile());
+                        }
+                    })
+                    .build();
+        } else {
+            derivativeCache = null;
+        }
+    }
+
+    @Override
+    public void transform(Path sourcePath, Path targetPath, Map<String, String> parameters)
+            throws ImageTransformationException {
+        CompletableFuture<Void> future = transformAsync(sourcePath, targetPath, parameters);
+        try {
+            future.get(timeoutSecs, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ImageTransformationException("Interrupted while waiting for image transformation", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ImageTransformationException(format("Image transformation of '%s' timed out after %d seconds",
+                    sourcePath, timeoutSecs), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ImageTransformationException) {
+                throw (ImageTransformationException) e.getCause();
+            }
+            throw new ImageTransformationException(format("Error transforming image '%s'", sourcePath),
+                    e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+    }
+
+    /**
+     * Submits the transformation to the worker pool without waiting for it to complete.
+     *
+     * @param sourcePath    the source image path
+     * @param targetPath    the target path where to put the transformed image.
+     * @param parameters    additional parameters needed by the transformer
+     * @return a future that completes when the transformed image has been written to {@code targetPath}, cancelling
+     * it stops the transformation and leaves {@code targetPath} untouched
+     * @throws ImageTransformationException if the source can't be read or the queue is full
+     */
+    public CompletableFuture<Void> transformAsync(Path sourcePath, Path targetPath, Map<String, String> parameters)
+            throws ImageTransformationException {
+        String cacheKey = getCacheKey(sourcePath, parameters);
+        if (cacheKey != null && copyFromCache(cacheKey, targetPath)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            Future<?> task = executor.submit(() -> {
+                if (future.isCancelled()) {
+                    return;
+                }
+                long start = System.currentTimeMillis();
+                Path tempPath = null;
+                try {
+                    // Write to a temporary file first so a cancelled transformation never leaves a partial target
+                    Path targetFolder = targetPath.toAbsolutePath().getParent();
+                    tempPath = Files.createTempFile(targetFolder, "transforming",
+                            "." + FilenameUtils.getExtension(targetPath.toString()));
+                    transformer.transform(sourcePath, tempPath, parameters);
+                    if (future.isCancelled() || Thread.currentThread().isInterrupted()) {
+                        logger.debug("Image transformation of '{}' was cancelled", sourcePath);
+                        return;
+                    }
+                    Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                    tempPath = null;
+                    recordTransformTime(System.currentTimeMillis() - start);
+                    if (cacheKey != null) {
+                        addToCache(cacheKey, targetPath);
+                    }
+                    future.complete(null);
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    if (tempPath != null) {
+                        FileUtils.deleteQuietly(tempPath.toFile());
+                    }
+                }
+            });
+            // CompletableFuture.cancel doesn't interrupt anything, stop the worker (and the external process) too
+            future.whenComplete((result, error) -> {
+                if (future.isCancelled()) {
+                    task.cancel(true);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new ImageTransformationException(format("Unable to transform image '%s', the transformation " +
+                    "queue is full (%d pending)", sourcePath, executor.getQueue().size()), e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Returns the current metrics of the worker pool and the derivative cache
+     */
+    public Map<String, Object> getStatistics() {
+        long count = transformCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("completedTransforms", count);
+        stats.put("rejectedTransforms", rejectedCount.get());
+        stats.put("averageTransformTimeMs", count > 0 ? totalTransformTime.get() / count : 0);
+        stats.put("maxTransformTimeMs", maxTransformTime.get());
+        stats.put("cacheHits", cacheHitCount.get());
+        stats.put("cacheSize", derivativeCache != null ? derivativeCache.size() : 0);
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        if (derivativeCache != null) {
+            derivativeCache.invalidateAll();
+        }
+    }
+
+    private void recordTransformTime(long time) {
+        transformCount.incrementAndGet();
+        totalTransformTime.addAndGet(time);
+        maxTransformTime.accumulateAndGet(time, Math::max);
+        logger.debug("Image transformation completed in {}ms, {} transformations queued", time,
+                executor.getQueue().size());
+    }
+
+    private String getCacheKey(Path sourcePath, Map<String, String> parameters) throws ImageTransformationException {
+        if (derivativeCache == null) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(sourcePath)) {
+            // Sort the parameters so the key doesn't depend on the map implementation
+            String params = parameters != null ? new TreeMap<>(parameters).toString() : StringUtils.EMPTY;
+            return DigestUtils.sha256Hex(in) + ":" + DigestUtils.sha256Hex(params);
+        } catch (IOException e) {
+            throw new ImageTransformationException(format("Unable to read image '%s'", sourcePath), e);
+        }
+    }
+
+    private boolean copyFromCache(String cacheKey, Path targetPath) {
+        Path cachedFile = derivativeCache.getIfPresent(cacheKey);
+        if (cachedFile != null) {
+            try {
+                Files.copy(cachedFile, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                cacheHitCount.incrementAndGet();
+                logger.debug("Reusing cached derivative '{}' for '{}'", cachedFile, targetPath);
+                return true;
+            } catch (IOException e) {
+                logger.warn("Unable to copy cached derivative '{}', the image will be transformed again",
+                        cachedFile, e);
+                derivativeCache.invalidate(cacheKey);
+            }
+        }
+        return false;
+    }
+
+    private void addToCache(String cacheKey, Path targetPath) {
+        try {
+            Path cacheFolder = Files.createDirectories(getStudioTemporaryFilesRoot().resolve(CACHE_FOLDER_NAME));
+            Path cachedFile = Files.createTempFile(cacheFolder, "derivative",
+                    "." + FilenameUtils.getExtension(targetPath.toString()));
+            Files.copy(targetPath, cachedFile, StandardCopyOption.REPLACE_EXISTING);
+            derivativeCache.put(cacheKey, cachedFile);
+        } catch (IOException e) {
+            logger.warn("Unable to cache derivative '{}'", targetPath, e);
+        }
+    }
+
+}
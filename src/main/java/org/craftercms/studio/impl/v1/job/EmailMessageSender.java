@@ -23,14 +23,27 @@ import org.craftercms.studio.api.v2.utils.StudioConfiguration;
 import org.springframework.mail.javamail.JavaMailSender;
 
 import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 
 import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.MimeMessagePreparator;
+import org.springframework.mail.MailSendException;
 
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.MAIL_FROM_DEFAULT;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.MAIL_SMTP_AUTH;
 
@@ -41,8 +54,16 @@ public class EmailMessageSender implements Runnable {
     protected JavaMailSender emailServiceNoAuth;
     protected EmailMessageQueueTo emailMessages;
     protected StudioConfiguration studioConfiguration;
+    protected int pollInterval = 30;
+    protected int maxRetries = 3;
+    protected int retryDelay = 60;
+    /**
+     * Failed emails waiting for their next attempt, only accessed by the sender thread
+     */
+    protected final PriorityQueue<EmailMessageTO> retries =
+            new PriorityQueue<>(Comparator.comparingLong(EmailMessageTO::getNextAttemptTime));
     private Thread thread;
-    private boolean running;
+    private volatile boolean running;
 
     public String getDefaultFromAddress() {
         return studioConfiguration.getProperty(MAIL_FROM_DEFAULT);
@@ -58,71 +79,133 @@ public class EmailMessageSender implements Runnable {
     public void run() {
         while (running) {
             try {
-                if (emailMessages.size() > 0) {
-                    List<EmailMessageTO> list = emailMessages.getAll();
-                    int size = list.size();
-                    for (int counter = 0; counter < size; counter++) {
-                        EmailMessageTO emailMessage = list.get(counter);
-                        emailMessage.preprocessEmail();
-                        String userEmailAddress = emailMessage.getTo();
-                        String content = emailMessage.getContent();
-                        String subject = emailMessage.getSubject();
-                        String replyTo = emailMessage.getReplyTo();
-                        String personalFromName = emailMessage.getPersonalFromName();
-                        boolean success = sendEmail(subject, content, userEmailAddress, replyTo, personalFromName);
-                        if (success) {
-                            logger.debug("Successfully sent email to '{}'", userEmailAddress);
-                        } else {
-                            logger.error("Could not send email to '{}'", userEmailAddress);
-                        }
-                        emailMessage = null;
-                    }
+                List<EmailMessageTO> list =
+                        emailMessages.waitForAll(getWaitTime(System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                list.addAll(getDueRetries(System.currentTimeMillis()));
+                if (!list.isEmpty()) {
+                    sendEmails(list);
                 }
-                int secs = 30;
-                Thread.sleep(secs * 1000L);
-
             } catch (InterruptedException e) {
-                logger.warn("Interrupted while Thread.sleep()", e);
+                logger.debug("Email sender thread interrupted");
                 Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Unexpected error sending the pending emails", e);
             }
         }
     }
 
-    protected boolean sendEmail(final String subject, final String content, final String userEmailAddress,
-                                final String replyTo, final String personalFromName) {
-        boolean success = true;
-        MimeMessagePreparator preparator = new MimeMessagePreparator() {
+    /**
+     * Returns the time in milliseconds to wait for new emails, which is shortened when a retry is due earlier
+     */
+    protected long getWaitTime(long now) {
+        long waitTime = TimeUnit.SECONDS.toMillis(pollInterval);
+        EmailMessageTO nextRetry = retries.peek();
+        if (nextRetry != null) {
+            waitTime = Math.max(0, Math.min(waitTime, nextRetry.getNextAttemptTime() - now));
+        }
+        return waitTime;
+    }
 
-            public void prepare(MimeMessage mimeMessage) throws Exception {
+    protected List<EmailMessageTO> getDueRetries(long now) {
+        List<EmailMessageTO> due = new ArrayList<>();
+        while (!retries.isEmpty() && retries.peek().getNextAttemptTime() <= now) {
+            due.add(retries.poll());
+        }
+        return due;
+    }
 
-                mimeMessage.addRecipients(Message.RecipientType.TO, InternetAddress.parse(userEmailAddress));
-                InternetAddress[] replyTos = new InternetAddress[1];
-                if ((replyTo != null) && (!"".equals(replyTo))) {
-                    replyTos[0] = new InternetAddress(replyTo);
-                    mimeMessage.setReplyTo(replyTos);
-                }
-                InternetAddress fromAddress = new InternetAddress(getDefaultFromAddress());
-                if (personalFromName != null)
-                    fromAddress.setPersonal(personalFromName);
-                mimeMessage.setFrom(fromAddress);
-                mimeMessage.setContent(content, "text/html; charset=utf-8");
-                mimeMessage.setSubject(subject);
-                logger.debug("Sending an email to '{}' with subject '{}'", userEmailAddress, subject);
+    protected void sendEmails(final List<EmailMessageTO> list) {
+        // Group the messages by recipient so each group goes through a single connection to the relay
+        Map<String, List<EmailMessageTO>> batches = new LinkedHashMap<>();
+        for (EmailMessageTO emailMessage : list) {
+            if (isBlank(emailMessage.getTo())) {
+                logger.error("Dropping email with subject '{}', it has no recipient", emailMessage.getSubject());
+                continue;
+            }
+            batches.computeIfAbsent(emailMessage.getTo(), to -> new ArrayList<>()).add(emailMessage);
+        }
+        for (Map.Entry<String, List<EmailMessageTO>> batch : batches.entrySet()) {
+            sendEmails(batch.getKey(), batch.getValue());
+        }
+    }
+
+    protected void sendEmails(final String userEmailAddress, final List<EmailMessageTO> batch) {
+        JavaMailSender mailSender = isAuthenticatedSMTP() ? emailService : emailServiceNoAuth;
+        Map<MimeMessage, EmailMessageTO> messages = new IdentityHashMap<>(batch.size());
+        for (EmailMessageTO emailMessage : batch) {
+            try {
+                emailMessage.preprocessEmail();
+                MimeMessage mimeMessage = mailSender.createMimeMessage();
+                prepareMessage(mimeMessage, emailMessage);
+                messages.put(mimeMessage, emailMessage);
+            } catch (Exception e) {
+                logger.error("Error preparing email to '{}' with subject '{}'", userEmailAddress,
+                        emailMessage.getSubject(), e);
             }
-        };
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
 
+        logger.debug("Sending '{}' emails to '{}'", messages.size(), userEmailAddress);
         try {
-            if (isAuthenticatedSMTP()) {
-                emailService.send(preparator);
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            logger.debug("Successfully sent email to '{}'", userEmailAddress);
+        } catch (MailSendException e) {
+            // Only retry the messages that actually failed
+            Set<Object> failed = e.getFailedMessages().keySet();
+            if (failed.isEmpty()) {
+                logger.error("Error sending email to '{}'", userEmailAddress, e);
+                retry(messages.values());
             } else {
-                emailServiceNoAuth.send(preparator);
+                logger.error("Error sending '{}' of '{}' emails to '{}'", failed.size(), messages.size(),
+                        userEmailAddress, e);
+                retry(messages.entrySet().stream()
+                        .filter(entry -> failed.contains(entry.getKey()))
+                        .map(Map.Entry::getValue)
+                        .collect(toList()));
             }
         } catch (MailException e) {
             logger.error("Error sending email to '{}'", userEmailAddress, e);
-            success = false;
+            retry(messages.values());
         }
+    }
+
+    protected void prepareMessage(final MimeMessage mimeMessage, final EmailMessageTO emailMessage)
+            throws MessagingException, UnsupportedEncodingException {
+        String replyTo = emailMessage.getReplyTo();
+        String personalFromName = emailMessage.getPersonalFromName();
 
-        return success;
+        mimeMessage.addRecipients(Message.RecipientType.TO, InternetAddress.parse(emailMessage.getTo()));
+        if ((replyTo != null) && (!"".equals(replyTo))) {
+            mimeMessage.setReplyTo(new InternetAddress[] { new InternetAddress(replyTo) });
+        }
+        InternetAddress fromAddress = new InternetAddress(getDefaultFromAddress());
+        if (personalFromName != null) {
+            fromAddress.setPersonal(personalFromName);
+        }
+        mimeMessage.setFrom(fromAddress);
+        mimeMessage.setContent(emailMessage.getContent(), "text/html; charset=utf-8");
+        mimeMessage.setSubject(emailMessage.getSubject());
+    }
+
+    protected void retry(final Collection<EmailMessageTO> failedMessages) {
+        for (EmailMessageTO emailMessage : failedMessages) {
+            int attempts = emailMessage.getAttempts() + 1;
+            if (attempts > maxRetries) {
+                logger.error("Could not send email to '{}' with subject '{}' after '{}' attempts, giving up",
+                        emailMessage.getTo(), emailMessage.getSubject(), attempts);
+                continue;
+            }
+            emailMessage.setAttempts(attempts);
+            // Back off exponentially so a relay that is down is not hammered on every poll
+            long delay = TimeUnit.SECONDS.toMillis(retryDelay) << Math.min(attempts - 1, 20);
+            emailMessage.setNextAttemptTime(System.currentTimeMillis() + delay);
+            logger.debug("Retrying email to '{}' with subject '{}' in '{}' ms", emailMessage.getTo(),
+                    emailMessage.getSubject(), delay);
+            retries.add(emailMessage);
+        }
     }
 
     public void shutdown() {
@@ -137,6 +220,18 @@ public class EmailMessageSender implements Runnable {
         return toReturn;
     }
 
+    public void setPollInterval(int pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public void setRetryDelay(int retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
     public JavaMailSender getEmailService() {
         return emailService;
     }
@@ -18,6 +18,7 @@ package org.craftercms.studio.impl.v1.repository.git;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.craftercms.commons.crypto.CryptoException;
@@ -73,6 +74,7 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -94,6 +96,7 @@ import static org.eclipse.jgit.merge.MergeStrategy.THEIRS;
 import static org.eclipse.jgit.revwalk.RevSort.REVERSE;
 import static org.eclipse.jgit.transport.RemoteRefUpdate.Status.*;
 
+@LogExecutionTime
 public class GitContentRepository implements ContentRepository, ServletContextAware {
 
     private static final Logger logger = LoggerFactory.getLogger(GitContentRepository.class);
@@ -158,7 +161,6 @@ public class GitContentRepository implements ContentRepository, ServletContextAw
     }
 
     @Override
-    @LogExecutionTime
     public InputStream getContent(String site, String path, boolean shallow) throws ContentNotFoundException {
         if (shallow) {
             return shallowGetContent(site, path);
@@ -223,6 +225,90 @@ public class GitContentRepository implements ContentRepository, ServletContextAw
         return commitId;
     }
 
+    @Override
+    public String writeContents(String site, Map<String, InputStream> contents, Map<String, String> copies,
+                                Collection<String> folders) throws ServiceLayerException {
+        List<String> paths = new ArrayList<>();
+        String gitLockKey = helper.getSandboxRepoLockKey(site, true);
+        generalLockService.lock(gitLockKey);
+        try {
+            Repository repo = helper.getRepository(site, StringUtils.isEmpty(site) ? GLOBAL : SANDBOX);
+            if (repo == null) {
+                throw new ServiceLayerException(format("Missing repository during write for site '%s'", site));
+            }
+            // All files are written to the working tree first, then added and committed at once
+            for (String folder : folders) {
+                String emptyFilePath = Paths.get(folder, EMPTY_FILE).toString();
+                writeWorkTreeFile(repo, emptyFilePath, InputStream.nullInputStream());
+                paths.add(emptyFilePath);
+            }
+            for (Map.Entry<String, String> copy : copies.entrySet()) {
+                try (InputStream content = getContentFromGit(site, copy.getValue())) {
+                    if (content == null) {
+                        throw new ContentNotFoundException(copy.getValue(), site,
+                                format("Content not found at site '%s' path '%s'", site, copy.getValue()));
+                    }
+                    writeWorkTreeFile(repo, copy.getKey(), content);
+                }
+                paths.add(copy.getKey());
+            }
+            for (Map.Entry<String, InputStream> content : contents.entrySet()) {
+                try (InputStream input = content.getValue()) {
+                    writeWorkTreeFile(repo, content.getKey(), input);
+                }
+                paths.add(content.getKey());
+            }
+
+            String[] pathsArray = paths.toArray(new String[0]);
+            String commitId = null;
+            if (helper.addFiles(repo, site, pathsArray)) {
+                String comment = helper.getCommitMessage(REPO_SANDBOX_WRITE_MULTIPLE_COMMIT_MESSAGE)
+                        .replace(REPO_COMMIT_MESSAGE_USERNAME_VAR, securityService.getCurrentUser())
+                        .replace(REPO_COMMIT_MESSAGE_COUNT_VAR, Integer.toString(paths.size()))
+                        .replace(REPO_COMMIT_MESSAGE_PATH_VAR, getCommonParentPath(paths));
+                commitId = helper.commitFiles(repo, site, comment, helper.getCurrentUserIdent(), pathsArray);
+            }
+            if (commitId == null) {
+                throw new ServiceLayerException(format("Failed to write '%d' files to site '%s'",
+                        paths.size(), site));
+            }
+            paths.clear();
+            return commitId;
+        } catch (IOException | UserNotFoundException e) {
+            throw new ServiceLayerException(format("Failed to write '%d' files to site '%s'",
+                    paths.size(), site), e);
+        } finally {
+            if (!paths.isEmpty()) {
+                discardWorkTreeFiles(site, paths);
+            }
+            generalLockService.unlock(gitLockKey);
+        }
+    }
+
+    private void writeWorkTreeFile(Repository repo, String path, InputStream content) throws IOException {
+        Path file = repo.getWorkTree().toPath().resolve(helper.getGitPath(path));
+        Files.createDirectories(file.getParent());
+        Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void discardWorkTreeFiles(String site, List<String> paths) {
+        Repository repo = helper.getRepository(site, StringUtils.isEmpty(site) ? GLOBAL : SANDBOX);
+        helper.restorePaths(repo, site, paths.toArray(new String[0]));
+        for (String path : paths) {
+            FileUtils.deleteQuietly(repo.getWorkTree().toPath().resolve(helper.getGitPath(path)).toFile());
+        }
+    }
+
+    private String getCommonParentPath(List<String> paths) {
+        String common = FilenameUtils.getFullPathNoEndSeparator(paths.get(0));
+        for (String path : paths) {
+            while (!StringUtils.equals(path, common) && !StringUtils.startsWith(path, common + FILE_SEPARATOR)) {
+                common = FilenameUtils.getFullPathNoEndSeparator(common);
+            }
+        }
+        return StringUtils.isEmpty(common) ? FILE_SEPARATOR : common;
+    }
+
     @Override
     public String createFolder(String site, String path, String name) {
         // SJ: Git doesn't care about empty folders, so we will create the folders and put a 0 byte file in them
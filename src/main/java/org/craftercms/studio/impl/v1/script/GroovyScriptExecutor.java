@@ -16,8 +16,21 @@
 
 package org.craftercms.studio.impl.v1.script;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import groovy.lang.GroovySystem;
+import groovy.lang.Script;
 import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.craftercms.studio.api.v1.script.ScriptExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
@@ -25,9 +38,29 @@ import javax.script.ScriptException;
 import javax.script.SimpleBindings;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 public class GroovyScriptExecutor implements ScriptExecutor {
 
+    private static final Logger logger = LoggerFactory.getLogger(GroovyScriptExecutor.class);
+
+    /**
+     * Size limit applied to the script cache when the configuration doesn't include one
+     */
+    public static final String DEFAULT_SCRIPT_CACHE_CONFIG = "maximumSize=500";
+
+    /**
+     * Long-lived class loader that holds the configured classpath. Scripts are never compiled by it, each compiled
+     * script gets its own child loader so its classes can be unloaded once it is evicted from the cache
+     */
+    protected volatile GroovyClassLoader scriptClassLoader;
+
+    /**
+     * Compiled script classes, keyed by site and script id
+     */
+    protected Cache<String, Class<? extends Script>> scriptCache = buildScriptCache(DEFAULT_SCRIPT_CACHE_CONFIG);
+
     @Override
     public void executeScriptString(String script, Map<String, Object> model) throws ScriptException {
         ScriptEngineManager factory = new ScriptEngineManager();
@@ -41,8 +74,82 @@ public class GroovyScriptExecutor implements ScriptExecutor {
         engine.eval(script);
     }
 
+    @Override
+    public void executeScript(String site, String scriptId, Supplier<String> scriptLoader, Map<String, Object> model)
+            throws ScriptException {
+        Class<? extends Script> scriptClass;
+        try {
+            scriptClass = scriptCache.get(site + ":" + scriptId, () -> compileScript(site, scriptId, scriptLoader));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            // Compilation errors are not cached, the next execution will try again
+            throw new ScriptException(e.getCause() instanceof Exception cause ? cause : e);
+        }
+        try {
+            InvokerHelper.createScript(scriptClass, new Binding(model)).run();
+        } catch (Exception e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Class<? extends Script> compileScript(String site, String scriptId, Supplier<String> scriptLoader) {
+        logger.debug("Compile script '{}' in site '{}'", scriptId, site);
+        GroovyCodeSource codeSource =
+                new GroovyCodeSource(scriptLoader.get(), "Script_" + scriptId, GroovyShell.DEFAULT_CODE_BASE);
+        GroovyClassLoader classLoader = new GroovyClassLoader(getScriptClassLoader());
+        return (Class<? extends Script>) classLoader.parseClass(codeSource, false);
+    }
+
+    protected Cache<String, Class<? extends Script>> buildScriptCache(String cacheConfig) {
+        if (!cacheConfig.contains("maximumSize") && !cacheConfig.contains("maximumWeight")) {
+            cacheConfig = DEFAULT_SCRIPT_CACHE_CONFIG + "," + cacheConfig;
+        }
+        return CacheBuilder.from(cacheConfig)
+                .removalListener(this::releaseScript)
+                .build();
+    }
+
+    /**
+     * Drops every reference Groovy keeps to an evicted script class, so it can be unloaded along with its loader
+     */
+    protected void releaseScript(RemovalNotification<String, Class<? extends Script>> notification) {
+        Class<? extends Script> scriptClass = notification.getValue();
+        if (scriptClass == null) {
+            return;
+        }
+        logger.debug("Release compiled script '{}'", notification.getKey());
+        GroovySystem.getMetaClassRegistry().removeMetaClass(scriptClass);
+        // Classes are defined by an inner loader, the class cache belongs to the loader created for the script
+        ClassLoader classLoader = scriptClass.getClassLoader();
+        if (classLoader instanceof GroovyClassLoader.InnerLoader) {
+            classLoader = classLoader.getParent();
+        }
+        if (classLoader instanceof GroovyClassLoader groovyClassLoader && groovyClassLoader != scriptClassLoader) {
+            groovyClassLoader.clearCache();
+        }
+    }
+
+    protected GroovyClassLoader getScriptClassLoader() {
+        if (scriptClassLoader == null) {
+            synchronized (this) {
+                if (scriptClassLoader == null) {
+                    GroovyClassLoader classLoader = new GroovyClassLoader(getClass().getClassLoader());
+                    for (String classPath : scriptsClassPath) {
+                        classLoader.addClasspath(classPath);
+                    }
+                    scriptClassLoader = classLoader;
+                }
+            }
+        }
+        return scriptClassLoader;
+    }
+
     public List<String> getScriptsClassPath() { return scriptsClassPath; }
     public void setScriptsClassPath(List<String> scriptsClassPath) { this.scriptsClassPath = scriptsClassPath; }
 
+    public void setScriptCacheConfig(String scriptCacheConfig) {
+        this.scriptCache = buildScriptCache(scriptCacheConfig);
+    }
+
     protected List<String> scriptsClassPath;
 }
@@ -16,6 +16,7 @@
 package org.craftercms.studio.impl.v1.service.content;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -58,10 +59,12 @@ import org.craftercms.studio.api.v2.event.content.DeleteContentEvent;
 import org.craftercms.studio.api.v2.event.content.MoveContentEvent;
 import org.craftercms.studio.api.v2.event.lock.LockContentEvent;
 import org.craftercms.studio.api.v2.exception.content.ContentExistException;
+import org.craftercms.studio.api.v2.exception.validation.ValidationException;
 import org.craftercms.studio.api.v2.service.audit.internal.ActivityStreamServiceInternal;
 import org.craftercms.studio.api.v2.service.audit.internal.AuditServiceInternal;
 import org.craftercms.studio.api.v2.service.dependency.internal.DependencyServiceInternal;
 import org.craftercms.studio.api.v2.service.item.internal.ItemServiceInternal;
+import org.craftercms.studio.api.v2.service.policy.PolicyService;
 import org.craftercms.studio.api.v2.service.security.internal.UserServiceInternal;
 import org.craftercms.studio.api.v2.service.site.SitesService;
 import org.craftercms.studio.api.v2.service.workflow.internal.WorkflowServiceInternal;
@@ -70,10 +73,15 @@ import org.craftercms.studio.api.v2.utils.StudioUtils;
 import org.craftercms.studio.impl.v1.util.ContentFormatUtils;
 import org.craftercms.studio.impl.v1.util.ContentItemOrderComparator;
 import org.craftercms.studio.impl.v1.util.ContentUtils;
+import org.craftercms.studio.impl.v1.util.XmlUtils;
 import org.craftercms.studio.impl.v2.utils.DateUtils;
+import org.craftercms.studio.impl.v2.utils.DependencyUtils;
 import org.craftercms.studio.impl.v2.utils.TimeUtils;
 import org.craftercms.studio.impl.v2.utils.spring.ContentResource;
+import org.craftercms.studio.model.clipboard.PasteItem;
+import org.craftercms.studio.model.policy.Action;
 import org.craftercms.studio.model.policy.Type;
+import org.craftercms.studio.model.policy.ValidationResult;
 import org.craftercms.studio.model.rest.Person;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
@@ -89,9 +97,14 @@ import org.springframework.core.io.Resource;
 import org.xml.sax.SAXException;
 
 import jakarta.validation.Valid;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -100,6 +113,7 @@ import java.util.stream.Stream;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
@@ -109,9 +123,14 @@ import static org.craftercms.studio.api.v1.constant.DmXmlConstants.*;
 import static org.craftercms.studio.api.v1.constant.StudioConstants.INDEX_FILE;
 import static org.craftercms.studio.api.v1.constant.StudioConstants.*;
 import static org.craftercms.studio.api.v1.constant.StudioXmlConstants.DOCUMENT_ELM_CONTENT_TYPE;
+import static org.craftercms.studio.api.v1.constant.StudioXmlConstants.DOCUMENT_ELM_DISABLED;
+import static org.craftercms.studio.api.v1.constant.StudioXmlConstants.DOCUMENT_ELM_INTERNAL_TITLE;
 import static org.craftercms.studio.api.v2.dal.AuditLogConstants.*;
 import static org.craftercms.studio.api.v2.dal.ItemState.*;
+import static org.craftercms.studio.api.v2.utils.SqlStatementGeneratorUtils.insertItemRow;
+import static org.craftercms.studio.api.v2.utils.SqlStatementGeneratorUtils.updateParentId;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_GLOBAL_SYSTEM_SITE;
+import static org.craftercms.studio.api.v2.utils.StudioUtils.getStudioTemporaryFilesRoot;
 import static org.craftercms.studio.impl.v2.utils.DateUtils.getCurrentTimeIso;
 import static org.craftercms.studio.permissions.PermissionResolverImpl.PATH_RESOURCE_ID;
 import static org.craftercms.studio.permissions.StudioPermissionsConstants.PERMISSION_CONTENT_WRITE;
@@ -128,6 +147,8 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
     private static final String COPY_DEP_XPATH = "//*/text()[contains(normalize-space(.),'{copyDep}')]/parent::*";
     private static final String COPY_DEP = "{copyDep}";
     private static final String ELM_ORDER_DEFAULT_SELECTOR = "//" + DmXmlConstants.ELM_ORDER_DEFAULT;
+    private static final String COPY_CONTENT_SCRIPT_PREFIX = "copyContent_";
+    private static final String UPDATE_PARENT_ID_SCRIPT_PREFIX = "updateParentId_";
 
     private ContentRepository _contentRepository;
     private org.craftercms.studio.api.v2.repository.ContentRepository contentRepository;
@@ -153,6 +174,8 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
 
     protected org.craftercms.studio.api.v2.service.content.ContentService contentServiceV2;
     private GeneralLockService generalLockService;
+    protected StudioDBScriptRunnerFactory studioDBScriptRunnerFactory;
+    protected PolicyService policyService;
 
     /**
      * file and folder name patterns for copied files and folders
@@ -963,6 +986,366 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
         return retNewFileName;
     }
 
+    @Override
+    @Valid
+    @ValidateAction(type = Type.COPY)
+    public List<String> copyContentTree(@ValidateStringParam @SiteId String site,
+                                        @ValidateSecurePathParam @ActionSourcePath String fromPath,
+                                        @ValidateSecurePathParam @ActionTargetPath String toPath,
+                                        List<PasteItem> children)
+            throws ServiceLayerException, UserNotFoundException {
+        String syncFromRepoLockKey = StudioUtils.getSyncFromRepoLockKey(site);
+        generalLockService.lock(syncFromRepoLockKey);
+        try {
+            long startTime = System.currentTimeMillis();
+            CopyPlan plan = new CopyPlan();
+            List<String> copiedPaths = new LinkedList<>();
+            planCopyTree(site, fromPath, toPath, children, plan, copiedPaths);
+            if (!plan.items.isEmpty()) {
+                writeCopyPlan(site, toPath, copiedPaths.get(copiedPaths.size() - 1), plan);
+            }
+            logger.debug("Copied '{}' items in site '{}' from '{}' to '{}' in '{}' milliseconds", plan.items.size(),
+                    site, fromPath, toPath, System.currentTimeMillis() - startTime);
+            return copiedPaths;
+        } finally {
+            generalLockService.unlock(syncFromRepoLockKey);
+        }
+    }
+
+    protected void planCopyTree(String site, String fromPath, String toPath, List<PasteItem> children, CopyPlan plan,
+                                List<String> copiedPaths) throws ServiceLayerException {
+        String copyPath = planCopy(site, fromPath, toPath, plan);
+        if (copyPath != null && isNotEmpty(children)) {
+            // Only the root is validated by @ValidateAction, children are validated here before anything is written
+            List<String> childTargetPaths = validateCopies(site, children, copyPath);
+            for (int i = 0; i < children.size(); i++) {
+                PasteItem child = children.get(i);
+                planCopyTree(site, child.getPath(), childTargetPaths.get(i), child.getChildren(), plan, copiedPaths);
+            }
+        }
+        copiedPaths.add(copyPath);
+    }
+
+    /**
+     * Validates the copy of the given items to the target path against the site policy, the same way
+     * {@link ValidateAction} does for a single copy.
+     *
+     * @return the target path for each item, modified by the policy if needed
+     * @throws ValidationException if the copy of any of the items is not allowed
+     */
+    protected List<String> validateCopies(String site, List<PasteItem> items, String toPath)
+            throws ServiceLayerException {
+        List<Action> actions = new ArrayList<>(items.size());
+        for (PasteItem item : items) {
+            Action action = new Action();
+            action.setType(Type.COPY);
+            action.setSource(item.getPath());
+            action.setTarget(toPath);
+            action.setContentMetadata(new HashMap<>());
+            actions.add(action);
+        }
+        List<ValidationResult> results;
+        try {
+            results = policyService.validate(site, actions);
+        } catch (IOException e) {
+            throw new ServiceLayerException(format("Failed to validate the copy of '%d' items to '%s' in site '%s'",
+                    items.size(), toPath, site), e);
+        }
+        List<String> targetPaths = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            // There is one result for each action, in the same order
+            ValidationResult result = results.get(i);
+            if (!result.isAllowed()) {
+                logger.error("Copy of '{}' to '{}' in site '{}' is not allowed by the site policy",
+                        items.get(i).getPath(), toPath, site);
+                throw new ValidationException("Requested action is not allowed by site policy");
+            }
+            targetPaths.add(isNotEmpty(result.getModifiedValue()) ? result.getModifiedValue() : toPath);
+        }
+        return targetPaths;
+    }
+
+    /**
+     * Same rules as {@link #copyContent(String, String, String, Set)}, but the new documents are only kept in
+     * the plan. Paths already reserved by the plan are treated as existing content when resolving name collisions.
+     *
+     * @return the new path of the item, null if the source content was not found
+     */
+    protected String planCopy(String site, String fromPath, String toPath, CopyPlan plan)
+            throws ServiceLayerException {
+        // A circular dependency points to an item that is still being planned
+        String inProgressPath = plan.inProgress.get(fromPath);
+        if (inProgressPath != null) {
+            return inProgressPath;
+        }
+
+        PastedPathMap copyPathMap = constructNewPathForCutCopy(site, fromPath, toPath, true, plan.reservedPaths);
+        String copyPath = copyPathMap.filePath;
+        if (plan.items.containsKey(copyPath)) {
+            return copyPath;
+        }
+        String copyPathOnly = copyPath.substring(0, copyPath.lastIndexOf(FILE_SEPARATOR));
+
+        ContentItemTO fromItem = getContentItem(site, fromPath, 0);
+        PlannedCopy plannedCopy = new PlannedCopy(fromPath, copyPath);
+        plan.reserve(copyPath);
+        if (fromItem.isFolder()) {
+            plannedCopy.folder = true;
+            plan.add(plannedCopy);
+            return copyPath;
+        }
+        plannedCopy.contentType = fromItem.getContentType();
+        if (!fromPath.endsWith(DmConstants.XML_PATTERN)) {
+            plan.add(plannedCopy);
+            return copyPath;
+        }
+
+        plan.inProgress.put(fromPath, copyPath);
+        try {
+            Document fromDocument = getContentAsDocument(site, fromPath);
+            if (fromDocument == null) {
+                logger.debug("Content not found while copying in site '{}' from '{}' to '{}', new name is '{}'",
+                        site, fromPath, toPath, copyPath);
+                plan.release(copyPath);
+                return null;
+            }
+            Map<String, String> fromPageIds = getContentIds(fromDocument);
+            Map<String, String> copyObjectIds = contentItemIdGenerator.getIds();
+
+            Map<String, String> copyDependencies = getCopyDependencies(site, fromPath, fromPath);
+            copyDependencies = getItemSpecificDependencies(site, fromPath, fromDocument, copyDependencies);
+            for (Map.Entry<String, String> dependency : copyDependencies.entrySet()) {
+                String copyDepPath = translateCopyDependencyPath(site, dependency.getValue(), fromPageIds,
+                        copyObjectIds);
+                String newCopyDepPath = planCopy(site, dependency.getKey(), copyDepPath, plan);
+                if (newCopyDepPath != null) {
+                    fromDocument = replaceCopyDependency(fromDocument, dependency.getKey(), newCopyDepPath);
+                }
+            }
+
+            Document copyDocument = updateContentOnCopy(fromDocument, copyPathMap.fileName, copyPathMap.fileFolder,
+                    copyObjectIds, copyPathMap.modifier);
+            dmPageNavigationOrderService.addNavOrder(site, copyPathOnly, copyDocument);
+            plannedCopy.document = copyDocument;
+            plan.add(plannedCopy);
+            return copyPath;
+        } catch (DocumentException e) {
+            logger.error("Failed to copy content in site '{}' from '{}' to '{}', new name is '{}'",
+                    site, fromPath, toPath, copyPath, e);
+            plan.release(copyPath);
+            return null;
+        } finally {
+            plan.inProgress.remove(fromPath);
+        }
+    }
+
+    private String translateCopyDependencyPath(String site, String dependencyPath, Map<String, String> fromPageIds,
+                                               Map<String, String> copyObjectIds) {
+        // try a simple substitution
+        String copyDepPath = dependencyPath.replaceAll(fromPageIds.get(KEY_PAGE_ID), copyObjectIds.get(KEY_PAGE_ID));
+        copyDepPath = copyDepPath.replaceAll(fromPageIds.get(KEY_PAGE_GROUP_ID), copyObjectIds.get(KEY_PAGE_GROUP_ID));
+
+        ContentItemTO targetPathItem = getContentItem(site, copyDepPath);
+        if (targetPathItem != null && targetPathItem.isFolder()) {
+            copyDepPath = copyDepPath + FILE_SEPARATOR + FilenameUtils.getName(dependencyPath);
+            copyDepPath = copyDepPath.replaceAll(FILE_SEPARATOR + FILE_SEPARATOR, FILE_SEPARATOR);
+        } else if (!copyDepPath.endsWith(DmConstants.XML_PATTERN)) {
+            copyDepPath = ContentUtils.getParentUrl(copyDepPath);
+        }
+        logger.debug("Translated dependency path in site '{}' from '{}' to '{}'", site, dependencyPath, copyDepPath);
+        return copyDepPath;
+    }
+
+    /**
+     * Writes all the planned items in a single commit, then creates the items and their dependencies in the
+     * database with a single script, and finally runs the content lifecycle and publishes one event.
+     */
+    protected void writeCopyPlan(String site, String toPath, String rootPath, CopyPlan plan)
+            throws ServiceLayerException, UserNotFoundException {
+        Map<String, InputStream> contents = new LinkedHashMap<>();
+        Map<String, String> copies = new LinkedHashMap<>();
+        List<String> folders = new LinkedList<>();
+        for (PlannedCopy plannedCopy : plan.items.values()) {
+            if (plannedCopy.folder) {
+                folders.add(plannedCopy.path);
+            } else if (plannedCopy.document != null) {
+                byte[] content = getDocumentBytes(site, plannedCopy);
+                plannedCopy.size = content.length;
+                contents.put(plannedCopy.path, new ByteArrayInputStream(content));
+            } else {
+                copies.put(plannedCopy.path, plannedCopy.fromPath);
+            }
+        }
+        String commitId = _contentRepository.writeContents(site, contents, copies, folders);
+        loadCopiedFileSizes(site, plan);
+
+        String username = securityService.getCurrentUser();
+        User user = userServiceInternal.getUserByIdOrUsername(-1, username);
+        Site siteFeed = siteService.getSite(site);
+        persistCopyPlan(site, siteFeed.getId(), user.getId(), plan);
+
+        AuditLog auditLog = auditServiceInternal.createAuditLogEntry();
+        auditLog.setOperation(OPERATION_CREATE);
+        auditLog.setActorId(username);
+        auditLog.setSiteId(siteFeed.getId());
+        auditLog.setPrimaryTargetId(site + ":" + toPath);
+        auditLog.setPrimaryTargetType(TARGET_TYPE_CONTENT_ITEM);
+        auditLog.setPrimaryTargetValue(toPath);
+        auditLog.setCommitId(commitId);
+        List<AuditLogParameter> auditLogParameters = new LinkedList<>();
+        for (String path : plan.items.keySet()) {
+            AuditLogParameter auditLogParameter = new AuditLogParameter();
+            auditLogParameter.setTargetId(site + ":" + path);
+            auditLogParameter.setTargetType(TARGET_TYPE_CONTENT_ITEM);
+            auditLogParameter.setTargetValue(path);
+            auditLogParameters.add(auditLogParameter);
+        }
+        auditLog.setParameters(auditLogParameters);
+        auditServiceInternal.insertAuditLog(auditLog);
+
+        for (PlannedCopy plannedCopy : plan.items.values()) {
+            if (plannedCopy.document != null) {
+                dmContentLifeCycleService.process(site, username, plannedCopy.path, plannedCopy.contentType,
+                        DmContentLifeCycleService.ContentLifeCycleOperation.COPY, null);
+            }
+        }
+        Item rootItem = isNull(rootPath) ? null : itemServiceInternal.getItem(site, rootPath);
+        if (rootItem != null) {
+            activityStreamServiceInternal.insertActivity(siteFeed.getId(), user.getId(), OPERATION_CREATE,
+                    DateUtils.getCurrentTime(), rootItem, null);
+        }
+        applicationContext.publishEvent(new ContentEvent(securityService.getAuthentication(), site, toPath));
+    }
+
+    private byte[] getDocumentBytes(String site, PlannedCopy plannedCopy) throws ServiceLayerException {
+        try {
+            return XmlUtils.convertDocumentToString(plannedCopy.document).getBytes(CONTENT_ENCODING);
+        } catch (IOException e) {
+            throw new ServiceLayerException(format("Failed to convert the copied document '%s' in site '%s'",
+                    plannedCopy.path, site), e);
+        }
+    }
+
+    /**
+     * Copied files have the same size as their source, the sizes of all the sources are read with a single tree
+     * walk instead of one lookup per file.
+     */
+    private void loadCopiedFileSizes(String site, CopyPlan plan) {
+        List<PlannedCopy> copiedFiles = plan.items.values().stream()
+                .filter(plannedCopy -> !plannedCopy.folder && plannedCopy.document == null)
+                .toList();
+        if (copiedFiles.isEmpty()) {
+            return;
+        }
+        Map<String, Long> sizes = contentRepository.getContentSizes(site, copiedFiles.stream()
+                .map(plannedCopy -> plannedCopy.fromPath)
+                .collect(toSet()));
+        for (PlannedCopy plannedCopy : copiedFiles) {
+            Long size = sizes.get(plannedCopy.fromPath);
+            plannedCopy.size = size != null ? size : contentRepository.getContentSize(site, plannedCopy.path);
+        }
+    }
+
+    private void persistCopyPlan(String site, long siteId, long userId, CopyPlan plan) throws ServiceLayerException {
+        StudioDBScriptRunner studioDBScriptRunner = studioDBScriptRunnerFactory.getDBScriptRunner();
+        Path copyScriptPath = null;
+        Path updateParentIdScriptPath = null;
+        try {
+            Path studioTempDir = getStudioTemporaryFilesRoot();
+            copyScriptPath = Files.createTempFile(studioTempDir, COPY_CONTENT_SCRIPT_PREFIX + UUID.randomUUID(),
+                    SQL_SCRIPT_SUFFIX);
+            updateParentIdScriptPath = Files.createTempFile(studioTempDir,
+                    UPDATE_PARENT_ID_SCRIPT_PREFIX + UUID.randomUUID(), SQL_SCRIPT_SUFFIX);
+            ZonedDateTime now = DateUtils.getCurrentTime();
+
+            // Folders created implicitly in the repository by the new files
+            Set<String> missingFolders = new LinkedHashSet<>();
+            for (String path : plan.items.keySet()) {
+                String folderPath = FilenameUtils.getFullPathNoEndSeparator(path);
+                while (isNotEmpty(folderPath) && !StringUtils.equals(folderPath, FILE_SEPARATOR)
+                        && !plan.items.containsKey(folderPath) && !missingFolders.contains(folderPath)
+                        && isNull(itemServiceInternal.getItem(site, folderPath))) {
+                    missingFolders.add(folderPath);
+                    folderPath = FilenameUtils.getFullPathNoEndSeparator(folderPath);
+                }
+            }
+            for (String folderPath : missingFolders) {
+                Files.write(copyScriptPath, insertItemRow(siteId, folderPath, null, NEW.value, null, userId, now,
+                        userId, now, null, FilenameUtils.getName(folderPath), null, CONTENT_TYPE_FOLDER, null,
+                        Locale.US.toString(), null, 0L, null, null).getBytes(UTF_8), StandardOpenOption.APPEND);
+                Files.write(copyScriptPath, "\n\n".getBytes(UTF_8), StandardOpenOption.APPEND);
+                addUpdateParentIdScriptSnippet(siteId, folderPath, updateParentIdScriptPath);
+            }
+
+            for (PlannedCopy plannedCopy : plan.items.values()) {
+                String path = plannedCopy.path;
+                String label = FilenameUtils.getName(path);
+                String contentTypeId = plannedCopy.contentType;
+                String systemType = CONTENT_TYPE_FOLDER;
+                String mimeType = null;
+                long size = 0L;
+                long state = savedAndClosed(NEW.value);
+                String previewUrl = null;
+                if (!plannedCopy.folder) {
+                    if (plannedCopy.document != null) {
+                        Element rootElement = plannedCopy.document.getRootElement();
+                        String internalName = rootElement.valueOf(DOCUMENT_ELM_INTERNAL_TITLE);
+                        if (isNotEmpty(internalName)) {
+                            label = internalName;
+                        }
+                        contentTypeId = rootElement.valueOf(DOCUMENT_ELM_CONTENT_TYPE);
+                        if (Boolean.parseBoolean(rootElement.valueOf(DOCUMENT_ELM_DISABLED))) {
+                            state = state | DISABLED.value;
+                        }
+                    }
+                    if (StringUtils.startsWith(path, ROOT_PATTERN_PAGES) ||
+                            StringUtils.startsWith(path, ROOT_PATTERN_ASSETS)) {
+                        previewUrl = itemServiceInternal.getBrowserUrl(site, path);
+                    }
+                    systemType = getContentTypeClass(site, path);
+                    mimeType = StudioUtils.getMimeType(FilenameUtils.getName(path));
+                    size = plannedCopy.size;
+                }
+                Files.write(copyScriptPath, insertItemRow(siteId, path, previewUrl, state, null, userId, now,
+                        userId, now, null, label, contentTypeId, systemType, mimeType, Locale.US.toString(), null,
+                        size, null, null).getBytes(UTF_8), StandardOpenOption.APPEND);
+                Files.write(copyScriptPath, "\n\n".getBytes(UTF_8), StandardOpenOption.APPEND);
+                addUpdateParentIdScriptSnippet(siteId, path, updateParentIdScriptPath);
+                if (plannedCopy.document != null) {
+                    DependencyUtils.addDependenciesScriptSnippets(site, path, null, copyScriptPath,
+                            dependencyServiceV2);
+                }
+            }
+
+            studioDBScriptRunner.execute(copyScriptPath.toFile());
+            studioDBScriptRunner.execute(updateParentIdScriptPath.toFile());
+        } catch (IOException e) {
+            throw new ServiceLayerException(format("Failed to create the database script for the items copied " +
+                    "in site '%s'", site), e);
+        } finally {
+            if (copyScriptPath != null) {
+                logger.debug("Deleting temporary file '{}'", copyScriptPath);
+                FileUtils.deleteQuietly(copyScriptPath.toFile());
+            }
+            if (updateParentIdScriptPath != null) {
+                logger.debug("Deleting temporary file '{}'", updateParentIdScriptPath);
+                FileUtils.deleteQuietly(updateParentIdScriptPath.toFile());
+            }
+        }
+    }
+
+    private void addUpdateParentIdScriptSnippet(long siteId, String path, Path updateParentIdScriptPath)
+            throws IOException {
+        String parentPath = FilenameUtils.getPrefix(path) +
+                FilenameUtils.getPathNoEndSeparator(StringUtils.replace(path, SLASH_INDEX_FILE, ""));
+        if (isEmpty(parentPath) || StringUtils.equals(parentPath, path)) {
+            return;
+        }
+        Files.write(updateParentIdScriptPath, updateParentId(siteId, path, parentPath).getBytes(UTF_8),
+                StandardOpenOption.APPEND);
+        Files.write(updateParentIdScriptPath, "\n\n".getBytes(UTF_8), StandardOpenOption.APPEND);
+    }
+
     protected Document replaceCopyDependency(Document document, String depPath, String copyDepPath) {
         Element root = document.getRootElement();
         List<Node> includes = root.selectNodes(COPY_DEP_XPATH.replace(COPY_DEP, depPath));
@@ -1196,6 +1579,16 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
 
     protected PastedPathMap constructNewPathForCutCopy(String site, String fromPath, String toPath,
                                                              boolean adjustOnCollide) throws ServiceLayerException {
+        return constructNewPathForCutCopy(site, fromPath, toPath, adjustOnCollide, Collections.emptySet());
+    }
+
+    /**
+     * Same as {@link #constructNewPathForCutCopy(String, String, String, boolean)} but also treats the given
+     * paths as existing content, used when the paths of a whole tree are calculated before writing anything.
+     */
+    protected PastedPathMap constructNewPathForCutCopy(String site, String fromPath, String toPath,
+                                                       boolean adjustOnCollide, Set<String> reservedPaths)
+            throws ServiceLayerException {
         PastedPathMap result = new PastedPathMap();
 
         // The following rules apply to content under the site folder
@@ -1229,7 +1622,7 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
         String proposedDestPath;
         String proposedDestPath_filename;
         String proposedDestPath_folder;
-        boolean targetPathExistsPriorToOp = contentExists(site, toPath);
+        boolean targetPathExistsPriorToOp = reservedPaths.contains(toPath) || contentExists(site, toPath);
 
         if (fromFileIsIndex && newFileIsIndex) {
             // Example MOVE LOCATION, INDEX FILES
@@ -1301,8 +1694,8 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
         result.fileFolder = proposedDestPath_folder;
         result.modifier = "";
 
-        if (adjustOnCollide && contentExists(site, proposedDestPath)) {
-            adjustOnCollide(site, result, fromFileIsIndex, newFileIsIndex, newPathOnly, proposedDestPath, proposedDestPath_filename, proposedDestPath_folder);
+        if (adjustOnCollide && (reservedPaths.contains(proposedDestPath) || contentExists(site, proposedDestPath))) {
+            adjustOnCollide(site, result, fromFileIsIndex, newFileIsIndex, newPathOnly, proposedDestPath, proposedDestPath_filename, proposedDestPath_folder, reservedPaths);
         }
 
         logger.debug("Final proposed path in site '{}' from '{}' to '{}' final name '{}'", site, fromPath, toPath,
@@ -1312,7 +1705,8 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
 
     private void adjustOnCollide(final String site, final PastedPathMap result, final boolean fromFileIsIndex, final boolean newFileIsIndex,
                                  final String newPathOnly, final String initialDestPath, final String initialDestFilename,
-                                 final String initialDestFolder) throws ServiceLayerException {
+                                 final String initialDestFolder, final Set<String> reservedPaths)
+            throws ServiceLayerException {
         logger.debug("File already found at path '{}' in site '{}', create a new name", initialDestPath, site);
         try {
             String adjustedDestPath = initialDestPath;
@@ -1365,7 +1759,7 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
                 String newCollisionCheck = fromFileIsIndex ?
                         pasteTargetFolder + File.separator + adjustedDestFolder :
                         adjustedDestPath;
-                collisionFound = Stream.of(siblings)
+                collisionFound = reservedPaths.contains(newCollisionCheck) || Stream.of(siblings)
                         .map(item -> item.path + File.separator + item.name)
                         .anyMatch(newCollisionCheck::equals);
             }
@@ -1859,6 +2253,97 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
         return item;
     }
 
+    @Override
+    @Valid
+    @LogExecutionTime
+    public List<ContentItemTO> getContentItems(@ValidSiteId String site, List<String> paths) {
+        logger.debug("Get '{}' content items at site '{}'", paths.size(), site);
+        Map<String, Item> items = new HashMap<>();
+        for (Item item : itemServiceInternal.getItems(site, paths)) {
+            items.putIfAbsent(item.getPath(), item);
+        }
+
+        List<ContentItemTO> contentItems = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            Item item = items.get(path);
+            if (item == null) {
+                logger.debug("Item not found at site '{}' path '{}', load it from the repository", site, path);
+                contentItems.add(getContentItem(site, path, 0));
+            } else {
+                contentItems.add(createContentItem(site, item));
+            }
+        }
+        return contentItems;
+    }
+
+    /**
+     * Builds a content item using only the data from the item table
+     *
+     * @param site the site id
+     * @param it the item
+     * @return the content item
+     */
+    protected ContentItemTO createContentItem(String site, Item it) {
+        String contentPath = FilenameUtils.normalize(it.getPath(), true);
+        ContentItemTO item = new ContentItemTO();
+        item.site = site;
+        item.uri = contentPath;
+        item.path = contentPath.substring(0, contentPath.lastIndexOf(FILE_SEPARATOR));
+        item.name = contentPath.substring(contentPath.lastIndexOf(FILE_SEPARATOR) + 1);
+        item.internalName = isEmpty(it.getLabel()) ? item.name : it.getLabel();
+        item.folder = CONTENT_TYPE_FOLDER.equals(it.getSystemType());
+        item.contentType = isEmpty(it.getContentTypeId()) ? CONTENT_TYPE_UNKNOWN : it.getContentTypeId();
+        item.browserUri = isEmpty(it.getPreviewUrl()) ? contentPath : it.getPreviewUrl();
+
+        item.setLevelDescriptor(item.name.equals(servicesConfig.getLevelDescriptorName(site)));
+        item.page = ContentUtils.matchesPatterns(contentPath, servicesConfig.getPagePatterns(site));
+        item.isPage = item.page;
+        item.previewable = item.page;
+        item.isPreviewable = item.previewable;
+        item.asset = ContentUtils.matchesPatterns(contentPath, servicesConfig.getAssetPatterns(site));
+        item.isAsset = item.asset;
+        item.component = ContentUtils.matchesPatterns(contentPath, servicesConfig.getComponentPatterns(site)) ||
+                item.isLevelDescriptor();
+        item.isComponent = item.component;
+        item.document = ContentUtils.matchesPatterns(contentPath, servicesConfig.getDocumentPatterns(site));
+        item.isDocument = item.document;
+        loadContentTypeProperties(site, item, item.contentType);
+        if (isNotEmpty(it.getMimeType())) {
+            item.setMimeType(it.getMimeType());
+        }
+
+        Person lockOwner = it.getLockOwner();
+        item.setLockOwner(lockOwner != null && lockOwner.getUsername() != null ? lockOwner.getUsername() : "");
+        Person modifier = it.getModifier();
+        if (modifier == null || isEmpty(modifier.getUsername())) {
+            item.setUser("");
+            item.setUserFirstName("");
+            item.setUserLastName("");
+        } else {
+            item.user = modifier.getUsername();
+            item.setUser(modifier.getUsername());
+            item.userFirstName = modifier.getFirstName();
+            item.setUserFirstName(modifier.getFirstName());
+            item.userLastName = modifier.getLastName();
+            item.setUserLastName(modifier.getLastName());
+        }
+        if (it.getLastModifiedOn() != null) {
+            item.lastEditDate = it.getLastModifiedOn();
+            item.eventDate = it.getLastModifiedOn();
+            item.setLastEditDate(it.getLastModifiedOn());
+            item.setEventDate(it.getLastModifiedOn());
+        }
+        if (it.getLastPublishedOn() != null) {
+            item.published = true;
+            item.setPublished(true);
+            item.publishedDate = it.getLastPublishedOn();
+            item.setPublishedDate(it.getLastPublishedOn());
+        }
+
+        populateWorkflowProperties(item, it);
+        return item;
+    }
+
     @Override
     @RequireSiteExists
     public String getItemContentType(@SiteId String site, String path) throws DocumentException, SiteNotFoundException {
@@ -1956,7 +2441,10 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
     }
 
     protected void populateWorkflowProperties(String site, ContentItemTO item) {
-        Item it = itemServiceInternal.getItem(site, item.getUri());
+        populateWorkflowProperties(item, itemServiceInternal.getItem(site, item.getUri()));
+    }
+
+    protected void populateWorkflowProperties(ContentItemTO item, Item it) {
         if (it != null) {
             if (item.isFolder()) {
                 boolean liveFolder = isLive(it.getState());
@@ -2838,6 +3326,14 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
         this.generalLockService = generalLockService;
     }
 
+    public void setStudioDBScriptRunnerFactory(StudioDBScriptRunnerFactory studioDBScriptRunnerFactory) {
+        this.studioDBScriptRunnerFactory = studioDBScriptRunnerFactory;
+    }
+
+    public void setPolicyService(PolicyService policyService) {
+        this.policyService = policyService;
+    }
+
     /**
      * Simple Object to hold result of calculating target paths for copy/cut and paste operation.
      */
@@ -2849,4 +3345,49 @@ public class ContentServiceImpl implements ContentService, ApplicationContextAwa
         protected boolean altName;
     }
 
+    /**
+     * Items to be written by a tree copy, in the order they were calculated.
+     */
+    protected static class CopyPlan {
+        protected final Map<String, PlannedCopy> items = new LinkedHashMap<>();
+        protected final Map<String, String> inProgress = new HashMap<>();
+        protected final Set<String> reservedPaths = new HashSet<>();
+
+        protected void add(PlannedCopy plannedCopy) {
+            items.put(plannedCopy.path, plannedCopy);
+        }
+
+        protected void reserve(String path) {
+            reservedPaths.add(path);
+            if (path.endsWith(SLASH_INDEX_FILE)) {
+                reservedPaths.add(StringUtils.removeEnd(path, SLASH_INDEX_FILE));
+            }
+        }
+
+        protected void release(String path) {
+            reservedPaths.remove(path);
+            if (path.endsWith(SLASH_INDEX_FILE)) {
+                reservedPaths.remove(StringUtils.removeEnd(path, SLASH_INDEX_FILE));
+            }
+        }
+    }
+
+    /**
+     * Single item of a {@link CopyPlan}: a folder, a file copied as is, or an XML document updated for the copy.
+     */
+    protected static class PlannedCopy {
+        protected final String fromPath;
+        protected final String path;
+        protected String contentType;
+        protected boolean folder;
+        protected Document document;
+        /** Size in bytes of the new file, -1 if unknown */
+        protected long size = -1L;
+
+        protected PlannedCopy(String fromPath, String path) {
+            this.fromPath = fromPath;
+            this.path = path;
+        }
+    }
+
 }
@@ -16,6 +16,8 @@
 
 package org.craftercms.studio.impl.v1.service.content;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.craftercms.commons.validation.annotations.param.ValidateSecurePathParam;
@@ -45,6 +47,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static java.lang.String.format;
 import static org.craftercms.studio.api.v1.constant.StudioConstants.FILE_SEPARATOR;
@@ -65,6 +70,12 @@ public class ContentTypeServiceImpl implements ContentTypeService {
     protected ContentRepository contentRepository;
     protected StudioConfiguration studioConfiguration;
 
+    /**
+     * Compiled path rules for each content type config. The configs are cached (and replaced when the content type
+     * changes) by {@link ContentTypesConfig}, so entries are keyed by identity and dropped with the old config.
+     */
+    protected final Cache<ContentTypeConfigTO, PathRules> pathRules = CacheBuilder.newBuilder().weakKeys().build();
+
     @Override
     @Valid
     public ContentTypeConfigTO getContentTypeForContent(@ValidateStringParam String site,
@@ -153,29 +164,10 @@ public class ContentTypeServiceImpl implements ContentTypeService {
         if (CollectionUtils.isNotEmpty(allContentTypes)) {
             List<ContentTypeConfigTO> contentTypes = new ArrayList<>();
             for (ContentTypeConfigTO contentTypeConfig : allContentTypes) {
-                // check if the path matches one of includes paths
-                if (CollectionUtils.isNotEmpty(contentTypeConfig.getPathIncludes())) {
-                    for (String pathIncludes : contentTypeConfig.getPathIncludes()) {
-                        if (relativePath.matches(pathIncludes)) {
-                            logger.trace("In site '{}' path '{}' matches '{}'", site, relativePath, pathIncludes);
-                            boolean isMatch = true;
-                            if (contentTypeConfig.getPathExcludes() != null) {
-                                for (String excludePath : contentTypeConfig.getPathExcludes()) {
-                                    if (relativePath.matches(excludePath)) {
-                                        logger.trace("In site '{}' path '{}' matches an exclude path '{}'",
-                                                site, relativePath, excludePath);
-                                        isMatch = false;
-                                        break;
-                                    }
-                                }
-                            }
-                            if (isMatch) {
-                                // if a match is found, populate the content type information
-                                addContentTypes(site, userRoles, contentTypeConfig, contentTypes);
-                            }
-                        }
-                    }
-                } else if (CollectionUtils.isEmpty(contentTypeConfig.getPathExcludes())) {
+                if (getPathRules(contentTypeConfig).isAllowed(relativePath)) {
+                    logger.trace("In site '{}' path '{}' is allowed for content type '{}'",
+                            site, relativePath, contentTypeConfig.getName());
+                    // if a match is found, populate the content type information
                     addContentTypes(site, userRoles, contentTypeConfig, contentTypes);
                 }
             }
@@ -186,6 +178,15 @@ public class ContentTypeServiceImpl implements ContentTypeService {
         }
     }
 
+    protected PathRules getPathRules(ContentTypeConfigTO contentTypeConfig) {
+        try {
+            return pathRules.get(contentTypeConfig, () -> new PathRules(contentTypeConfig));
+        } catch (ExecutionException e) {
+            // Compiling the rules never throws checked exceptions
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     protected void addContentTypes(String site, Set<String> userRoles, ContentTypeConfigTO config,
                                    List<ContentTypeConfigTO> contentTypes) {
         boolean isAllowed = this.isUserAllowed(userRoles, config);
@@ -331,4 +332,57 @@ public class ContentTypeServiceImpl implements ContentTypeService {
     public void setStudioConfiguration(StudioConfiguration studioConfiguration) {
         this.studioConfiguration = studioConfiguration;
     }
+
+    /**
+     * Precompiled include and exclude path patterns of a content type
+     */
+    protected static class PathRules {
+
+        private final boolean hasIncludes;
+        private final boolean hasExcludes;
+        private final List<Pattern> includes;
+        private final List<Pattern> excludes;
+
+        protected PathRules(ContentTypeConfigTO contentTypeConfig) {
+            hasIncludes = CollectionUtils.isNotEmpty(contentTypeConfig.getPathIncludes());
+            hasExcludes = CollectionUtils.isNotEmpty(contentTypeConfig.getPathExcludes());
+            includes = compile(contentTypeConfig.getName(), contentTypeConfig.getPathIncludes());
+            excludes = compile(contentTypeConfig.getName(), contentTypeConfig.getPathExcludes());
+        }
+
+        /**
+         * Checks if the content type can be created in the given path. Without includes the content type is only
+         * allowed when it doesn't have excludes either.
+         */
+        public boolean isAllowed(String path) {
+            if (!hasIncludes) {
+                return !hasExcludes;
+            }
+            return matchesAny(includes, path) && !matchesAny(excludes, path);
+        }
+
+        private static boolean matchesAny(List<Pattern> patterns, String path) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(path).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static List<Pattern> compile(String contentType, List<String> regexes) {
+            if (CollectionUtils.isEmpty(regexes)) {
+                return Collections.emptyList();
+            }
+            List<Pattern> patterns = new ArrayList<>(regexes.size());
+            for (String regex : regexes) {
+                try {
+                    patterns.add(Pattern.compile(regex));
+                } catch (PatternSyntaxException e) {
+                    logger.warn("Ignoring invalid path pattern '{}' in content type '{}'", regex, contentType, e);
+                }
+            }
+            return patterns;
+        }
+    }
 }
@@ -26,6 +26,7 @@ import org.craftercms.studio.api.v1.service.AbstractRegistrableService;
 import org.craftercms.studio.api.v1.service.content.ContentService;
 import org.craftercms.studio.api.v1.service.content.DmContentLifeCycleService;
 import org.craftercms.studio.api.v1.service.security.SecurityService;
+import org.craftercms.studio.api.v2.repository.ContentRepository;
 import org.craftercms.studio.api.v2.utils.StudioConfiguration;
 import org.craftercms.studio.impl.v1.util.ContentUtils;
 import org.dom4j.Document;
@@ -55,6 +56,7 @@ public class DmContentLifeCycleServiceImpl extends AbstractRegistrableService im
     protected SecurityService securityService;
     protected ScriptExecutor scriptExecutor;
     protected StudioConfiguration studioConfiguration;
+    protected ContentRepository contentRepository;
     protected ApplicationContext applicationContext;
 
     public String getScriptLocation() {
@@ -97,19 +99,19 @@ public class DmContentLifeCycleServiceImpl extends AbstractRegistrableService im
 
         // find the script ref based on content type
         String scriptPath = getScriptPath(site, contentType);
-        if (!contentService.contentExists(site, scriptPath)) {
+        // the blob id changes with the script, so it is used to find the compiled version
+        String scriptId = contentRepository.getContentBlobId(site, scriptPath);
+        if (scriptId == null) {
             logger.error("No script found in site '{}' path '{}' content type '{}'", site, scriptPath, contentType);
             return;
         }
-        String script = contentService.getContentAsString(site, scriptPath);
 
-        if (StringUtils.isNotEmpty(script)) {
-            Map<String, Object> model = buildModel(site, user, path, contentType, operation.toString(), params);
-            try {
-                scriptExecutor.executeScriptString(script, model);
-            } catch (Exception e) {
-                logger.error("Failed to execute content lifecycle script in site '{}' path '{}'", site, path, e);
-            }
+        Map<String, Object> model = buildModel(site, user, path, contentType, operation.toString(), params);
+        try {
+            scriptExecutor.executeScript(site, scriptId,
+                    () -> StringUtils.defaultString(contentService.getContentAsString(site, scriptPath)), model);
+        } catch (Exception e) {
+            logger.error("Failed to execute content lifecycle script in site '{}' path '{}'", site, path, e);
         }
     }
 
@@ -239,6 +241,10 @@ public class DmContentLifeCycleServiceImpl extends AbstractRegistrableService im
         this.studioConfiguration = studioConfiguration;
     }
 
+    public void setContentRepository(ContentRepository contentRepository) {
+        this.contentRepository = contentRepository;
+    }
+
     @Override
     public void setApplicationContext(final @NonNull ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
@@ -15,17 +15,21 @@
  */
 package org.craftercms.studio.impl.v1.service.content;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.craftercms.commons.validation.annotations.param.ValidateSecurePathParam;
 import org.craftercms.commons.validation.annotations.param.ValidateStringParam;
 import org.craftercms.studio.api.v1.constant.DmXmlConstants;
 import org.craftercms.studio.api.v1.dal.NavigationOrderSequence;
 import org.craftercms.studio.api.v1.dal.NavigationOrderSequenceMapper;
+import org.craftercms.studio.api.v1.dal.SiteFeed;
+import org.craftercms.studio.api.v1.dal.SiteFeedMapper;
 import org.craftercms.studio.api.v1.service.AbstractRegistrableService;
 import org.craftercms.studio.api.v1.service.GeneralLockService;
 import org.craftercms.studio.api.v1.service.content.ContentService;
 import org.craftercms.studio.api.v1.service.content.DmPageNavigationOrderService;
-import org.craftercms.studio.api.v1.to.ContentItemTO;
+import org.craftercms.studio.api.v2.dal.ItemDAO;
 import org.craftercms.studio.api.v2.dal.RetryingDatabaseOperationFacade;
 import org.craftercms.studio.api.v2.utils.StudioConfiguration;
 import org.dom4j.Document;
@@ -33,13 +37,16 @@ import org.dom4j.Element;
 import org.dom4j.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.craftercms.studio.api.v2.dal.QueryParameterNames.SITE_ID;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.PAGE_NAVIGATION_ORDER_INCREMENT;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.PAGE_NAVIGATION_ORDER_RESERVATION_SIZE;
 
 public class DmPageNavigationOrderServiceImpl extends AbstractRegistrableService
         implements DmPageNavigationOrderService {
@@ -50,7 +57,15 @@ public class DmPageNavigationOrderServiceImpl extends AbstractRegistrableService
     protected ContentService contentService;
     protected StudioConfiguration studioConfiguration;
     protected NavigationOrderSequenceMapper navigationOrderSequenceMapper;
+    protected ItemDAO itemDao;
+    protected SiteFeedMapper siteFeedMapper;
     protected RetryingDatabaseOperationFacade retryingDatabaseOperationFacade;
+    protected TransactionTemplate transactionTemplate;
+
+    /**
+     * Navigation order values already reserved in the database for each folder, keyed by site and path
+     */
+    protected Cache<String, Reservation> reservations = CacheBuilder.newBuilder().build();
 
     @Override
     public void register() {
@@ -71,53 +86,89 @@ public class DmPageNavigationOrderServiceImpl extends AbstractRegistrableService
                                  double currentMaxNavOrder) {
         double lastNavOrder = 1000D;
         try {
-            Map<String, String> params = new HashMap<>();
-            params.put("site", site);
-            params.put("path", path);
-            NavigationOrderSequence navigationOrderSequence =
-                    navigationOrderSequenceMapper.getPageNavigationOrderForSiteAndPath(params);
-            if (navigationOrderSequence == null) {
-                navigationOrderSequence = getNewNavigationOrderSequence(site, path, currentMaxNavOrder);
-                NavigationOrderSequence finalNavOrderSequence = navigationOrderSequence;
-                retryingDatabaseOperationFacade.retry(() -> navigationOrderSequenceMapper.insert(finalNavOrderSequence));
-            } else {
-                double newMaxCount = navigationOrderSequence.getMaxCount() + getPageNavigationOrderIncrement();
-                navigationOrderSequence.setMaxCount(newMaxCount);
-                NavigationOrderSequence finalNavOrderSequence = navigationOrderSequence;
-                retryingDatabaseOperationFacade.retry(() -> navigationOrderSequenceMapper.update(finalNavOrderSequence));
+            // Values are handed out from memory, the database is only hit when the reservation is exhausted
+            Reservation reservation = reservations.get(getReservationKey(site, path), Reservation::new);
+            synchronized (reservation) {
+                if (!reservation.hasNext()) {
+                    reserve(site, path, currentMaxNavOrder, reservation);
+                }
+                lastNavOrder = reservation.next();
             }
-            lastNavOrder = navigationOrderSequence.getMaxCount();
         } catch (Exception e) {
             logger.error("Failed to get the new NavOrder for site '{}' path '{}'", site, path, e);
         }
         return lastNavOrder;
+    }
+
+    /**
+     * Reserve the next block of navigation order values for the given folder. The sequence is advanced with a
+     * single atomic increment, so concurrent reservations (even from other nodes) never overlap.
+     */
+    protected void reserve(String site, String path, double currentMaxNavOrder, Reservation reservation) {
+        int increment = getPageNavigationOrderIncrement();
+        double amount = (double) increment * getReservationSize();
+        NavigationOrderSequence sequence = retryingDatabaseOperationFacade.retry(() ->
+                transactionTemplate.execute(status -> {
+                    if (reservation.folderId != null) {
+                        NavigationOrderSequence incremented = incrementSequence(reservation.folderId, amount);
+                        if (incremented != null) {
+                            return incremented;
+                        }
+                    }
+                    Map<String, String> params = new HashMap<>();
+                    params.put("site", site);
+                    params.put("path", path);
+                    NavigationOrderSequence existing =
+                            navigationOrderSequenceMapper.getPageNavigationOrderForSiteAndPath(params);
+                    if (existing != null) {
+                        return incrementSequence(existing.getFolderId(), amount);
+                    }
+                    NavigationOrderSequence created = getNewNavigationOrderSequence(site, path, currentMaxNavOrder);
+                    created.setMaxCount(created.getMaxCount() + amount - increment);
+                    navigationOrderSequenceMapper.insert(created);
+                    return created;
+                }));
+        reservation.folderId = sequence.getFolderId();
+        reservation.increment = increment;
+        reservation.last = sequence.getMaxCount();
+        reservation.next = sequence.getMaxCount() - amount + increment;
+    }
 
+    private NavigationOrderSequence incrementSequence(String folderId, double amount) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("folderId", folderId);
+        params.put("amount", amount);
+        navigationOrderSequenceMapper.increment(params);
+        return navigationOrderSequenceMapper.getPageNavigationOrderForFolder(params);
     }
 
-    private NavigationOrderSequence getNewNavigationOrderSequence(final String site, final String path, final double currentMaxNavOrder) {
-        NavigationOrderSequence navigationOrderSequence;
-        navigationOrderSequence = new NavigationOrderSequence();
+    private NavigationOrderSequence getNewNavigationOrderSequence(final String site, final String path,
+                                                                  final double currentMaxNavOrder) {
+        NavigationOrderSequence navigationOrderSequence = new NavigationOrderSequence();
         navigationOrderSequence.setSite(site);
         navigationOrderSequence.setPath(path);
-        ContentItemTO itemTreeTO = contentService.getContentItemTree(site, path, 1);
-        if (itemTreeTO == null) {
-            navigationOrderSequence.setMaxCount(0F);
+        navigationOrderSequence.setFolderId(UUID.randomUUID().toString());
+        if (currentMaxNavOrder < 0) {
+            navigationOrderSequence.setMaxCount(1000F * countChildren(site, path));
         } else {
-            if (StringUtils.isEmpty(itemTreeTO.getNodeRef())) {
-                navigationOrderSequence.setFolderId(UUID.randomUUID().toString());
-            } else {
-                navigationOrderSequence.setFolderId(itemTreeTO.getNodeRef());
-            }
-            if (currentMaxNavOrder < 0) {
-                navigationOrderSequence.setMaxCount(1000F * itemTreeTO.getNumOfChildren());
-            } else {
-                double newMaxCount = currentMaxNavOrder + getPageNavigationOrderIncrement();
-                navigationOrderSequence.setMaxCount(newMaxCount);
-            }
+            double newMaxCount = currentMaxNavOrder + getPageNavigationOrderIncrement();
+            navigationOrderSequence.setMaxCount(newMaxCount);
         }
         return navigationOrderSequence;
     }
 
+    private int countChildren(String site, String path) {
+        SiteFeed siteFeed = siteFeedMapper.getSite(Map.of(SITE_ID, site));
+        if (siteFeed == null) {
+            return 0;
+        }
+        return itemDao.getChildrenByPathTotal(siteFeed.getId(), path, null, null, null, null, null);
+    }
+
+    private String getReservationKey(String site, String path) {
+        return site + ":" + path;
+    }
+
     @Override
     @Valid
     public boolean addNavOrder(@ValidateStringParam String site,
@@ -166,6 +217,8 @@ public class DmPageNavigationOrderServiceImpl extends AbstractRegistrableService
         Map<String, String> params = new HashMap<>();
         params.put("site", site);
         retryingDatabaseOperationFacade.retry(() -> navigationOrderSequenceMapper.deleteSequencesForSite(params));
+        String prefix = getReservationKey(site, StringUtils.EMPTY);
+        reservations.asMap().keySet().removeIf(key -> key.startsWith(prefix));
     }
 
     @Override
@@ -174,6 +227,10 @@ public class DmPageNavigationOrderServiceImpl extends AbstractRegistrableService
         return toReturn;
     }
 
+    protected int getReservationSize() {
+        return Math.max(1, Integer.parseInt(studioConfiguration.getProperty(PAGE_NAVIGATION_ORDER_RESERVATION_SIZE)));
+    }
+
     public GeneralLockService getGeneralLockService() {
         return generalLockService;
     }
@@ -206,6 +263,22 @@ public class DmPageNavigationOrderServiceImpl extends AbstractRegistrableService
         this.navigationOrderSequenceMapper = navigationOrderSequenceMapper;
     }
 
+    public void setItemDao(ItemDAO itemDao) {
+        this.itemDao = itemDao;
+    }
+
+    public void setSiteFeedMapper(SiteFeedMapper siteFeedMapper) {
+        this.siteFeedMapper = siteFeedMapper;
+    }
+
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void setReservationCacheConfig(String reservationCacheConfig) {
+        this.reservations = CacheBuilder.from(reservationCacheConfig).build();
+    }
+
     public RetryingDatabaseOperationFacade getRetryingDatabaseOperationFacade() {
         return retryingDatabaseOperationFacade;
     }
@@ -213,4 +286,25 @@ public class DmPageNavigationOrderServiceImpl extends AbstractRegistrableService
     public void setRetryingDatabaseOperationFacade(RetryingDatabaseOperationFacade retryingDatabaseOperationFacade) {
         this.retryingDatabaseOperationFacade = retryingDatabaseOperationFacade;
     }
+
+    /**
+     * Range of navigation order values reserved in the database for a folder and not handed out yet
+     */
+    protected static final class Reservation {
+
+        private String folderId;
+        private double next;
+        private double last;
+        private double increment;
+
+        private boolean hasNext() {
+            return folderId != null && next <= last;
+        }
+
+        private double next() {
+            double value = next;
+            next += increment;
+            return value;
+        }
+    }
 }
@@ -16,6 +16,7 @@
 package org.craftercms.studio.impl.v1.service.deployment;
 
 import org.apache.commons.collections.FastArrayList;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tika.io.FilenameUtils;
@@ -59,6 +60,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.validation.Valid;
 import java.time.ZoneId;
@@ -71,6 +73,7 @@ import static org.craftercms.studio.api.v2.dal.AuditLogConstants.*;
 import static org.craftercms.studio.api.v2.dal.ItemState.*;
 import static org.craftercms.studio.api.v2.dal.PublishStatus.*;
 import static org.craftercms.studio.api.v2.dal.Workflow.STATE_APPROVED;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.DB_BULK_OPERATIONS_BATCH_SIZE;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.REPO_PUBLISHED_LIVE;
 import static org.craftercms.studio.impl.v1.repository.git.GitContentRepositoryConstants.IGNORE_FILES;
 import static org.craftercms.studio.impl.v1.repository.git.GitContentRepositoryConstants.PREVIOUS_COMMIT_SUFFIX;
@@ -104,6 +107,8 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
     protected PublishingManager publishingManager;
     protected PublishRequestDAO publishRequestDAO;
     protected RetryingDatabaseOperationFacade retryingDatabaseOperationFacade;
+    protected WorkflowDAO workflowDao;
+    protected TransactionTemplate transactionTemplate;
     protected ApplicationContext applicationContext;
 
     @Override
@@ -166,11 +171,10 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
         groupedPaths.put(PublishRequest.Action.MOVE, movedPaths);
         groupedPaths.put(PublishRequest.Action.UPDATE, updatedPaths);
 
+        List<Workflow> workflowEntries = new ArrayList<>();
         List<PublishRequest> items = createItems(site, environment, groupedPaths, scheduledDate, approver,
-                submissionComment);
-        for (PublishRequest item : items) {
-            retryingDatabaseOperationFacade.retry(() -> publishRequestMapper.insertItemForDeployment(item));
-        }
+                submissionComment, workflowEntries);
+        enqueuePackage(site, items, workflowEntries);
         itemServiceInternal.setSystemProcessingBulk(site, paths, false);
 
         // We need to pick up this on Inserting , not on execution!
@@ -215,14 +219,42 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
         return paths;
     }
 
+    /**
+     * Inserts the publish requests and the new workflow entries of a single package, using multi-row inserts of at
+     * most {@code studio.db.bulkOperations.batchSize} rows each, in a single transaction. The whole transaction is
+     * retried if it loses a deadlock, so the mappers are called directly instead of through the retrying services.
+     *
+     * @param site            the site id
+     * @param publishRequests the publish requests of the package
+     * @param workflowEntries the new workflow entries of the package
+     */
+    protected void enqueuePackage(String site, List<PublishRequest> publishRequests, List<Workflow> workflowEntries) {
+        if (publishRequests.isEmpty() && workflowEntries.isEmpty()) {
+            return;
+        }
+        int batchSize = Integer.parseInt(studioConfiguration.getProperty(DB_BULK_OPERATIONS_BATCH_SIZE));
+        logger.debug("Enqueue '{}' publish requests and '{}' workflow entries in site '{}'",
+                publishRequests.size(), workflowEntries.size(), site);
+        retryingDatabaseOperationFacade.retry(() -> transactionTemplate.executeWithoutResult(status -> {
+            for (List<Workflow> batch : ListUtils.partition(workflowEntries, batchSize)) {
+                workflowDao.insertWorkflowEntries(batch);
+            }
+            for (List<PublishRequest> batch : ListUtils.partition(publishRequests, batchSize)) {
+                publishRequestMapper.insertItemsForDeployment(batch);
+            }
+        }));
+    }
+
     private List<PublishRequest> createItems(String site, String environment, Map<String, List<String>> paths,
-                                             ZonedDateTime scheduledDate, String approver, String submissionComment)
+                                             ZonedDateTime scheduledDate, String approver, String submissionComment,
+                                             List<Workflow> workflowEntries)
             throws ServiceLayerException, UserNotFoundException {
         List<PublishRequest> newItems = new ArrayList<>();
 
         String packageId = UUID.randomUUID().toString();
 
         Map<String, Object> params = null;
+        User reviewer = userServiceInternal.getUserByIdOrUsername(-1, securityService.getCurrentUser());
         for (String action : paths.keySet()) {
             for (String path : paths.get(action)) {
                 PublishRequest publishRequest = new PublishRequest();
@@ -258,8 +290,6 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
                         newItems.add(publishRequest);
                     }
 
-
-                    User reviewer = userServiceInternal.getUserByIdOrUsername(-1, securityService.getCurrentUser());
                     Workflow workflow = workflowServiceInternal.getWorkflowEntryForApproval(it.getId());
                     boolean insert = false;
                     if (Objects.isNull(workflow)) {
@@ -278,7 +308,7 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
                     if (insert) {
                         // If new, the submitter is the current user as well
                         workflow.setSubmitterId(reviewer.getId());
-                        workflowServiceInternal.insertWorkflow(workflow);
+                        workflowEntries.add(workflow);
                     } else {
                         workflowServiceInternal.updateWorkflow(workflow);
                     }
@@ -301,9 +331,7 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
         for (String environment : environments) {
             List<PublishRequest> items =
                     createDeleteItems(site, environment, paths, approver, scheduledDate, submissionComment);
-            for (PublishRequest item : items) {
-                retryingDatabaseOperationFacade.retry(() -> publishRequestMapper.insertItemForDeployment(item));
-            }
+            enqueuePackage(site, items, Collections.emptyList());
         }
         itemServiceInternal.setSystemProcessingBulk(site, paths, false);
         try {
@@ -319,12 +347,20 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
             throws ServiceLayerException, UserNotFoundException {
         List<PublishRequest> newItems = new ArrayList<>(paths.size());
         String packageId = UUID.randomUUID().toString();
+        // Load the items of all paths at once, instead of building a content item for each one
+        Map<String, Item> items = new HashMap<>();
+        if (!paths.isEmpty()) {
+            for (Item it : itemServiceInternal.getItems(site, paths)) {
+                items.putIfAbsent(it.getPath(), it);
+            }
+        }
         for (String path : paths) {
             if (contentService.contentExists(site, path)) {
-                ContentItemTO contentItem = contentService.getContentItem(site, path, 0);
-                if (!contentItem.isFolder()) {
+                Item it = items.get(path);
+                boolean isFolder = it != null ? StringUtils.equals(it.getSystemType(), CONTENT_TYPE_FOLDER)
+                        : contentRepository.isFolder(site, path);
+                if (!isFolder) {
                     PublishRequest item = new PublishRequest();
-                    Item it = itemServiceInternal.getItem(site, path);
                     item.setId(++CTED_AUTOINCREMENT);
                     item.setSite(site);
                     item.setEnvironment(environment);
@@ -469,15 +505,35 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
         List<ContentItemTO> results = new FastArrayList();
         List<String> displayPatterns = servicesConfig.getDisplayInWidgetPathPatterns(site);
         List<org.craftercms.studio.api.v2.dal.PublishRequest> deploying = getScheduledItems(site, filterType);
+        List<org.craftercms.studio.api.v2.dal.PublishRequest> visible = new ArrayList<>(deploying.size());
         for (org.craftercms.studio.api.v2.dal.PublishRequest deploymentItem : deploying) {
             Set<String> permissions = securityService.getUserPermissions(site, deploymentItem.getPath(),
                     securityService.getCurrentUser(), Collections.emptyList());
-            if (permissions.contains(StudioConstants.PERMISSION_VALUE_PUBLISH)) {
-                addScheduledItem(site, deploymentItem.getEnvironment(), deploymentItem.getScheduledDate(),
-                        deploymentItem.getPath(), deploymentItem.getPackageId(), results, comparator, subComparator,
-                        displayPatterns);
+            if (permissions.contains(StudioConstants.PERMISSION_VALUE_PUBLISH) &&
+                    ContentUtils.matchesPatterns(deploymentItem.getPath(), displayPatterns)) {
+                visible.add(deploymentItem);
             }
         }
+        if (visible.isEmpty()) {
+            return results;
+        }
+
+        // Load all the items at once instead of one by one
+        List<String> paths = visible.stream()
+                .map(org.craftercms.studio.api.v2.dal.PublishRequest::getPath)
+                .distinct()
+                .toList();
+        Map<String, ContentItemTO> contentItems = new HashMap<>();
+        List<ContentItemTO> loadedItems = contentService.getContentItems(site, paths);
+        for (int i = 0; i < paths.size(); i++) {
+            contentItems.put(paths.get(i), loadedItems.get(i));
+        }
+        for (org.craftercms.studio.api.v2.dal.PublishRequest deploymentItem : visible) {
+            // The same path can be scheduled for several targets, so each entry gets its own copy
+            ContentItemTO itemToAdd = new ContentItemTO(contentItems.get(deploymentItem.getPath()));
+            addToScheduledDateList(site, deploymentItem.getEnvironment(), deploymentItem.getScheduledDate(),
+                    itemToAdd, deploymentItem.getPackageId(), results, comparator, subComparator);
+        }
         return results;
     }
 
@@ -522,42 +578,61 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
                                           DmContentItemComparator comparator, DmContentItemComparator subComparator,
                                           List<String> displayPatterns)
             throws ServiceLayerException {
-        String timeZone = servicesConfig.getDefaultTimezone(site);
-        String dateLabel =
-                launchDate.withZoneSameInstant(ZoneId.of(timeZone)).format(ISO_OFFSET_DATE_TIME);
         // add only if the current node is a file (directories are
         // deployed with index.xml)
         // display only if the path matches one of display patterns
         if (ContentUtils.matchesPatterns(path, displayPatterns)) {
             ContentItemTO itemToAdd = contentService.getContentItem(site, path, 0);
-            itemToAdd.scheduledDate = launchDate;
-            itemToAdd.environment = environment;
-            itemToAdd.packageId = packageId;
-            boolean found = false;
-            for (int index = 0; index < scheduledItems.size(); index++) {
-                ContentItemTO currDateItem = scheduledItems.get(index);
-                // if the same date label found, add the content item to
-                // it non-recursively
-                if (currDateItem.name.equals(dateLabel)) {
-                    currDateItem.addChild(itemToAdd, subComparator, false);
-                    found = true;
-                    break;
-                    // if the date is after the current date, add a new
-                    // date item before it
-                    // and add the content item to the new date item
-                } else if (itemToAdd.scheduledDate.compareTo(currDateItem.scheduledDate) < 0) {
-                    ContentItemTO dateItem = createDateItem(dateLabel, itemToAdd, comparator, timeZone);
-                    scheduledItems.add(index, dateItem);
-                    found = true;
-                    break;
-                }
-            }
-            // if not found, add to the end of list
-            if (!found) {
+            addToScheduledDateList(site, environment, launchDate, itemToAdd, packageId, scheduledItems, comparator,
+                    subComparator);
+        }
+    }
+
+    /**
+     * add the given content item to the scheduled items list
+     *
+     * @param site
+     * @param environment
+     * @param launchDate
+     * @param itemToAdd
+     * @param packageId
+     * @param scheduledItems
+     * @param comparator
+     * @param subComparator
+     */
+    protected void addToScheduledDateList(String site, String environment, ZonedDateTime launchDate,
+                                          ContentItemTO itemToAdd, String packageId,
+                                          List<ContentItemTO> scheduledItems, DmContentItemComparator comparator,
+                                          DmContentItemComparator subComparator) {
+        String timeZone = servicesConfig.getDefaultTimezone(site);
+        String dateLabel =
+                launchDate.withZoneSameInstant(ZoneId.of(timeZone)).format(ISO_OFFSET_DATE_TIME);
+        itemToAdd.scheduledDate = launchDate;
+        itemToAdd.environment = environment;
+        itemToAdd.packageId = packageId;
+        boolean found = false;
+        for (int index = 0; index < scheduledItems.size(); index++) {
+            ContentItemTO currDateItem = scheduledItems.get(index);
+            // if the same date label found, add the content item to
+            // it non-recursively
+            if (currDateItem.name.equals(dateLabel)) {
+                currDateItem.addChild(itemToAdd, subComparator, false);
+                found = true;
+                break;
+                // if the date is after the current date, add a new
+                // date item before it
+                // and add the content item to the new date item
+            } else if (itemToAdd.scheduledDate.compareTo(currDateItem.scheduledDate) < 0) {
                 ContentItemTO dateItem = createDateItem(dateLabel, itemToAdd, comparator, timeZone);
-                scheduledItems.add(dateItem);
+                scheduledItems.add(index, dateItem);
+                found = true;
+                break;
             }
-
+        }
+        // if not found, add to the end of list
+        if (!found) {
+            ContentItemTO dateItem = createDateItem(dateLabel, itemToAdd, comparator, timeZone);
+            scheduledItems.add(dateItem);
         }
     }
 
@@ -655,9 +730,7 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
         List<PublishRequest> publishRequests = createCommitItems(site, environment, commitIds,
                 DateUtils.getCurrentTime(), securityService.getCurrentUser(), comment);
         // Insert publish requests in the queue
-        for (PublishRequest request : publishRequests) {
-            retryingDatabaseOperationFacade.retry(() -> publishRequestMapper.insertItemForDeployment(request));
-        }
+        enqueuePackage(site, publishRequests, Collections.emptyList());
         logger.debug("Done adding publish requests for site '{}' target '{}'", site, environment);
     }
 
@@ -865,4 +938,12 @@ public class DeploymentServiceImpl implements DeploymentService, ApplicationCont
     public void setRetryingDatabaseOperationFacade(RetryingDatabaseOperationFacade retryingDatabaseOperationFacade) {
         this.retryingDatabaseOperationFacade = retryingDatabaseOperationFacade;
     }
+
+    public void setWorkflowDao(WorkflowDAO workflowDao) {
+        this.workflowDao = workflowDao;
+    }
+
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
 }
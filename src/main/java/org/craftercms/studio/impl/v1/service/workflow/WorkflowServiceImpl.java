@@ -28,7 +28,6 @@ import org.craftercms.studio.api.v1.exception.security.UserNotFoundException;
 import org.craftercms.studio.api.v1.service.configuration.ServicesConfig;
 import org.craftercms.studio.api.v1.service.content.ContentService;
 import org.craftercms.studio.api.v1.service.dependency.DependencyService;
-import org.craftercms.studio.api.v1.service.deployment.DeploymentException;
 import org.craftercms.studio.api.v1.service.deployment.DeploymentService;
 import org.craftercms.studio.api.v1.service.deployment.DmPublishService;
 import org.craftercms.studio.api.v1.service.security.SecurityService;
@@ -143,50 +142,55 @@ public class WorkflowServiceImpl implements WorkflowService, ApplicationContextA
     }
 
     protected void _cancelWorkflow(String site, String path) throws ServiceLayerException, UserNotFoundException {
-        List<String> allItemsToCancel = getWorkflowAffectedPathsInternal(site, path);
-        List<String> paths = new ArrayList<>();
-        for (String affectedItem : allItemsToCancel) {
-            try {
-                deploymentService.cancelWorkflow(site, affectedItem);
-                paths.add(affectedItem);
-            } catch (DeploymentException e) {
-                // TODO: SJ: This can get excessive since it's in a loop. Refactor.
-                logger.trace("Failed to cancel workflow in site '{}' path '{}'", site, affectedItem, e);
-            }
+        cancelWorkflowBulk(site, Collections.singletonList(path));
+    }
+
+    /**
+     * Cancel the workflow for the given items, their mandatory children and their publishing dependencies.
+     * All affected items are updated in a single transaction and a single {@link WorkflowEvent} is published.
+     *
+     * @param site the site id
+     * @param paths the paths of the items to cancel
+     */
+    protected void cancelWorkflowBulk(String site, Collection<String> paths)
+            throws ServiceLayerException, UserNotFoundException {
+        if (CollectionUtils.isEmpty(paths)) {
+            return;
         }
-        if (CollectionUtils.isNotEmpty(paths)) {
-            workflowServiceInternal.deleteWorkflowEntries(site, paths);
-            itemServiceInternal.updateStateBitsBulk(site, paths, CANCEL_WORKFLOW_ON_MASK, CANCEL_WORKFLOW_OFF_MASK);
+        List<String> affectedPaths = getWorkflowAffectedPathsInternal(site, paths);
+        if (CollectionUtils.isNotEmpty(affectedPaths)) {
+            workflowServiceInternal.cancelWorkflow(site, affectedPaths);
             applicationContext.publishEvent(new WorkflowEvent(securityService.getAuthentication(), site));
         }
     }
 
-    protected List<String> getWorkflowAffectedPathsInternal(String site, String path)
+    protected List<String> getWorkflowAffectedPathsInternal(String site, Collection<String> paths)
             throws ServiceLayerException, UserNotFoundException {
-        List<String> affectedPaths = new ArrayList<>();
-        List<String> filteredPaths = new ArrayList<>();
-        Item item = itemServiceInternal.getItem(site, path);
-        if (isInWorkflowOrScheduled(item.getState())) {
-            affectedPaths.add(path);
-            boolean isNew = isNew(item.getState());
-            boolean isRenamed = StringUtils.isNotEmpty(item.getPreviousPath());
-            if (isNew || isRenamed) {
-                getMandatoryChildren(site, path, affectedPaths);
-            }
-            List<String> dependencyPaths = new ArrayList<>(dependencyService.getPublishingDependencies(site, affectedPaths));
-            affectedPaths.addAll(dependencyPaths);
-            List<String> candidates = new ArrayList<>();
-            for (String p : affectedPaths) {
-                if (!candidates.contains(p)) {
-                    candidates.add(p);
+        Set<String> affectedPaths = new LinkedHashSet<>();
+        List<Item> items = itemServiceInternal.getItems(site, new ArrayList<>(new LinkedHashSet<>(paths)));
+        for (Item item : items) {
+            if (isInWorkflowOrScheduled(item.getState())) {
+                affectedPaths.add(item.getPath());
+                boolean isNew = isNew(item.getState());
+                boolean isRenamed = StringUtils.isNotEmpty(item.getPreviousPath());
+                if (isNew || isRenamed) {
+                    List<String> children = new ArrayList<>();
+                    getMandatoryChildren(site, item.getPath(), children);
+                    affectedPaths.addAll(children);
                 }
             }
+        }
+        if (affectedPaths.isEmpty()) {
+            return Collections.emptyList();
+        }
+        affectedPaths.addAll(dependencyService.getPublishingDependencies(site, new ArrayList<>(affectedPaths)));
 
-            List<SandboxItem> candidateItems = contentServiceInternal.getSandboxItemsByPath(site, candidates, true);
-            for (SandboxItem cp : candidateItems) {
-                if (isInWorkflowOrScheduled(cp.getState())) {
-                    filteredPaths.add(cp.getPath());
-                }
+        List<String> filteredPaths = new ArrayList<>();
+        List<SandboxItem> candidateItems =
+                contentServiceInternal.getSandboxItemsByPath(site, new ArrayList<>(affectedPaths), true);
+        for (SandboxItem cp : candidateItems) {
+            if (isInWorkflowOrScheduled(cp.getState())) {
+                filteredPaths.add(cp.getPath());
             }
         }
         return filteredPaths;
@@ -363,8 +367,11 @@ public class WorkflowServiceImpl implements WorkflowService, ApplicationContextA
     @Override
     public List<String> preDelete(Set<String> urisToDelete, GoLiveContext context, Set<String> rescheduledUris)
             throws ServiceLayerException, UserNotFoundException {
-        cleanUrisFromWorkflow(urisToDelete, context.getSite());
-        cleanUrisFromWorkflow(rescheduledUris, context.getSite());
+        Set<String> uris = new LinkedHashSet<>(urisToDelete);
+        if (rescheduledUris != null) {
+            uris.addAll(rescheduledUris);
+        }
+        cleanUrisFromWorkflow(uris, context.getSite());
         return deleteInTransaction(context.getSite(), new ArrayList<>(urisToDelete),
                 context.getApprover());
     }
@@ -379,9 +386,7 @@ public class WorkflowServiceImpl implements WorkflowService, ApplicationContextA
     protected void cleanUrisFromWorkflow(final Set<String> uris, final String site)
             throws ServiceLayerException, UserNotFoundException {
         if (uris != null && !uris.isEmpty()) {
-            for (String uri : uris) {
-                cleanWorkflow(uri, site);
-            }
+            cancelWorkflowBulk(site, uris);
         }
     }
 
@@ -397,18 +402,21 @@ public class WorkflowServiceImpl implements WorkflowService, ApplicationContextA
     protected void reject(String site, List<DmDependencyTO> submittedItems, String reason, String approver)
             throws ServiceLayerException, UserNotFoundException {
         if (submittedItems != null) {
-            // for each top level items submitted
-            // add its children and dependencies that must go with the top level
-            // item to the submitted aspect
-            // and only submit the top level items to workflow
+            WorkflowItem workflowItem = null;
+            if (!submittedItems.isEmpty()) {
+                // for some reason ,  submittedItems.get(0).getSubmittedBy() returns empty and
+                // metadata for the same value is also empty , using the workflow submitter to blame the rejection.
+                // The entry must be read before the workflow is cancelled since cancelling deletes it.
+                workflowItem = workflowServiceInternal.getWorkflowEntry(site, submittedItems.get(0).getUri());
+            }
+            // cancel the top level items submitted along with their children and dependencies that
+            // must go with them, all at once
+            Set<String> uris = new LinkedHashSet<>();
             for (DmDependencyTO dmDependencyTO : submittedItems) {
-                _cancelWorkflow(site, dmDependencyTO.getUri());
+                uris.add(dmDependencyTO.getUri());
             }
+            cancelWorkflowBulk(site, uris);
             if(!submittedItems.isEmpty()) {
-                // for some reason ,  submittedItems.get(0).getSubmittedBy() returns empty and
-                // metadata for the same value is also empty , using last modify to blame the rejection.
-                final WorkflowItem workflowItem =
-                        workflowServiceInternal.getWorkflowEntry(site, submittedItems.get(0).getUri());
                 String whoToBlame = "admin"; //worst case, we need someone to blame.
                 if (workflowItem != null) {
                     User user = userServiceInternal.getUserByIdOrUsername(workflowItem.getSubmitterId(), null);
@@ -15,9 +15,13 @@
  */
 package org.craftercms.studio.impl.v2.deployment;
 
+import org.craftercms.studio.api.v2.dal.RetryingDatabaseOperationFacade;
+import org.craftercms.studio.api.v2.dal.SiteDAO;
+import org.craftercms.studio.api.v2.deployment.SearchIndexTarget;
 import org.craftercms.studio.api.v2.event.content.ContentEvent;
 import org.craftercms.studio.api.v2.event.repository.RepositoryEvent;
 import org.craftercms.studio.api.v2.event.site.SiteReadyEvent;
+import org.craftercms.studio.api.v2.repository.ContentRepository;
 import org.craftercms.studio.api.v2.utils.StudioConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +32,9 @@ import org.springframework.http.RequestEntity;
 import org.springframework.web.client.RestClientException;
 
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
@@ -43,18 +49,28 @@ import static org.craftercms.studio.api.v2.utils.StudioConfiguration.*;
  * <ul>
  *     <li>Creates both and authoring and preview target on create</li>
  *     <li>Deletes the authoring and preview target on delete</li>
- *     <li>Issues deployments to the authoring and preview target on a preview sync event</li>
+ *     <li>Issues deployments to the authoring and preview target on a preview sync event, recording the commit
+ *     that the authoring target will index</li>
+ *     <li>Issues deployments to the authoring target to update the search index for a range of commits</li>
  * </ul>
  *
  * @author avasquez
  */
-public class PreviewDeployer extends AbstractDeployer {
+public class PreviewDeployer extends AbstractDeployer implements SearchIndexTarget {
 
     private final static Logger logger = LoggerFactory.getLogger(PreviewDeployer.class);
 
     private final static String ENV_PREVIEW = "preview";
     private final static String ENV_AUTHORING = "authoring";
 
+    private final static String WAIT_TILL_DONE_PARAM = "wait_till_done";
+    private final static String REPROCESS_ALL_FILES_PARAM = "reprocess_all_files";
+    private final static String FROM_COMMIT_ID_PARAM = "from_commit_id";
+
+    protected ContentRepository contentRepository;
+    protected SiteDAO siteDao;
+    protected RetryingDatabaseOperationFacade retryingDatabaseOperationFacade;
+
     public PreviewDeployer(final StudioConfiguration studioConfiguration) {
         super(studioConfiguration);
     }
@@ -78,11 +94,33 @@ public class PreviewDeployer extends AbstractDeployer {
 
     protected void doPreviewSync(String siteId, boolean waitTillDone) {
         if (isNotEmpty(siteId)) {
-            doDeployment(siteId, ENV_AUTHORING, false);
+            // Read the head before the request, the deployer pulls at least up to this commit
+            String commitId = getHeadCommitId(siteId);
+            if (doDeployment(siteId, ENV_AUTHORING, false) && isNotEmpty(commitId)) {
+                updateLastIndexedCommitId(siteId, commitId);
+            }
             doDeployment(siteId, ENV_PREVIEW, waitTillDone);
         }
     }
 
+    protected String getHeadCommitId(String siteId) {
+        try {
+            return contentRepository.getRepoLastCommitId(siteId);
+        } catch (Exception e) {
+            logger.warn("Failed to get the last commit of site '{}'", siteId, e);
+            return null;
+        }
+    }
+
+    protected void updateLastIndexedCommitId(String siteId, String commitId) {
+        try {
+            retryingDatabaseOperationFacade.retry(() -> siteDao.updateLastIndexedCommitId(siteId, commitId));
+        } catch (Exception e) {
+            // The search index task will request the missing changes
+            logger.warn("Failed to record the last indexed commit '{}' of site '{}'", commitId, siteId, e);
+        }
+    }
+
     @Override
     public void createTargets(String site) throws RestClientException {
         doCreateAuthTarget(site);
@@ -95,10 +133,37 @@ public class PreviewDeployer extends AbstractDeployer {
         doDeleteTarget(site, ENV_PREVIEW);
     }
 
-    protected void doDeployment(String site, String environment, boolean waitTillDone) {
-        String requestUrl = getDeployTargetUrl(site, environment);
-        Map<String, Object> requestBody = Collections.singletonMap("wait_till_done", waitTillDone);
+    protected boolean doDeployment(String site, String environment, boolean waitTillDone) {
+        try {
+            requestDeployment(site, environment, Collections.singletonMap(WAIT_TILL_DONE_PARAM, waitTillDone));
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to sync preview in site '{}'", site, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void reindex(String siteId, String fromCommitId, String toCommitId) throws RestClientException {
+        // The deployer processes everything from the given commit up to the head of the repository, which
+        // already includes toCommitId
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put(WAIT_TILL_DONE_PARAM, true);
+        requestBody.put(FROM_COMMIT_ID_PARAM, fromCommitId);
+        requestDeployment(siteId, ENV_AUTHORING, requestBody);
+    }
 
+    @Override
+    public void reindexAll(String siteId) throws RestClientException {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put(WAIT_TILL_DONE_PARAM, true);
+        requestBody.put(REPROCESS_ALL_FILES_PARAM, true);
+        requestDeployment(siteId, ENV_AUTHORING, requestBody);
+    }
+
+    protected void requestDeployment(String site, String environment, Map<String, Object> requestBody)
+            throws RestClientException {
+        String requestUrl = getDeployTargetUrl(site, environment);
         try {
             RequestEntity<Map<String, Object>> requestEntity = RequestEntity.post(new URI(requestUrl))
                                                                             .contentType(MediaType.APPLICATION_JSON)
@@ -108,8 +173,8 @@ public class PreviewDeployer extends AbstractDeployer {
                     requestEntity, site, environment);
 
             restTemplate.exchange(requestEntity, Map.class);
-        } catch (Exception e) {
-            logger.error("Failed to sync preview in site '{}'", site, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid format of deploy target URL: " + requestUrl, e);
         }
     }
 
@@ -175,4 +240,16 @@ public class PreviewDeployer extends AbstractDeployer {
         doDuplicateTarget(sourceSiteId, siteId, ENV_PREVIEW, previewTtemplate, previewReplace, previewDisableCron,
                 null, repoUrl, null);
     }
+
+    public void setContentRepository(ContentRepository contentRepository) {
+        this.contentRepository = contentRepository;
+    }
+
+    public void setSiteDao(SiteDAO siteDao) {
+        this.siteDao = siteDao;
+    }
+
+    public void setRetryingDatabaseOperationFacade(RetryingDatabaseOperationFacade retryingDatabaseOperationFacade) {
+        this.retryingDatabaseOperationFacade = retryingDatabaseOperationFacade;
+    }
 }
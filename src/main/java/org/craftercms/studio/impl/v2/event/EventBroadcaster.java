@@ -15,28 +15,45 @@
  */
 package org.craftercms.studio.impl.v2.event;
 
+import org.craftercms.studio.api.v2.event.BatchBroadcastEvent;
 import org.craftercms.studio.api.v2.event.BroadcastEvent;
 import org.craftercms.studio.api.v2.event.GlobalBroadcastEvent;
 import org.craftercms.studio.api.v2.event.SiteBroadcastEvent;
 import org.craftercms.studio.impl.v2.utils.TimeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 
 /**
  * Implementation of {@link EventListener} that broadcasts events to the message broker
  *
+ * <p>When batching is enabled events are buffered per destination for a short window, redundant events are
+ * coalesced (see {@link BroadcastEvent#getCoalescingKey()}) and the rest are sent together in a single
+ * {@link BatchBroadcastEvent} frame. All flushes run in the same thread, so the frames for a destination are always
+ * sent in order, and the buffered events are sent before the broadcaster is destroyed.</p>
+ *
  * @author joseross
  * @since 4.0.0
  */
-public class EventBroadcaster {
+public class EventBroadcaster implements InitializingBean, DisposableBean {
 
     public static final String DESTINATION_ROOT = "/topic/studio";
 
@@ -45,6 +62,49 @@ public class EventBroadcaster {
     @Autowired
     protected SimpMessagingTemplate messagingTemplate;
 
+    /**
+     * Indicates if events should be broadcast in batches
+     */
+    protected boolean batchEnabled = false;
+
+    /**
+     * Time in milliseconds to buffer events before sending them
+     */
+    protected long batchWindow = 500;
+
+    /**
+     * Max number of events to buffer for a destination before sending them, regardless of the window
+     */
+    protected int batchMaxSize = 500;
+
+    protected final Map<String, EventBuffer> buffers = new ConcurrentHashMap<>();
+
+    protected ScheduledExecutorService flushExecutor;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (batchEnabled) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "event-broadcaster");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleWithFixedDelay(this::flushAll, batchWindow, batchWindow, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            if (!flushExecutor.awaitTermination(batchWindow, TimeUnit.MILLISECONDS)) {
+                logger.warn("Timeout waiting for the event broadcaster to finish");
+            }
+            // Send anything still buffered
+            flushAll();
+        }
+    }
+
     @Order
     @EventListener
     public void publishSiteEvent(final SiteBroadcastEvent event) {
@@ -58,6 +118,44 @@ public class EventBroadcaster {
     }
 
     private void publishEvent(final BroadcastEvent event, final String destination) {
+        if (batchEnabled) {
+            logger.trace("Buffer event '{}' for destination '{}'", event, destination);
+            EventBuffer buffer = buffers.computeIfAbsent(destination, d -> new EventBuffer());
+            if (buffer.add(event) >= batchMaxSize && buffer.requestFlush()) {
+                try {
+                    // Flush in the executor thread, so this batch can't be sent before an earlier one
+                    flushExecutor.execute(() -> flush(destination, buffer));
+                } catch (RejectedExecutionException e) {
+                    // The broadcaster is being destroyed and the executor has already finished
+                    flush(destination, buffer);
+                }
+            }
+        } else {
+            send(event, destination);
+        }
+    }
+
+    protected void flushAll() {
+        try {
+            buffers.forEach(this::flush);
+        } catch (Exception e) {
+            logger.error("Failed to broadcast the buffered events", e);
+        }
+    }
+
+    protected void flush(final String destination, final EventBuffer buffer) {
+        List<BroadcastEvent> events = buffer.drain();
+        if (events.isEmpty()) {
+            return;
+        }
+        if (events.size() == 1) {
+            send(events.get(0), destination);
+        } else {
+            send(new BatchBroadcastEvent(events), destination);
+        }
+    }
+
+    private void send(final BroadcastEvent event, final String destination) {
         TimeUtils.logExecutionTime(() -> {
             logger.debug("Broadcast event '{}'", event);
             messagingTemplate.convertAndSend(destination, event);
@@ -65,4 +163,60 @@ public class EventBroadcaster {
         }, logger, format("Method 'EventBroadcaster.publishEvent(..)' with parameters %s", Arrays.asList(event, destination)));
     }
 
+    public void setBatchEnabled(boolean batchEnabled) {
+        this.batchEnabled = batchEnabled;
+    }
+
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
+    public void setBatchMaxSize(int batchMaxSize) {
+        this.batchMaxSize = batchMaxSize;
+    }
+
+    /**
+     * Events waiting to be sent to a single destination, keeping only the latest event for each coalescing key
+     */
+    protected static class EventBuffer {
+
+        private final Map<Object, BroadcastEvent> events = new LinkedHashMap<>();
+
+        private boolean flushRequested = false;
+
+        public synchronized int add(final BroadcastEvent event) {
+            String key = event.getCoalescingKey();
+            if (key != null) {
+                // Remove first so the event moves to the position of the latest occurrence
+                events.remove(key);
+                events.put(key, event);
+            } else {
+                // Use a unique key so the event is never replaced
+                events.put(new Object(), event);
+            }
+            return events.size();
+        }
+
+        /**
+         * Marks the buffer as waiting for a flush
+         *
+         * @return {@code true} if no flush was already pending
+         */
+        public synchronized boolean requestFlush() {
+            if (flushRequested) {
+                return false;
+            }
+            flushRequested = true;
+            return true;
+        }
+
+        public synchronized List<BroadcastEvent> drain() {
+            List<BroadcastEvent> drained = new ArrayList<>(events.values());
+            events.clear();
+            flushRequested = false;
+            return drained;
+        }
+
+    }
+
 }
@@ -16,6 +16,7 @@
 
 package org.craftercms.studio.impl.v2.job;
 
+import org.apache.logging.log4j.CloseableThreadContext;
 import org.craftercms.studio.api.v1.job.Job;
 import org.craftercms.studio.api.v1.service.GeneralLockService;
 import org.craftercms.studio.api.v1.service.site.SiteService;
@@ -30,6 +31,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import static org.craftercms.studio.api.v1.constant.StudioConstants.PATTERN_SITE;
 import static org.craftercms.studio.api.v1.constant.StudioConstants.STUDIO_CLOCK_EXECUTOR_SITE_LOCK;
+import static org.craftercms.studio.impl.v2.service.monitor.internal.LogEventBufferAppender.SITE_CONTEXT_KEY;
 
 public class StudioClockExecutor implements Job {
 
@@ -84,7 +86,7 @@ public class StudioClockExecutor implements Job {
             taskExecutor.execute(() -> {
                 String tasksLock = STUDIO_CLOCK_EXECUTOR_SITE_LOCK.replaceAll(PATTERN_SITE, site);
                 if (generalLockService.tryLock(tasksLock)) {
-                    try {
+                    try (CloseableThreadContext.Instance ignored = CloseableThreadContext.put(SITE_CONTEXT_KEY, site)) {
                         for (SiteJob siteTask : siteTasks) {
                             siteTask.execute(site);
                         }
@@ -264,7 +264,7 @@ public class StudioPublisherTask extends StudioClockTask {
         auditServiceInternal.insertAuditLog(auditLog);
 
         User user = userServiceInternal.getUserByIdOrUsername(-1, username);
-        packageIds.parallelStream().forEach(packageId ->
+        packageIds.forEach(packageId ->
                 activityStreamServiceInternal.insertActivity(siteFeed.getId(), user.getId(), operation,
                         DateUtils.getCurrentTime(), null, packageId)
         );
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.job;
+
+import org.apache.commons.lang3.StringUtils;
+import org.craftercms.studio.api.v2.deployment.SearchIndexTarget;
+import org.craftercms.studio.api.v2.service.site.SitesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.craftercms.studio.api.v1.dal.SiteFeed.STATE_READY;
+
+/**
+ * Clock task that checks the last commit indexed by the authoring search for each site. The commit is recorded by
+ * the preview sync, so the index only lags the repository while a sync is in progress or after one failed. When
+ * the recorded commit did not move since the previous check the task requests the target to index the changes made
+ * since that commit, a full reindex is only requested when the commit can't be found in the repository anymore
+ * (e.g. after a rebase and a gc).
+ */
+public class StudioSearchIndexTask extends StudioClockTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudioSearchIndexTask.class);
+
+    private SitesService sitesService;
+    private SearchIndexTarget searchIndexTarget;
+
+    /**
+     * Last indexed commit of the sites that were behind the repository in the previous check
+     */
+    private final Map<String, String> laggingSites = new ConcurrentHashMap<>();
+
+    @Override
+    protected void executeInternal(String siteId) {
+        if (!StringUtils.equals(siteService.getSiteState(siteId), STATE_READY)) {
+            return;
+        }
+        try {
+            updateIndex(siteId);
+        } catch (Exception e) {
+            // The last indexed commit is not updated, so the same changes will be requested in the next cycle
+            logger.error("Failed to update the search index for site '{}'", siteId, e);
+        }
+    }
+
+    protected void updateIndex(String siteId) {
+        String headCommitId = contentRepository.getRepoLastCommitId(siteId);
+        if (StringUtils.isEmpty(headCommitId)) {
+            return;
+        }
+        String lastIndexedCommitId = sitesService.getLastIndexedCommitId(siteId);
+        if (StringUtils.equals(headCommitId, lastIndexedCommitId)) {
+            laggingSites.remove(siteId);
+            return;
+        }
+        if (StringUtils.isEmpty(lastIndexedCommitId)) {
+            // New, duplicated or upgraded site, the target indexes all files when it is created so only the
+            // starting point needs to be recorded
+            logger.info("Start tracking the search index for site '{}' from commit '{}'", siteId, headCommitId);
+            sitesService.updateLastIndexedCommitId(siteId, headCommitId);
+            return;
+        }
+        if (!StringUtils.equals(laggingSites.put(siteId, lastIndexedCommitId), lastIndexedCommitId)) {
+            // Give the preview sync in progress the chance to record the commit before requesting a catch-up
+            logger.debug("The search index of site '{}' is behind the repository, check again in the next cycle",
+                    siteId);
+            return;
+        }
+
+        if (!contentRepository.commitIdExists(siteId, lastIndexedCommitId)) {
+            // The history was rewritten (and collected), the target has no starting point for the changes
+            logger.warn("The last indexed commit '{}' no longer exists in site '{}', request a full reindex at " +
+                    "commit '{}'", lastIndexedCommitId, siteId, headCommitId);
+            searchIndexTarget.reindexAll(siteId);
+        } else {
+            logger.debug("Request the reindex of site '{}' from commit '{}' to commit '{}'",
+                    siteId, lastIndexedCommitId, headCommitId);
+            searchIndexTarget.reindex(siteId, lastIndexedCommitId, headCommitId);
+        }
+        sitesService.updateLastIndexedCommitId(siteId, headCommitId);
+        laggingSites.remove(siteId);
+    }
+
+    public void setSitesService(SitesService sitesService) {
+        this.sitesService = sitesService;
+    }
+
+    public void setSearchIndexTarget(SearchIndexTarget searchIndexTarget) {
+        this.searchIndexTarget = searchIndexTarget;
+    }
+
+}
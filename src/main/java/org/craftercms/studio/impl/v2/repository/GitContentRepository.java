@@ -37,6 +37,7 @@ import org.craftercms.studio.api.v1.exception.repository.InvalidRemoteRepository
 import org.craftercms.studio.api.v1.exception.repository.InvalidRemoteRepositoryException;
 import org.craftercms.studio.api.v1.exception.repository.RemoteRepositoryNotFoundException;
 import org.craftercms.studio.api.v1.exception.security.UserNotFoundException;
+import org.craftercms.studio.api.v1.repository.RepositoryItem;
 import org.craftercms.studio.api.v1.service.GeneralLockService;
 import org.craftercms.studio.api.v1.service.configuration.ServicesConfig;
 import org.craftercms.studio.api.v1.service.deployment.DeploymentException;
@@ -69,9 +70,11 @@ import org.eclipse.jgit.internal.storage.file.LockFile;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.revwalk.*;
 import org.eclipse.jgit.revwalk.filter.*;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
@@ -79,7 +82,10 @@ import org.springframework.core.io.Resource;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
@@ -92,6 +98,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.time.ZoneOffset.UTC;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.collections4.CollectionUtils.union;
@@ -108,10 +115,16 @@ import static org.eclipse.jgit.merge.MergeStrategy.THEIRS;
 import static org.eclipse.jgit.revwalk.RevSort.REVERSE;
 import static org.eclipse.jgit.revwalk.RevSort.TOPO_KEEP_BRANCH_TOGETHER;
 
+@LogExecutionTime
 public class GitContentRepository implements ContentRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(GitContentRepository.class);
 
+    private static final String PACK_DIR = "pack";
+    private static final Pattern LOOSE_OBJECT_DIR_PATTERN = Pattern.compile("[0-9a-f]{2}");
+    private static final Pattern LOOSE_OBJECT_FILE_PATTERN = Pattern.compile("[0-9a-f]{38}([0-9a-f]{24})?");
+    private static final Pattern PACK_FILE_PATTERN = Pattern.compile("pack-[0-9a-f]{40}([0-9a-f]{24})?\\.(pack|idx|bitmap|rev|keep)");
+
     private GitRepositoryHelper helper;
     private StudioConfiguration studioConfiguration;
     private UserServiceInternal userServiceInternal;
@@ -1132,6 +1145,113 @@ public class GitContentRepository implements ContentRepository {
         return -1L;
     }
 
+    @Override
+    public Map<String, Long> getContentSizes(final String site, final Collection<String> paths) {
+        Map<String, Long> sizes = new HashMap<>();
+        Map<String, String> gitPaths = new HashMap<>();
+        for (String path : paths) {
+            String gitPath = helper.getGitPath(path);
+            if (!".".equals(gitPath)) {
+                gitPaths.put(gitPath, path);
+            }
+        }
+        if (gitPaths.isEmpty()) {
+            return sizes;
+        }
+        try {
+            Repository repo = helper.getRepository(site, isEmpty(site) ? GLOBAL : SANDBOX);
+            RevTree tree = helper.getTreeForLastCommit(repo);
+            try (TreeWalk tw = new TreeWalk(repo)) {
+                tw.addTree(tree);
+                tw.setRecursive(true);
+                tw.setFilter(PathFilterGroup.createFromStrings(gitPaths.keySet()));
+                ObjectReader reader = tw.getObjectReader();
+                while (tw.next()) {
+                    String path = gitPaths.get(tw.getPathString());
+                    if (path != null) {
+                        sizes.put(path, reader.getObjectSize(tw.getObjectId(0), OBJ_BLOB));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to get the content sizes for paths '{}' in site '{}'", paths, site, e);
+        }
+        return sizes;
+    }
+
+    @Override
+    public List<RepositoryItem> getContentDescendants(final String site, final String path) {
+        List<RepositoryItem> items = new ArrayList<>();
+        try {
+            Repository repo = helper.getRepository(site, isEmpty(site) ? GLOBAL : SANDBOX);
+            RevTree tree = helper.getTreeForLastCommit(repo);
+            try (TreeWalk tw = getDescendantsTreeWalk(repo, tree, helper.getGitPath(path))) {
+                if (tw == null) {
+                    return items;
+                }
+                ObjectReader reader = tw.getObjectReader();
+                while (tw.next()) {
+                    String name = tw.getNameString();
+                    if (ArrayUtils.contains(IGNORE_FILES, name)) {
+                        continue;
+                    }
+                    RepositoryItem item = new RepositoryItem();
+                    item.name = name;
+                    item.path = FILE_SEPARATOR + StringUtils.removeEnd(
+                            StringUtils.removeEnd(tw.getPathString(), name), FILE_SEPARATOR);
+                    item.isFolder = tw.isSubtree();
+                    if (item.isFolder) {
+                        tw.enterSubtree();
+                    } else {
+                        item.size = reader.getObjectSize(tw.getObjectId(0), OBJ_BLOB);
+                    }
+                    items.add(item);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to get the descendants of path '{}' in site '{}'", path, site, e);
+        }
+        return items;
+    }
+
+    /**
+     * Returns a tree walk positioned before the first child of the given folder, or null if it is not a folder
+     */
+    private TreeWalk getDescendantsTreeWalk(Repository repo, RevTree tree, String gitPath) throws IOException {
+        if (isEmpty(gitPath) || ".".equals(gitPath)) {
+            // TreeWalk.forPath doesn't accept the root folder, just walk the whole tree
+            TreeWalk tw = new TreeWalk(repo);
+            tw.addTree(tree);
+            return tw;
+        }
+        TreeWalk tw = TreeWalk.forPath(repo, gitPath, tree);
+        if (tw == null) {
+            return null;
+        }
+        if (!tw.isSubtree()) {
+            tw.close();
+            return null;
+        }
+        tw.enterSubtree();
+        return tw;
+    }
+
+    @Override
+    public String getContentBlobId(final String site, final String path) {
+        try {
+            Repository repo = helper.getRepository(site, isEmpty(site) ? GLOBAL : SANDBOX);
+            RevTree tree = helper.getTreeForLastCommit(repo);
+            try (TreeWalk tw = TreeWalk.forPath(repo, helper.getGitPath(path), tree)) {
+                if (tw != null && tw.getObjectId(0) != null) {
+                    return tw.getObjectId(0).getName();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to get the blob id for path '{}' in site '{}'", path, site, e);
+        }
+        return null;
+    }
+
     @Override
     public String getLastEditCommitId(String siteId, String path) {
         String toReturn = EMPTY;
@@ -1164,7 +1284,6 @@ public class GitContentRepository implements ContentRepository {
     }
 
     @Override
-    @LogExecutionTime
     public Map<String, String> getChangeSetPathsFromDelta(String site, String commitIdFrom, String commitIdTo) {
         Map<String, String> changeSet = new TreeMap<>();
         String gitLockKey = helper.getSandboxRepoLockKey(site, true);
@@ -1774,6 +1893,42 @@ public class GitContentRepository implements ContentRepository {
 
     @Override
     public void duplicateSite(String sourceSiteId, String siteId, String sourceSandboxBranch, String sandboxBranch) throws IOException, ServiceLayerException {
+        if (!studioConfiguration.getProperty(REPO_DUPLICATE_SHARE_OBJECTS, Boolean.class, true)) {
+            copySiteRepositories(sourceSiteId, siteId, sourceSandboxBranch, sandboxBranch);
+            return;
+        }
+
+        Path destSandboxPath = helper.buildRepoPath(SANDBOX, siteId);
+        if (destSandboxPath.toFile().exists()) {
+            logger.warn("Deleting existing sandbox repository for site '{}'", siteId);
+            FileUtils.deleteDirectory(destSandboxPath.toFile());
+        }
+        cloneRepositorySharingObjects(helper.getSandboxRepoLockKey(sourceSiteId),
+                helper.buildRepoPath(SANDBOX, sourceSiteId), destSandboxPath);
+        // Cache the repo and checkout the sandbox branch
+        helper.getRepository(siteId, SANDBOX, sandboxBranch);
+
+        if (!publishedRepositoryExists(sourceSiteId)) {
+            return;
+        }
+        Path destPublishedPath = helper.buildRepoPath(PUBLISHED, siteId);
+        if (destPublishedPath.toFile().exists()) {
+            logger.warn("Deleting existing published repository for site '{}'", siteId);
+            FileUtils.deleteDirectory(destPublishedPath.toFile());
+        }
+        cloneRepositorySharingObjects(helper.getPublishedRepoLockKey(sourceSiteId),
+                helper.buildRepoPath(PUBLISHED, sourceSiteId), destPublishedPath);
+        // Cache the repo
+        Repository publishedRepo = helper.getRepository(siteId, PUBLISHED);
+        checkoutDuplicatedPublishedBranch(publishedRepo, sourceSiteId, siteId, sourceSandboxBranch, sandboxBranch);
+    }
+
+    /**
+     * Duplicates the site repositories by copying the full sandbox and published directories
+     * while holding the source sandbox lock.
+     */
+    private void copySiteRepositories(String sourceSiteId, String siteId, String sourceSandboxBranch, String sandboxBranch)
+            throws IOException, ServiceLayerException {
         String repoLockKey = helper.getSandboxRepoLockKey(sourceSiteId);
         generalLockService.lock(repoLockKey);
 
@@ -1800,18 +1955,178 @@ public class GitContentRepository implements ContentRepository {
             FileUtils.copyDirectory(sourcePublishedPath.toFile(), destPublishedPath.toFile());
             // Cache the repo
             Repository publishedRepo = helper.getRepository(siteId, PUBLISHED);
-            if (StringUtils.equals(sourceSandboxBranch, sandboxBranch)) {
+            checkoutDuplicatedPublishedBranch(publishedRepo, sourceSiteId, siteId, sourceSandboxBranch, sandboxBranch);
+        } finally {
+            generalLockService.unlock(repoLockKey);
+        }
+    }
+
+    private void checkoutDuplicatedPublishedBranch(Repository publishedRepo, String sourceSiteId, String siteId,
+                                                   String sourceSandboxBranch, String sandboxBranch)
+            throws IOException, ServiceLayerException {
+        if (StringUtils.equals(sourceSandboxBranch, sandboxBranch)) {
+            return;
+        }
+        try {
+            boolean create = !branchExists(publishedRepo, sandboxBranch);
+            helper.checkoutBranch(publishedRepo, sourceSandboxBranch, sandboxBranch, create);
+        } catch (GitAPIException e) {
+            throw new ServiceLayerException(format("Failed to duplicate site '%s' to '%s'", sourceSiteId, siteId), e);
+        }
+    }
+
+    /**
+     * Creates a new repository that shares the immutable object files of the source repository.
+     * Packs and loose objects are hard-linked (or copied when the file system does not support it),
+     * the source lock is only held while taking a snapshot of the refs, and the working tree is then
+     * checked out from the object database.
+     *
+     * @param sourceLockKey lock key of the source repository
+     * @param sourcePath    working tree path of the source repository
+     * @param destPath      working tree path of the new repository
+     */
+    private void cloneRepositorySharingObjects(String sourceLockKey, Path sourcePath, Path destPath)
+            throws IOException, ServiceLayerException {
+        Path sourceGitDir = sourcePath.resolve(GIT_ROOT);
+        Path destGitDir = destPath.resolve(GIT_ROOT);
+        Path sourceObjects = sourceGitDir.resolve(OBJECTS);
+        Path destObjects = destGitDir.resolve(OBJECTS);
+
+        try (Repository destRepo = new FileRepositoryBuilder()
+                .setGitDir(destGitDir.toFile())
+                .setWorkTree(destPath.toFile())
+                .build()) {
+            destRepo.create(false);
+        }
+        Files.copy(sourceGitDir.resolve(CONFIG), destGitDir.resolve(CONFIG), REPLACE_EXISTING);
+        Path sourceExclude = sourceGitDir.resolve(INFO_EXCLUDE);
+        if (Files.exists(sourceExclude)) {
+            Files.createDirectories(destGitDir.resolve(INFO_EXCLUDE).getParent());
+            Files.copy(sourceExclude, destGitDir.resolve(INFO_EXCLUDE), REPLACE_EXISTING);
+        }
+
+        Ref head;
+        List<Ref> refs;
+        generalLockService.lock(sourceLockKey);
+        try (Repository sourceRepo = helper.openRepository(sourceGitDir)) {
+            head = sourceRepo.exactRef(HEAD);
+            refs = sourceRepo.getRefDatabase().getRefsByPrefix(R_REFS);
+        } finally {
+            generalLockService.unlock(sourceLockKey);
+        }
+
+        // Every object reachable from the snapshot already exists, and the caller keeps the source site locked,
+        // so only a gc can change the object files while they are being linked. If one of them disappears,
+        // link them again with the repository locked
+        try {
+            shareObjects(sourceObjects, destObjects);
+        } catch (NoSuchFileException e) {
+            logger.debug("Objects in '{}' changed while being shared, retrying with the repository locked",
+                    sourceObjects, e);
+            generalLockService.lock(sourceLockKey);
+            try {
+                FileUtils.cleanDirectory(destObjects.toFile());
+                shareObjects(sourceObjects, destObjects);
+            } finally {
+                generalLockService.unlock(sourceLockKey);
+            }
+        }
+
+        try (Repository destRepo = helper.openRepository(destGitDir)) {
+            for (Ref ref : refs) {
+                RefUpdate refUpdate = destRepo.updateRef(ref.getName());
+                RefUpdate.Result result;
+                if (ref.isSymbolic()) {
+                    result = refUpdate.link(ref.getTarget().getName());
+                } else {
+                    refUpdate.setNewObjectId(ref.getObjectId());
+                    refUpdate.setForceUpdate(true);
+                    refUpdate.disableRefLog();
+                    result = refUpdate.update();
+                }
+                checkRefUpdate(destRepo, ref.getName(), result);
+            }
+            if (head.isSymbolic()) {
+                checkRefUpdate(destRepo, HEAD, destRepo.updateRef(HEAD).link(head.getTarget().getName()));
+            } else {
+                RefUpdate refUpdate = destRepo.updateRef(HEAD, true);
+                refUpdate.setNewObjectId(head.getObjectId());
+                refUpdate.setForceUpdate(true);
+                checkRefUpdate(destRepo, HEAD, refUpdate.update());
+            }
+
+            // Build the index and the working tree from the object database
+            if (head.getObjectId() != null) {
+                try (Git git = new Git(destRepo)) {
+                    git.reset().setMode(HARD).setRef(HEAD).call();
+                } catch (GitAPIException e) {
+                    throw new ServiceLayerException(format("Failed to checkout the working tree of repository '%s'",
+                            destPath), e);
+                }
+            }
+        }
+    }
+
+    private void checkRefUpdate(Repository repository, String refName, RefUpdate.Result result) throws IOException {
+        switch (result) {
+            case NEW:
+            case FORCED:
+            case FAST_FORWARD:
+            case NO_CHANGE:
                 return;
+            default:
+                throw new IOException(format("Failed to update ref '%s' in repository '%s': %s",
+                        refName, repository.getDirectory(), result));
+        }
+    }
+
+    /**
+     * Hard-links (or copies) the loose objects and pack files from one object directory to another.
+     * Loose objects are listed before the packs, so objects packed by a concurrent gc will be found in the
+     * new pack if their loose files are already gone.
+     */
+    private void shareObjects(Path sourceObjects, Path destObjects) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(sourceObjects,
+                path -> LOOSE_OBJECT_DIR_PATTERN.matcher(path.getFileName().toString()).matches())) {
+            for (Path dir : dirs) {
+                try (DirectoryStream<Path> objects = Files.newDirectoryStream(dir,
+                        path -> LOOSE_OBJECT_FILE_PATTERN.matcher(path.getFileName().toString()).matches())) {
+                    objects.forEach(files::add);
+                }
+            }
+        }
+        Path sourcePacks = sourceObjects.resolve(PACK_DIR);
+        if (Files.isDirectory(sourcePacks)) {
+            try (DirectoryStream<Path> packs = Files.newDirectoryStream(sourcePacks,
+                    path -> PACK_FILE_PATTERN.matcher(path.getFileName().toString()).matches())) {
+                packs.forEach(files::add);
             }
+        }
+        Path sourceAlternates = sourceObjects.resolve(INFO_ALTERNATES);
+        if (Files.exists(sourceAlternates)) {
+            Files.createDirectories(destObjects.resolve(INFO_ALTERNATES).getParent());
+            Files.copy(sourceAlternates, destObjects.resolve(INFO_ALTERNATES), REPLACE_EXISTING);
+        }
+
+        int copied = 0;
+        for (Path file : files) {
+            Path target = destObjects.resolve(sourceObjects.relativize(file));
+            if (Files.exists(target)) {
+                continue;
+            }
+            Files.createDirectories(target.getParent());
             try {
-                boolean create = !branchExists(publishedRepo, sandboxBranch);
-                helper.checkoutBranch(publishedRepo, sourceSandboxBranch, sandboxBranch, create);
-            } catch (GitAPIException e) {
-                throw new ServiceLayerException(format("Failed to duplicate site '%s' to '%s'", sourceSiteId, siteId), e);
+                Files.createLink(target, file);
+            } catch (NoSuchFileException e) {
+                throw e;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.copy(file, target);
+                copied++;
             }
-        } finally {
-            generalLockService.unlock(repoLockKey);
         }
+        logger.debug("Shared '{}' object files from '{}' to '{}' ('{}' copied because they could not be linked)",
+                files.size(), sourceObjects, destObjects, copied);
     }
 
     public void setHelper(GitRepositoryHelper helper) {
@@ -20,7 +20,10 @@ import org.springframework.context.event.EventListener;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.CleanCommand;
+import org.eclipse.jgit.dircache.DirCache;
 import org.eclipse.jgit.errors.CorruptObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +31,12 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.io.EOFException;
 import java.io.File;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.craftercms.commons.git.utils.GitUtils;
 
@@ -53,6 +62,8 @@ public class RepositoryStartupCleanup {
     protected SiteService siteService;
     protected GeneralLockService generalLockService;
     protected GitRepositoryHelper helper;
+    protected int threadCount;
+    protected long timeoutSeconds;
 
     @EventListener(CleanupRepositoriesEvent.class)
     public void unlockRepositories() {
@@ -65,27 +76,63 @@ public class RepositoryStartupCleanup {
     }
 
     protected void unlockSitesRepositories() {
-        siteService.getAllAvailableSites().forEach(siteId -> {
-            logger.debug("Unlock git lock for site '{}'", siteId);
-            String gitLockKeySandbox = helper.getSandboxRepoLockKey(siteId);
-            String gitLockKeyPublished = helper.getPublishedRepoLockKey(siteId);
-
-            generalLockService.lock(gitLockKeySandbox);
-            try {
-                unlockRepository(siteId, SANDBOX);
-                removeIndexIfCorrupted(siteId, SANDBOX);
-            } finally {
-                generalLockService.unlock(gitLockKeySandbox);
+        long start = System.currentTimeMillis();
+        Set<String> siteIds = siteService.getAllAvailableSites();
+        int threads = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+        ExecutorService taskExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, siteIds.size())));
+        // Sites that have not been checked yet
+        Set<String> pendingSites = ConcurrentHashMap.newKeySet();
+        pendingSites.addAll(siteIds);
+        for (String siteId : siteIds) {
+            taskExecutor.execute(() -> {
+                try {
+                    unlockSiteRepositories(siteId);
+                } catch (Exception e) {
+                    logger.error("Error cleaning up the git repositories for site '{}'", siteId, e);
+                } finally {
+                    pendingSites.remove(siteId);
+                }
+            });
+        }
+        taskExecutor.shutdown();
+        try {
+            if (!taskExecutor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                taskExecutor.shutdownNow();
+                logger.warn("Clean up of the git repositories did not finish after '{}' seconds, the following " +
+                        "sites were not checked: {}", timeoutSeconds, new TreeSet<>(pendingSites));
             }
+        } catch (InterruptedException e) {
+            taskExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for the clean up of the git repositories", e);
+        }
+        logger.info("Clean up of the git repositories for '{}' sites took '{}' ms", siteIds.size(),
+                System.currentTimeMillis() - start);
+    }
 
-            generalLockService.lock(gitLockKeyPublished);
-            try {
-                unlockRepository(siteId, PUBLISHED);
-                removeIndexIfCorrupted(siteId, PUBLISHED);
-            } finally {
-                generalLockService.unlock(gitLockKeyPublished);
-            }
-        });
+    protected void unlockSiteRepositories(String siteId) {
+        long start = System.currentTimeMillis();
+        logger.debug("Unlock git lock for site '{}'", siteId);
+        String gitLockKeySandbox = helper.getSandboxRepoLockKey(siteId);
+        String gitLockKeyPublished = helper.getPublishedRepoLockKey(siteId);
+
+        generalLockService.lock(gitLockKeySandbox);
+        try {
+            unlockRepository(siteId, SANDBOX);
+            removeIndexIfCorrupted(siteId, SANDBOX);
+        } finally {
+            generalLockService.unlock(gitLockKeySandbox);
+        }
+
+        generalLockService.lock(gitLockKeyPublished);
+        try {
+            unlockRepository(siteId, PUBLISHED);
+            removeIndexIfCorrupted(siteId, PUBLISHED);
+        } finally {
+            generalLockService.unlock(gitLockKeyPublished);
+        }
+        logger.info("Clean up of the git repositories for site '{}' took '{}' ms", siteId,
+                System.currentTimeMillis() - start);
     }
 
     protected void unlockRepository(String siteId, GitRepositories repository) {
@@ -135,10 +182,11 @@ public class RepositoryStartupCleanup {
     }
 
     protected boolean isRepositoryCorrupted(Repository repository) {
-        if (repository == null) {
+        if (repository == null || !isRepositorySuspicious(repository)) {
             return false;
         }
 
+        // Only confirm with a full status (which scans the whole working tree) if the quick check failed
         try (Git git = new Git(repository)) {
             git.status().call();
         } catch (Exception e) {
@@ -149,6 +197,26 @@ public class RepositoryStartupCleanup {
         return false;
     }
 
+    /**
+     * Quick check that only reads the index and the HEAD commit, without scanning the working tree
+     */
+    protected boolean isRepositorySuspicious(Repository repository) {
+        try {
+            if (!repository.isBare()) {
+                // Verifies the index header, entries and trailing checksum
+                DirCache.read(repository);
+            }
+            ObjectId head = repository.resolve(Constants.HEAD);
+            if (head != null) {
+                repository.parseCommit(head);
+            }
+            return false;
+        } catch (Exception e) {
+            logger.debug("Quick check failed for the git repository '{}'", repository.getDirectory(), e);
+            return true;
+        }
+    }
+
     public void setSiteService(final SiteService siteService) {
         this.siteService = siteService;
     }
@@ -160,4 +228,12 @@ public class RepositoryStartupCleanup {
     public void setHelper(final GitRepositoryHelper helper) {
         this.helper = helper;
     }
+
+    public void setThreadCount(final int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public void setTimeoutSeconds(final long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import org.apache.commons.collections4.keyvalue.MultiKey;
 import org.apache.commons.collections4.map.MultiKeyMap;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.craftercms.commons.config.PublishingTargetResolver;
@@ -247,6 +248,50 @@ public class BlobAwareContentRepository implements ContentRepository, StudioBlob
         }
     }
 
+    @Override
+    public Map<String, Long> getContentSizes(String site, Collection<String> paths) {
+        logger.debug("Get content sizes from site '{}' paths '{}'", site, paths);
+        Map<String, String> pointerPaths = new HashMap<>();
+        for (String path : paths) {
+            pointerPaths.put(appendIfMissing(path, "." + fileExtension), path);
+        }
+        List<String> lookupPaths = new ArrayList<>(paths);
+        lookupPaths.addAll(pointerPaths.keySet());
+        Map<String, Long> sizes = localRepositoryV2.getContentSizes(site, lookupPaths);
+        for (Map.Entry<String, String> pointer : pointerPaths.entrySet()) {
+            if (sizes.remove(pointer.getKey()) != null) {
+                // Same as getContentSize, the size of blob-store backed files is not populated
+                sizes.put(pointer.getValue(), -1L);
+            }
+        }
+        return sizes;
+    }
+
+    @Override
+    public List<RepositoryItem> getContentDescendants(String site, String path) {
+        logger.debug("Get content descendants from site '{}' path '{}'", site, path);
+        List<RepositoryItem> items = localRepositoryV2.getContentDescendants(site, path);
+        for (RepositoryItem item : items) {
+            if (!item.isFolder && endsWith(item.name, "." + fileExtension)) {
+                item.name = getOriginalPath(item.name);
+                // Same as getContentSize, the size of blob-store backed files is not populated
+                item.size = -1L;
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public String getContentBlobId(String site, String path) {
+        logger.debug("Get content blob id from site '{}' path '{}'", site, path);
+        // For blob-store backed files use the id of the pointer, it also changes with the content
+        String blobId = localRepositoryV2.getContentBlobId(site, path);
+        if (blobId == null && !isFolder(site, path)) {
+            blobId = localRepositoryV2.getContentBlobId(site, getPointerPath(site, path));
+        }
+        return blobId;
+    }
+
     @Override
     public String writeContent(String site, String path, InputStream content) throws ServiceLayerException {
         logger.debug("Write content to site '{}' path '{}'", site, path);
@@ -272,6 +317,61 @@ public class BlobAwareContentRepository implements ContentRepository, StudioBlob
         }
     }
 
+    @Override
+    public String writeContents(String site, Map<String, InputStream> contents, Map<String, String> copies,
+                                Collection<String> folders) throws ServiceLayerException {
+        logger.debug("Write '{}' files, copy '{}' files and create '{}' folders in site '{}'",
+                contents.size(), copies.size(), folders.size(), site);
+        // Blobs are handled by their store first, only the pointers go to the local repository
+        Map<String, InputStream> localContents = new LinkedHashMap<>();
+        Map<String, String> localCopies = new LinkedHashMap<>();
+        try {
+            for (String folder : folders) {
+                StudioBlobStore store = getConfiguredBlobStore(site, folder);
+                if (store != null) {
+                    store.createFolder(site, normalize(FilenameUtils.getFullPathNoEndSeparator(folder)),
+                            FilenameUtils.getName(folder));
+                }
+            }
+            for (Map.Entry<String, String> copy : copies.entrySet()) {
+                StudioBlobStore store = getConfiguredBlobStore(site, copy.getValue(), copy.getKey());
+                if (store != null && store.copyContent(site, normalize(copy.getValue()), normalize(copy.getKey())) != null) {
+                    localCopies.put(getPointerPath(site, copy.getKey()), getPointerPath(site, copy.getValue()));
+                } else {
+                    localCopies.put(copy.getKey(), copy.getValue());
+                }
+            }
+            for (Map.Entry<String, InputStream> content : contents.entrySet()) {
+                String path = content.getKey();
+                StudioBlobStore store = getConfiguredBlobStore(site, path);
+                if (store != null) {
+                    store.writeContent(site, normalize(path), content.getValue());
+                    Blob reference = store.getReference(normalize(path));
+                    localContents.put(getPointerPath(site, path),
+                            new ByteArrayInputStream(objectMapper.writeValueAsBytes(reference)));
+                } else {
+                    localContents.put(path, content.getValue());
+                }
+            }
+        } catch (ServiceLayerException e) {
+            logger.error("Failed to write multiple files to site '{}'", site, e);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to write multiple files to site '{}'", site, e);
+            throw new ServiceLayerException(e);
+        }
+        return localRepositoryV1.writeContents(site, localContents, localCopies, folders);
+    }
+
+    private StudioBlobStore getConfiguredBlobStore(String site, String... paths) throws ServiceLayerException {
+        try {
+            return getBlobStore(site, paths);
+        } catch (BlobStoreConfigurationMissingException e) {
+            logger.debug("No blob store configuration found for site '{}'", site);
+            return null;
+        }
+    }
+
     @Override
     public String createFolder(String site, String path, String name) {
         logger.debug("Create folder in site '{}' path '{}'", site, path);
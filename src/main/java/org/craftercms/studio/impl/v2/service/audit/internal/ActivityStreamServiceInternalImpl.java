@@ -19,29 +19,159 @@ package org.craftercms.studio.impl.v2.service.audit.internal;
 import org.craftercms.studio.api.v1.dal.SiteFeed;
 import org.craftercms.studio.api.v1.dal.SiteFeedMapper;
 import org.craftercms.studio.api.v2.dal.ActivityStreamDAO;
+import org.craftercms.studio.api.v2.dal.ActivityStreamEntry;
 import org.craftercms.studio.api.v2.dal.Item;
 import org.craftercms.studio.api.v2.dal.RetryingDatabaseOperationFacade;
 import org.craftercms.studio.api.v2.service.audit.internal.ActivityStreamServiceInternal;
 import org.craftercms.studio.model.rest.dashboard.Activity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.SITE_ID;
 
-public class ActivityStreamServiceInternalImpl implements ActivityStreamServiceInternal {
+/**
+ * Default implementation of {@link ActivityStreamServiceInternal}
+ *
+ * <p>When write-behind is enabled activities are added to a bounded queue and inserted in the background using
+ * multi-row statements, every {@code flushInterval} milliseconds or as soon as {@code batchSize} activities are
+ * waiting. Activities are inserted synchronously if the queue is full or the service is shutting down, and the
+ * queue is flushed before the service is destroyed. Activities still in the queue are lost if the process
+ * crashes, so {@code queueCapacity} bounds how many can be lost.</p>
+ */
+public class ActivityStreamServiceInternalImpl implements ActivityStreamServiceInternal, InitializingBean,
+        DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityStreamServiceInternalImpl.class);
 
     private SiteFeedMapper siteFeedMapper;
     private RetryingDatabaseOperationFacade retryingDatabaseOperationFacade;
     private ActivityStreamDAO activityStreamDAO;
 
+    /**
+     * Indicates if activities should be inserted in the background
+     */
+    protected boolean writeBehindEnabled = false;
+
+    /**
+     * Time in milliseconds between flushes of the queue
+     */
+    protected long flushInterval = 1000;
+
+    /**
+     * Max number of activities to insert in a single statement, also triggers a flush when reached
+     */
+    protected int batchSize = 100;
+
+    /**
+     * Max number of activities waiting in the queue
+     */
+    protected int queueCapacity = 1000;
+
+    protected BlockingQueue<ActivityStreamEntry> queue;
+
+    protected ScheduledExecutorService flushExecutor;
+
+    protected final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    protected volatile boolean shuttingDown = false;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (writeBehindEnabled) {
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "activity-stream-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleWithFixedDelay(this::flushQueue, flushInterval, flushInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (flushExecutor != null) {
+            shuttingDown = true;
+            flushExecutor.shutdown();
+            if (!flushExecutor.awaitTermination(flushInterval, TimeUnit.MILLISECONDS)) {
+                logger.warn("Timeout waiting for the activity stream writer to finish");
+            }
+            // Insert anything left in the queue before the datasource is closed
+            flushQueue();
+        }
+    }
+
     @Override
     public void insertActivity(long siteId, long userId, String action, ZonedDateTime actionTimestamp, Item item,
                                String packageId) {
-        retryingDatabaseOperationFacade.retry(() -> activityStreamDAO.insertActivity(siteId, userId, action, actionTimestamp, item,
-                packageId));
+        if (queue != null && !shuttingDown &&
+                queue.offer(new ActivityStreamEntry(siteId, userId, action, actionTimestamp, item, packageId))) {
+            if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+                try {
+                    flushExecutor.execute(this::flushQueue);
+                } catch (RejectedExecutionException e) {
+                    // The executor is shutting down, the queue will be flushed by destroy()
+                    flushRequested.set(false);
+                }
+            }
+            return;
+        }
+        if (queue != null && !shuttingDown) {
+            logger.debug("The activity stream queue is full, insert the activity synchronously");
+        }
+        retryingDatabaseOperationFacade.retry(() -> activityStreamDAO.insertActivity(siteId, userId, action,
+                actionTimestamp, item, packageId));
+    }
+
+    /**
+     * Inserts all the activities waiting in the queue, in batches of up to {@code batchSize}
+     */
+    protected void flushQueue() {
+        flushRequested.set(false);
+        List<ActivityStreamEntry> batch = new ArrayList<>(batchSize);
+        try {
+            while (queue.drainTo(batch, batchSize) > 0) {
+                insertBatch(batch);
+                batch.clear();
+            }
+        } catch (Exception e) {
+            // Keep the scheduled task alive, the entries in the current batch have already been logged
+            logger.error("Failed to flush the activity stream queue", e);
+        }
+    }
+
+    protected void insertBatch(List<ActivityStreamEntry> batch) {
+        try {
+            retryingDatabaseOperationFacade.retry(() -> activityStreamDAO.insertActivities(batch));
+        } catch (Exception e) {
+            // A single invalid entry (e.g. for a site deleted in the meantime) fails the whole statement,
+            // insert the entries one by one so only that one is lost
+            logger.warn("Failed to insert a batch of '{}' activities, inserting them one by one", batch.size(), e);
+            for (ActivityStreamEntry entry : batch) {
+                try {
+                    retryingDatabaseOperationFacade.retry(() -> activityStreamDAO.insertActivities(List.of(entry)));
+                } catch (Exception ex) {
+                    logger.error("Failed to insert activity '{}' by user '{}' in site '{}'",
+                            entry.getAction(), entry.getUserId(), entry.getSiteId(), ex);
+                }
+            }
+        }
     }
 
     @Override
@@ -75,4 +205,20 @@ public class ActivityStreamServiceInternalImpl implements ActivityStreamServiceI
     public void setActivityStreamDAO(ActivityStreamDAO activityStreamDAO) {
         this.activityStreamDAO = activityStreamDAO;
     }
+
+    public void setWriteBehindEnabled(boolean writeBehindEnabled) {
+        this.writeBehindEnabled = writeBehindEnabled;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
 }
@@ -17,9 +17,18 @@
 package org.craftercms.studio.impl.v2.service.audit.internal;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.craftercms.studio.api.v1.service.GeneralLockService;
+import org.craftercms.studio.api.v2.annotation.LogExecutionTime;
 import org.craftercms.studio.api.v2.dal.AuditDAO;
 import org.craftercms.studio.api.v2.dal.AuditLog;
+import org.craftercms.studio.api.v2.dal.AuditLogParameter;
+import org.craftercms.studio.api.v2.dal.AuditPartition;
 import org.craftercms.studio.api.v2.dal.ItemState;
 import org.craftercms.studio.api.v2.dal.RetryingDatabaseOperationFacade;
 import org.craftercms.studio.api.v2.service.audit.internal.AuditServiceInternal;
@@ -27,22 +36,40 @@ import org.craftercms.studio.model.rest.Person;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Statement;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.apache.commons.lang3.StringUtils.isNumeric;
 import static org.craftercms.studio.api.v2.dal.AuditLogConstants.*;
 import static org.craftercms.studio.api.v2.dal.QueryParameterNames.*;
+import static org.craftercms.studio.impl.v2.utils.DateUtils.getCurrentTime;
 
+@LogExecutionTime
 public class AuditServiceInternalImpl implements AuditServiceInternal {
 
     private static final Logger logger = LoggerFactory.getLogger(AuditServiceInternalImpl.class);
 
+    private static final String PARTITIONS_LOCK = "AUDIT_PARTITIONS_MAINTENANCE";
+    // audit_parameters is partitioned with the same bounds so its rows are dropped along with their entries
+    private static final List<String> PARTITIONED_TABLES = List.of("audit", "audit_parameters");
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
     private AuditDAO auditDao;
     private RetryingDatabaseOperationFacade retryingDatabaseOperationFacade;
+    private SqlSessionFactory sqlSessionFactory;
+    private GeneralLockService generalLockService;
+    private int parametersBatchSize;
+    private int partitionsMonthsAhead;
+    private int retentionMonths;
 
     @Override
     public List<AuditLog> getAuditLog(String siteId, int offset, int limit, String user,
@@ -144,14 +171,53 @@ public class AuditServiceInternalImpl implements AuditServiceInternal {
     @Override
     // TODO: after login insert LOGIN audit
     public boolean insertAuditLog(AuditLog auditLog) {
-        int result = retryingDatabaseOperationFacade.retry(() -> auditDao.insertAuditLog(auditLog));
-        if (CollectionUtils.isNotEmpty(auditLog.getParameters())) {
-            Map<String, Object> params = new HashMap<>();
-            params.put("auditId", auditLog.getId());
-            params.put("parameters", auditLog.getParameters());
-            retryingDatabaseOperationFacade.retry(() -> auditDao.insertAuditLogParams(params));
+        return insertAuditLogs(List.of(auditLog));
+    }
+
+    @Override
+    public boolean insertAuditLogs(List<AuditLog> auditLogs) {
+        if (CollectionUtils.isEmpty(auditLogs)) {
+            return true;
         }
-        return result > 0;
+        // Parameters are partitioned by the timestamp of their entry, so it needs to be known before inserting
+        auditLogs.stream()
+                .filter(auditLog -> auditLog.getOperationTimestamp() == null)
+                .forEach(auditLog -> auditLog.setOperationTimestamp(getCurrentTime()));
+        return retryingDatabaseOperationFacade.retry(() -> {
+            try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+                AuditDAO batchAuditDao = session.getMapper(AuditDAO.class);
+                auditLogs.forEach(batchAuditDao::insertAuditLog);
+                // Execute the entry inserts to get the generated ids
+                boolean inserted = isEveryRowUpdated(session.flushStatements(), auditLogs.size());
+                if (!inserted) {
+                    logger.error("Failed to insert some of the '{}' audit log entries", auditLogs.size());
+                }
+
+                List<AuditLogParameter> parameters = new ArrayList<>();
+                for (AuditLog auditLog : auditLogs) {
+                    if (CollectionUtils.isNotEmpty(auditLog.getParameters())) {
+                        for (AuditLogParameter parameter : auditLog.getParameters()) {
+                            parameter.setAuditId(auditLog.getId());
+                            parameter.setAuditTimestamp(auditLog.getOperationTimestamp());
+                            parameters.add(parameter);
+                        }
+                    }
+                }
+                ListUtils.partition(parameters, parametersBatchSize)
+                        .forEach(batchAuditDao::insertAuditLogParameters);
+                session.commit();
+                return inserted;
+            }
+        });
+    }
+
+    private static boolean isEveryRowUpdated(List<BatchResult> results, int expectedRows) {
+        int[] updateCounts = results.stream()
+                .flatMapToInt(result -> IntStream.of(result.getUpdateCounts()))
+                .toArray();
+        // Drivers can report a successful statement without its count
+        return updateCounts.length == expectedRows && IntStream.of(updateCounts)
+                .allMatch(count -> count > 0 || count == Statement.SUCCESS_NO_INFO);
     }
 
     @Override
@@ -199,6 +265,66 @@ public class AuditServiceInternalImpl implements AuditServiceInternal {
         return auditDao.isAudited(siteId, commitId);
     }
 
+    @Override
+    public void maintainPartitions() {
+        if (!generalLockService.tryLock(PARTITIONS_LOCK)) {
+            logger.debug("Audit partition maintenance is already running, skipping");
+            return;
+        }
+        try {
+            ZonedDateTime currentMonth = getCurrentTime().truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            for (String tableName : PARTITIONED_TABLES) {
+                try {
+                    maintainPartitions(tableName, currentMonth);
+                } catch (Exception e) {
+                    logger.error("Failed to maintain the partitions of table '{}'", tableName, e);
+                }
+            }
+        } finally {
+            generalLockService.unlock(PARTITIONS_LOCK);
+        }
+    }
+
+    private void maintainPartitions(String tableName, ZonedDateTime currentMonth) {
+        List<AuditPartition> partitions = auditDao.getAuditPartitions(tableName);
+        if (partitions.isEmpty()) {
+            logger.warn("Table '{}' is not partitioned, skipping partition maintenance", tableName);
+            return;
+        }
+
+        long lastBound = partitions.stream()
+                .map(AuditPartition::getDescription)
+                .filter(StringUtils::isNumeric)
+                .mapToLong(Long::parseLong)
+                .max()
+                .orElse(Long.MIN_VALUE);
+        List<AuditPartition> newPartitions = new ArrayList<>();
+        for (int i = 0; i <= partitionsMonthsAhead; i++) {
+            ZonedDateTime month = currentMonth.plusMonths(i);
+            long bound = month.plusMonths(1).toEpochSecond();
+            if (bound > lastBound) {
+                newPartitions.add(new AuditPartition(month.format(PARTITION_NAME_FORMAT), Long.toString(bound)));
+            }
+        }
+        if (!newPartitions.isEmpty()) {
+            logger.info("Adding {} partitions to table '{}'", newPartitions.size(), tableName);
+            retryingDatabaseOperationFacade.retry(() -> auditDao.addAuditPartitions(tableName, newPartitions));
+        }
+
+        if (retentionMonths > 0) {
+            long cutoff = currentMonth.minusMonths(retentionMonths).toEpochSecond();
+            List<String> expiredPartitions = partitions.stream()
+                    .filter(partition -> isNumeric(partition.getDescription()))
+                    .filter(partition -> Long.parseLong(partition.getDescription()) <= cutoff)
+                    .map(AuditPartition::getName)
+                    .toList();
+            if (!expiredPartitions.isEmpty()) {
+                logger.info("Dropping expired partitions '{}' from table '{}'", expiredPartitions, tableName);
+                retryingDatabaseOperationFacade.retry(() -> auditDao.dropAuditPartitions(tableName, expiredPartitions));
+            }
+        }
+    }
+
     public void setAuditDao(AuditDAO auditDao) {
         this.auditDao = auditDao;
     }
@@ -206,4 +332,24 @@ public class AuditServiceInternalImpl implements AuditServiceInternal {
     public void setRetryingDatabaseOperationFacade(RetryingDatabaseOperationFacade retryingDatabaseOperationFacade) {
         this.retryingDatabaseOperationFacade = retryingDatabaseOperationFacade;
     }
+
+    public void setSqlSessionFactory(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    public void setGeneralLockService(GeneralLockService generalLockService) {
+        this.generalLockService = generalLockService;
+    }
+
+    public void setParametersBatchSize(int parametersBatchSize) {
+        this.parametersBatchSize = parametersBatchSize;
+    }
+
+    public void setPartitionsMonthsAhead(int partitionsMonthsAhead) {
+        this.partitionsMonthsAhead = partitionsMonthsAhead;
+    }
+
+    public void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
 }
@@ -40,7 +40,6 @@ import java.util.List;
 import java.util.Objects;
 
 import static java.lang.String.format;
-import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.io.FilenameUtils.getFullPathNoEndSeparator;
 import static org.apache.commons.lang3.StringUtils.removeEnd;
 import static org.craftercms.studio.api.v1.constant.DmConstants.SLASH_INDEX_FILE;
@@ -121,15 +120,10 @@ public class ClipboardServiceInternalImpl implements ClipboardServiceInternal, A
                         newPath = contentService.moveContent(siteId, item.getPath(), targetPath);
                         break;
                     case COPY:
-                        // RDTMP_COPYPASTE
-                        // CopyContent interface is able to send status and new path yet
-                        newPath = contentService.copyContent(siteId, item.getPath(), targetPath);
-
-                        // recurse on copied children
-                        if (isNotEmpty(item.getChildren())) {
-                            pasteItemsInternal(siteId, operation, newPath, item.getChildren(), pastedItems);
-                        }
-                        break;
+                        // copy the item with all its children, so the whole tree is written in a single commit
+                        pastedItems.addAll(contentService.copyContentTree(siteId, item.getPath(), targetPath,
+                                item.getChildren()));
+                        continue;
                     default:
                         logger.warn("Unsupported clipboard operation '{}' attempted in site '{}' item '{}' " +
                                         "target path '{}'",
@@ -149,7 +143,8 @@ public class ClipboardServiceInternalImpl implements ClipboardServiceInternal, A
     public String duplicateItem(@SiteId String siteId, @ContentPath String path) throws ServiceLayerException, UserNotFoundException {
         String parentUrl = getParentUrl(path);
         var item = contentService.getContentItem(siteId, parentUrl, 0);
-        return contentService.copyContent(siteId, path, item.uri);
+        List<String> copiedPaths = contentService.copyContentTree(siteId, path, item.uri, null);
+        return copiedPaths.get(copiedPaths.size() - 1);
     }
 
     /**
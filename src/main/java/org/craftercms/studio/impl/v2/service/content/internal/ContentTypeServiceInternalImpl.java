@@ -33,6 +33,7 @@ import org.craftercms.studio.api.v2.annotation.SiteId;
 import org.craftercms.studio.api.v2.dal.Item;
 import org.craftercms.studio.api.v2.dal.ItemDAO;
 import org.craftercms.studio.api.v2.dal.QuickCreateItem;
+import org.craftercms.studio.api.v2.event.site.SiteDeletedEvent;
 import org.craftercms.studio.api.v2.service.config.ConfigurationService;
 import org.craftercms.studio.api.v2.service.content.ContentService;
 import org.craftercms.studio.api.v2.service.content.internal.ContentTypeServiceInternal;
@@ -40,24 +41,29 @@ import org.craftercms.studio.api.v2.utils.GitRepositoryHelper;
 import org.craftercms.studio.model.contentType.ContentTypeUsage;
 import org.dom4j.Document;
 import org.dom4j.Node;
-import org.jetbrains.annotations.NotNull;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
 import java.beans.ConstructorProperties;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.String.format;
-import static java.nio.file.Files.walkFileTree;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.io.FilenameUtils.normalize;
@@ -86,6 +92,11 @@ public class ContentTypeServiceInternalImpl implements ContentTypeServiceInterna
     protected final String defaultPreviewImagePath;
     private final GitRepositoryHelper gitRepositoryHelper;
 
+    /**
+     * Model definitions for each site, valid as long as the content types folder tree id doesn't change
+     */
+    protected final Map<String, ModelDefinitionCatalog> modelDefinitionCatalogs = new ConcurrentHashMap<>();
+
     @ConstructorProperties({"contentTypeService", "securityService", "configurationService", "itemDao",
             "contentTypeBasePathPattern", "contentTypeDefinitionFilename", "contentTypeConfigFilename",
             "contentTypesRootPath",
@@ -225,31 +236,59 @@ public class ContentTypeServiceInternalImpl implements ContentTypeServiceInterna
     @Override
     @RequireSiteExists
     public Collection<String> getAllModelDefinitions(@SiteId String site) throws ServiceLayerException {
-        List<String> modelDefinitions = new LinkedList<>();
-
-        Path repoRootPath = gitRepositoryHelper.buildRepoPath(SANDBOX, site);
-        Path contentTypesRepoPath = repoRootPath.resolve(gitRepositoryHelper.getGitPath(contentTypesRootPath));
         try {
-            walkFileTree(contentTypesRepoPath, new SimpleFileVisitor<>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    return visitContentTypeFile(file, modelDefinitions);
+            Repository repo = gitRepositoryHelper.getRepository(site, SANDBOX);
+            RevTree tree = gitRepositoryHelper.getTreeForLastCommit(repo);
+            try (TreeWalk rootWalk = TreeWalk.forPath(repo, gitRepositoryHelper.getGitPath(contentTypesRootPath), tree)) {
+                if (rootWalk == null) {
+                    return Collections.emptyList();
+                }
+                // Any change under the content types folder produces a new tree id
+                ObjectId treeId = rootWalk.getObjectId(0);
+                ModelDefinitionCatalog catalog = modelDefinitionCatalogs.get(site);
+                if (catalog == null || !catalog.treeId().equals(treeId)) {
+                    catalog = loadModelDefinitions(repo, treeId, catalog);
+                    modelDefinitionCatalogs.put(site, catalog);
                 }
-            });
+                return catalog.definitions();
+            }
         } catch (IOException e) {
             throw new ServiceLayerException(format("Failed to retrieve content types for site '%s'", site), e);
         }
-
-        return modelDefinitions;
     }
 
-    @NotNull
-    private FileVisitResult visitContentTypeFile(final Path file, final List<String> contentTypes) throws IOException {
-        if (!file.getFileName().toString().equals(contentTypeDefinitionFilename)) {
-            return FileVisitResult.CONTINUE;
+    /**
+     * Load the model definitions found under the given tree, only the blobs not present in the previous catalog
+     * are read from the repository
+     */
+    protected ModelDefinitionCatalog loadModelDefinitions(Repository repo, ObjectId treeId,
+                                                          ModelDefinitionCatalog previous) throws IOException {
+        Map<ObjectId, String> previousDefinitions = previous != null ? previous.definitionsByBlobId() : Map.of();
+        Map<ObjectId, String> definitionsByBlobId = new HashMap<>();
+        List<String> definitions = new ArrayList<>();
+        try (TreeWalk walk = new TreeWalk(repo)) {
+            walk.addTree(treeId);
+            walk.setRecursive(true);
+            walk.setFilter(PathSuffixFilter.create("/" + contentTypeDefinitionFilename));
+            while (walk.next()) {
+                ObjectId blobId = walk.getObjectId(0);
+                String definition = definitionsByBlobId.get(blobId);
+                if (definition == null) {
+                    definition = previousDefinitions.get(blobId);
+                }
+                if (definition == null) {
+                    definition = new String(repo.open(blobId).getBytes(), UTF_8);
+                }
+                definitionsByBlobId.put(blobId, definition);
+                definitions.add(definition);
+            }
         }
-        contentTypes.add(Files.readString(file));
-        return FileVisitResult.SKIP_SIBLINGS;
+        return new ModelDefinitionCatalog(treeId, Collections.unmodifiableList(definitions), definitionsByBlobId);
+    }
+
+    @EventListener
+    public void onSiteDeleted(SiteDeletedEvent event) {
+        modelDefinitionCatalogs.remove(event.getSiteId());
     }
 
     protected String getContentTypePath(String contentType) {
@@ -294,4 +333,15 @@ public class ContentTypeServiceInternalImpl implements ContentTypeServiceInterna
         return definition;
     }
 
+    /**
+     * Model definitions of a site's content types
+     *
+     * @param treeId id of the content types folder tree the definitions were loaded from
+     * @param definitions the model definitions
+     * @param definitionsByBlobId the model definitions keyed by the id of their blob
+     */
+    protected record ModelDefinitionCatalog(ObjectId treeId, List<String> definitions,
+                                            Map<ObjectId, String> definitionsByBlobId) {
+    }
+
 }
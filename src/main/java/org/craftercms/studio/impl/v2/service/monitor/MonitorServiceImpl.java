@@ -18,6 +18,8 @@ package org.craftercms.studio.impl.v2.service.monitor;
 import org.craftercms.commons.security.permissions.DefaultPermission;
 import org.craftercms.commons.security.permissions.annotations.HasPermission;
 import org.craftercms.studio.api.v2.service.monitor.MonitorService;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapStatus;
+import org.craftercms.studio.api.v2.utils.metrics.MethodTimer;
 
 import java.beans.ConstructorProperties;
 import java.util.List;
@@ -44,4 +46,28 @@ public class MonitorServiceImpl implements MonitorService {
     public List<Map<String, Object>> getLogEvents(final String siteId, final long since) {
         return monitorServiceInternal.getLogEvents(siteId, since);
     }
+
+    @Override
+    @HasPermission(type = DefaultPermission.class, action = PERMISSION_VIEW_LOGS, acceptManagementToken = true)
+    public List<Map<String, Object>> getLogEventsFromSequence(final String siteId, final long sequence) {
+        return monitorServiceInternal.getLogEventsFromSequence(siteId, sequence);
+    }
+
+    @Override
+    @HasPermission(type = DefaultPermission.class, action = PERMISSION_VIEW_LOGS, acceptManagementToken = true)
+    public List<MethodTimer> getMetrics() {
+        return monitorServiceInternal.getMetrics();
+    }
+
+    @Override
+    @HasPermission(type = DefaultPermission.class, action = PERMISSION_VIEW_LOGS, acceptManagementToken = true)
+    public SiteBootstrapStatus getSiteBootstrapStatus() {
+        return monitorServiceInternal.getSiteBootstrapStatus();
+    }
+
+    @Override
+    @HasPermission(type = DefaultPermission.class, action = PERMISSION_VIEW_LOGS, acceptManagementToken = true)
+    public Map<String, Object> getImageTransformationStatistics() {
+        return monitorServiceInternal.getImageTransformationStatistics();
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.impl.v2.service.monitor.internal;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Property;
+import org.craftercms.studio.api.v2.event.site.SiteDeletedEvent;
+import org.craftercms.studio.impl.v2.utils.SequencedRingBuffer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.event.EventListener;
+
+import java.beans.ConstructorProperties;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.StringUtils.defaultIfEmpty;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Log4j appender that keeps the most recent log events in memory for the log console. Events are stored in a
+ * {@link SequencedRingBuffer} for each site, so appending never contends with readers and reading only goes through
+ * the events of the requested site that are newer than what the client already has.
+ * <p>
+ * The site of an event is taken from the {@value #SITE_CONTEXT_KEY} key of the {@link ThreadContext}, which is set
+ * for requests with a site parameter and for site jobs. Events logged without it belong to the default site, and
+ * every event is also added to the default site so its console keeps showing everything.
+ * <p>
+ * At most {@code maxSites} site buffers are kept, events for other sites only go to the default site. The buffer of
+ * a site is dropped when the site is deleted.
+ *
+ * @since 4.2.0
+ */
+public class LogEventBufferAppender extends AbstractAppender implements InitializingBean, DisposableBean {
+
+    public static final String SITE_CONTEXT_KEY = "siteId";
+
+    public static final String EVENT_KEY_LEVEL = "level";
+    public static final String EVENT_KEY_MESSAGE = "message";
+    public static final String EVENT_KEY_SITE = "site";
+    public static final String EVENT_KEY_THREAD = "thread";
+    public static final String EVENT_KEY_EXCEPTION = "exception";
+    public static final String EVENT_KEY_TIMESTAMP = "timestamp";
+    public static final String EVENT_KEY_TIMESTAMP_MILLIS = "timestampm";
+    public static final String EVENT_KEY_SEQUENCE = "sequence";
+
+    protected final int capacity;
+    protected final String defaultSite;
+    protected final int maxSites;
+    protected final SequencedRingBuffer<Map<String, Object>> defaultBuffer;
+    protected final Map<String, SequencedRingBuffer<Map<String, Object>>> buffers = new ConcurrentHashMap<>();
+
+    @ConstructorProperties({"name", "capacity", "defaultSite", "maxSites"})
+    public LogEventBufferAppender(String name, int capacity, String defaultSite, int maxSites) {
+        super(name, null, null, true, Property.EMPTY_ARRAY);
+        this.capacity = capacity;
+        this.defaultSite = defaultSite;
+        this.maxSites = maxSites;
+        this.defaultBuffer = new SequencedRingBuffer<>(capacity);
+    }
+
+    /**
+     * Adds the appender to the root logger of the current Log4j configuration
+     */
+    @Override
+    public void afterPropertiesSet() {
+        LoggerContext context = LoggerContext.getContext(false);
+        Configuration configuration = context.getConfiguration();
+        start();
+        configuration.addAppender(this);
+        configuration.getRootLogger().addAppender(this, null, null);
+        context.updateLoggers();
+    }
+
+    @Override
+    public void destroy() {
+        LoggerContext context = LoggerContext.getContext(false);
+        context.getConfiguration().getRootLogger().removeAppender(getName());
+        context.updateLoggers();
+        stop();
+    }
+
+    @EventListener
+    public void onSiteDeleted(SiteDeletedEvent event) {
+        buffers.remove(event.getSiteId());
+    }
+
+    /**
+     * Indicates if events are being kept for the given site
+     */
+    public boolean hasBuffer(String siteId) {
+        return buffers.containsKey(siteId);
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        String site = defaultIfEmpty(event.getContextData().getValue(SITE_CONTEXT_KEY), defaultSite);
+
+        Map<String, Object> logEvent = new HashMap<>();
+        logEvent.put(EVENT_KEY_LEVEL, event.getLevel().toString());
+        logEvent.put(EVENT_KEY_MESSAGE, event.getMessage().getFormattedMessage());
+        logEvent.put(EVENT_KEY_SITE, site);
+        logEvent.put(EVENT_KEY_THREAD, event.getThreadName());
+        logEvent.put(EVENT_KEY_EXCEPTION, event.getThrown() != null ? ExceptionUtils.getMessage(event.getThrown()) : "");
+        logEvent.put(EVENT_KEY_TIMESTAMP, Instant.ofEpochMilli(event.getTimeMillis()).toString());
+        logEvent.put(EVENT_KEY_TIMESTAMP_MILLIS, event.getTimeMillis());
+
+        SequencedRingBuffer<Map<String, Object>> siteBuffer = getSiteBuffer(site);
+        if (siteBuffer != null) {
+            // Each buffer has its own sequence numbers
+            Map<String, Object> siteEvent = new HashMap<>(logEvent);
+            siteBuffer.write(sequence -> {
+                siteEvent.put(EVENT_KEY_SEQUENCE, sequence);
+                return siteEvent;
+            });
+        }
+        defaultBuffer.write(sequence -> {
+            logEvent.put(EVENT_KEY_SEQUENCE, sequence);
+            return logEvent;
+        });
+    }
+
+    /**
+     * Returns the buffer for the given site, creating it if the limit has not been reached yet
+     *
+     * @return the buffer, or null for the default site or if there are already {@code maxSites} buffers
+     */
+    protected SequencedRingBuffer<Map<String, Object>> getSiteBuffer(String site) {
+        if (site.equals(defaultSite)) {
+            return null;
+        }
+        SequencedRingBuffer<Map<String, Object>> buffer = buffers.get(site);
+        if (buffer == null && buffers.size() < maxSites) {
+            buffer = buffers.computeIfAbsent(site, s -> new SequencedRingBuffer<>(capacity));
+        }
+        return buffer;
+    }
+
+    protected SequencedRingBuffer<Map<String, Object>> getBuffer(String siteId) {
+        if (isEmpty(siteId) || siteId.equals(defaultSite)) {
+            return defaultBuffer;
+        }
+        return buffers.get(siteId);
+    }
+
+    /**
+     * Returns the events of the given site logged after the given time
+     *
+     * @param siteId the site, if empty the events of all sites are returned
+     * @param since the time in milliseconds
+     * @return the events, oldest first
+     */
+    public List<Map<String, Object>> getEventsSince(String siteId, long since) {
+        SequencedRingBuffer<Map<String, Object>> buffer = getBuffer(siteId);
+        if (buffer == null) {
+            return Collections.emptyList();
+        }
+        return buffer.readLatest(event -> (long) event.get(EVENT_KEY_TIMESTAMP_MILLIS) <= since);
+    }
+
+    /**
+     * Returns the events of the given site with a sequence number equal or greater than the given one
+     *
+     * @param siteId the site, if empty the events of all sites are returned
+     * @param sequence the first sequence number to return
+     * @return the events, oldest first
+     */
+    public List<Map<String, Object>> getEventsFromSequence(String siteId, long sequence) {
+        SequencedRingBuffer<Map<String, Object>> buffer = getBuffer(siteId);
+        if (buffer == null) {
+            return Collections.emptyList();
+        }
+        return buffer.readFrom(sequence);
+    }
+
+}
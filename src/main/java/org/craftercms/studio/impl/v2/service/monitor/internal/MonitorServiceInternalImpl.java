@@ -15,9 +15,14 @@
  */
 package org.craftercms.studio.impl.v2.service.monitor.internal;
 
-import org.craftercms.engine.util.logging.CircularQueueLogAppender;
 import org.craftercms.studio.api.v2.service.monitor.MonitorService;
+import org.craftercms.studio.impl.v1.image.transformation.PooledImageTransformer;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapScheduler;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapStatus;
+import org.craftercms.studio.api.v2.utils.metrics.MethodTimer;
+import org.craftercms.studio.api.v2.utils.metrics.MetricsRegistry;
 
+import java.beans.ConstructorProperties;
 import java.util.List;
 import java.util.Map;
 
@@ -27,8 +32,45 @@ import java.util.Map;
  * @author jmendeza
  */
 public class MonitorServiceInternalImpl implements MonitorService {
+
+    protected final MetricsRegistry metricsRegistry;
+    protected final LogEventBufferAppender logEventBuffer;
+    protected final SiteBootstrapScheduler siteBootstrapScheduler;
+    protected final PooledImageTransformer imageTransformer;
+
+    @ConstructorProperties({"metricsRegistry", "logEventBuffer", "siteBootstrapScheduler", "imageTransformer"})
+    public MonitorServiceInternalImpl(final MetricsRegistry metricsRegistry,
+                                      final LogEventBufferAppender logEventBuffer,
+                                      final SiteBootstrapScheduler siteBootstrapScheduler,
+                                      final PooledImageTransformer imageTransformer) {
+        this.metricsRegistry = metricsRegistry;
+        this.logEventBuffer = logEventBuffer;
+        this.siteBootstrapScheduler = siteBootstrapScheduler;
+        this.imageTransformer = imageTransformer;
+    }
+
     @Override
     public List<Map<String, Object>> getLogEvents(final String siteId, final long since) {
-        return CircularQueueLogAppender.getLoggedEvents(siteId, since);
+        return logEventBuffer.getEventsSince(siteId, since);
+    }
+
+    @Override
+    public List<Map<String, Object>> getLogEventsFromSequence(final String siteId, final long sequence) {
+        return logEventBuffer.getEventsFromSequence(siteId, sequence);
+    }
+
+    @Override
+    public List<MethodTimer> getMetrics() {
+        return metricsRegistry.getTimers();
+    }
+
+    @Override
+    public SiteBootstrapStatus getSiteBootstrapStatus() {
+        return siteBootstrapScheduler.getStatus();
+    }
+
+    @Override
+    public Map<String, Object> getImageTransformationStatistics() {
+        return imageTransformer.getStatistics();
     }
 }
@@ -17,6 +17,7 @@
 package org.craftercms.studio.impl.v2.service.notification;
 
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import freemarker.template.Configuration;
 import freemarker.template.DefaultObjectWrapperBuilder;
 import freemarker.template.Template;
@@ -50,6 +51,8 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.singletonList;
@@ -98,6 +101,13 @@ public class NotificationServiceImpl implements NotificationService {
 
     protected Cache<String, NotificationConfigTO> cache;
 
+    /**
+     * Compiled templates for each loaded configuration, keyed by the message source. Entries are dropped along
+     * with the configuration object when it is reloaded after a configuration change.
+     */
+    private final Cache<NotificationConfigTO, Map<String, Template>> templates =
+            CacheBuilder.newBuilder().weakKeys().build();
+
     public void init() {
         configuration = new Configuration(Configuration.VERSION_2_3_23);
         configuration.setTimeZone(TimeZone.getTimeZone(getTemplateTimezone()));
@@ -184,7 +194,7 @@ public class NotificationServiceImpl implements NotificationService {
                     model.put(param.getKey(), param.getValue());
                 }
                 model.put(SITE_NAME, site);
-                return processMessage(key, message, model);
+                return processMessage(notificationConfig, key, message, model);
             }
         } catch (Throwable e) {
             logger.error("Failed to get notification message from the notification configuration in site '{}' " +
@@ -249,8 +259,10 @@ public class NotificationServiceImpl implements NotificationService {
                 for (Pair<String, Object> param : params) {
                     templateModel.put(param.getKey(), param.getValue());
                 }
-                final String messageBody = processMessage(key, emailTemplate.getMessage(), templateModel);
-                final String subject = processMessage(key, emailTemplate.getSubject(), templateModel);
+                final String messageBody =
+                        processMessage(notificationConfig, key, emailTemplate.getMessage(), templateModel);
+                final String subject =
+                        processMessage(notificationConfig, key, emailTemplate.getSubject(), templateModel);
                 sendEmail(messageBody, subject, toUsers);
             } else {
                 logger.error("Failed to find key '{}' in site '{}'", key, site);
@@ -455,22 +467,36 @@ public class NotificationServiceImpl implements NotificationService {
 
     protected void sendEmail(final String message, final String subject, final List<String> sendTo) {
         EmailMessageTO emailMessage = new EmailMessageTO(subject, message, StringUtils.join(sendTo, ','));
-        emailMessages.addEmailMessage(emailMessage);
+        if (!emailMessages.addEmailMessage(emailMessage)) {
+            logger.error("Failed to queue email with subject '{}' to '{}', the outbound email queue is full",
+                    subject, sendTo);
+        }
     }
 
-    protected String processMessage(final String templateName, final String message, final Map<String, Object>
-        templateModel) {
+    protected String processMessage(final NotificationConfigTO notificationConfig, final String templateName,
+                                    final String message, final Map<String, Object> templateModel) {
         StringWriter out = new StringWriter();
         try {
-            Template t = new Template(templateName, new StringReader(message), configuration);
-            t.process(templateModel, out);
+            getTemplate(notificationConfig, templateName, message).process(templateModel, out);
             return out.toString();
-        } catch (TemplateException | IOException e) {
+        } catch (TemplateException | IOException | ExecutionException e) {
             logger.error("Failed to process notification message with template '{}'", templateName, e);
         }
         return null;
     }
 
+    protected Template getTemplate(final NotificationConfigTO notificationConfig, final String templateName,
+                                   final String message) throws IOException, ExecutionException {
+        Map<String, Template> configTemplates = templates.get(notificationConfig, ConcurrentHashMap::new);
+        Template template = configTemplates.get(message);
+        if (template == null) {
+            logger.debug("Compiling notification template '{}'", templateName);
+            template = new Template(templateName, new StringReader(message), configuration);
+            configTemplates.put(message, template);
+        }
+        return template;
+    }
+
     protected Set<ContentItemTO> convertPathsToContent(final String site, final List<String> listOfPaths) {
         Set<ContentItemTO> files = new HashSet<>(listOfPaths.size());
         for (String path : listOfPaths) {
@@ -15,6 +15,8 @@
  */
 package org.craftercms.studio.impl.v2.service.policy.internal;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.tika.io.FilenameUtils;
 import org.slf4j.Logger;
@@ -33,6 +35,7 @@ import java.nio.file.Paths;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
@@ -67,6 +70,13 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
 
     protected String configPath;
 
+    /**
+     * Compiled statements for each policy configuration. The configurations are cached (and replaced when they
+     * change) by the {@link ConfigurationService}, so entries are keyed by identity and dropped with the old ones.
+     */
+    protected final Cache<HierarchicalConfiguration<?>, List<Statement>> compiledStatements =
+            CacheBuilder.newBuilder().weakKeys().build();
+
     @ConstructorProperties({"contentRepository", "contentRepositoryV2", "configurationService", "systemValidator",
             "policyValidators", "configPath"})
     public PolicyServiceInternalImpl(ContentRepository contentRepository,
@@ -90,17 +100,31 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
         var config = configurationService.getXmlConfiguration(siteId, configPath);
         actions.forEach(this::validateAction);
 
+        var statements = config != null ? getStatements(config) : null;
         var results = new LinkedList<ValidationResult>();
         actions.forEach(action -> {
             if (action.isRecursive()) {
-                evaluateRecursiveAction(config, siteId, action, results, true);
+                evaluateRecursiveAction(statements, siteId, action, results, true);
             } else {
-                evaluateAction(config, siteId, action, results, true);
+                evaluateAction(statements, siteId, action, results, true);
             }
         });
         return results;
     }
 
+    protected List<Statement> getStatements(HierarchicalConfiguration<?> config) {
+        var statements = compiledStatements.getIfPresent(config);
+        if (statements == null) {
+            statements = config.configurationsAt(CONFIG_KEY_STATEMENT)
+                    .stream()
+                    .map(statement -> new Statement(Pattern.compile(statement.getString(CONFIG_KEY_PATTERN)),
+                            getSubConfig(statement, CONFIG_KEY_PERMITTED), getSubConfig(statement, CONFIG_KEY_DENIED)))
+                    .collect(Collectors.toUnmodifiableList());
+            compiledStatements.put(config, statements);
+        }
+        return statements;
+    }
+
     protected void validateAction(Action action) {
         if (action.isRecursive() && isEmpty(action.getSource())) {
             throw new IllegalArgumentException("All recursive actions need to include a source");
@@ -112,8 +136,8 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
         }
     }
 
-    protected void evaluateAction(final HierarchicalConfiguration<?> config, final String siteId, final Action action, final List<ValidationResult> results,
-                                  final boolean includeAllowed) {
+    protected void evaluateAction(final List<Statement> allStatements, final String siteId, final Action action,
+                                  final List<ValidationResult> results, final boolean includeAllowed) {
         ValidationResult systemResult = ValidationResult.allowed(action);
         systemValidator.validate(null, null, action, systemResult);
         if (!systemResult.isAllowed()) {
@@ -121,7 +145,7 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
             return;
         }
 
-        if (config == null) {
+        if (allStatements == null) {
             logger.debug("No policy configuration found, skip the action '{}'", action);
             if (includeAllowed) {
                 results.add(ValidationResult.allowed(action));
@@ -129,9 +153,8 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
             return;
         }
 
-        List<? extends HierarchicalConfiguration<?>> statements = config.configurationsAt(CONFIG_KEY_STATEMENT)
-                .stream()
-                .filter(statement -> action.getTarget().matches(statement.getString(CONFIG_KEY_PATTERN)))
+        List<Statement> statements = allStatements.stream()
+                .filter(statement -> statement.targetPathPattern().matcher(action.getTarget()).matches())
                 .collect(Collectors.toList());
         if (statements.size() == 0) {
             logger.debug("No statement matches found, skip the action '{}'", action);
@@ -142,10 +165,10 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
         }
     }
 
-    private ValidationResult validateStatements(Action action, List<? extends HierarchicalConfiguration<?>> statements, String siteId) {
+    private ValidationResult validateStatements(Action action, List<Statement> statements, String siteId) {
         ValidationResult result = ValidationResult.allowed(action);
 
-        for (HierarchicalConfiguration<?> statement : statements) {
+        for (Statement statement : statements) {
             if (action.upsertType()) {
                 String target = result.getModifiedValue() != null ? result.getModifiedValue() : action.getTarget();
                 action.setNewPath(getNewPath(siteId, target));
@@ -153,7 +176,7 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
 
             for (var validator : policyValidators) {
                 logger.debug("Evaluate the action '{}' using the validator '{}'", action, validator.getClass().getSimpleName());
-                validator.validate(getSubConfig(statement, CONFIG_KEY_PERMITTED), getSubConfig(statement, CONFIG_KEY_DENIED), action, result);
+                validator.validate(statement.permitted(), statement.denied(), action, result);
                 if (result.getModifiedValue() != null) {
                     logger.debug("Allowed with modifications the action '{}'", action);
                 } else if (result.isAllowed()) {
@@ -177,30 +200,26 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
         return null;
     }
 
-    protected void evaluateRecursiveAction(HierarchicalConfiguration<?> config, String siteId, Action action,
+    protected void evaluateRecursiveAction(List<Statement> statements, String siteId, Action action,
                                            List<ValidationResult> results, boolean includeAllowed) {
         // First check if the original action is ok
-        evaluateAction(config, siteId, action, results, includeAllowed);
-        // If it's ok then start checking the children
-        var children = contentRepository.getContentChildren(siteId, action.getSource());
-        var sourceName = FilenameUtils.getName(action.getSource());
-        for (var child : children) {
+        evaluateAction(statements, siteId, action, results, includeAllowed);
+        // If it's ok then check all descendants, they are listed along with their size in a single tree walk
+        var sourcePath = Paths.get(action.getSource());
+        var targetPath = Paths.get(action.getTarget(), FilenameUtils.getName(action.getSource()));
+        for (var child : contentRepositoryV2.getContentDescendants(siteId, action.getSource())) {
             var childPath = Paths.get(child.path, child.name);
             // Calculate the new path
-            var childTarget = Paths.get(action.getTarget(), sourceName).
-                    resolve(Paths.get(action.getSource()).relativize(childPath)).toString();
+            var childTarget = targetPath.resolve(sourcePath.relativize(childPath)).toString();
 
             var childAction = new Action();
             childAction.setType(action.getType());
             childAction.setSource(childPath.toString());
             childAction.setTarget(childTarget);
-            if (child.isFolder) {
-                evaluateRecursiveAction(config, siteId, childAction, results, false);
-            } else {
-                childAction.setContentMetadata(
-                        Map.of(METADATA_FILE_SIZE, contentRepositoryV2.getContentSize(siteId, childPath.toString())));
-                evaluateAction(config, siteId, childAction, results, false);
+            if (!child.isFolder) {
+                childAction.setContentMetadata(Map.of(METADATA_FILE_SIZE, child.size));
             }
+            evaluateAction(statements, siteId, childAction, results, false);
         }
     }
 
@@ -231,4 +250,15 @@ public class PolicyServiceInternalImpl implements PolicyServiceInternal {
         return getName(target);
     }
 
+    /**
+     * Policy statement with its target path pattern already compiled
+     *
+     * @param targetPathPattern the pattern of the paths the statement applies to
+     * @param permitted the permitted configuration, if any
+     * @param denied the denied configuration, if any
+     */
+    protected record Statement(Pattern targetPathPattern, HierarchicalConfiguration<?> permitted,
+                               HierarchicalConfiguration<?> denied) {
+    }
+
 }
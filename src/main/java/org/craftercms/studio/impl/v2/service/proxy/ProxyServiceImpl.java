@@ -26,9 +26,11 @@ import org.craftercms.studio.permissions.StudioPermissionsConstants;
 import org.springframework.http.ResponseEntity;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import java.beans.ConstructorProperties;
+import java.io.IOException;
 import java.net.URISyntaxException;
 
 /**
@@ -59,4 +61,13 @@ public class ProxyServiceImpl implements ProxyService {
                                               final HttpServletRequest request) throws URISyntaxException, SiteNotFoundException {
         return proxyServiceInternal.proxyEngine(body, siteId, request);
     }
+
+    @Override
+    @Valid
+    @RequireSiteReady
+    public void proxyEngine(@NotEmpty @SiteId final String siteId, final HttpServletRequest request,
+                            final HttpServletResponse response)
+            throws URISyntaxException, IOException, SiteNotFoundException {
+        proxyServiceInternal.proxyEngine(siteId, request, response);
+    }
 }
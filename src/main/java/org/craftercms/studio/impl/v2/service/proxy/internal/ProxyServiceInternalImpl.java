@@ -16,27 +16,43 @@
 
 package org.craftercms.studio.impl.v2.service.proxy.internal;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.craftercms.commons.proxy.ProxyUtils;
 import org.craftercms.studio.api.v1.service.configuration.ServicesConfig;
 import org.craftercms.studio.api.v2.service.proxy.ProxyService;
 import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.beans.ConstructorProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_MANAGEMENT_PREVIEW_AUTHORIZATION_TOKEN;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_MANAGEMENT_PREVIEW_PROTECTED_URLS;
@@ -47,16 +63,49 @@ import static org.craftercms.studio.controller.rest.v2.RequestMappingConstants.P
  */
 public class ProxyServiceInternalImpl implements ProxyService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProxyServiceInternalImpl.class);
+
+    /**
+     * Hop-by-hop headers and headers managed by the {@link HttpClient}, these are never copied
+     */
+    protected static final Set<String> STREAMING_IGNORE_HEADERS = Set.of("connection", "keep-alive", "te",
+            "transfer-encoding", "upgrade", "host", "content-length", "expect", "proxy-connection");
+
     protected final StudioConfiguration studioConfiguration;
 
     protected final ServicesConfig servicesConfig;
 
     protected final RestTemplate restTemplate = new RestTemplate();
 
-    @ConstructorProperties({"studioConfiguration", "servicesConfig"})
-    public ProxyServiceInternalImpl(final StudioConfiguration studioConfiguration, final ServicesConfig servicesConfig) {
+    /**
+     * Shared client, keeps a pool of keep-alive connections to Crafter Engine
+     */
+    protected final HttpClient httpClient;
+
+    /**
+     * Time to wait for the response of Crafter Engine, null to wait indefinitely
+     */
+    protected final Duration requestTimeout;
+
+    /**
+     * Routing data for each site, to avoid reading the configuration on every request
+     */
+    protected final Cache<String, ProxyRoute> routes;
+
+    @ConstructorProperties({"studioConfiguration", "servicesConfig", "connectTimeout", "requestTimeout",
+            "routeCacheConfig"})
+    public ProxyServiceInternalImpl(final StudioConfiguration studioConfiguration, final ServicesConfig servicesConfig,
+                                    final int connectTimeout, final int requestTimeout,
+                                    final String routeCacheConfig) {
         this.studioConfiguration = studioConfiguration;
         this.servicesConfig = servicesConfig;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(connectTimeout))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.requestTimeout = requestTimeout > 0 ? Duration.ofSeconds(requestTimeout) : null;
+        this.routes = CacheBuilder.from(routeCacheConfig).build();
     }
 
     @Override
@@ -82,6 +131,77 @@ public class ProxyServiceInternalImpl implements ProxyService {
         }
     }
 
+    @Override
+    public void proxyEngine(final String siteId, final HttpServletRequest request, final HttpServletResponse response)
+            throws URISyntaxException, IOException {
+        URI uri = getProxyRequestUri(siteId, request);
+        logger.trace("Stream request for site '{}' to '{}'", siteId, uri);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .method(request.getMethod(), getProxyRequestBody(request));
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        getProxyRequestHeaders(request).forEach((name, values) -> {
+            if (!STREAMING_IGNORE_HEADERS.contains(name.toLowerCase())) {
+                values.stream().filter(StringUtils::isNotEmpty).forEach(value -> builder.header(name, value));
+            }
+        });
+
+        HttpResponse<InputStream> engineResponse;
+        try {
+            engineResponse = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (HttpTimeoutException e) {
+            logger.warn("Timed out after '{}' seconds proxying request for site '{}' to '{}'",
+                    requestTimeout.toSeconds(), siteId, uri);
+            response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Interrupted while proxying request for site '%s' " +
+                    "to '%s'", siteId, uri));
+        }
+
+        response.setStatus(engineResponse.statusCode());
+        engineResponse.headers().map().forEach((name, values) -> {
+            // The body is copied as is, so the content length is still valid
+            boolean copy = name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                    || !(name.startsWith(":") || STREAMING_IGNORE_HEADERS.contains(name.toLowerCase()));
+            if (copy) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        try (InputStream body = engineResponse.body()) {
+            body.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Returns the body publisher for the request sent to the proxy server (internal engine server).
+     * Form posts are rebuilt from the request parameters since those may have been already read from the body.
+     * @param request the current request from Studio
+     * @return the body publisher
+     */
+    private HttpRequest.BodyPublisher getProxyRequestBody(HttpServletRequest request) {
+        long contentLength = request.getContentLengthLong();
+        boolean formPost = HttpMethod.POST.matches(request.getMethod()) &&
+                StringUtils.startsWithIgnoreCase(request.getContentType(), "application/x-www-form-urlencoded");
+        if (contentLength <= 0 && request.getHeader(HttpHeaders.TRANSFER_ENCODING) == null && !formPost) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        ServletServerHttpRequest serverRequest = new ServletServerHttpRequest(request);
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return serverRequest.getBody();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read the request body", e);
+            }
+        });
+        if (contentLength > 0 && !formPost) {
+            return HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength);
+        }
+        return publisher;
+    }
+
     /**
      * Returns the request path sending to proxy server (internal engine server)
      * @param request the current request from Studio
@@ -104,19 +224,36 @@ public class ProxyServiceInternalImpl implements ProxyService {
      */
     private URI getProxyRequestUri(String siteId, HttpServletRequest request) throws URISyntaxException {
         String proxyPath = getProxyPath(request);
-        List<String> engineProtectedUrls = getEngineProtectedUrls();
-        boolean managementTokenRequired = engineProtectedUrls.contains(proxyPath);
-        URI uri = new URI(getAuthoringUrl(siteId));
-        UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder.fromUri(uri)
+        ProxyRoute route = getProxyRoute(siteId);
+        boolean managementTokenRequired = route.protectedUrls().contains(proxyPath);
+        UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder.fromUri(route.authoringUri())
                 .path(proxyPath)
                 .query(request.getQueryString())
                 .replaceQueryParam("site", siteId);
         if (managementTokenRequired) {
-            uriComponentsBuilder = uriComponentsBuilder.queryParam("token", getEngineManagementTokenValue());
+            uriComponentsBuilder = uriComponentsBuilder.queryParam("token", route.managementToken());
         }
-        uri = uriComponentsBuilder.build(true).toUri();
 
-        return uri;
+        return uriComponentsBuilder.build(true).toUri();
+    }
+
+    /**
+     * Returns the cached routing data for the given site
+     * @param siteId the current site id
+     * @return the routing data
+     * @throws URISyntaxException if the authoring url of the site is not valid
+     */
+    private ProxyRoute getProxyRoute(String siteId) throws URISyntaxException {
+        try {
+            return routes.get(siteId, () -> new ProxyRoute(new URI(getAuthoringUrl(siteId)),
+                    Set.copyOf(getEngineProtectedUrls()), getEngineManagementTokenValue()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof URISyntaxException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(String.format("Failed to resolve the proxy route for site '%s'",
+                    siteId), e.getCause());
+        }
     }
 
     /**
@@ -180,4 +317,13 @@ public class ProxyServiceInternalImpl implements ProxyService {
         return Arrays.asList(
                 studioConfiguration.getProperty(CONFIGURATION_MANAGEMENT_PREVIEW_PROTECTED_URLS).split("\\s*,\\s*"));
     }
+
+    /**
+     * Routing data used to proxy the requests of a site
+     * @param authoringUri the base URI of the authoring engine
+     * @param protectedUrls the URLs that require the management token
+     * @param managementToken the management token
+     */
+    protected record ProxyRoute(URI authoringUri, Set<String> protectedUrls, String managementToken) {
+    }
 }
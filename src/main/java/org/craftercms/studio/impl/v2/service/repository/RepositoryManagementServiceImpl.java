@@ -34,10 +34,14 @@ import org.craftercms.studio.api.v2.annotation.RequireSiteReady;
 import org.craftercms.studio.api.v2.annotation.SiteId;
 import org.craftercms.studio.api.v2.dal.*;
 import org.craftercms.studio.api.v2.exception.PullFromRemoteConflictException;
+import org.craftercms.studio.api.v2.security.HasAnyPermissions;
 import org.craftercms.studio.api.v2.service.audit.internal.AuditServiceInternal;
 import org.craftercms.studio.api.v2.service.repository.MergeResult;
+import org.craftercms.studio.api.v2.service.repository.RemoteOperation;
 import org.craftercms.studio.api.v2.service.repository.RepositoryManagementService;
 import org.craftercms.studio.api.v2.service.repository.internal.RepositoryManagementServiceInternal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.beans.ConstructorProperties;
 import java.util.List;
@@ -50,6 +54,8 @@ import static org.craftercms.studio.permissions.StudioPermissionsConstants.*;
 @RequireSiteReady
 public class RepositoryManagementServiceImpl implements RepositoryManagementService {
 
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryManagementServiceImpl.class);
+
     private final RepositoryManagementServiceInternal repositoryManagementServiceInternal;
     private final SiteService siteService;
     private final AuditServiceInternal auditServiceInternal;
@@ -78,8 +84,13 @@ public class RepositoryManagementServiceImpl implements RepositoryManagementServ
 
     private void insertAddRemoteAuditLog(String siteId, String operation, String primaryTargetId,
                                          String primaryTargetValue) throws SiteNotFoundException {
+        insertAddRemoteAuditLog(siteId, operation, primaryTargetId, primaryTargetValue,
+                securityService.getCurrentUser());
+    }
+
+    private void insertAddRemoteAuditLog(String siteId, String operation, String primaryTargetId,
+                                         String primaryTargetValue, String user) throws SiteNotFoundException {
         SiteFeed siteFeed = siteService.getSite(siteId);
-        String user = securityService.getCurrentUser();
         AuditLog auditLog = auditServiceInternal.createAuditLogEntry();
         auditLog.setOperation(operation);
         auditLog.setSiteId(siteFeed.getId());
@@ -130,6 +141,62 @@ public class RepositoryManagementServiceImpl implements RepositoryManagementServ
         return toRet;
     }
 
+    @Override
+    @RequireSiteExists
+    @HasPermission(type = DefaultPermission.class, action = PERMISSION_PULL_FROM_REMOTE)
+    public RemoteOperation pullFromRemoteAsync(@SiteId String siteId, String remoteName,
+                                               String remoteBranch, String mergeStrategy)
+            throws ServiceLayerException, RemoteRepositoryNotFoundException {
+        return repositoryManagementServiceInternal.submitPullFromRemote(siteId, remoteName, remoteBranch,
+                mergeStrategy, operation -> insertRemoteOperationAuditLog(operation, OPERATION_PULL_FROM_REMOTE));
+    }
+
+    @Override
+    @RequireSiteExists
+    @HasPermission(type = DefaultPermission.class, action = PERMISSION_PUSH_TO_REMOTE)
+    public RemoteOperation pushToRemoteAsync(@SiteId String siteId, String remoteName,
+                                             String remoteBranch, boolean force)
+            throws ServiceLayerException, RemoteRepositoryNotFoundException {
+        return repositoryManagementServiceInternal.submitPushToRemote(siteId, remoteName, remoteBranch, force,
+                operation -> insertRemoteOperationAuditLog(operation, OPERATION_PUSH_TO_REMOTE));
+    }
+
+    /**
+     * Audits a background remote operation once it has run, on behalf of the user that submitted it
+     */
+    private void insertRemoteOperationAuditLog(RemoteOperation remoteOperation, String operation) {
+        String target = remoteOperation.getRemoteName() + "/" + remoteOperation.getRemoteBranch();
+        try {
+            insertAddRemoteAuditLog(remoteOperation.getSiteId(), operation, target, target,
+                    remoteOperation.getSubmittedBy());
+        } catch (SiteNotFoundException e) {
+            logger.warn("Failed to audit the remote operation '{}', the site no longer exists", remoteOperation, e);
+        }
+    }
+
+    @Override
+    @RequireSiteExists
+    @HasAnyPermissions(type = DefaultPermission.class, actions = {PERMISSION_PULL_FROM_REMOTE, PERMISSION_PUSH_TO_REMOTE})
+    public List<RemoteOperation> getRemoteOperations(@SiteId String siteId) throws SiteNotFoundException {
+        return repositoryManagementServiceInternal.getRemoteOperations(siteId);
+    }
+
+    @Override
+    @RequireSiteExists
+    @HasAnyPermissions(type = DefaultPermission.class, actions = {PERMISSION_PULL_FROM_REMOTE, PERMISSION_PUSH_TO_REMOTE})
+    public RemoteOperation getRemoteOperation(@SiteId String siteId, String operationId)
+            throws SiteNotFoundException {
+        return repositoryManagementServiceInternal.getRemoteOperation(siteId, operationId);
+    }
+
+    @Override
+    @RequireSiteExists
+    @HasAnyPermissions(type = DefaultPermission.class, actions = {PERMISSION_PULL_FROM_REMOTE, PERMISSION_PUSH_TO_REMOTE})
+    public RemoteOperation cancelRemoteOperation(@SiteId String siteId, String operationId)
+            throws SiteNotFoundException {
+        return repositoryManagementServiceInternal.cancelRemoteOperation(siteId, operationId);
+    }
+
     @Override
     @RequireSiteExists
     @HasPermission(type = DefaultPermission.class, action = PERMISSION_REMOVE_REMOTE)
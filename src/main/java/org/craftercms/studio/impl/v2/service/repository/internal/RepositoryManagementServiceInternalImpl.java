@@ -30,11 +30,15 @@ import org.craftercms.studio.api.v1.exception.repository.*;
 import org.craftercms.studio.api.v1.exception.security.UserNotFoundException;
 import org.craftercms.studio.api.v1.service.GeneralLockService;
 import org.craftercms.studio.api.v2.dal.*;
+import org.craftercms.studio.api.v2.event.site.SiteDeletedEvent;
 import org.craftercms.studio.api.v2.event.site.SyncFromRepoEvent;
+import org.craftercms.studio.api.v2.exception.PullFromRemoteConflictException;
+import org.craftercms.studio.api.v2.exception.RemoteOperationQueueFullException;
 import org.craftercms.studio.api.v2.repository.ContentRepository;
 import org.craftercms.studio.api.v2.repository.RetryingRepositoryOperationFacade;
 import org.craftercms.studio.api.v2.service.notification.NotificationService;
 import org.craftercms.studio.api.v2.service.repository.MergeResult;
+import org.craftercms.studio.api.v2.service.repository.RemoteOperation;
 import org.craftercms.studio.api.v2.service.repository.internal.RepositoryManagementServiceInternal;
 import org.craftercms.studio.api.v2.service.security.SecurityService;
 import org.craftercms.studio.api.v2.service.security.internal.UserServiceInternal;
@@ -46,6 +50,7 @@ import org.eclipse.jgit.api.*;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.InvalidRemoteException;
 import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.api.errors.RefNotAdvertisedException;
 import org.eclipse.jgit.api.errors.TransportException;
 import org.eclipse.jgit.errors.CorruptObjectException;
 import org.eclipse.jgit.errors.NoRemoteRepositoryException;
@@ -61,6 +66,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.event.EventListener;
 import org.springframework.lang.NonNull;
 
 import java.io.ByteArrayOutputStream;
@@ -71,10 +77,16 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 import static org.craftercms.studio.api.v1.constant.GitRepositories.SANDBOX;
@@ -102,6 +114,17 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
     private RetryingRepositoryOperationFacade retryingRepositoryOperationFacade;
     private RetryingDatabaseOperationFacade retryingDatabaseOperationFacade;
     private ApplicationContext applicationContext;
+    private Executor remoteOperationExecutor;
+
+    /**
+     * Pending and recently finished remote operations, by id
+     */
+    private final Map<String, RemoteOperation> remoteOperations = new ConcurrentHashMap<>();
+
+    /**
+     * Last remote operation queued for each site
+     */
+    private final Map<String, CompletableFuture<Void>> siteRemoteOperationQueues = new HashMap<>();
 
     @Override
     public boolean addRemote(String siteId, RemoteRepository remoteRepository)
@@ -366,6 +389,13 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
     public MergeResult pullFromRemote(String siteId, String remoteName, String remoteBranch, String mergeStrategy)
             throws InvalidRemoteUrlException, ServiceLayerException, InvalidRemoteRepositoryCredentialsException,
                     RemoteRepositoryNotFoundException {
+        return pullFromRemote(siteId, remoteName, remoteBranch, mergeStrategy, NullProgressMonitor.INSTANCE);
+    }
+
+    private MergeResult pullFromRemote(String siteId, String remoteName, String remoteBranch, String mergeStrategy,
+                                       ProgressMonitor progressMonitor)
+            throws InvalidRemoteUrlException, ServiceLayerException, InvalidRemoteRepositoryCredentialsException,
+                    RemoteRepositoryNotFoundException {
         logger.debug("Get the git remote repository information from the database for remote '{}' in site '{}'",
                 remoteName, siteId);
         String gitLockKey = StudioUtils.getSandboxRepoLockKey(siteId);
@@ -374,47 +404,74 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
         if (remoteRepository == null) {
             throw new RemoteRepositoryNotFoundException(format("Remote repository '%s' does not exist in site '%s'", remoteName, siteId));
         }
-        logger.trace("Prepare the JGit pull command in site '{}'", siteId);
+        logger.trace("Prepare the JGit fetch command in site '{}'", siteId);
         Repository repo = gitRepositoryHelper.getRepository(siteId, SANDBOX);
-        generalLockService.lock(gitLockKey);
-        generalLockService.lock(syncFromRepoLockKey);
         Path tempKey = null;
         try (Git git = new Git(repo)) {
-            PullCommand pullCommand = git.pull();
-            logger.trace("Set the JGit pull command remote to '{}' in site '{}'", remoteName, siteId);
-            pullCommand.setRemote(remoteRepository.getRemoteName());
-            logger.trace("Set the JGit pull command branch to '{}' in site '{}'", remoteBranch, siteId);
-            pullCommand.setRemoteBranchName(remoteBranch);
+            // Fetch without holding the repository locks, it only adds objects and updates the remote-tracking
+            // branches, so the site remains usable while the data is transferred
+            FetchCommand fetchCommand = git.fetch();
+            logger.trace("Set the JGit fetch command remote to '{}' in site '{}'", remoteName, siteId);
+            fetchCommand.setRemote(remoteRepository.getRemoteName());
             tempKey = Files.createTempFile(getStudioTemporaryFilesRoot(), UUID.randomUUID().toString(), TMP_FILE_SUFFIX);
-            gitRepositoryHelper.setAuthenticationForCommand(pullCommand, remoteRepository.getAuthenticationType(),
+            gitRepositoryHelper.setAuthenticationForCommand(fetchCommand, remoteRepository.getAuthenticationType(),
                     remoteRepository.getRemoteUsername(), remoteRepository.getRemotePassword(),
                     remoteRepository.getRemoteToken(), remoteRepository.getRemotePrivateKey(), tempKey, true);
-            switch (mergeStrategy) {
-                case THEIRS:
-                    pullCommand.setStrategy(MergeStrategy.THEIRS);
-                    break;
-                case OURS:
-                    pullCommand.setStrategy(MergeStrategy.OURS);
-                    break;
-                default:
-                    break;
+            fetchCommand.setProgressMonitor(progressMonitor);
+            FetchResult fetchResult = retryingRepositoryOperationFacade.call(fetchCommand);
+            String fetchResultMessage = fetchResult.getMessages();
+            if (isNotEmpty(fetchResultMessage)) {
+                logger.info("Git fetch in site '{}' returned '{}'", siteId, fetchResultMessage);
             }
-            pullCommand.setFastForward(MergeCommand.FastForwardMode.NO_FF);
-            PullResult pullResult = retryingRepositoryOperationFacade.call(pullCommand);
-            String pullResultMessage = pullResult.toString();
-            if (isNotEmpty(pullResultMessage)) {
-                logger.info("Git pull in site '{}' returned '{}'", siteId, pullResultMessage);
+            logger.trace("Find the branch '{}' in the remote '{}' for site '{}'", remoteBranch, remoteName, siteId);
+            Ref remoteBranchRef = fetchResult.getAdvertisedRef(Constants.R_HEADS + remoteBranch);
+            if (remoteBranchRef == null) {
+                throw new RefNotAdvertisedException(format("Branch '%s' was not found in the remote '%s'",
+                        remoteBranch, remoteName));
             }
-            if (pullResult.isSuccessful()) {
-                applicationContext.publishEvent(new SyncFromRepoEvent(siteId));
-                List<String> newMergedCommits = extractCommitIdsFromPullResult(repo, pullResult);
-                return MergeResult.from(pullResult, newMergedCommits);
-            } else if (conflictNotificationEnabled()) {
-                List<String> conflictFiles = new LinkedList<>();
-                if (pullResult.getMergeResult() != null) {
-                    conflictFiles.addAll(pullResult.getMergeResult().getConflicts().keySet());
+
+            // Only the merge changes the sandbox, lock it (and the sync) just for that
+            generalLockService.lock(gitLockKey);
+            generalLockService.lock(syncFromRepoLockKey);
+            try {
+                MergeCommand mergeCommand = git.merge();
+                logger.trace("Set the JGit merge command branch to '{}' in site '{}'", remoteBranch, siteId);
+                mergeCommand.include(format("branch '%s' of %s", remoteBranch, remoteRepository.getRemoteUrl()),
+                        remoteBranchRef.getObjectId());
+                switch (mergeStrategy) {
+                    case THEIRS:
+                        mergeCommand.setStrategy(MergeStrategy.THEIRS);
+                        break;
+                    case OURS:
+                        mergeCommand.setStrategy(MergeStrategy.OURS);
+                        break;
+                    default:
+                        break;
                 }
-                notificationService.notifyRepositoryMergeConflict(siteId, conflictFiles);
+                mergeCommand.setFastForward(MergeCommand.FastForwardMode.NO_FF);
+                // A cancelled merge would leave the sandbox half updated, cancellation only applies to the
+                // fetch and the push
+                mergeCommand.setProgressMonitor(NullProgressMonitor.INSTANCE);
+                org.eclipse.jgit.api.MergeResult gitMergeResult = retryingRepositoryOperationFacade.call(mergeCommand);
+                logger.info("Git merge of remote '{}' branch '{}' in site '{}' returned '{}'",
+                        remoteName, remoteBranch, siteId, gitMergeResult);
+                if (gitMergeResult.getMergeStatus().isSuccessful()) {
+                    List<String> newMergedCommits = extractCommitIdsFromMergeResult(repo, gitMergeResult);
+                    MergeResult mergeResult = MergeResult.from(gitMergeResult, newMergedCommits);
+                    // The sync waits for the lock, by then other commits may have landed on top of the merge, so
+                    // sync only up to it and leave the later commits to their own sync requests
+                    applicationContext.publishEvent(new SyncFromRepoEvent(siteId, mergeResult.getMergeCommitId()));
+                    return mergeResult;
+                } else if (conflictNotificationEnabled()) {
+                    List<String> conflictFiles = new LinkedList<>();
+                    if (gitMergeResult.getConflicts() != null) {
+                        conflictFiles.addAll(gitMergeResult.getConflicts().keySet());
+                    }
+                    notificationService.notifyRepositoryMergeConflict(siteId, conflictFiles);
+                }
+            } finally {
+                generalLockService.unlock(syncFromRepoLockKey);
+                generalLockService.unlock(gitLockKey);
             }
         } catch (InvalidRemoteException e) {
             logger.error("Failed to pull from the remote '{}' in site '{}' because the remote is invalid",
@@ -439,16 +496,15 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
             } catch (IOException e) {
                 logger.warn("Failed to delete the file '{}'", tempKey, e);
             }
-            generalLockService.unlock(syncFromRepoLockKey);
-            generalLockService.unlock(gitLockKey);
         }
 
         return MergeResult.failed();
     }
 
-    private List<String> extractCommitIdsFromPullResult(Repository repo, PullResult pullResult) {
+    private List<String> extractCommitIdsFromMergeResult(Repository repo,
+                                                         org.eclipse.jgit.api.MergeResult mergeResult) {
         List<String> commitIds = new LinkedList<>();
-        ObjectId[] mergedCommits = pullResult.getMergeResult().getMergedCommits();
+        ObjectId[] mergedCommits = mergeResult.getMergedCommits();
         for (ObjectId mergedCommit : mergedCommits) {
             try {
                 RevCommit revCommit = repo.parseCommit(mergedCommit);
@@ -464,6 +520,13 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
     public boolean pushToRemote(String siteId, String remoteName, String remoteBranch, boolean force)
             throws ServiceLayerException, InvalidRemoteUrlException, InvalidRemoteRepositoryCredentialsException,
                     RemoteRepositoryNotFoundException {
+        return pushToRemote(siteId, remoteName, remoteBranch, force, NullProgressMonitor.INSTANCE);
+    }
+
+    private boolean pushToRemote(String siteId, String remoteName, String remoteBranch, boolean force,
+                                 ProgressMonitor progressMonitor)
+            throws ServiceLayerException, InvalidRemoteUrlException, InvalidRemoteRepositoryCredentialsException,
+                    RemoteRepositoryNotFoundException {
         logger.debug("Get the git remote repository information from the database for remote '{}' in site '{}'",
                 remoteName, siteId);
         RemoteRepository remoteRepository = getRemoteRepository(siteId, remoteName);
@@ -485,6 +548,7 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
                     remoteRepository.getRemoteUsername(), remoteRepository.getRemotePassword(),
                     remoteRepository.getRemoteToken(), remoteRepository.getRemotePrivateKey(), tempKey, true);
             pushCommand.setForce(force);
+            pushCommand.setProgressMonitor(progressMonitor);
             pushResultIterable = retryingRepositoryOperationFacade.call(pushCommand);
             Files.delete(tempKey);
 
@@ -541,6 +605,159 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
         }
     }
 
+    @Override
+    public RemoteOperation submitPullFromRemote(String siteId, String remoteName, String remoteBranch,
+                                                String mergeStrategy, Consumer<RemoteOperation> callback)
+            throws RemoteRepositoryNotFoundException, RemoteOperationQueueFullException {
+        RemoteOperation operation = createRemoteOperation(siteId, RemoteOperation.Type.PULL, remoteName, remoteBranch);
+        return submitRemoteOperation(operation, progressMonitor -> {
+            MergeResult mergeResult = pullFromRemote(siteId, remoteName, remoteBranch, mergeStrategy, progressMonitor);
+            operation.setMergeResult(mergeResult);
+            callback.accept(operation);
+            if (!mergeResult.isSuccessful()) {
+                throw new PullFromRemoteConflictException("Pull from remote result is merge conflict.");
+            }
+        });
+    }
+
+    @Override
+    public RemoteOperation submitPushToRemote(String siteId, String remoteName, String remoteBranch, boolean force,
+                                              Consumer<RemoteOperation> callback)
+            throws RemoteRepositoryNotFoundException, RemoteOperationQueueFullException {
+        RemoteOperation operation = createRemoteOperation(siteId, RemoteOperation.Type.PUSH, remoteName, remoteBranch);
+        return submitRemoteOperation(operation, progressMonitor -> {
+            boolean pushed = pushToRemote(siteId, remoteName, remoteBranch, force, progressMonitor);
+            callback.accept(operation);
+            if (!pushed) {
+                throw new ServiceLayerException(format("Push to the remote '%s' branch '%s' from site '%s' was rejected",
+                        remoteName, remoteBranch, siteId));
+            }
+        });
+    }
+
+    private RemoteOperation createRemoteOperation(String siteId, RemoteOperation.Type type, String remoteName,
+                                                  String remoteBranch) throws RemoteRepositoryNotFoundException {
+        if (getRemoteRepository(siteId, remoteName) == null) {
+            throw new RemoteRepositoryNotFoundException(format("Remote repository '%s' does not exist in site '%s'", remoteName, siteId));
+        }
+        return new RemoteOperation(UUID.randomUUID().toString(), siteId, type, remoteName, remoteBranch,
+                securityService.getCurrentUser());
+    }
+
+    /**
+     * Queue the operation behind any other pending operation for the same site, so that a site never runs more than
+     * one remote operation at a time while different sites can run in parallel
+     */
+    private RemoteOperation submitRemoteOperation(RemoteOperation operation, RemoteOperationTask task)
+            throws RemoteOperationQueueFullException {
+        String siteId = operation.getSiteId();
+        purgeFinishedRemoteOperations();
+        synchronized (siteRemoteOperationQueues) {
+            long pending = remoteOperations.values().stream()
+                    .filter(op -> op.getSiteId().equals(siteId) && !op.isFinished())
+                    .count();
+            int maxPending = studioConfiguration.getProperty(REPO_REMOTE_OPERATIONS_MAX_PENDING_PER_SITE, Integer.class);
+            if (pending >= maxPending) {
+                throw new RemoteOperationQueueFullException(format("Site '%s' already has %d pending remote " +
+                        "operations", siteId, pending));
+            }
+            remoteOperations.put(operation.getId(), operation);
+            CompletableFuture<Void> queue = siteRemoteOperationQueues.compute(siteId, (key, previous) ->
+                    (previous == null ? CompletableFuture.<Void>completedFuture(null) : previous)
+                            .thenRunAsync(() -> runRemoteOperation(operation, task), remoteOperationExecutor)
+                            .exceptionally(e -> {
+                                // Only reached if the executor rejects the operation
+                                logger.error("Failed to run the remote operation '{}' in site '{}'",
+                                        operation.getId(), siteId, e);
+                                operation.finish(RemoteOperation.State.FAILED, e.getMessage());
+                                return null;
+                            }));
+            // Once the last queued operation is done there is nothing left to chain to
+            queue.whenComplete((result, e) -> {
+                synchronized (siteRemoteOperationQueues) {
+                    siteRemoteOperationQueues.remove(siteId, queue);
+                }
+            });
+        }
+        logger.info("Queued the remote operation '{}'", operation);
+        return operation;
+    }
+
+    private void runRemoteOperation(RemoteOperation operation, RemoteOperationTask task) {
+        if (operation.isCancelRequested()) {
+            operation.finish(RemoteOperation.State.CANCELLED, null);
+            return;
+        }
+        logger.info("Start the remote operation '{}'", operation);
+        operation.start();
+        try {
+            task.run(new RemoteOperationProgressMonitor(operation));
+            operation.finish(RemoteOperation.State.COMPLETED, null);
+        } catch (Exception e) {
+            if (operation.isCancelRequested()) {
+                operation.finish(RemoteOperation.State.CANCELLED, null);
+            } else {
+                logger.error("Remote operation '{}' failed", operation, e);
+                operation.finish(RemoteOperation.State.FAILED, e.getMessage());
+            }
+        }
+        logger.info("Finished the remote operation '{}'", operation);
+    }
+
+    private void purgeFinishedRemoteOperations() {
+        long retentionMinutes = studioConfiguration.getProperty(REPO_REMOTE_OPERATIONS_RETENTION_MINUTES, Long.class);
+        ZonedDateTime threshold = ZonedDateTime.now(UTC).minusMinutes(retentionMinutes);
+        remoteOperations.values().removeIf(op -> op.isFinished() && op.getFinishedOn().isBefore(threshold));
+    }
+
+    @Override
+    public List<RemoteOperation> getRemoteOperations(String siteId) {
+        purgeFinishedRemoteOperations();
+        return remoteOperations.values().stream()
+                .filter(op -> op.getSiteId().equals(siteId))
+                .sorted(Comparator.comparing(RemoteOperation::getSubmittedOn).reversed())
+                .toList();
+    }
+
+    @Override
+    public RemoteOperation getRemoteOperation(String siteId, String operationId) {
+        RemoteOperation operation = remoteOperations.get(operationId);
+        if (operation == null || !operation.getSiteId().equals(siteId)) {
+            throw new NoSuchElementException(format("Remote operation '%s' not found in site '%s'",
+                    operationId, siteId));
+        }
+        return operation;
+    }
+
+    @Override
+    public RemoteOperation cancelRemoteOperation(String siteId, String operationId) {
+        RemoteOperation operation = getRemoteOperation(siteId, operationId);
+        if (!operation.isFinished()) {
+            logger.info("Cancel the remote operation '{}'", operation);
+            operation.cancel();
+        }
+        return operation;
+    }
+
+    /**
+     * Cancels the pending remote operations of the deleted site and forgets about all of them
+     * @param event the site deleted event
+     */
+    @EventListener
+    public void onSiteDeleted(SiteDeletedEvent event) {
+        String siteId = event.getSiteId();
+        synchronized (siteRemoteOperationQueues) {
+            siteRemoteOperationQueues.remove(siteId);
+            remoteOperations.values().removeIf(op -> {
+                if (!op.getSiteId().equals(siteId)) {
+                    return false;
+                }
+                op.cancel();
+                return true;
+            });
+        }
+    }
+
     @Override
     public boolean removeRemote(String siteId, String remoteName) throws RemoteNotRemovableException {
         if (!isRemovableRemote(siteId, remoteName)) {
@@ -843,6 +1060,56 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
         }
     }
 
+    /**
+     * Body of a remote operation, runs with a progress monitor that reports to the operation
+     */
+    @FunctionalInterface
+    private interface RemoteOperationTask {
+        void run(ProgressMonitor progressMonitor) throws Exception;
+    }
+
+    /**
+     * JGit progress monitor that updates the status of a remote operation and reports its cancellation
+     */
+    private static class RemoteOperationProgressMonitor implements ProgressMonitor {
+
+        private final RemoteOperation operation;
+
+        private RemoteOperationProgressMonitor(RemoteOperation operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void start(int totalTasks) {
+            // Not needed, progress is reported per task
+        }
+
+        @Override
+        public void beginTask(String title, int totalWork) {
+            operation.beginTask(title, totalWork);
+        }
+
+        @Override
+        public void update(int completed) {
+            operation.update(completed);
+        }
+
+        @Override
+        public void endTask() {
+            // Not needed, the next task resets the progress
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return operation.isCancelRequested();
+        }
+
+        // Only part of the interface in newer JGit versions
+        public void showDuration(boolean enabled) {
+            // Not needed, durations are tracked by the operation
+        }
+    }
+
     private boolean conflictNotificationEnabled() {
         return Boolean.parseBoolean(
                 studioConfiguration.getProperty(REPO_PULL_FROM_REMOTE_CONFLICT_NOTIFICATION_ENABLED));
@@ -892,6 +1159,10 @@ public class RepositoryManagementServiceInternalImpl implements RepositoryManage
         this.retryingDatabaseOperationFacade = retryingDatabaseOperationFacade;
     }
 
+    public void setRemoteOperationExecutor(Executor remoteOperationExecutor) {
+        this.remoteOperationExecutor = remoteOperationExecutor;
+    }
+
     @Override
     public void setApplicationContext(@NonNull ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
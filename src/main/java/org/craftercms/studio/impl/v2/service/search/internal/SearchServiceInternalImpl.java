@@ -16,6 +16,8 @@
 
 package org.craftercms.studio.impl.v2.service.search.internal;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
@@ -26,8 +28,13 @@ import org.craftercms.studio.api.v1.exception.ServiceLayerException;
 import org.craftercms.studio.api.v1.service.configuration.ServicesConfig;
 import org.craftercms.studio.api.v1.to.FacetRangeTO;
 import org.craftercms.studio.api.v1.to.FacetTO;
+import org.craftercms.studio.api.v2.event.content.ConfigurationEvent;
+import org.craftercms.studio.api.v2.event.content.ContentEvent;
+import org.craftercms.studio.api.v2.event.repository.RepositoryEvent;
+import org.craftercms.studio.api.v2.event.site.SiteDeletedEvent;
 import org.craftercms.studio.api.v2.exception.InvalidParametersException;
 import org.craftercms.studio.api.v2.service.search.SearchService;
+import org.craftercms.studio.api.v2.service.security.SecurityService;
 import org.craftercms.studio.api.v2.utils.StudioConfiguration;
 import org.craftercms.studio.impl.v2.service.search.PermissionAwareSearchService;
 import org.craftercms.studio.model.search.*;
@@ -36,11 +43,16 @@ import org.opensearch.client.opensearch._types.SortOrder;
 import org.opensearch.client.opensearch._types.aggregations.*;
 import org.opensearch.client.opensearch._types.query_dsl.BoolQuery;
 import org.opensearch.client.opensearch._types.query_dsl.MatchQuery;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
 import org.opensearch.client.opensearch._types.query_dsl.RangeQuery;
 import org.opensearch.client.opensearch._types.query_dsl.TextQueryType;
 import org.opensearch.client.opensearch.core.SearchRequest;
 import org.opensearch.client.opensearch.core.SearchResponse;
 import org.opensearch.client.opensearch.core.search.Highlight;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 
 import java.beans.ConstructorProperties;
 import java.io.IOException;
@@ -49,6 +61,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -64,6 +79,8 @@ import static org.craftercms.studio.api.v2.utils.StudioConfiguration.*;
  */
 public class SearchServiceInternalImpl implements SearchService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SearchServiceInternalImpl.class);
+
     public static final String CONFIG_KEY_FIELDS = "studio.search.fields.search";
     public static final String CONFIG_KEY_FACETS = "studio.search.facets";
     public static final String CONFIG_KEY_TYPES = "studio.search.types";
@@ -176,6 +193,37 @@ public class SearchServiceInternalImpl implements SearchService {
     protected Map<String, HierarchicalConfiguration<ImmutableNode>> types;
     private String keywordSplitRegex;
 
+    /**
+     * Short-lived cache for search results, null if disabled
+     */
+    protected Cache<SearchCacheKey, SearchResult> resultCache;
+
+    /**
+     * Cache for the search_after cursors used for pages beyond the result window, null if disabled
+     */
+    protected Cache<SearchCursorKey, List<String>> cursorCache;
+
+    /**
+     * Time in milliseconds after a change in a site during which its results are not cached, because the index is
+     * updated asynchronously by the deployer
+     */
+    protected long invalidationGraceMillis;
+
+    /**
+     * Generation of the content for each site, used to invalidate the cached results
+     */
+    protected final Map<String, SiteGeneration> siteGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * The security service, used to scope the cached results to the current user
+     */
+    protected SecurityService securityService;
+
+    /**
+     * Compiled search configuration for each site
+     */
+    protected final Map<String, SiteSearchConfig> siteSearchConfigs = new ConcurrentHashMap<>();
+
     @ConstructorProperties({"searchService", "studioConfiguration", "servicesConfig"})
     public SearchServiceInternalImpl(final PermissionAwareSearchService searchService, final StudioConfiguration studioConfiguration,
                                      final ServicesConfig servicesConfig) {
@@ -184,6 +232,10 @@ public class SearchServiceInternalImpl implements SearchService {
         this.servicesConfig = servicesConfig;
     }
 
+    public void setSecurityService(SecurityService securityService) {
+        this.securityService = securityService;
+    }
+
     /**
      * Loads facets and type mapping from the global configuration
      */
@@ -192,6 +244,24 @@ public class SearchServiceInternalImpl implements SearchService {
         loadTypesFromGlobalConfiguration();
         loadFacetsFromGlobalConfiguration();
         loadConfigsFromGlobalConfiguration();
+        initCaches();
+    }
+
+    private void initCaches() {
+        int ttl = studioConfiguration.getProperty(SEARCH_CACHE_TTL_SECONDS, Integer.class, 0);
+        if (ttl > 0) {
+            long maxSize = studioConfiguration.getProperty(SEARCH_CACHE_MAX_SIZE, Long.class, 1000L);
+            invalidationGraceMillis = TimeUnit.SECONDS.toMillis(
+                    studioConfiguration.getProperty(SEARCH_CACHE_INVALIDATION_GRACE_SECONDS, Integer.class, 10));
+            resultCache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                    .maximumSize(maxSize)
+                    .build();
+            cursorCache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                    .maximumSize(maxSize)
+                    .build();
+        }
     }
 
     private void loadConfigsFromGlobalConfiguration() {
@@ -427,10 +497,10 @@ public class SearchServiceInternalImpl implements SearchService {
     }
 
     private void validateResultWindow(final int offset, final int limit) throws InvalidParametersException {
-        int resultWindow = offset + limit;
-        // Here we check if either window is exceeded or (offset + limit) caused an int overflow
-        if (resultWindow > MAX_RESULT_WINDOW || resultWindow < offset) {
-            throw new InvalidParametersException("Maximum supported result window (offset + limit) is " + MAX_RESULT_WINDOW);
+        // Pages beyond the result window are supported with search_after, but a single page still needs to fit
+        // in it. Here we also check if (offset + limit) caused an int overflow
+        if (limit > MAX_RESULT_WINDOW || offset + limit < offset) {
+            throw new InvalidParametersException("Maximum supported page size (limit) is " + MAX_RESULT_WINDOW);
         }
     }
 
@@ -438,16 +508,57 @@ public class SearchServiceInternalImpl implements SearchService {
      * {@inheritDoc}
      */
     @Override
-    @SuppressWarnings("rawtypes")
     public SearchResult search(final String siteId, final SearchParams params, final int maxExpansions)
             throws ServiceLayerException {
         validateResultWindow(params.getOffset(), params.getLimit());
 
-        Map<String, FacetTO> siteFacets = servicesConfig.getFacets(siteId);
+        // The key needs to be created before executing the search, so that any change in the index during the
+        // execution will cause the result to be ignored by the next search
+        SearchCacheKey cacheKey = createCacheKey(siteId, params, maxExpansions);
+        if (resultCache != null) {
+            SearchResult cachedResult = resultCache.getIfPresent(cacheKey);
+            if (cachedResult != null) {
+                logger.trace("Search result found in cache for site '{}'", siteId);
+                return copyResult(cachedResult);
+            }
+        }
+
+        SiteSearchConfig siteConfig = getSiteSearchConfig(siteId);
+        Query query = buildQuery(params, maxExpansions, siteConfig);
+
+        SearchResult result;
+        try {
+            if (params.getOffset() + params.getLimit() <= MAX_RESULT_WINDOW) {
+                SearchRequest.Builder builder = createRequestBuilder(query, params, false)
+                    .from(params.getOffset())
+                    .size(params.getLimit());
+                result = executePageRequest(siteId, builder, params, siteConfig, null);
+            } else {
+                result = deepSearch(siteId, query, params, siteConfig, cacheKey.queryKey());
+            }
+        } catch (IOException e) {
+            throw new ServiceLayerException("Error connecting to OpenSearch", e);
+        } catch (Exception e) {
+            throw new ServiceLayerException("Error executing search in OpenSearch", e);
+        }
+
+        if (resultCache != null && isCacheable(siteId)) {
+            // Keep a copy, callers are free to modify the returned instance
+            resultCache.put(cacheKey, copyResult(result));
+        }
+        return result;
+    }
+
+    /**
+     * Builds the OpenSearch query for the given parameters
+     * @param params the search parameters
+     * @param maxExpansions the max expansions for the phrase prefix query
+     * @param siteConfig the search configuration for the site
+     * @return the query
+     */
+    protected Query buildQuery(SearchParams params, int maxExpansions, SiteSearchConfig siteConfig) {
         BoolQuery.Builder queryBuilder = new BoolQuery.Builder();
-        Map<String, String> boostedFields = new TreeMap<>(searchFields);
-        servicesConfig.getSearchFields(siteId).forEach((field, value) ->
-                boostedFields.put(field, addBoosting(field, value)));
+        Map<String, String> boostedFields = siteConfig.boostedFields();
 
         // A Lucene query, this was added to support the custom query for content monitoring, could be replaced later
         if(StringUtils.isNotEmpty(params.getQuery())) {
@@ -530,7 +641,7 @@ public class SearchServiceInternalImpl implements SearchService {
         }
 
         if(MapUtils.isNotEmpty(params.getFilters())) {
-            updateFilters(queryBuilder, params, siteFacets);
+            updateFilters(queryBuilder, params, siteConfig.facets());
         }
 
         // We need to copy it because the builder is immutable and there is no other way to check the queries
@@ -546,33 +657,312 @@ public class SearchServiceInternalImpl implements SearchService {
             finalBuilder.minimumShouldMatch("1");
         }
 
+        return finalBuilder.build()._toQuery();
+    }
+
+    /**
+     * Creates a new request builder with the given query and the requested sorting
+     * @param query the query
+     * @param params the search parameters
+     * @param tiebreaker indicates if a unique sort field should be added, required to use search_after
+     * @return the request builder
+     */
+    protected SearchRequest.Builder createRequestBuilder(Query query, SearchParams params, boolean tiebreaker) {
         SearchRequest.Builder builder = new SearchRequest.Builder()
-            .query(finalBuilder.build()._toQuery())
-            .from(params.getOffset())
-            .size(params.getLimit())
+            .query(query)
             .sort(s -> s
                 .field(f -> f
                     .field(getSortFieldName(params.getSortBy()))
                     .order(SortOrder._DESERIALIZER.parse(params.getSortOrder().toLowerCase()))
                 )
             );
+        if (tiebreaker) {
+            builder.sort(s -> s
+                .field(f -> f
+                    .field(pathFieldName)
+                    .order(SortOrder.Asc)
+                )
+            );
+        }
+        return builder;
+    }
 
+    /**
+     * Executes the request for the page that will be returned, including highlighting and aggregations
+     * @param siteId the site id
+     * @param builder the request builder
+     * @param params the search parameters
+     * @param siteConfig the search configuration for the site
+     * @param cursorKey the key to store the cursor for the next page, if the request uses search_after
+     * @return the search result
+     */
+    @SuppressWarnings("rawtypes")
+    protected SearchResult executePageRequest(String siteId, SearchRequest.Builder builder, SearchParams params,
+                                              SiteSearchConfig siteConfig, SearchCacheKey cursorKey)
+            throws IOException, ServiceLayerException {
         if(ArrayUtils.isNotEmpty(highlightFields)) {
             updateHighlighting(builder);
         }
 
-        buildAggregations(builder, siteFacets);
+        buildAggregations(builder, siteConfig.facets());
 
-        SearchRequest request = builder.build();
+        SearchResponse<Map> response = searchService.search(siteId, builder.build(), Map.class);
+        List<Hit<Map>> hits = response.hits().hits();
+        if (cursorKey != null && cursorCache != null && !hits.isEmpty() && isCacheable(siteId)) {
+            // Keep the cursor so that the following page (e.g. during an export) does not need to walk again
+            cursorCache.put(new SearchCursorKey(cursorKey, params.getOffset() + hits.size()),
+                    hits.get(hits.size() - 1).sort());
+        }
+        return processResults(response, siteConfig.facets(), params.getAdditionalFields());
+    }
 
-        try {
-            SearchResponse<Map> response = searchService.search(siteId, request, Map.class);
-            return processResults(response, siteFacets, params.getAdditionalFields());
-        } catch (IOException e) {
-            throw new ServiceLayerException("Error connecting to OpenSearch", e);
-        } catch (Exception e) {
-            throw new ServiceLayerException("Error executing search in OpenSearch", e);
+    /**
+     * Executes a search for a page beyond {@link #MAX_RESULT_WINDOW} using search_after, skipping the previous
+     * results in chunks that fit in the result window or resuming from a cursor kept by a previous request
+     * @param siteId the site id
+     * @param query the query
+     * @param params the search parameters
+     * @param siteConfig the search configuration for the site
+     * @param queryKey the cache key for the query, without paging
+     * @return the search result
+     */
+    @SuppressWarnings("rawtypes")
+    protected SearchResult deepSearch(String siteId, Query query, SearchParams params, SiteSearchConfig siteConfig,
+                                      SearchCacheKey queryKey) throws IOException, ServiceLayerException {
+        int position = 0;
+        List<String> searchAfter = null;
+        if (cursorCache != null) {
+            searchAfter = cursorCache.getIfPresent(new SearchCursorKey(queryKey, params.getOffset()));
+            if (searchAfter != null) {
+                position = params.getOffset();
+            }
         }
+
+        while (position < params.getOffset()) {
+            SearchRequest.Builder builder = createRequestBuilder(query, params, true)
+                .size(Math.min(MAX_RESULT_WINDOW, params.getOffset() - position))
+                .source(s -> s.fetch(false));
+            if (searchAfter != null) {
+                builder.searchAfter(searchAfter);
+            }
+            SearchResponse<Map> response = searchService.search(siteId, builder.build(), Map.class);
+            List<Hit<Map>> hits = response.hits().hits();
+            if (hits.isEmpty()) {
+                // The offset is beyond the total number of results
+                SearchResult result = new SearchResult();
+                result.setTotal(response.hits().total().value());
+                result.setItems(Collections.emptyList());
+                result.setFacets(Collections.emptyList());
+                return result;
+            }
+            searchAfter = hits.get(hits.size() - 1).sort();
+            position += hits.size();
+        }
+
+        SearchRequest.Builder builder = createRequestBuilder(query, params, true)
+            .size(params.getLimit())
+            .trackTotalHits(t -> t.enabled(true));
+        if (searchAfter != null) {
+            builder.searchAfter(searchAfter);
+        }
+        logger.debug("Executing deep search for site '{}' at offset {}", siteId, params.getOffset());
+        return executePageRequest(siteId, builder, params, siteConfig, queryKey);
+    }
+
+    /**
+     * Returns the compiled search configuration for the given site, loading it if needed
+     * @param siteId the site id
+     * @return the search configuration
+     */
+    protected SiteSearchConfig getSiteSearchConfig(String siteId) {
+        return siteSearchConfigs.computeIfAbsent(siteId, key -> {
+            Map<String, String> boostedFields = new TreeMap<>(searchFields);
+            servicesConfig.getSearchFields(key).forEach((field, value) ->
+                    boostedFields.put(field, addBoosting(field, value)));
+            return new SiteSearchConfig(servicesConfig.getFacets(key), boostedFields);
+        });
+    }
+
+    /**
+     * Creates the cache key for the given search, normalizing the parameters that do not affect the results. The
+     * key includes the current user, so that results are never shared between users with different permissions
+     */
+    protected SearchCacheKey createCacheKey(String siteId, SearchParams params, int maxExpansions) {
+        return new SearchCacheKey(siteId, getSiteGeneration(siteId).get(), securityService.getCurrentUser(),
+                StringUtils.normalizeSpace(params.getKeywords()), params.getQuery(), params.getPath(),
+                normalizeFilters(params.getFilters()), params.getSortBy(),
+                StringUtils.lowerCase(params.getSortOrder()), params.isOrOperator(), params.getAdditionalFields(),
+                maxExpansions, params.getOffset(), params.getLimit());
+    }
+
+    @SuppressWarnings("unchecked")
+    private String normalizeFilters(Map<String, Object> filters) {
+        if (MapUtils.isEmpty(filters)) {
+            return null;
+        }
+        Map<String, Object> normalized = new TreeMap<>();
+        filters.forEach((name, value) ->
+                normalized.put(name, value instanceof Map<?, ?> map ? new TreeMap<>((Map<String, Object>) map) : value));
+        return normalized.toString();
+    }
+
+    private SiteGeneration getSiteGeneration(String siteId) {
+        return siteGenerations.computeIfAbsent(siteId, key -> new SiteGeneration());
+    }
+
+    /**
+     * Indicates if results for the given site can be cached, which is not the case shortly after a change because
+     * the index may not include it yet
+     */
+    protected boolean isCacheable(String siteId) {
+        return System.currentTimeMillis() - getSiteGeneration(siteId).getChangedOn() >= invalidationGraceMillis;
+    }
+
+    /**
+     * Creates a copy of the given result, so that the instances in the cache are never shared with callers
+     */
+    protected SearchResult copyResult(SearchResult result) {
+        SearchResult copy = new SearchResult();
+        copy.setTotal(result.getTotal());
+        if (result.getItems() != null) {
+            copy.setItems(result.getItems().stream().map(this::copyItem).collect(Collectors.toList()));
+        }
+        if (result.getFacets() != null) {
+            copy.setFacets(result.getFacets().stream().map(this::copyFacet).collect(Collectors.toList()));
+        }
+        return copy;
+    }
+
+    private SearchResultItem copyItem(SearchResultItem item) {
+        SearchResultItem copy = new SearchResultItem();
+        copy.setPath(item.getPath());
+        copy.setName(item.getName());
+        copy.setType(item.getType());
+        copy.setMimeType(item.getMimeType());
+        copy.setPreviewUrl(item.getPreviewUrl());
+        copy.setLastModifier(item.getLastModifier());
+        copy.setLastModified(item.getLastModified());
+        copy.setSize(item.getSize());
+        if (item.getSnippets() != null) {
+            copy.setSnippets(new ArrayList<>(item.getSnippets()));
+        }
+        if (item.getAdditionalFields() != null) {
+            copy.setAdditionalFields(new HashMap<>(item.getAdditionalFields()));
+        }
+        return copy;
+    }
+
+    private SearchFacet copyFacet(SearchFacet facet) {
+        SearchFacet copy = new SearchFacet();
+        copy.setName(facet.getName());
+        copy.setRange(facet.isRange());
+        copy.setDate(facet.isDate());
+        copy.setMultiple(facet.isMultiple());
+        if (facet.getValues() != null) {
+            Map<Object, Object> values = new LinkedHashMap<>();
+            facet.getValues().forEach((key, value) -> values.put(key, value instanceof SearchFacetRange range ?
+                    copyFacetRange(range) : value));
+            copy.setValues(values);
+        }
+        return copy;
+    }
+
+    private SearchFacetRange copyFacetRange(SearchFacetRange range) {
+        SearchFacetRange copy = new SearchFacetRange();
+        copy.setCount(range.getCount());
+        copy.setFrom(range.getFrom());
+        copy.setTo(range.getTo());
+        return copy;
+    }
+
+    /**
+     * Invalidates the cached results for the site when content changes. The index is updated asynchronously by
+     * the deployer, so no results are cached for the site during the grace window that follows
+     * @param event the content event
+     */
+    @EventListener
+    public void onContentEvent(ContentEvent event) {
+        getSiteGeneration(event.getSiteId()).increment();
+        if (event instanceof ConfigurationEvent) {
+            siteSearchConfigs.remove(event.getSiteId());
+        }
+    }
+
+    /**
+     * Invalidates the cached results and configuration for the site when the repository changes
+     * @param event the repository event
+     */
+    @EventListener
+    public void onRepositoryEvent(RepositoryEvent event) {
+        getSiteGeneration(event.getSiteId()).increment();
+        siteSearchConfigs.remove(event.getSiteId());
+    }
+
+    /**
+     * Removes all cached data for the deleted site
+     * @param event the site deleted event
+     */
+    @EventListener
+    public void onSiteDeleted(SiteDeletedEvent event) {
+        // Bump the generation before removing it so that results stored by searches in progress are never used
+        getSiteGeneration(event.getSiteId()).increment();
+        siteGenerations.remove(event.getSiteId());
+        siteSearchConfigs.remove(event.getSiteId());
+    }
+
+    /**
+     * Compiled search configuration for a site
+     * @param facets the facets configured for the site
+     * @param boostedFields the search fields including the ones configured for the site, with boosting
+     */
+    protected record SiteSearchConfig(Map<String, FacetTO> facets, Map<String, String> boostedFields) {
+    }
+
+    /**
+     * Generation of the content of a site and the time of its last change
+     */
+    protected static class SiteGeneration {
+
+        private final AtomicLong value = new AtomicLong();
+        private volatile long changedOn;
+
+        public long get() {
+            return value.get();
+        }
+
+        public long getChangedOn() {
+            return changedOn;
+        }
+
+        public void increment() {
+            changedOn = System.currentTimeMillis();
+            value.incrementAndGet();
+        }
+
+    }
+
+    /**
+     * Key for the cached search results. The generation changes every time the content of the site changes
+     */
+    protected record SearchCacheKey(String siteId, long generation, String username, String keywords,
+                                    String query, String path, String filters, String sortBy, String sortOrder,
+                                    boolean orOperator, List<String> additionalFields, int maxExpansions,
+                                    int offset, int limit) {
+
+        /**
+         * Returns the same key without paging, used to find the cursors for the same query
+         */
+        public SearchCacheKey queryKey() {
+            return new SearchCacheKey(siteId, generation, username, keywords, query, path, filters, sortBy,
+                    sortOrder, orOperator, additionalFields, maxExpansions, 0, 0);
+        }
+
+    }
+
+    /**
+     * Key for the search_after cursors, the position is the offset of the next result
+     */
+    protected record SearchCursorKey(SearchCacheKey queryKey, int position) {
     }
 
     /**
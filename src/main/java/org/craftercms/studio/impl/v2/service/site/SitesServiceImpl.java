@@ -154,6 +154,16 @@ public class SitesServiceImpl implements SitesService {
         return sitesServiceInternal.getLastCommitId(siteId);
     }
 
+    @Override
+    public void updateLastIndexedCommitId(String siteId, String commitId) {
+        sitesServiceInternal.updateLastIndexedCommitId(siteId, commitId);
+    }
+
+    @Override
+    public String getLastIndexedCommitId(String siteId) {
+        return sitesServiceInternal.getLastIndexedCommitId(siteId);
+    }
+
     @Override
     public boolean checkSiteUuid(String siteId, String siteUuid) {
         return sitesServiceInternal.checkSiteUuid(siteId, siteUuid);
@@ -323,6 +323,16 @@ public class SitesServiceInternalImpl implements SitesService, ApplicationContex
         return siteDao.getLastCommitId(siteId);
     }
 
+    @Override
+    public void updateLastIndexedCommitId(String siteId, String commitId) {
+        retryingDatabaseOperationFacade.retry(() -> siteDao.updateLastIndexedCommitId(siteId, commitId));
+    }
+
+    @Override
+    public String getLastIndexedCommitId(String siteId) {
+        return siteDao.getLastIndexedCommitId(siteId);
+    }
+
     @Override
     public boolean checkSiteUuid(final String siteId, final String siteUuid) {
         try {
@@ -234,11 +234,9 @@ public class WorkflowServiceImpl implements WorkflowService, ApplicationContextA
         return submissionPackage;
     }
 
-    private void cancelExistingWorkflowEntries(String siteId, List<String> paths) throws DeploymentException {
+    private void cancelExistingWorkflowEntries(String siteId, List<String> paths) {
         if (CollectionUtils.isNotEmpty(paths)) {
-            deploymentService.cancelWorkflowBulk(siteId, Set.copyOf(paths));
-            workflowServiceInternal.deleteWorkflowEntries(siteId, paths);
-            itemServiceInternal.updateStateBitsBulk(siteId, paths, CANCEL_WORKFLOW_ON_MASK, CANCEL_WORKFLOW_OFF_MASK);
+            workflowServiceInternal.cancelWorkflow(siteId, new LinkedHashSet<>(paths));
         }
     }
 
@@ -546,10 +544,8 @@ public class WorkflowServiceImpl implements WorkflowService, ApplicationContextA
             Set<String> submitterList = new HashSet<>();
 
             // Fetch the workflow entries before deleting them
-            List<WorkflowItem> workflowItems = pathsToCancelWorkflow.stream()
-                    .map(path -> workflowServiceInternal.getWorkflowEntry(siteId, path))
-                    .filter(Objects::nonNull)
-                    .collect(toList());
+            List<WorkflowItem> workflowItems =
+                    workflowServiceInternal.getWorkflowEntries(siteId, new LinkedHashSet<>(pathsToCancelWorkflow));
 
             for (WorkflowItem workflowItem : workflowItems) {
                 shouldNotify = shouldNotify || workflowItem.getNotifySubmitter() == 1;
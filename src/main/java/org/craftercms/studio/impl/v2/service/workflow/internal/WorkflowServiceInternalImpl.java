@@ -16,21 +16,44 @@
 
 package org.craftercms.studio.impl.v2.service.workflow.internal;
 
+import org.apache.commons.collections4.CollectionUtils;
+import org.craftercms.studio.api.v1.dal.SiteFeed;
+import org.craftercms.studio.api.v1.dal.SiteFeedMapper;
+import org.craftercms.studio.api.v2.dal.ItemDAO;
+import org.craftercms.studio.api.v2.dal.PublishRequestDAO;
 import org.craftercms.studio.api.v2.dal.RetryingDatabaseOperationFacade;
 import org.craftercms.studio.api.v2.dal.Workflow;
 import org.craftercms.studio.api.v2.dal.WorkflowDAO;
 import org.craftercms.studio.api.v2.dal.WorkflowItem;
 import org.craftercms.studio.api.v2.service.workflow.internal.WorkflowServiceInternal;
+import org.craftercms.studio.impl.v2.utils.DateUtils;
 import org.craftercms.studio.model.rest.dashboard.DashboardPublishingPackage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import static org.craftercms.studio.api.v2.dal.ItemState.CANCEL_WORKFLOW_OFF_MASK;
+import static org.craftercms.studio.api.v2.dal.ItemState.CANCEL_WORKFLOW_ON_MASK;
+import static org.craftercms.studio.api.v2.dal.PublishRequest.State.CANCELLED;
+import static org.craftercms.studio.api.v2.dal.PublishRequest.State.READY_FOR_LIVE;
+import static org.craftercms.studio.api.v2.dal.QueryParameterNames.SITE_ID;
 import static org.craftercms.studio.api.v2.dal.Workflow.STATE_OPENED;
 
 public class WorkflowServiceInternalImpl implements WorkflowServiceInternal {
 
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowServiceInternalImpl.class);
+
     private WorkflowDAO workflowDao;
+    private ItemDAO itemDao;
+    private PublishRequestDAO publishRequestDao;
+    private SiteFeedMapper siteFeedMapper;
     private RetryingDatabaseOperationFacade retryingDatabaseOperationFacade;
+    private TransactionTemplate transactionTemplate;
 
     @Override
     public WorkflowItem getWorkflowItem(String siteId, String path, String state) {
@@ -42,6 +65,40 @@ public class WorkflowServiceInternalImpl implements WorkflowServiceInternal {
         return getWorkflowItem(siteId, path, STATE_OPENED);
     }
 
+    @Override
+    public List<WorkflowItem> getWorkflowEntries(String siteId, Collection<String> paths) {
+        if (CollectionUtils.isEmpty(paths)) {
+            return Collections.emptyList();
+        }
+        return workflowDao.getWorkflowEntriesOpened(siteId, paths, STATE_OPENED);
+    }
+
+    @Override
+    public void cancelWorkflow(String siteId, Collection<String> paths) {
+        if (CollectionUtils.isEmpty(paths)) {
+            return;
+        }
+        SiteFeed siteFeed = siteFeedMapper.getSite(Map.of(SITE_ID, siteId));
+        List<String> pathList = List.copyOf(paths);
+        logger.debug("Cancel the workflow for '{}' items in site '{}'", pathList.size(), siteId);
+        // The whole transaction is retried if it loses a deadlock, so the DAOs are called directly
+        retryingDatabaseOperationFacade.retry(() -> transactionTemplate.executeWithoutResult(status -> {
+            publishRequestDao.cancelScheduledQueueItems(siteId, pathList, DateUtils.getCurrentTime(), CANCELLED,
+                    READY_FOR_LIVE);
+            workflowDao.deleteWorkflowEntries(siteId, pathList);
+            itemDao.updateStatesBySiteAndPathBulk(siteFeed.getId(), pathList, CANCEL_WORKFLOW_ON_MASK,
+                    CANCEL_WORKFLOW_OFF_MASK);
+        }));
+    }
+
+    @Override
+    public List<String> cancelPackageWorkflow(String siteId, String packageId) {
+        List<String> paths = workflowDao.getWorkflowPackagePaths(siteId, packageId);
+        logger.debug("Cancel the workflow for package '{}' in site '{}'", packageId, siteId);
+        cancelWorkflow(siteId, paths);
+        return paths;
+    }
+
     @Override
     public Workflow getWorkflowEntryForApproval(Long itemId) {
         return workflowDao.getWorkflowEntryForApproval(itemId, STATE_OPENED);
@@ -106,7 +163,23 @@ public class WorkflowServiceInternalImpl implements WorkflowServiceInternal {
         this.workflowDao = workflowDao;
     }
 
+    public void setItemDao(ItemDAO itemDao) {
+        this.itemDao = itemDao;
+    }
+
+    public void setPublishRequestDao(PublishRequestDAO publishRequestDao) {
+        this.publishRequestDao = publishRequestDao;
+    }
+
+    public void setSiteFeedMapper(SiteFeedMapper siteFeedMapper) {
+        this.siteFeedMapper = siteFeedMapper;
+    }
+
     public void setRetryingDatabaseOperationFacade(RetryingDatabaseOperationFacade retryingDatabaseOperationFacade) {
         this.retryingDatabaseOperationFacade = retryingDatabaseOperationFacade;
     }
+
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
 }
@@ -20,11 +20,9 @@ import org.craftercms.studio.api.v1.constant.GitRepositories;
 import org.craftercms.studio.api.v1.exception.SiteNotFoundException;
 import org.craftercms.studio.api.v2.event.site.SiteDeletingEvent;
 import org.craftercms.studio.api.v2.event.site.SiteReadyEvent;
-import org.craftercms.studio.api.v2.event.site.SyncFromRepoEvent;
 import org.craftercms.studio.api.v2.service.site.SitesService;
 import org.craftercms.studio.api.v2.sync.RepositoryWatcher;
 import org.craftercms.studio.api.v2.utils.GitRepositoryHelper;
-import org.craftercms.studio.impl.v2.utils.spring.event.BootstrapFinishedEvent;
 import org.eclipse.jgit.lib.Repository;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -38,12 +36,10 @@ import java.beans.ConstructorProperties;
 import java.io.IOException;
 import java.nio.file.Path;
 
-import static org.craftercms.studio.api.v2.dal.Site.State.READY;
-
 /**
  * Register and de-register sites for repository events.
- * This class will register all created sites on system bootstrap, and then listen
- * to site lifecycle events to register and de-register sites accordingly.
+ * This class listens to site lifecycle events to register and de-register sites accordingly,
+ * sites that already exist on system bootstrap are registered by the {@link SiteBootstrapSchedulerImpl}.
  */
 public class SandboxRepositoryListener implements ApplicationEventPublisherAware {
 
@@ -62,22 +58,6 @@ public class SandboxRepositoryListener implements ApplicationEventPublisherAware
         this.repositoryWatcher = repositoryWatcher;
     }
 
-    @Async
-    @EventListener(BootstrapFinishedEvent.class)
-    public void onBootstrapFinished() {
-        siteService.getSitesByState(READY).forEach(site -> {
-            logger.debug("Registering site '{}' for repository events", site);
-            Repository repo = repositoryHelper.getRepository(site.getSiteId(), GitRepositories.SANDBOX);
-            Path sandboxRepoPath = repo.getDirectory().toPath();
-            try {
-                repositoryWatcher.registerSite(site.getSiteId(), sandboxRepoPath);
-            } catch (SiteNotFoundException | IOException e) {
-                logger.error("Error registering site '{}' for repository events", site, e);
-            }
-            eventPublisher.publishEvent(new SyncFromRepoEvent(site.getSiteId()));
-        });
-    }
-
     private Path getSandboxRepoPath(String site) {
         Repository repo = repositoryHelper.getRepository(site, GitRepositories.SANDBOX);
         return repo.getDirectory().toPath();
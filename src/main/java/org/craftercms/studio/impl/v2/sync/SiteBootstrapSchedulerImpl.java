@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.craftercms.studio.impl.v2.sync;
+
+import org.apache.logging.log4j.CloseableThreadContext;
+import org.craftercms.studio.api.v1.constant.GitRepositories;
+import org.craftercms.studio.api.v2.dal.Site;
+import org.craftercms.studio.api.v2.service.site.SitesService;
+import org.craftercms.studio.api.v2.sync.RepositoryWatcher;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapScheduler;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapStatus;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapStatus.SiteState;
+import org.craftercms.studio.api.v2.utils.GitRepositoryHelper;
+import org.craftercms.studio.impl.v2.utils.spring.event.BootstrapFinishedEvent;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+
+import java.beans.ConstructorProperties;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.ZoneOffset.UTC;
+import static org.craftercms.studio.api.v2.dal.Site.State.READY;
+import static org.craftercms.studio.impl.v2.service.monitor.internal.LogEventBufferAppender.SITE_CONTEXT_KEY;
+
+/**
+ * Default implementation of {@link SiteBootstrapScheduler}.
+ * Repositories are opened and registered in parallel, then the sites are synced with at most
+ * {@code syncConcurrency} syncs running at the same time. Syncing a site whose last processed commit is already the
+ * repository HEAD returns right away (see {@link SyncFromRepositoryTask#syncRepository(String)}).
+ */
+public class SiteBootstrapSchedulerImpl implements SiteBootstrapScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SiteBootstrapSchedulerImpl.class);
+
+    private final SitesService siteService;
+    private final GitRepositoryHelper repositoryHelper;
+    private final RepositoryWatcher repositoryWatcher;
+    private final SyncFromRepositoryTask syncFromRepositoryTask;
+    private final int threadCount;
+    private final int syncConcurrency;
+    private final long timeoutSeconds;
+
+    private final Map<String, SiteState> siteStates = new ConcurrentHashMap<>();
+    private volatile ZonedDateTime startedOn;
+    private volatile ZonedDateTime finishedOn;
+
+    @ConstructorProperties({"siteService", "repositoryHelper", "repositoryWatcher", "syncFromRepositoryTask",
+            "threadCount", "syncConcurrency", "timeoutSeconds"})
+    public SiteBootstrapSchedulerImpl(final SitesService siteService, final GitRepositoryHelper repositoryHelper,
+                                      final RepositoryWatcher repositoryWatcher,
+                                      final SyncFromRepositoryTask syncFromRepositoryTask,
+                                      final int threadCount, final int syncConcurrency, final long timeoutSeconds) {
+        this.siteService = siteService;
+        this.repositoryHelper = repositoryHelper;
+        this.repositoryWatcher = repositoryWatcher;
+        this.syncFromRepositoryTask = syncFromRepositoryTask;
+        this.threadCount = threadCount;
+        this.syncConcurrency = syncConcurrency;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Async
+    @EventListener(BootstrapFinishedEvent.class)
+    public void onBootstrapFinished() {
+        startedOn = ZonedDateTime.now(UTC);
+        List<Site> sites = siteService.getSitesByState(READY);
+        sites.forEach(site -> siteStates.put(site.getSiteId(), SiteState.PENDING));
+        logger.info("Bootstrapping '{}' sites", sites.size());
+
+        int threads = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+        ExecutorService registerExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, sites.size())));
+        ExecutorService syncExecutor = Executors.newFixedThreadPool(Math.max(1, syncConcurrency));
+        try {
+            for (Site site : sites) {
+                registerExecutor.execute(() -> {
+                    if (registerSite(site)) {
+                        siteStates.put(site.getSiteId(), SiteState.SYNC_QUEUED);
+                        try {
+                            syncExecutor.execute(() -> syncSite(site));
+                        } catch (RejectedExecutionException e) {
+                            // Only after the timeout, the sync executor no longer accepts tasks
+                            logger.error("Failed to queue the sync of site '{}'", site.getSiteId(), e);
+                            siteStates.put(site.getSiteId(), SiteState.FAILED);
+                        }
+                    }
+                });
+            }
+            registerExecutor.shutdown();
+            if (!registerExecutor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                logger.warn("Registering the sites for repository events did not finish after '{}' seconds",
+                        timeoutSeconds);
+            }
+            syncExecutor.shutdown();
+            if (!syncExecutor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                logger.warn("Syncing the sites with their repositories did not finish after '{}' seconds",
+                        timeoutSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while bootstrapping the sites", e);
+        } finally {
+            registerExecutor.shutdown();
+            syncExecutor.shutdown();
+            finishedOn = ZonedDateTime.now(UTC);
+        }
+        SiteBootstrapStatus status = getStatus();
+        logger.info("Bootstrapped '{}' sites in '{}' ms, '{}' ready and '{}' failed", status.getTotal(),
+                finishedOn.toInstant().toEpochMilli() - startedOn.toInstant().toEpochMilli(),
+                status.getReady(), status.getFailed());
+    }
+
+    private boolean registerSite(Site site) {
+        logger.debug("Registering site '{}' for repository events", site);
+        try {
+            Repository repo = repositoryHelper.getRepository(site.getSiteId(), GitRepositories.SANDBOX);
+            repositoryWatcher.registerSite(site.getSiteId(), repo.getDirectory().toPath());
+            return true;
+        } catch (Exception e) {
+            logger.error("Error registering site '{}' for repository events", site, e);
+            siteStates.put(site.getSiteId(), SiteState.FAILED);
+            return false;
+        }
+    }
+
+    private void syncSite(Site site) {
+        siteStates.put(site.getSiteId(), SiteState.SYNCING);
+        long start = System.currentTimeMillis();
+        try (CloseableThreadContext.Instance ignored = CloseableThreadContext.put(SITE_CONTEXT_KEY,
+                site.getSiteId())) {
+            try {
+                syncFromRepositoryTask.syncRepository(site.getSiteId());
+                siteStates.put(site.getSiteId(), SiteState.READY);
+                logger.debug("Synced site '{}' with the repository in '{}' ms", site.getSiteId(),
+                        System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                logger.error("Error syncing site '{}' with the repository", site.getSiteId(), e);
+                siteStates.put(site.getSiteId(), SiteState.FAILED);
+            }
+        }
+    }
+
+    @Override
+    public SiteBootstrapStatus getStatus() {
+        return new SiteBootstrapStatus(startedOn, finishedOn, new TreeMap<>(siteStates));
+    }
+
+}
@@ -20,11 +20,13 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.CloseableThreadContext;
 import org.craftercms.commons.lang.RegexUtils;
 import org.craftercms.studio.api.v1.exception.ServiceLayerException;
 import org.craftercms.studio.api.v1.exception.security.UserNotFoundException;
 import org.craftercms.studio.api.v1.service.GeneralLockService;
 import org.craftercms.studio.api.v1.service.content.ContentService;
+import org.craftercms.studio.api.v2.annotation.LogExecutionTime;
 import org.craftercms.studio.api.v2.dal.*;
 import org.craftercms.studio.api.v2.event.repository.RepositoryEvent;
 import org.craftercms.studio.api.v2.event.site.SyncFromRepoEvent;
@@ -74,6 +76,7 @@ import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATI
 import static org.craftercms.studio.api.v2.utils.StudioUtils.getStudioTemporaryFilesRoot;
 import static org.craftercms.studio.impl.v1.repository.git.GitContentRepositoryConstants.GIT_REPO_USER_USERNAME;
 import static org.craftercms.studio.impl.v1.repository.git.GitContentRepositoryConstants.IGNORE_FILES;
+import static org.craftercms.studio.impl.v2.service.monitor.internal.LogEventBufferAppender.SITE_CONTEXT_KEY;
 
 /**
  * Listens to {@link SyncFromRepoEvent} events and performs the sync from repository.
@@ -125,17 +128,33 @@ public class SyncFromRepositoryTask implements ApplicationEventPublisherAware {
 
     @Async
     @EventListener
+    @LogExecutionTime
     public void syncRepoListener(SyncFromRepoEvent event) throws ServiceLayerException {
-        syncRepository(event.getSiteId());
+        try (CloseableThreadContext.Instance ignored = CloseableThreadContext.put(SITE_CONTEXT_KEY, event.getSiteId())) {
+            syncRepository(event.getSiteId(), event.getCommitId());
+        }
     }
 
     /**
-     * Sync the database with the repository in the given site.
+     * Sync the database with the repository in the given site, up to the current HEAD.
      *
      * @param siteId The site ID.
      * @throws ServiceLayerException If an error occurs while syncing the database with the repository.
      */
-    private void syncRepository(final String siteId) throws ServiceLayerException {
+    @LogExecutionTime
+    public void syncRepository(final String siteId) throws ServiceLayerException {
+        syncRepository(siteId, null);
+    }
+
+    /**
+     * Sync the database with the repository in the given site.
+     *
+     * @param siteId   The site ID.
+     * @param commitId The commit to sync up to, if null the sync will process up to the current HEAD. If the commit
+     *                 has already been processed (or is not in the first-parent history) there is nothing to do
+     * @throws ServiceLayerException If an error occurs while syncing the database with the repository.
+     */
+    private void syncRepository(final String siteId, final String commitId) throws ServiceLayerException {
         logger.debug("Sync the database with the repository in site '{}'", siteId);
 
         Site site = sitesService.getSite(siteId);
@@ -157,6 +176,15 @@ public class SyncFromRepositoryTask implements ApplicationEventPublisherAware {
             }
             // Some of these (the ones created by Studio APIs) will already be in the audit table
             List<String> unprocessedCommits = contentRepository.getCommitIdsBetween(siteId, lastProcessedCommit, lastCommitInRepo);
+            if (isNotEmpty(commitId)) {
+                // Stop at the requested commit, anything after it belongs to a different sync request
+                int index = unprocessedCommits.indexOf(commitId);
+                if (index < 0) {
+                    logger.debug("Site '{}' is already synced with the repository up to commit '{}'", siteId, commitId);
+                    return;
+                }
+                unprocessedCommits = unprocessedCommits.subList(0, index + 1);
+            }
 
             String currentLastProcessedCommit = lastProcessedCommit;
             String lastUnprocessedCommit = null;
@@ -180,7 +208,8 @@ public class SyncFromRepositoryTask implements ApplicationEventPublisherAware {
                 ingestChanges(site, currentLastProcessedCommit, lastUnprocessedCommit);
                 updateLastCommitId(siteId, lastUnprocessedCommit);
             }
-            logger.debug("Site '{}' is now synced with the repository up to commit '{}'", siteId, lastCommitInRepo);
+            logger.debug("Site '{}' is now synced with the repository up to commit '{}'", siteId,
+                    unprocessedCommits.isEmpty() ? lastProcessedCommit : unprocessedCommits.get(unprocessedCommits.size() - 1));
         } catch (UserNotFoundException | GitAPIException | IOException e) {
             throw new ServiceLayerException(format("Failed to sync repository for site '%s'", siteId), e);
         } finally {
@@ -35,7 +35,10 @@ import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -88,6 +91,15 @@ public class StudioUpgradeContext extends UpgradeContext<String> {
 
     protected RetryingRepositoryOperationFacade retryingRepositoryOperationFacade;
 
+    /**
+     * Indicates if commits are being collected to be done at once, see {@link #startBatch()}
+     */
+    protected boolean batching;
+
+    protected final Set<String> batchMessages = new LinkedHashSet<>();
+    protected final Set<String> batchChangedFiles = new LinkedHashSet<>();
+    protected final Set<String> batchDeletedFiles = new LinkedHashSet<>();
+
     public StudioUpgradeContext(String target, StudioConfiguration studioConfiguration, DataSource dataSource,
                                 InstanceService instanceService,
                                 RetryingRepositoryOperationFacade retryingRepositoryOperationFacade) {
@@ -162,13 +174,51 @@ public class StudioUpgradeContext extends UpgradeContext<String> {
         return getRepositoryPath().relativize(file).toString();
     }
 
+    /**
+     * Starts collecting the changes of all following calls to
+     * {@link #commitChanges(String, List, List)}, they will be committed at once by {@link #commitBatch()}.
+     */
+    public void startBatch() {
+        batching = true;
+    }
+
+    /**
+     * Commits all the changes collected since {@link #startBatch()} in a single commit.
+     */
+    public void commitBatch() throws Exception {
+        batching = false;
+        if (batchMessages.isEmpty()) {
+            return;
+        }
+        List<String> changedFiles = new LinkedList<>(batchChangedFiles);
+        // Files changed by one operation could have been deleted by a later one
+        List<String> deletedFiles = new LinkedList<>(batchDeletedFiles);
+        deletedFiles.addAll(batchChangedFiles);
+        String message = String.join("\n", batchMessages);
+        batchMessages.clear();
+        batchChangedFiles.clear();
+        batchDeletedFiles.clear();
+        commitChanges(message, changedFiles, deletedFiles);
+    }
+
     /**
      * Commits all changes for the given files in the repository of the site being upgraded.
+     * If a batch has been started the changes will be committed when the batch is completed.
      * @param message the commit message
      * @param changedFiles the list of changed files
      * @param deletedFiles the list of deleted files
      */
     public void commitChanges(String message, List<String> changedFiles, List<String> deletedFiles) throws Exception {
+        if (batching) {
+            batchMessages.add(message);
+            if (CollectionUtils.isNotEmpty(changedFiles)) {
+                batchChangedFiles.addAll(changedFiles);
+            }
+            if (CollectionUtils.isNotEmpty(deletedFiles)) {
+                batchDeletedFiles.addAll(deletedFiles);
+            }
+            return;
+        }
         Path repositoryPath = getRepositoryPath();
         FileRepositoryBuilder builder = new FileRepositoryBuilder();
         Repository repo = builder
@@ -42,12 +42,18 @@ import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
 import java.beans.ConstructorProperties;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.nio.file.Paths.get;
 import static java.util.stream.Collectors.toList;
@@ -59,6 +65,7 @@ import static org.craftercms.studio.api.v2.upgrade.UpgradeConstants.CONFIG_KEY_P
 import static org.craftercms.studio.api.v2.upgrade.UpgradeConstants.VERSION_3_0_0;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_SITE_CONFIG_BASE_PATH_PATTERN;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_SITE_MUTLI_ENVIRONMENT_CONFIG_BASE_PATH_PATTERN;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.UPGRADE_SITES_THREAD_COUNT;
 
 /**
  * Default implementation for {@link StudioUpgradeManager}.
@@ -210,7 +217,55 @@ public class StudioUpgradeManagerImpl extends AbstractUpgradeManager<String> imp
      */
     @Override
     public void upgradeExistingSites() throws UpgradeException {
-        upgrade();
+        List<String> sites;
+        try {
+            sites = doGetTargets();
+        } catch (Exception e) {
+            throw new UpgradeException("Failed to get the list of sites to upgrade", e);
+        }
+        if (sites.isEmpty()) {
+            return;
+        }
+
+        // Sites are independent, the total time depends on the largest sites instead of the number of sites
+        int threadCount = Math.min(sites.size(),
+                Math.max(1, studioConfiguration.getProperty(UPGRADE_SITES_THREAD_COUNT, Integer.class, 1)));
+        logger.info("Check for upgrades in '{}' sites using '{}' threads", sites.size(), threadCount);
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            Map<String, Future<?>> futures = new LinkedHashMap<>();
+            for (String site : sites) {
+                futures.put(site, executor.submit(() -> {
+                    long siteStartTime = System.currentTimeMillis();
+                    doUpgrade(createUpgradeContext(site));
+                    logger.info("Completed the upgrade of site '{}' in '{}' milliseconds", site,
+                            System.currentTimeMillis() - siteStartTime);
+                    return null;
+                }));
+            }
+            UpgradeException failure = null;
+            for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+                try {
+                    future.getValue().get();
+                } catch (ExecutionException e) {
+                    logger.error("Failed to upgrade site '{}'", future.getKey(), e.getCause());
+                    if (failure == null) {
+                        failure = new UpgradeException("Failed to upgrade site " + future.getKey(), e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpgradeException("The upgrade of the existing sites was interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Completed the upgrade of '{}' sites in '{}' milliseconds", sites.size(),
+                System.currentTimeMillis() - startTime);
     }
 
     protected boolean checkIfSiteRepoExists(String site) {
@@ -279,16 +334,23 @@ public class StudioUpgradeManagerImpl extends AbstractUpgradeManager<String> imp
     @EventListener(StartUpgradeEvent.class)
     public void startUpgrade() throws UpgradeException, EntitlementException, ConfigurationException {
 
+        long startTime = System.currentTimeMillis();
         upgradeBlueprints();
         upgradeDatabaseAndConfiguration();
+        logger.info("Completed the upgrade of blueprints and database in '{}' milliseconds",
+                System.currentTimeMillis() - startTime);
         upgradeExistingSites();
 
-        try {
-            integrityValidator.validate(dataSource.getConnection());
+        long validationStartTime = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection()) {
+            integrityValidator.validate(connection);
         } catch (SQLException e) {
             logger.error("Failed to connect to the database to perform integrity validation", e);
             throw new UpgradeException("Failed to connect to the database to perform integrity validation", e);
         }
+        long endTime = System.currentTimeMillis();
+        logger.info("Completed the database integrity validation in '{}' milliseconds", endTime - validationStartTime);
+        logger.info("Completed the upgrade process in '{}' milliseconds", endTime - startTime);
     }
 
 }
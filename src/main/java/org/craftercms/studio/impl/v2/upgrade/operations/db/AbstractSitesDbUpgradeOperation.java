@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.craftercms.studio.impl.v2.upgrade.operations.db;
+
+import org.apache.commons.configuration2.HierarchicalConfiguration;
+import org.craftercms.commons.entitlements.validator.DbIntegrityValidator;
+import org.craftercms.commons.upgrade.exception.UpgradeException;
+import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.craftercms.studio.impl.v2.upgrade.StudioUpgradeContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.ConstructorProperties;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.DB_SCHEMA;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.UPGRADE_DB_FAIL_ON_SITE_ERRORS;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.UPGRADE_DB_SITE_THREAD_COUNT;
+
+/**
+ * Base class for database upgrade operations that need to process each site independently.
+ *
+ * <p>Sites are processed in parallel using a bounded thread pool. Each site that is processed successfully is
+ * recorded in the database, so if the upgrade is interrupted or any site fails the next execution only processes
+ * the remaining sites. By default the operation fails if any site fails, so the database version is not updated
+ * until all sites are processed.</p>
+ *
+ * <p>Supported YAML properties:</p>
+ * <ul>
+ *     <li><strong>siteThreadCount</strong>: (optional) the number of sites to process at the same time, defaults
+ *     to the value of {@code studio.upgrade.db.siteThreadCount}</li>
+ *     <li><strong>failOnSiteErrors</strong>: (optional) indicates if the operation should fail when any site fails,
+ *     otherwise the failed sites are only logged and skipped, defaults to the value of
+ *     {@code studio.upgrade.db.failOnSiteErrors}</li>
+ * </ul>
+ */
+public abstract class AbstractSitesDbUpgradeOperation extends DbScriptUpgradeOperation {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractSitesDbUpgradeOperation.class);
+
+    public static final String CONFIG_KEY_SITE_THREAD_COUNT = "siteThreadCount";
+    public static final String CONFIG_KEY_FAIL_ON_SITE_ERRORS = "failOnSiteErrors";
+    public static final String QUERY_GET_ALL_SITES =
+            "SELECT id, site_id FROM " + CRAFTER_SCHEMA_NAME + ".site WHERE system = 0 AND deleted = 0";
+    public static final String QUERY_CREATE_PROGRESS_TABLE =
+            "CREATE TABLE IF NOT EXISTS " + CRAFTER_SCHEMA_NAME + "._upgrade_site_progress (" +
+                    "operation VARCHAR(255) NOT NULL, site_id BIGINT NOT NULL, " +
+                    "completed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "PRIMARY KEY (operation, site_id))";
+    public static final String QUERY_GET_COMPLETED_SITES =
+            "SELECT site_id FROM " + CRAFTER_SCHEMA_NAME + "._upgrade_site_progress WHERE operation = ?";
+    public static final String QUERY_MARK_SITE_COMPLETED =
+            "INSERT IGNORE INTO " + CRAFTER_SCHEMA_NAME + "._upgrade_site_progress (operation, site_id) VALUES (?, ?)";
+    public static final String QUERY_CLEAR_PROGRESS =
+            "DELETE FROM " + CRAFTER_SCHEMA_NAME + "._upgrade_site_progress WHERE operation = ?";
+    public static final String QUERY_COUNT_PROGRESS =
+            "SELECT COUNT(1) FROM " + CRAFTER_SCHEMA_NAME + "._upgrade_site_progress";
+    public static final String QUERY_DROP_PROGRESS_TABLE =
+            "DROP TABLE IF EXISTS " + CRAFTER_SCHEMA_NAME + "._upgrade_site_progress";
+
+    protected String crafterSchemaName;
+
+    /**
+     * Number of sites to process at the same time
+     */
+    protected int siteThreadCount;
+
+    /**
+     * Indicates if the operation should fail when any site fails
+     */
+    protected boolean failOnSiteErrors;
+
+    @ConstructorProperties({"studioConfiguration", "scriptFolder", "integrityValidator"})
+    public AbstractSitesDbUpgradeOperation(StudioConfiguration studioConfiguration, String scriptFolder,
+                                           DbIntegrityValidator integrityValidator) {
+        super(studioConfiguration, scriptFolder, integrityValidator);
+    }
+
+    @Override
+    public void doInit(HierarchicalConfiguration config) {
+        super.doInit(config);
+        crafterSchemaName = studioConfiguration.getProperty(DB_SCHEMA);
+        siteThreadCount = Math.max(1, config.getInt(CONFIG_KEY_SITE_THREAD_COUNT,
+                studioConfiguration.getProperty(UPGRADE_DB_SITE_THREAD_COUNT, Integer.class, 1)));
+        failOnSiteErrors = config.getBoolean(CONFIG_KEY_FAIL_ON_SITE_ERRORS,
+                studioConfiguration.getProperty(UPGRADE_DB_FAIL_ON_SITE_ERRORS, Boolean.class, true));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void doExecute(final StudioUpgradeContext context) throws UpgradeException {
+        // create stored procedures from script (if needed)
+        if (isNotEmpty(fileName)) {
+            super.doExecute(context);
+        }
+
+        Map<Long, String> sites = getSites(context);
+        String operationKey = getProgressKey();
+        Set<Long> completedSites = getCompletedSites(context, operationKey);
+        if (!completedSites.isEmpty()) {
+            logger.info("Resume upgrade operation '{}', '{}' of '{}' sites were already processed",
+                    operationKey, completedSites.size(), sites.size());
+        }
+        sites.keySet().removeAll(completedSites);
+
+        int total = sites.size();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(siteThreadCount, Math.max(total, 1)));
+        try {
+            List<Future<?>> futures = new LinkedList<>();
+            for (Map.Entry<Long, String> site : sites.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    boolean success = processSite(context, site.getKey(), site.getValue());
+                    if (success) {
+                        markSiteCompleted(context, operationKey, site.getKey(), site.getValue());
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                    logger.info("Upgrade operation '{}' processed site '{}' ({} of {}){}", operationKey,
+                            site.getValue(), processed.incrementAndGet(), total, success ? "" : " with errors");
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UpgradeException upgradeException) {
+                throw upgradeException;
+            }
+            throw new UpgradeException(format("Upgrade operation '%s' failed", operationKey), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpgradeException(format("Upgrade operation '%s' was interrupted", operationKey), e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failed.get() > 0) {
+            if (failOnSiteErrors) {
+                // The progress is kept so the next execution only processes the failed sites
+                throw new UpgradeException(format("Upgrade operation '%s' failed for '%d' of '%d' sites, they " +
+                        "will be processed again in the next execution", operationKey, failed.get(), total));
+            }
+            logger.warn("Upgrade operation '{}' failed for '{}' of '{}' sites, the failed sites will be skipped",
+                    operationKey, failed.get(), total);
+        }
+        clearProgress(context, operationKey);
+    }
+
+    /**
+     * Process a single site, this method can be called concurrently for different sites.
+     * @param context the upgrade context
+     * @param siteId the numeric site id
+     * @param site the site id
+     * @return true if the site was processed successfully and doesn't need to be processed again
+     * @throws UpgradeException if the upgrade can't continue for any site
+     */
+    protected abstract boolean processSite(StudioUpgradeContext context, long siteId, String site)
+            throws UpgradeException;
+
+    /**
+     * Returns the key used to track the progress of this operation, unique for each step of the pipeline
+     */
+    protected String getProgressKey() {
+        return format("%s:%s:%s", getClass().getSimpleName(), currentVersion, nextVersion);
+    }
+
+    protected Map<Long, String> getSites(StudioUpgradeContext context) {
+        Map<Long, String> sites = new LinkedHashMap<>();
+        try (Connection connection = context.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(QUERY_GET_ALL_SITES.replace(CRAFTER_SCHEMA_NAME,
+                     crafterSchemaName))) {
+            while (rs.next()) {
+                sites.put(rs.getLong(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to get all sites from the database", e);
+        }
+        return sites;
+    }
+
+    protected Set<Long> getCompletedSites(StudioUpgradeContext context, String operationKey)
+            throws UpgradeException {
+        Set<Long> completedSites = new HashSet<>();
+        try (Connection connection = context.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(QUERY_CREATE_PROGRESS_TABLE.replace(CRAFTER_SCHEMA_NAME, crafterSchemaName));
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    QUERY_GET_COMPLETED_SITES.replace(CRAFTER_SCHEMA_NAME, crafterSchemaName))) {
+                statement.setString(1, operationKey);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        completedSites.add(rs.getLong(1));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new UpgradeException(format("Failed to read the progress of the upgrade operation '%s'",
+                    operationKey), e);
+        }
+        return completedSites;
+    }
+
+    protected void markSiteCompleted(StudioUpgradeContext context, String operationKey, long siteId, String site) {
+        try (Connection connection = context.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     QUERY_MARK_SITE_COMPLETED.replace(CRAFTER_SCHEMA_NAME, crafterSchemaName))) {
+            statement.setString(1, operationKey);
+            statement.setLong(2, siteId);
+            statement.executeUpdate();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            // The site will be processed again if the upgrade is interrupted
+            logger.warn("Failed to record the progress of the upgrade operation '{}' for site '{}'",
+                    operationKey, site, e);
+        }
+    }
+
+    /**
+     * Removes the progress of the operation, the progress table is dropped once no operation has progress in it
+     */
+    protected void clearProgress(StudioUpgradeContext context, String operationKey) {
+        try (Connection connection = context.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    QUERY_CLEAR_PROGRESS.replace(CRAFTER_SCHEMA_NAME, crafterSchemaName))) {
+                statement.setString(1, operationKey);
+                statement.executeUpdate();
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            boolean empty;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(QUERY_COUNT_PROGRESS.replace(CRAFTER_SCHEMA_NAME,
+                         crafterSchemaName))) {
+                empty = !rs.next() || rs.getLong(1) == 0;
+            }
+            if (empty) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(QUERY_DROP_PROGRESS_TABLE.replace(CRAFTER_SCHEMA_NAME, crafterSchemaName));
+                }
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to clear the progress of the upgrade operation '{}'", operationKey, e);
+        }
+    }
+
+}
@@ -28,29 +28,19 @@ import org.craftercms.studio.impl.v2.upgrade.StudioUpgradeContext;
 import java.beans.ConstructorProperties;
 import java.sql.CallableStatement;
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.HashMap;
-import java.util.Map;
 
-import static org.apache.commons.lang3.StringUtils.isNotEmpty;
-import static org.craftercms.studio.api.v2.utils.StudioConfiguration.DB_SCHEMA;
-
-public final class MigrateWorkflowUpgradeOperation extends DbScriptUpgradeOperation {
+public final class MigrateWorkflowUpgradeOperation extends AbstractSitesDbUpgradeOperation {
 
     public static final Logger logger = LoggerFactory.getLogger(MigrateWorkflowUpgradeOperation.class);
 
     public static final String CONFIG_KEY_STORED_PROCEDURE_NAME = "spName";
-    public static final String QUERY_GET_ALL_SITES =
-            "SELECT id, site_id FROM " + CRAFTER_SCHEMA_NAME + ".site WHERE system = 0 AND deleted = 0";
     public static final String STORED_PROCEDURE_NAME = "@spName";
     public static final String SP_PARAM_SITE = "@site";
     public static final String QUERY_CALL_STORED_PROCEDURE =
             "call @spName('@site')";
 
 
-    private String crafterSchemaName;
     private String spName;
 
     @ConstructorProperties({"studioConfiguration", "scriptFolder", "integrityValidator"})
@@ -63,40 +53,12 @@ public final class MigrateWorkflowUpgradeOperation extends DbScriptUpgradeOperat
     @Override
     public void doInit(HierarchicalConfiguration config) {
         super.doInit(config);
-        crafterSchemaName = studioConfiguration.getProperty(DB_SCHEMA);
         spName = config.getString(CONFIG_KEY_STORED_PROCEDURE_NAME);
     }
 
-    /**
-     * {@inheritDoc}
-     */
     @Override
-    public void doExecute(final StudioUpgradeContext context) throws UpgradeException {
-        // create stored procedure from script
-        if (isNotEmpty(fileName)) {
-            super.doExecute(context);
-        }
-        // get all sites from DB
-        Map<Long, String> sites = new HashMap<>();
-        try (Connection connection = context.getConnection()) {
-            try(Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(
-                    QUERY_GET_ALL_SITES.replace(CRAFTER_SCHEMA_NAME, crafterSchemaName))) {
-                while (rs.next()) {
-                    sites.put(rs.getLong(1), rs.getString(2));
-                }
-            } catch (SQLException e) {
-                logger.error("Failed to get all sites from the database", e);
-            }
-            // loop over all sites
-            for (Map.Entry<Long, String> site : sites.entrySet()) {
-                processSite(context, site.getValue());
-            }
-        } catch (SQLException e) {
-            logger.error("Failed to get a database connection", e);
-        }
-    }
-
-    private void processSite(final StudioUpgradeContext context, String site) throws UpgradeException {
+    protected boolean processSite(final StudioUpgradeContext context, long siteId, String site)
+            throws UpgradeException {
         logger.info("Process site '{}'", site);
         try (Connection connection = context.getConnection()) {
             integrityValidator.validate(connection);
@@ -113,8 +75,10 @@ public final class MigrateWorkflowUpgradeOperation extends DbScriptUpgradeOperat
                             .replace(SP_PARAM_SITE, site));
             logger.debug("Call '{}' for site '{}'", spName, site);
             callableStatement.execute();
+            return true;
         } catch (SQLException e) {
             logger.error("Failed to populate data in the database for site '{}'", site, e);
+            return false;
         }
     }
 
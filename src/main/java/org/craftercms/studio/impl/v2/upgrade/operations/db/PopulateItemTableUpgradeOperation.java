@@ -49,30 +49,32 @@ import java.nio.file.Paths;
 import java.sql.*;
 import java.time.Instant;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.time.ZoneOffset.UTC;
 import static org.apache.commons.io.FilenameUtils.getName;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 import static org.craftercms.studio.api.v1.constant.StudioConstants.FILE_SEPARATOR;
 import static org.craftercms.studio.api.v2.dal.ItemState.DISABLED;
-import static org.craftercms.studio.api.v2.utils.StudioConfiguration.DB_SCHEMA;
 import static org.craftercms.studio.impl.v1.repository.git.GitContentRepositoryConstants.IGNORE_FILES;
 import static org.eclipse.jgit.lib.Constants.HEAD;
 
-public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOperation {
+/**
+ * Populates the item table for each site, first from the database and then from the sandbox repository.
+ *
+ * <p>Sites are processed in parallel (see {@link AbstractSitesDbUpgradeOperation}), the threads used to process the
+ * files of the repositories are split between the sites being processed at the same time.</p>
+ */
+public final class PopulateItemTableUpgradeOperation extends AbstractSitesDbUpgradeOperation {
 
     public static final Logger logger = LoggerFactory.getLogger(PopulateItemTableUpgradeOperation.class);
 
     public static final String CONFIG_KEY_CLEAR_EXISTING_DATA = "clearExistingData";
     public static final String CONFIG_KEY_STORED_PROCEDURE_NAME = "spName";
     public static final String CONFIG_KEY_STORED_PARENT_ID_PROCEDURE_NAME = "parentIdSpName";
-    public static final String QUERY_GET_ALL_SITES =
-            "SELECT id, site_id FROM " + CRAFTER_SCHEMA_NAME + ".site WHERE system = 0 AND deleted = 0";
     public static final String STORED_PROCEDURE_NAME = "@spName";
     public static final String SP_PARAM_SITE = "@site";
     public static final String QUERY_PARAM_SITE_ID = "@siteId";
@@ -82,7 +84,6 @@ public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOper
             "call @spName('@site')";
 
     private boolean clearExistingData;
-    private String crafterSchemaName;
     private String spName;
     private String populateParentIdSpName;
     private final String blobExtension;
@@ -116,46 +117,16 @@ public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOper
     public void doInit(HierarchicalConfiguration config) {
         super.doInit(config);
         clearExistingData = config.getBoolean(CONFIG_KEY_CLEAR_EXISTING_DATA, false);
-        crafterSchemaName = studioConfiguration.getProperty(DB_SCHEMA);
         spName = config.getString(CONFIG_KEY_STORED_PROCEDURE_NAME);
         populateParentIdSpName = config.getString(CONFIG_KEY_STORED_PARENT_ID_PROCEDURE_NAME);
     }
 
-    /**
-     * {@inheritDoc}
-     */
     @Override
-    public void doExecute(final StudioUpgradeContext context) throws UpgradeException {
-        // create stored procedure from script (if needed)
-        if (isNotEmpty(fileName)) {
-            super.doExecute(context);
-        }
-        // get all sites from DB
-        Map<Long, String> sites = new HashMap<>();
-        try (Connection connection = context.getConnection()) {
-            try(Statement statement = connection.createStatement();
-                ResultSet rs = statement.executeQuery(
-                    QUERY_GET_ALL_SITES.replace(CRAFTER_SCHEMA_NAME, crafterSchemaName))) {
-                while (rs.next()) {
-                    sites.put(rs.getLong(1), rs.getString(2));
-                }
-            } catch (SQLException e) {
-                logger.error("Failed to get all sites from the database", e);
-            }
-        } catch (SQLException e) {
-            logger.error("Failed to get a database connection", e);
-        }
-
-        // loop over all sites
-        for (Map.Entry<Long, String> site : sites.entrySet()) {
-            processSite(context, site.getKey(), site.getValue());
-        }
-    }
-
-    private void processSite(final StudioUpgradeContext context, long siteId, String site) {
+    protected boolean processSite(final StudioUpgradeContext context, long siteId, String site) {
         // check if data exists
         logger.info("Process site '{}'", site);
         boolean shouldProcess = false;
+        boolean success = true;
         try (Connection connection = context.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(QUERY_CHECK_DATA_EXISTS
                     .replace(CRAFTER_SCHEMA_NAME, crafterSchemaName)
@@ -164,26 +135,31 @@ public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOper
                 shouldProcess = !rs.next() || rs.getInt(1) < 1 || clearExistingData;
             } catch (SQLException e) {
                 logger.error("Failed to check if item data already exists in the database for site '{}'", site);
+                success = false;
             }
         } catch (SQLException e) {
             logger.error("Failed to get a database connection");
+            success = false;
         }
 
         try {
             if (shouldProcess) {
-                populateDataFromDB(context, site);
+                success &= populateDataFromDB(context, site);
             }
         } catch (UpgradeException e) {
             logger.error("Failed to populate item table for site '{}'", site, e);
+            success = false;
         }
 
         try {
-            populateDataFromRepo(site);
+            success &= populateDataFromRepo(site);
             logger.debug("Update the parent IDs in site '{}'", site);
-            populateParentId(context, site, siteId);
+            success &= populateParentId(context, site, siteId);
         } catch (Exception e) {
             logger.error("Failed to populate the item table from the repository for site '{}'", site, e);
+            success = false;
         }
+        return success;
     }
 
     /**
@@ -193,20 +169,23 @@ public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOper
      * @param context the upgrade context
      * @param site the site id
      * @param siteId the numeric site id
+     * @return true if the stored procedure was executed successfully
      */
-    private void populateParentId(final StudioUpgradeContext context, String site, long siteId) {
+    private boolean populateParentId(final StudioUpgradeContext context, String site, long siteId) {
         logger.debug("Execute the stored procedure '{}' in site '{}'", populateParentIdSpName, site);
         try (Connection connection = context.getConnection()) {
             CallableStatement callableStatement = connection.prepareCall(
                     QUERY_CALL_STORED_PROCEDURE.replace(STORED_PROCEDURE_NAME, populateParentIdSpName)
                             .replace(SP_PARAM_SITE, String.valueOf(siteId)));
             callableStatement.execute();
+            return true;
         } catch (SQLException e) {
             logger.error("Failed to populate item table parent ID for site '{}'", site, e);
+            return false;
         }
     }
 
-    private void populateDataFromDB(final StudioUpgradeContext context, String siteId) throws UpgradeException {
+    private boolean populateDataFromDB(final StudioUpgradeContext context, String siteId) throws UpgradeException {
         try (Connection connection = context.getConnection()) {
             integrityValidator.validate(connection);
         } catch (SQLException e) {
@@ -222,15 +201,23 @@ public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOper
                     QUERY_CALL_STORED_PROCEDURE.replace(STORED_PROCEDURE_NAME, spName)
                             .replace(SP_PARAM_SITE, siteId));
             callableStatement.execute();
+            return true;
         } catch (SQLException e) {
             logger.error("Failed to populate data from the database for site '{}'", siteId, e);
+            return false;
         }
     }
 
-    private void populateDataFromRepo(final String siteName)
+    private boolean populateDataFromRepo(final String siteName)
             throws Exception {
         logger.debug("Populate data from the repository for site '{}'", siteName);
         try (Repository repo = getRepository(siteName)) {
+            if (repo == null) {
+                // There is nothing to populate, retrying the site would fail the same way in every start
+                logger.warn("Skip populating data from the repository for site '{}', the sandbox repository " +
+                        "doesn't exist", siteName);
+                return true;
+            }
             ObjectId objCommitId = repo.resolve(HEAD);
             try (RevWalk walk = new RevWalk(repo)) {
                 RevCommit commit = walk.parseCommit(objCommitId);
@@ -238,7 +225,9 @@ public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOper
                 TreeWalk treeWalk = new TreeWalk(repo);
                 treeWalk.addTree(tree);
                 treeWalk.setRecursive(false);
-                ExecutorService taskExecutor = Executors.newFixedThreadPool(executorThreadCount);
+                ExecutorService taskExecutor =
+                        Executors.newFixedThreadPool(Math.max(1, executorThreadCount / siteThreadCount));
+                AtomicInteger failed = new AtomicInteger();
                 while (treeWalk.next()) {
                     String pathString = treeWalk.getPathString();
                     String nameString = treeWalk.getNameString();
@@ -247,9 +236,10 @@ public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOper
                                     try {
                                         processFolder(siteName, FILE_SEPARATOR + pathString,
                                                 nameString);
-                                    } catch (IOException e) {
-                                        logger.error("Failed to process file '{}' in site '{}'", pathString,
+                                    } catch (Exception e) {
+                                        logger.error("Failed to process folder '{}' in site '{}'", pathString,
                                                 siteName, e);
+                                        failed.incrementAndGet();
                                     }
                                 }
                         );
@@ -263,16 +253,27 @@ public final class PopulateItemTableUpgradeOperation extends DbScriptUpgradeOper
                                 try {
                                     processFile(siteName, FILE_SEPARATOR + pathString,
                                             nameString);
-                                } catch (DocumentException | IOException e) {
+                                } catch (Exception e) {
                                     logger.error("Failed to process file '{}' in site '{}'", pathString,
                                             siteName, e);
+                                    failed.incrementAndGet();
                                 }
                             });
                         }
                     }
                 }
                 taskExecutor.shutdown();
-                taskExecutor.awaitTermination(executorTimeoutSeconds, TimeUnit.SECONDS);
+                if (!taskExecutor.awaitTermination(executorTimeoutSeconds, TimeUnit.SECONDS)) {
+                    logger.error("Timed out populating data from the repository for site '{}'", siteName);
+                    taskExecutor.shutdownNow();
+                    return false;
+                }
+                if (failed.get() > 0) {
+                    logger.error("Failed to process '{}' files from the repository for site '{}'", failed.get(),
+                            siteName);
+                    return false;
+                }
+                return true;
             }
         }
     }
@@ -33,6 +33,7 @@ import org.craftercms.studio.api.v1.service.GeneralLockService;
 import org.craftercms.studio.api.v1.service.site.SiteService;
 import org.craftercms.studio.api.v2.repository.RetryingRepositoryOperationFacade;
 import org.craftercms.studio.api.v2.utils.GitRepositoryHelper;
+import org.craftercms.studio.impl.v2.upgrade.StudioUpgradeContext;
 import org.eclipse.jgit.api.CheckoutCommand;
 import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.DeleteBranchCommand;
@@ -132,7 +133,14 @@ public class SiteRepositoryUpgradePipelineImpl extends DefaultUpgradePipelineImp
                         }
                         createTemporaryBranch(site, git);
                         checkoutBranch(siteUpgradeBranch, git);
-                        super.execute(context);
+                        // all changes from the pipeline are committed at once in the temporary branch
+                        var studioContext = (StudioUpgradeContext) context;
+                        studioContext.startBatch();
+                        try {
+                            super.execute(context);
+                        } finally {
+                            commitBatch(studioContext);
+                        }
                         checkoutBranch(sandboxBranch, git);
                         mergeTemporaryBranch(repository, git);
                         deleteTemporaryBranch(git);
@@ -156,6 +164,14 @@ public class SiteRepositoryUpgradePipelineImpl extends DefaultUpgradePipelineImp
         }
     }
 
+    protected void commitBatch(StudioUpgradeContext context) throws UpgradeException {
+        try {
+            context.commitBatch();
+        } catch (Exception e) {
+            throw new UpgradeException("Error committing the upgrade changes for site " + context.getTarget(), e);
+        }
+    }
+
     public void setSiteSandboxBranch(final String siteSandboxBranch) {
         this.siteSandboxBranch = siteSandboxBranch;
     }
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.impl.v2.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, lock-free ring buffer that assigns a sequence number to every element written. Writers never block
+ * each other or the readers, and once the buffer is full the oldest elements are overwritten.
+ * <p>
+ * Readers can ask for the elements written after a given sequence number, so polling clients only get what
+ * is new instead of copying and filtering the whole buffer.
+ *
+ * @param <T> type of objects to store
+ * @since 4.2.0
+ */
+public class SequencedRingBuffer<T> {
+
+    /**
+     * Number of times a reader checks a slot that a writer has claimed but not stored yet before giving up
+     */
+    protected static final int PENDING_SPINS = 1000;
+
+    protected final int capacity;
+    protected final AtomicReferenceArray<Entry<T>> entries;
+    protected final AtomicLong nextSequence = new AtomicLong();
+
+    public SequencedRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be greater than zero");
+        }
+        this.capacity = capacity;
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Writes an element, overwriting the oldest one if the buffer is full
+     *
+     * @param element the element to write
+     * @return the sequence number assigned to the element
+     */
+    public long write(T element) {
+        return write(sequence -> element);
+    }
+
+    /**
+     * Writes an element created for the sequence number assigned to it, overwriting the oldest one if the buffer
+     * is full
+     *
+     * @param factory function that creates the element from its sequence number
+     * @return the sequence number assigned to the element
+     */
+    public long write(LongFunction<T> factory) {
+        long sequence = nextSequence.getAndIncrement();
+        T element;
+        try {
+            element = factory.apply(sequence);
+        } catch (RuntimeException e) {
+            // Store an empty entry so readers don't wait for an element that will never come
+            store(new Entry<>(sequence, null));
+            throw e;
+        }
+        store(new Entry<>(sequence, element));
+        return sequence;
+    }
+
+    /**
+     * Returns the sequence number that will be assigned to the next element written
+     */
+    public long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Returns the elements with a sequence number equal or greater than the given one that are still in the
+     * buffer, oldest first. If an element is still being written the result stops right before it, so the next
+     * read from the sequence after the last element returned picks it up.
+     *
+     * @param sequence the first sequence number to return, a sequence greater than any written (e.g. one obtained
+     *                 before the buffer was recreated) reads from the start of the buffer
+     * @return the elements
+     */
+    public List<T> readFrom(long sequence) {
+        long end = nextSequence.get();
+        if (sequence > end) {
+            sequence = 0;
+        }
+        long start = Math.max(sequence, end - capacity);
+        List<T> result = new ArrayList<>((int) Math.max(0, end - start));
+
+        for (long current = start; current < end; current++) {
+            Entry<T> entry = awaitEntry(current);
+            if (isPending(entry, current)) {
+                break;
+            }
+            // A greater sequence means it was overwritten while reading, and an empty entry means its write failed,
+            // either way there is nothing to return for it
+            if (entry.sequence == current && entry.element != null) {
+                result.add(entry.element);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the latest elements, walking back from the newest one until {@code stop} matches, oldest first.
+     * Useful to read the elements newer than a timestamp without going through the whole buffer.
+     *
+     * @param stop condition for the first element that should not be returned
+     * @return the elements
+     */
+    public List<T> readLatest(Predicate<T> stop) {
+        long end = nextSequence.get();
+        long start = Math.max(0, end - capacity);
+        List<T> result = new ArrayList<>();
+
+        for (long current = end - 1; current >= start; current--) {
+            Entry<T> entry = awaitEntry(current);
+            if (isPending(entry, current)) {
+                // Still being written, drop the newer elements so none is skipped, they will be read next time
+                result.clear();
+                continue;
+            }
+            if (entry.sequence > current) {
+                // Overwritten by a newer write, everything older is gone too
+                break;
+            }
+            if (entry.element == null) {
+                continue;
+            }
+            if (stop.test(entry.element)) {
+                break;
+            }
+            result.add(entry.element);
+        }
+
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Stores the entry in its slot unless a writer that wrapped around already stored a newer one there
+     */
+    protected void store(Entry<T> entry) {
+        int index = getIndex(entry.sequence);
+        Entry<T> current;
+        do {
+            current = entries.get(index);
+            if (current != null && current.sequence > entry.sequence) {
+                return;
+            }
+        } while (!entries.compareAndSet(index, current, entry));
+    }
+
+    /**
+     * Returns the entry in the slot of the given sequence, waiting briefly if its writer hasn't stored it yet
+     */
+    protected Entry<T> awaitEntry(long sequence) {
+        Entry<T> entry = entries.get(getIndex(sequence));
+        for (int i = 0; i < PENDING_SPINS && isPending(entry, sequence); i++) {
+            Thread.onSpinWait();
+            entry = entries.get(getIndex(sequence));
+        }
+        return entry;
+    }
+
+    /**
+     * Indicates if the sequence was claimed by a writer that hasn't stored its entry yet, the slot is then either
+     * empty or still holds an entry from the previous pass
+     */
+    protected boolean isPending(Entry<T> entry, long sequence) {
+        return entry == null || entry.sequence < sequence;
+    }
+
+    protected int getIndex(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    protected static final class Entry<T> {
+
+        private final long sequence;
+        private final T element;
+
+        private Entry(long sequence, T element) {
+            this.sequence = sequence;
+            this.element = element;
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.utils.spring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.ThreadContext;
+import org.craftercms.studio.api.v2.service.site.SitesService;
+import org.craftercms.studio.impl.v2.service.monitor.internal.LogEventBufferAppender;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.beans.ConstructorProperties;
+
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+import static org.craftercms.studio.api.v1.constant.StudioConstants.API_REQUEST_PARAM_SITE;
+import static org.craftercms.studio.api.v1.constant.StudioConstants.API_REQUEST_PARAM_SITE_ID;
+import static org.craftercms.studio.impl.v2.service.monitor.internal.LogEventBufferAppender.SITE_CONTEXT_KEY;
+
+/**
+ * {@link HandlerInterceptor} that adds the site of the request to the log {@link ThreadContext}, so the events
+ * logged while handling it are assigned to the site by {@link LogEventBufferAppender}. Only existing sites are
+ * added, so requests with made up site ids can't create buffers in the appender.
+ *
+ * @since 4.2.0
+ */
+public class SiteLogContextInterceptor implements HandlerInterceptor {
+
+    private static final String[] SITE_PARAMS = {"siteId", API_REQUEST_PARAM_SITE_ID, API_REQUEST_PARAM_SITE};
+
+    protected final SitesService sitesService;
+    protected final LogEventBufferAppender logEventBuffer;
+
+    @ConstructorProperties({"sitesService", "logEventBuffer"})
+    public SiteLogContextInterceptor(SitesService sitesService, LogEventBufferAppender logEventBuffer) {
+        this.sitesService = sitesService;
+        this.logEventBuffer = logEventBuffer;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        for (String param : SITE_PARAMS) {
+            String siteId = request.getParameter(param);
+            if (isNotEmpty(siteId)) {
+                // Sites with a buffer already exist (buffers are dropped when the site is deleted), skip the query
+                if (logEventBuffer.hasBuffer(siteId) || sitesService.exists(siteId)) {
+                    ThreadContext.put(SITE_CONTEXT_KEY, siteId);
+                }
+                break;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        ThreadContext.remove(SITE_CONTEXT_KEY);
+    }
+
+}
@@ -146,6 +146,9 @@ public class ApiResponse {
             new ApiResponse(12007, "Remote repository authentication failed",
                     "Recreate the remote repository with the correct authentication credentials " +
                     "and make sure you have write access.", StringUtils.EMPTY);
+    public static final ApiResponse REMOTE_OPERATION_QUEUE_FULL =
+            new ApiResponse(12008, "Too many pending remote repository operations",
+                    "Wait for the pending pull and push operations to finish and try again.", StringUtils.EMPTY);
 
     // 40000 - 41000
     public static final ApiResponse MARKETPLACE_NOT_INITIALIZED =
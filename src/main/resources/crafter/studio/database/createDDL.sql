@@ -196,6 +196,7 @@ BEGIN
         DELETE FROM remote_repository WHERE site_id = siteId;
 
         -- audit log
+        DELETE ap FROM audit_parameters ap INNER JOIN audit a ON ap.audit_id = a.id WHERE a.site_id = id;
         DELETE FROM audit WHERE site_id = id;
     END IF;
 END ;
@@ -207,7 +208,7 @@ CREATE TABLE _meta (
   PRIMARY KEY (`version`)
 ) ;
 
-INSERT INTO _meta (version, studio_id) VALUES ('4.2.0.8', UUID()) ;
+INSERT INTO _meta (version, studio_id) VALUES ('4.2.0.10', UUID()) ;
 
 CREATE TABLE IF NOT EXISTS `audit` (
   `id`                        BIGINT(20)    NOT NULL AUTO_INCREMENT,
@@ -224,31 +225,40 @@ CREATE TABLE IF NOT EXISTS `audit` (
   `actor_details`             VARCHAR(255)  NULL,
   `cluster_node_id`           VARCHAR(255)  NULL,
   `commit_id`                 VARCHAR(50)   NULL,
-  PRIMARY KEY (`id`),
+  PRIMARY KEY (`id`, `operation_timestamp`),
   KEY `audit_actor_idx` (`actor_id`),
   KEY `audit_site_idx` (`site_id`),
+  KEY `audit_site_timestamp_idx` (`site_id`, `operation_timestamp`),
   KEY `audit_operation_idx` (`operation`),
   KEY `audit_origin_idx` (`origin`)
 )
   ENGINE = InnoDB
   DEFAULT CHARSET = utf8
-  ROW_FORMAT = DYNAMIC ;
+  ROW_FORMAT = DYNAMIC
+  -- Monthly partitions are created by the audit partition maintenance job
+  PARTITION BY RANGE (UNIX_TIMESTAMP(`operation_timestamp`)) (
+    PARTITION `p_future` VALUES LESS THAN MAXVALUE
+  ) ;
 
 CREATE TABLE IF NOT EXISTS `audit_parameters` (
     `id`                BIGINT(20) NOT NULL AUTO_INCREMENT,
     `audit_id`          BIGINT(20) NOT NULL,
+    `audit_timestamp`   TIMESTAMP  NOT NULL DEFAULT CURRENT_TIMESTAMP,
     `target_id`         VARCHAR(1024)  NOT NULL,
     `target_type`       VARCHAR(32)   NOT NULL,
     `target_value`      VARCHAR(1024)  NOT NULL,
-    PRIMARY KEY (`id`),
-    FOREIGN KEY `audit_parameters_ix_audit_id` (`audit_id`) REFERENCES `audit` (`id`)
-       ON DELETE CASCADE,
+    PRIMARY KEY (`id`, `audit_timestamp`),
+    KEY `audit_parameters_ix_audit_id` (`audit_id`),
     KEY `audit_parameters_target_id_idx` (`target_id`),
     KEY `audit_parameters_target_value_idx` (`target_value`)
     )
     ENGINE = InnoDB
     DEFAULT CHARSET = utf8
-    ROW_FORMAT = DYNAMIC ;
+    ROW_FORMAT = DYNAMIC
+    -- Partitioned like the audit table, partitioned tables can't have foreign keys
+    PARTITION BY RANGE (UNIX_TIMESTAMP(`audit_timestamp`)) (
+      PARTITION `p_future` VALUES LESS THAN MAXVALUE
+    ) ;
 
 CREATE TABLE IF NOT EXISTS `dependency` (
   `id`          BIGINT(20)  NOT NULL AUTO_INCREMENT,
@@ -312,6 +322,7 @@ CREATE TABLE IF NOT EXISTS `site` (
   `description`                     TEXT          NULL,
   `deleted`                         INT           NOT NULL DEFAULT 0,
   `last_commit_id`                  VARCHAR(50)   NULL,
+  `last_indexed_commit_id`          VARCHAR(50)   NULL,
   `system`                          INT           NOT NULL DEFAULT 0,
   `publishing_enabled`              INT           NOT NULL DEFAULT 1,
   `publishing_status`               VARCHAR(20)   NULL,
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+-- Partitioned tables can't have foreign keys, audit parameters are now deleted along with their audit entries.
+-- The constraint name was generated by the server, so look it up
+SET @auditParametersForeignKey = (SELECT `CONSTRAINT_NAME` FROM information_schema.REFERENTIAL_CONSTRAINTS
+    WHERE `CONSTRAINT_SCHEMA` = DATABASE() AND `TABLE_NAME` = 'audit_parameters' AND `REFERENCED_TABLE_NAME` = 'audit'
+    LIMIT 1) ;
+
+SET @dropAuditParametersForeignKey = IF(@auditParametersForeignKey IS NULL, 'SELECT 1',
+    CONCAT('ALTER TABLE `audit_parameters` DROP FOREIGN KEY `', @auditParametersForeignKey, '`')) ;
+PREPARE statement FROM @dropAuditParametersForeignKey ;
+EXECUTE statement ;
+DEALLOCATE PREPARE statement ;
+
+ALTER TABLE `audit_parameters`
+ADD COLUMN IF NOT EXISTS `audit_timestamp` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP AFTER `audit_id` ;
+
+-- Copy the timestamp of the entries in chunks, a single update of the whole table would hold its locks and undo
+-- log for as long as it takes
+DROP PROCEDURE IF EXISTS populateAuditParametersTimestamp ;
+
+CREATE PROCEDURE populateAuditParametersTimestamp()
+BEGIN
+    DECLARE chunkSize BIGINT DEFAULT 10000;
+    DECLARE chunkStart BIGINT;
+    DECLARE maxId BIGINT;
+
+    SELECT COALESCE(MIN(id), 1), COALESCE(MAX(id), 0) INTO chunkStart, maxId FROM audit_parameters;
+    WHILE chunkStart <= maxId DO
+        UPDATE audit_parameters ap INNER JOIN audit a ON ap.audit_id = a.id
+        SET ap.audit_timestamp = a.operation_timestamp
+        WHERE ap.id >= chunkStart AND ap.id < chunkStart + chunkSize;
+        COMMIT;
+        SET chunkStart = chunkStart + chunkSize;
+    END WHILE;
+END ;
+
+CALL populateAuditParametersTimestamp() ;
+
+DROP PROCEDURE IF EXISTS populateAuditParametersTimestamp ;
+
+-- Existing entries go to a single history partition ending at the start of the current month (UTC), monthly
+-- partitions from there on are created by the audit partition maintenance job
+SET @auditHistoryBound = UNIX_TIMESTAMP() - TIMESTAMPDIFF(SECOND, DATE_FORMAT(UTC_TIMESTAMP(), '%Y-%m-01'), UTC_TIMESTAMP()) ;
+
+-- The partitioning column must be part of every unique key. The keys and the partitions are changed in the same
+-- statement so each table is rebuilt only once
+SET @partitionAudit = CONCAT('ALTER TABLE `audit` ',
+    'DROP PRIMARY KEY, ',
+    'ADD PRIMARY KEY (`id`, `operation_timestamp`), ',
+    'ADD INDEX IF NOT EXISTS `audit_site_timestamp_idx` (`site_id`, `operation_timestamp`) ',
+    'PARTITION BY RANGE (UNIX_TIMESTAMP(`operation_timestamp`)) (',
+    'PARTITION `p_history` VALUES LESS THAN (', @auditHistoryBound, '), ',
+    'PARTITION `p_future` VALUES LESS THAN MAXVALUE)') ;
+PREPARE statement FROM @partitionAudit ;
+EXECUTE statement ;
+DEALLOCATE PREPARE statement ;
+
+SET @partitionAuditParameters = CONCAT('ALTER TABLE `audit_parameters` ',
+    'DROP PRIMARY KEY, ',
+    'ADD PRIMARY KEY (`id`, `audit_timestamp`) ',
+    'PARTITION BY RANGE (UNIX_TIMESTAMP(`audit_timestamp`)) (',
+    'PARTITION `p_history` VALUES LESS THAN (', @auditHistoryBound, '), ',
+    'PARTITION `p_future` VALUES LESS THAN MAXVALUE)') ;
+PREPARE statement FROM @partitionAuditParameters ;
+EXECUTE statement ;
+DEALLOCATE PREPARE statement ;
+
+-- Delete audit parameters explicitly now that there is no cascade
+DROP PROCEDURE IF EXISTS deleteSiteRelatedItems ;
+
+CREATE PROCEDURE deleteSiteRelatedItems(
+    IN siteId VARCHAR(50))
+BEGIN
+	DECLARE id BIGINT(20);
+
+    IF EXISTS (SELECT (1) FROM site WHERE site_id = siteId AND deleted = 0)
+    THEN
+		SELECT s.id into id
+		FROM site s
+		WHERE site_id = siteId AND deleted = 0;
+
+		-- Item will cascade delete workflow
+        DELETE FROM item WHERE site_id = id;
+
+        -- user_properties
+        DELETE FROM user_properties WHERE site_id = id;
+
+        -- dependencies
+        DELETE FROM dependency WHERE site = siteId;
+
+        -- deployment data
+        DELETE FROM publish_request WHERE site = siteId;
+
+        -- sequences
+        DELETE FROM navigation_order_sequence WHERE site = siteId;
+
+        -- remote repositories
+        DELETE FROM remote_repository WHERE site_id = siteId;
+
+        -- audit log
+        DELETE ap FROM audit_parameters ap INNER JOIN audit a ON ap.audit_id = a.id WHERE a.site_id = id;
+        DELETE FROM audit WHERE site_id = id;
+    END IF;
+END ;
+
+UPDATE `_meta` SET `version` = '4.2.0.10' ;
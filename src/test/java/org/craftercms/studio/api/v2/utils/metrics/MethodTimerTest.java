@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.api.v2.utils.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MethodTimerTest {
+
+    @Test
+    public void testCountersAndPercentiles() {
+        MethodTimer timer = new MethodTimer("test");
+        for (int i = 0; i < 90; i++) {
+            timer.record(TimeUnit.MILLISECONDS.toNanos(3), false);
+        }
+        for (int i = 0; i < 10; i++) {
+            timer.record(TimeUnit.MILLISECONDS.toNanos(400), true);
+        }
+
+        assertEquals(100, timer.getCount());
+        assertEquals(10, timer.getErrors());
+        assertEquals(400, timer.getMaxTime());
+        assertEquals(4270, timer.getTotalTime());
+        assertEquals(5, timer.getP50(), "Median should be in the 5ms bucket");
+        assertEquals(500, timer.getP95(), "95th percentile should be in the 500ms bucket");
+    }
+
+    @Test
+    public void testEmptyTimer() {
+        MethodTimer timer = new MethodTimer("test");
+
+        assertEquals(0, timer.getCount());
+        assertEquals(0, timer.getP99());
+        assertEquals(0, timer.getAverageTime());
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.impl.v1.image.transformation;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.craftercms.studio.api.v1.exception.ImageTransformationException;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.craftercms.studio.api.v2.utils.StudioUtils.getStudioTemporaryFilesRoot;
+import static org.testng.Assert.*;
+
+public class PooledImageTransformerTest {
+
+    private static final Map<String, String> PARAMS = Collections.singletonMap("options", "-resize 50%");
+
+    private Path tmpDir;
+    private Path counterFile;
+    private PooledImageTransformer transformer;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        if (!SystemUtils.IS_OS_LINUX) {
+            throw new SkipException("The fake ImageMagick binary requires Linux");
+        }
+        FileUtils.forceMkdir(getStudioTemporaryFilesRoot().toFile());
+        tmpDir = Files.createTempDirectory("pooled-image-transformer");
+        counterFile = tmpDir.resolve("counter");
+
+        // Fake convert binary: copies the source into the target (last arg) and records each execution
+        Path fakeBinary = tmpDir.resolve("fake-convert.sh");
+        Files.writeString(fakeBinary, "#!/bin/sh\n" +
+                "echo run >> " + counterFile + "\n" +
+                "for last; do true; done\n" +
+                "cp \"$1\" \"$last\"\n", StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(fakeBinary, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        ImageMagickTransformer imageMagickTransformer = new ImageMagickTransformer();
+        imageMagickTransformer.setImgMgkPath(fakeBinary.toString());
+
+        transformer = new PooledImageTransformer(imageMagickTransformer, 1, 1, 30, true, "maximumSize=10");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (transformer != null) {
+            transformer.destroy();
+        }
+        if (tmpDir != null) {
+            FileUtils.deleteQuietly(tmpDir.toFile());
+        }
+    }
+
+    @Test
+    public void testTransform() throws Exception {
+        Path source = createFile("source.jpg", "image");
+        Path target = tmpDir.resolve("target.jpg");
+
+        transformer.transform(source, target, PARAMS);
+
+        assertEquals(Files.readString(target), "image");
+        assertEquals(getExecutionCount(), 1);
+        assertEquals(transformer.getStatistics().get("completedTransforms"), 1L);
+    }
+
+    @Test
+    public void testIdenticalSourceIsServedFromCache() throws Exception {
+        transformer.transform(createFile("first.jpg", "image"), tmpDir.resolve("first-target.jpg"), PARAMS);
+        Path target = tmpDir.resolve("second-target.jpg");
+        transformer.transform(createFile("second.jpg", "image"), target, PARAMS);
+
+        assertEquals(Files.readString(target), "image");
+        assertEquals(getExecutionCount(), 1);
+        assertEquals(transformer.getStatistics().get("cacheHits"), 1L);
+    }
+
+    @Test
+    public void testFullQueueIsRejected() throws Exception {
+        Path slowBinary = tmpDir.resolve("slow-convert.sh");
+        Files.writeString(slowBinary, "#!/bin/sh\nsleep 2\n", StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(slowBinary, PosixFilePermissions.fromString("rwxr-xr-x"));
+        ImageMagickTransformer slowTransformer = new ImageMagickTransformer();
+        slowTransformer.setImgMgkPath(slowBinary.toString());
+        transformer.destroy();
+        transformer = new PooledImageTransformer(slowTransformer, 1, 1, 30, false, null);
+
+        // One running, one queued, the third one is rejected
+        transformer.transformAsync(createFile("a.jpg", "a"), tmpDir.resolve("a-out.jpg"), PARAMS);
+        transformer.transformAsync(createFile("b.jpg", "b"), tmpDir.resolve("b-out.jpg"), PARAMS);
+        assertThrows(ImageTransformationException.class,
+                () -> transformer.transformAsync(createFile("c.jpg", "c"), tmpDir.resolve("c-out.jpg"), PARAMS));
+    }
+
+    @Test
+    public void testTimedOutTransformationIsStopped() throws Exception {
+        Path slowBinary = tmpDir.resolve("slow-convert.sh");
+        Files.writeString(slowBinary, "#!/bin/sh\n" +
+                "sleep 5\n" +
+                "for last; do true; done\n" +
+                "cp \"$1\" \"$last\"\n", StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(slowBinary, PosixFilePermissions.fromString("rwxr-xr-x"));
+        ImageMagickTransformer slowTransformer = new ImageMagickTransformer();
+        slowTransformer.setImgMgkPath(slowBinary.toString());
+        transformer.destroy();
+        transformer = new PooledImageTransformer(slowTransformer, 1, 1, 1, false, null);
+
+        Path target = tmpDir.resolve("target.jpg");
+        assertThrows(ImageTransformationException.class,
+                () -> transformer.transform(createFile("source.jpg", "image"), target, PARAMS));
+
+        // The worker is interrupted and the process killed instead of running until it finishes
+        long deadline = System.currentTimeMillis() + 2000;
+        while ((int) transformer.getStatistics().get("activeWorkers") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(transformer.getStatistics().get("activeWorkers"), 0);
+        assertFalse(Files.exists(target));
+        try (var files = Files.list(tmpDir)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().startsWith("transforming")));
+        }
+    }
+
+    private Path createFile(String name, String content) throws Exception {
+        return Files.writeString(tmpDir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private int getExecutionCount() throws Exception {
+        File file = counterFile.toFile();
+        return file.exists() ? Files.readAllLines(counterFile).size() : 0;
+    }
+
+}
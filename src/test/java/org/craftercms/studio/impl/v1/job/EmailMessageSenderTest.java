@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v1.job;
+
+import org.craftercms.studio.api.v1.to.EmailMessageQueueTo;
+import org.craftercms.studio.api.v1.to.EmailMessageTO;
+import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.MAIL_FROM_DEFAULT;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.MAIL_SMTP_AUTH;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class EmailMessageSenderTest {
+
+    private SmtpStandIn smtp;
+    private EmailMessageSender sender;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        smtp = new SmtpStandIn();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        mailSender.setPort(smtp.getPort());
+
+        StudioConfiguration studioConfiguration = mock(StudioConfiguration.class);
+        when(studioConfiguration.getProperty(MAIL_SMTP_AUTH)).thenReturn("false");
+        when(studioConfiguration.getProperty(MAIL_FROM_DEFAULT)).thenReturn("studio@example.com");
+
+        sender = new EmailMessageSender();
+        sender.setEmailServiceNoAuth(mailSender);
+        sender.setStudioConfiguration(studioConfiguration);
+        sender.setEmailMessages(new EmailMessageQueueTo(10));
+        sender.setPollInterval(1);
+        sender.setRetryDelay(1);
+        sender.setMaxRetries(2);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        sender.shutdown();
+        smtp.close();
+    }
+
+    @Test
+    public void testEmailsAreBatchedByRecipient() {
+        sender.sendEmails(Arrays.asList(
+                email("first", "author@example.com"),
+                email("no recipient", null),
+                email("second", "author@example.com"),
+                email("third", "reviewer@example.com")));
+
+        assertEquals(smtp.received.size(), 3);
+        assertTrue(smtp.received.get(0).contains("Subject: first"));
+        assertTrue(smtp.received.get(1).contains("Subject: second"));
+        assertTrue(smtp.received.get(2).contains("Subject: third"));
+        // One connection per recipient, the email without a recipient is dropped
+        assertEquals(smtp.connections.get(), 2);
+    }
+
+    @Test
+    public void testFailedEmailIsRetriedAfterDelay() {
+        smtp.failures.set(1);
+        EmailMessageTO emailMessage = email("Review $title", "author@example.com");
+        emailMessage.setTitle("Price $title");
+
+        long before = System.currentTimeMillis();
+        sender.sendEmails(List.of(emailMessage));
+        long after = System.currentTimeMillis();
+
+        assertTrue(smtp.received.isEmpty());
+        assertEquals(emailMessage.getAttempts(), 1);
+        assertTrue(emailMessage.getNextAttemptTime() >= before + 1000);
+        assertTrue(emailMessage.getNextAttemptTime() <= after + 1000);
+        // Not retried before the delay expires
+        assertTrue(sender.getDueRetries(before).isEmpty());
+        assertTrue(sender.getWaitTime(before) > 0);
+        assertTrue(sender.getWaitTime(before) <= 1000);
+
+        List<EmailMessageTO> due = sender.getDueRetries(emailMessage.getNextAttemptTime());
+        assertEquals(due, List.of(emailMessage));
+        sender.sendEmails(due);
+
+        assertEquals(smtp.received.size(), 1);
+        // The keywords are only replaced once, even though the email went through the sender twice
+        assertTrue(smtp.received.get(0).contains("Subject: Review Price $title"));
+    }
+
+    @Test
+    public void testRetryDelayDoublesUntilGivingUp() {
+        smtp.failures.set(Integer.MAX_VALUE);
+        EmailMessageTO emailMessage = email("failing", "author@example.com");
+
+        long before = System.currentTimeMillis();
+        sender.sendEmails(List.of(emailMessage));
+        assertTrue(emailMessage.getNextAttemptTime() - before >= 1000);
+
+        before = System.currentTimeMillis();
+        sender.sendEmails(sender.getDueRetries(emailMessage.getNextAttemptTime()));
+        assertEquals(emailMessage.getAttempts(), 2);
+        assertTrue(emailMessage.getNextAttemptTime() - before >= 2000);
+
+        sender.sendEmails(sender.getDueRetries(emailMessage.getNextAttemptTime()));
+        assertEquals(emailMessage.getAttempts(), 2);
+        assertTrue(sender.retries.isEmpty());
+        assertEquals(smtp.attempts.get(), 3);
+    }
+
+    @Test
+    public void testSenderThreadRetriesQueuedEmail() throws Exception {
+        smtp.failures.set(1);
+        sender.initThread();
+
+        long start = System.currentTimeMillis();
+        assertTrue(sender.emailMessages.addEmailMessage(email("queued", "author@example.com")));
+        for (int i = 0; i < 100 && smtp.received.isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+
+        assertFalse(smtp.received.isEmpty(), "The email was not retried");
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+        assertEquals(smtp.attempts.get(), 2);
+    }
+
+    private EmailMessageTO email(String subject, String to) {
+        return new EmailMessageTO(subject, "<p>" + subject + "</p>", to);
+    }
+
+    /**
+     * Minimal SMTP server that records the messages it receives and can reject the first ones
+     */
+    private static class SmtpStandIn implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger connections = new AtomicInteger();
+
+        SmtpStandIn() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(this::serve, "smtp-stand-in");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void serve() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    converse(socket);
+                } catch (IOException e) {
+                    // Closed by the test or the client
+                }
+            }
+        }
+
+        private void converse(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), US_ASCII);
+            reply(out, "220 localhost SMTP stand-in");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase(Locale.ROOT);
+                if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        data.append(line.startsWith("..") ? line.substring(1) : line).append('\n');
+                    }
+                    attempts.incrementAndGet();
+                    if (failures.getAndDecrement() > 0) {
+                        reply(out, "451 Try again later");
+                    } else {
+                        received.add(data.toString());
+                        reply(out, "250 OK");
+                    }
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    // EHLO, MAIL, RCPT, RSET and NOOP are all accepted
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private void reply(Writer out, String reply) throws IOException {
+            out.write(reply + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v1.script;
+
+import groovy.lang.Script;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+
+public class GroovyScriptExecutorTest {
+
+    private static final String SITE = "my_test_site";
+
+    private GroovyScriptExecutor executor;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = new GroovyScriptExecutor();
+        executor.setScriptsClassPath(List.of());
+        executor.setScriptCacheConfig("expireAfterAccess=1h");
+    }
+
+    @Test
+    public void testRedefinedScriptChangesBehavior() throws Exception {
+        // A changed script gets a new blob id
+        assertEquals(execute("blob1", "result.value = 'first'"), "first");
+        assertEquals(execute("blob2", "result.value = 'second'"), "second");
+        // The compiled class is reused for the same blob id
+        assertEquals(execute("blob1", "result.value = 'ignored'"), "first");
+
+        assertNotSame(executor.scriptCache.getIfPresent(SITE + ":blob1"),
+                executor.scriptCache.getIfPresent(SITE + ":blob2"));
+    }
+
+    @Test
+    public void testEvictedScriptIsReleased() throws Exception {
+        execute("blob1", "result.value = 'first'");
+        WeakReference<Class<? extends Script>> scriptClass =
+                new WeakReference<>(executor.scriptCache.getIfPresent(SITE + ":blob1"));
+        assertNotNull(scriptClass.get());
+
+        executor.scriptCache.invalidateAll();
+
+        for (int i = 0; i < 50 && scriptClass.get() != null; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertNull(scriptClass.get(), "The evicted script class is still reachable");
+    }
+
+    @Test
+    public void testConfiguredSizeLimitEvictsScripts() throws Exception {
+        executor.setScriptCacheConfig("maximumSize=1");
+        execute("blob1", "result.value = 'first'");
+        execute("blob2", "result.value = 'second'");
+
+        assertNull(executor.scriptCache.getIfPresent(SITE + ":blob1"));
+    }
+
+    private Object execute(String scriptId, String script) throws Exception {
+        Map<String, Object> result = new HashMap<>();
+        Map<String, Object> model = new HashMap<>();
+        model.put("result", result);
+        executor.executeScript(SITE, scriptId, () -> script, model);
+        return result.get("value");
+    }
+}
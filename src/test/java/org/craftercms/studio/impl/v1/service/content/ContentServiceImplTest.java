@@ -18,9 +18,21 @@
 
 package org.craftercms.studio.impl.v1.service.content;
 
+import org.apache.commons.io.FilenameUtils;
 import org.craftercms.studio.api.v1.exception.ServiceLayerException;
 import org.craftercms.studio.api.v1.repository.ContentRepository;
 import org.craftercms.studio.api.v1.repository.RepositoryItem;
+import org.craftercms.studio.api.v1.service.GeneralLockService;
+import org.craftercms.studio.api.v1.service.configuration.ServicesConfig;
+import org.craftercms.studio.api.v1.to.ContentItemTO;
+import org.craftercms.studio.api.v2.dal.Item;
+import org.craftercms.studio.api.v2.exception.validation.ValidationException;
+import org.craftercms.studio.api.v2.service.item.internal.ItemServiceInternal;
+import org.craftercms.studio.api.v2.service.policy.PolicyService;
+import org.craftercms.studio.model.clipboard.PasteItem;
+import org.craftercms.studio.model.policy.Action;
+import org.craftercms.studio.model.policy.ValidationResult;
+import org.craftercms.studio.model.rest.Person;
 import org.dom4j.DocumentException;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -31,6 +43,20 @@ import java.io.IOException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -181,4 +207,120 @@ public class ContentServiceImplTest {
         assertEquals("style-copy-3", pathMap.fileName, "File name is not the expected");
         assertEquals("health", pathMap.fileFolder, "File folder is not the expected");
     }
+
+    @Test(testName = "Copy tree is rejected when the policy denies a child")
+    public void testCopyContentTreeDeniedChild() throws Exception {
+        ContentRepository repository = mock(ContentRepository.class);
+        PolicyService policyService = mock(PolicyService.class);
+        ContentServiceImpl service = createTreeCopyService(repository, policyService);
+        when(policyService.validate(eq(SITE), anyList())).thenAnswer(invocation -> {
+            List<Action> actions = invocation.getArgument(1);
+            return actions.stream()
+                    .map(action -> action.getSource().endsWith("denied.png") ?
+                            ValidationResult.notAllowed(action) : ValidationResult.allowed(action))
+                    .toList();
+        });
+
+        PasteItem allowed = getPasteItem("/static-assets/folder/allowed.png");
+        PasteItem denied = getPasteItem("/static-assets/folder/denied.png");
+
+        assertThrows(ValidationException.class, () -> service.copyContentTree(SITE, "/static-assets/folder",
+                "/static-assets/target", List.of(allowed, denied)));
+        verify(service, never()).writeCopyPlan(anyString(), anyString(), anyString(), any());
+        verify(repository, never()).writeContents(anyString(), any(), any(), any());
+    }
+
+    @Test(testName = "Copy tree applies the policy modifications to the children")
+    public void testCopyContentTreeModifiedChild() throws Exception {
+        ContentRepository repository = mock(ContentRepository.class);
+        PolicyService policyService = mock(PolicyService.class);
+        ContentServiceImpl service = createTreeCopyService(repository, policyService);
+        when(policyService.validate(eq(SITE), anyList())).thenAnswer(invocation -> {
+            List<Action> actions = invocation.getArgument(1);
+            return actions.stream()
+                    .map(action -> ValidationResult.allowedWithModifications(action, "/static-assets/renamed"))
+                    .toList();
+        });
+
+        List<String> copiedPaths = service.copyContentTree(SITE, "/static-assets/folder", "/static-assets/target",
+                List.of(getPasteItem("/static-assets/folder/image.png")));
+
+        verify(service).planCopy(eq(SITE), eq("/static-assets/folder/image.png"), eq("/static-assets/renamed"),
+                any());
+        assertEquals(List.of("/static-assets/renamed/image.png", "/static-assets/target/folder"), copiedPaths);
+        verify(service).writeCopyPlan(eq(SITE), eq("/static-assets/target"), eq("/static-assets/target/folder"),
+                any());
+    }
+
+    @Test(testName = "Content items are loaded with a single bulk query")
+    public void testGetContentItemsUsesBulkQuery() {
+        String pagePath = "/site/website/articles/index.xml";
+        String missingPath = "/site/website/missing/index.xml";
+        String assetPath = "/static-assets/images/logo.png";
+        List<String> paths = List.of(pagePath, missingPath, assetPath);
+
+        ItemServiceInternal itemServiceInternal = mock(ItemServiceInternal.class);
+        // The query does not return the items in the requested order
+        when(itemServiceInternal.getItems(SITE, paths)).thenReturn(List.of(
+                getItem(assetPath, null, null, null),
+                getItem(pagePath, "Articles", "/page/article", "jdoe")));
+        ContentServiceImpl service = spy(new ContentServiceImpl());
+        service.setItemServiceInternal(itemServiceInternal);
+        service.setServicesConfig(mock(ServicesConfig.class));
+        ContentItemTO missingItem = new ContentItemTO();
+        missingItem.uri = missingPath;
+        doReturn(missingItem).when(service).getContentItem(SITE, missingPath, 0);
+
+        List<ContentItemTO> items = service.getContentItems(SITE, paths);
+
+        assertEquals(paths.size(), items.size(), "Every path should have a content item");
+        assertEquals(pagePath, items.get(0).getUri());
+        assertEquals("Articles", items.get(0).getInternalName());
+        assertEquals("/page/article", items.get(0).getContentType());
+        assertEquals("jdoe", items.get(0).getLockOwner());
+        assertEquals(missingItem, items.get(1), "Missing items should be loaded one by one");
+        assertEquals(assetPath, items.get(2).getUri());
+        assertEquals("logo.png", items.get(2).getInternalName());
+        assertEquals("", items.get(2).getLockOwner());
+        verify(itemServiceInternal, times(1)).getItems(SITE, paths);
+        verify(service, times(1)).getContentItem(anyString(), anyString(), anyInt());
+    }
+
+    private Item getItem(String path, String label, String contentTypeId, String lockOwner) {
+        Item item = new Item();
+        item.setPath(path);
+        item.setLabel(label);
+        item.setContentTypeId(contentTypeId);
+        if (lockOwner != null) {
+            Person person = new Person();
+            person.setUsername(lockOwner);
+            item.setLockOwner(person);
+        }
+        return item;
+    }
+
+    private ContentServiceImpl createTreeCopyService(ContentRepository repository, PolicyService policyService)
+            throws ServiceLayerException {
+        ContentServiceImpl service = spy(new ContentServiceImpl());
+        service.setContentRepository(repository);
+        service.setPolicyService(policyService);
+        service.setGeneralLockService(mock(GeneralLockService.class));
+        // Plan every item as copied into the target folder, and skip writing the plan
+        doAnswer(invocation -> {
+            String fromPath = invocation.getArgument(1);
+            String toPath = invocation.getArgument(2);
+            ContentServiceImpl.CopyPlan plan = invocation.getArgument(3);
+            String copyPath = toPath + "/" + FilenameUtils.getName(fromPath);
+            plan.add(new ContentServiceImpl.PlannedCopy(fromPath, copyPath));
+            return copyPath;
+        }).when(service).planCopy(eq(SITE), anyString(), anyString(), any());
+        doNothing().when(service).writeCopyPlan(anyString(), anyString(), anyString(), any());
+        return service;
+    }
+
+    private PasteItem getPasteItem(String path) {
+        PasteItem item = new PasteItem();
+        item.setPath(path);
+        return item;
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v1.service.content;
+
+import org.craftercms.studio.api.v1.dal.NavigationOrderSequence;
+import org.craftercms.studio.api.v1.dal.NavigationOrderSequenceMapper;
+import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.craftercms.studio.impl.v2.dal.RetryingDatabaseOperationFacadeImpl;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.PAGE_NAVIGATION_ORDER_INCREMENT;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.PAGE_NAVIGATION_ORDER_RESERVATION_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DmPageNavigationOrderServiceImplTest {
+
+    private static final String SITE = "site1";
+    private static final String PATH = "/site/website/articles";
+    private static final int INCREMENT = 1000;
+    private static final int RESERVATION_SIZE = 3;
+    private static final double CURRENT_MAX_NAV_ORDER = 5000;
+
+    @Mock
+    private NavigationOrderSequenceMapper navigationOrderSequenceMapper;
+    @Mock
+    private StudioConfiguration studioConfiguration;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private AutoCloseable mocks;
+    private DmPageNavigationOrderServiceImpl navigationOrderService;
+
+    /**
+     * Row of the sequence table for the folder
+     */
+    private NavigationOrderSequence storedSequence;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        storedSequence = null;
+
+        when(studioConfiguration.getProperty(PAGE_NAVIGATION_ORDER_INCREMENT)).thenReturn(String.valueOf(INCREMENT));
+        when(studioConfiguration.getProperty(PAGE_NAVIGATION_ORDER_RESERVATION_SIZE))
+                .thenReturn(String.valueOf(RESERVATION_SIZE));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(mock(TransactionStatus.class));
+        });
+
+        // Same behavior as the database
+        doAnswer(invocation -> {
+            storedSequence = copy(invocation.getArgument(0));
+            return null;
+        }).when(navigationOrderSequenceMapper).insert(any());
+        doAnswer(invocation -> {
+            Map<String, Object> params = invocation.getArgument(0);
+            storedSequence.setMaxCount(storedSequence.getMaxCount() + (double) params.get("amount"));
+            return null;
+        }).when(navigationOrderSequenceMapper).increment(anyMap());
+        when(navigationOrderSequenceMapper.getPageNavigationOrderForFolder(anyMap()))
+                .thenAnswer(invocation -> copy(storedSequence));
+        when(navigationOrderSequenceMapper.getPageNavigationOrderForSiteAndPath(anyMap()))
+                .thenAnswer(invocation -> copy(storedSequence));
+
+        navigationOrderService = new DmPageNavigationOrderServiceImpl();
+        navigationOrderService.setNavigationOrderSequenceMapper(navigationOrderSequenceMapper);
+        navigationOrderService.setStudioConfiguration(studioConfiguration);
+        navigationOrderService.setTransactionTemplate(transactionTemplate);
+        navigationOrderService.setRetryingDatabaseOperationFacade(new RetryingDatabaseOperationFacadeImpl());
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    public void testValuesWithinReservationAreUniqueAndIncreasing() {
+        List<Double> values = getNewNavOrders(RESERVATION_SIZE);
+
+        assertEquals(List.of(6000D, 7000D, 8000D), values);
+        // The whole block was reserved with the first value
+        verify(navigationOrderSequenceMapper).insert(any());
+        verify(navigationOrderSequenceMapper, never()).increment(anyMap());
+        verify(transactionTemplate, times(1)).execute(any());
+        assertEquals(8000D, storedSequence.getMaxCount());
+    }
+
+    @Test
+    public void testExhaustedReservationIsRenewedOnce() {
+        getNewNavOrders(RESERVATION_SIZE);
+
+        List<Double> values = getNewNavOrders(RESERVATION_SIZE);
+
+        assertEquals(List.of(9000D, 10000D, 11000D), values);
+        verify(navigationOrderSequenceMapper).insert(any());
+        verify(navigationOrderSequenceMapper, times(1)).increment(anyMap());
+        verify(transactionTemplate, times(2)).execute(any());
+        assertEquals(11000D, storedSequence.getMaxCount());
+    }
+
+    @Test
+    public void testValuesAreIncreasingAcrossReservations() {
+        List<Double> values = getNewNavOrders(RESERVATION_SIZE * 4 + 1);
+
+        for (int i = 1; i < values.size(); i++) {
+            assertTrue(values.get(i) > values.get(i - 1), "Values must increase: " + values);
+        }
+        // One insert and one increment for each additional block
+        verify(navigationOrderSequenceMapper).insert(any());
+        verify(navigationOrderSequenceMapper, times(4)).increment(anyMap());
+    }
+
+    @Test
+    public void testDeletedSequencesAreReservedAgain() {
+        getNewNavOrders(1);
+
+        navigationOrderService.deleteSequencesForSite(SITE);
+        storedSequence = null;
+
+        assertEquals(List.of(6000D), getNewNavOrders(1));
+        verify(navigationOrderSequenceMapper, times(2)).insert(any());
+    }
+
+    private List<Double> getNewNavOrders(int count) {
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(navigationOrderService.getNewNavOrder(SITE, PATH, CURRENT_MAX_NAV_ORDER));
+        }
+        return values;
+    }
+
+    private NavigationOrderSequence copy(NavigationOrderSequence sequence) {
+        if (sequence == null) {
+            return null;
+        }
+        NavigationOrderSequence copy = new NavigationOrderSequence();
+        copy.setFolderId(sequence.getFolderId());
+        copy.setSite(sequence.getSite());
+        copy.setPath(sequence.getPath());
+        copy.setMaxCount(sequence.getMaxCount());
+        return copy;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v1.service.deployment;
+
+import org.craftercms.studio.api.v1.service.configuration.ServicesConfig;
+import org.craftercms.studio.api.v1.service.content.ContentService;
+import org.craftercms.studio.api.v1.service.security.SecurityService;
+import org.craftercms.studio.api.v1.to.ContentItemTO;
+import org.craftercms.studio.api.v1.util.DmContentItemComparator;
+import org.craftercms.studio.api.v2.dal.PublishRequest;
+import org.craftercms.studio.api.v2.dal.PublishRequestDAO;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.craftercms.studio.api.v1.constant.StudioConstants.PERMISSION_VALUE_PUBLISH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeploymentServiceImplTest {
+
+    private static final String SITE = "site1";
+    private static final String USER = "admin";
+    private static final String HOME_PATH = "/site/website/index.xml";
+    private static final String ARTICLE_PATH = "/site/website/articles/index.xml";
+    private static final String HIDDEN_PATH = "/site/website/hidden/index.xml";
+    private static final String LIVE = "live";
+    private static final String STAGING = "staging";
+
+    @Mock
+    private ServicesConfig servicesConfig;
+    @Mock
+    private ContentService contentService;
+    @Mock
+    private SecurityService securityService;
+    @Mock
+    private PublishRequestDAO publishRequestDAO;
+
+    @InjectMocks
+    private DeploymentServiceImpl deploymentService;
+
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test(testName = "Scheduled items are loaded with a single bulk query")
+    public void testScheduledItemsUseBulkQuery() {
+        ZonedDateTime date = ZonedDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+        // The home page is scheduled for both targets, so it is requested only once
+        when(publishRequestDAO.getScheduledItems(eq(SITE), anyString(), any(), any())).thenReturn(List.of(
+                getPublishRequest(HOME_PATH, LIVE, date),
+                getPublishRequest(ARTICLE_PATH, LIVE, date.plusHours(1)),
+                getPublishRequest(HOME_PATH, STAGING, date.plusHours(2)),
+                getPublishRequest(HIDDEN_PATH, LIVE, date.plusHours(3))));
+        when(securityService.getCurrentUser()).thenReturn(USER);
+        when(securityService.getUserPermissions(eq(SITE), anyString(), eq(USER), anyList()))
+                .thenReturn(Set.of(PERMISSION_VALUE_PUBLISH));
+        when(securityService.getUserPermissions(eq(SITE), eq(HIDDEN_PATH), eq(USER), anyList()))
+                .thenReturn(Set.of());
+        when(servicesConfig.getDisplayInWidgetPathPatterns(SITE)).thenReturn(List.of("/site/website/.*"));
+        when(servicesConfig.getDefaultTimezone(SITE)).thenReturn("UTC");
+        when(contentService.getContentItems(SITE, List.of(HOME_PATH, ARTICLE_PATH)))
+                .thenReturn(List.of(getContentItem(HOME_PATH), getContentItem(ARTICLE_PATH)));
+
+        DmContentItemComparator comparator =
+                new DmContentItemComparator(DmContentItemComparator.SORT_EVENT_DATE, true, true, true);
+        List<ContentItemTO> results =
+                deploymentService.getScheduledItems(SITE, comparator, comparator, "all");
+
+        assertEquals(3, results.size(), "Every visible request should be grouped under its own date");
+        ContentItemTO home = results.get(0).getChildren().get(0);
+        ContentItemTO article = results.get(1).getChildren().get(0);
+        ContentItemTO stagingHome = results.get(2).getChildren().get(0);
+        assertEquals(HOME_PATH, home.getUri());
+        assertEquals(LIVE, home.getEnvironment());
+        assertEquals(ARTICLE_PATH, article.getUri());
+        assertEquals(LIVE, article.getEnvironment());
+        assertEquals(HOME_PATH, stagingHome.getUri());
+        assertEquals(STAGING, stagingHome.getEnvironment());
+        assertNotSame(home, stagingHome, "Each request should get its own copy of the item");
+        verify(contentService).getContentItems(SITE, List.of(HOME_PATH, ARTICLE_PATH));
+        verify(contentService, never()).getContentItem(anyString(), anyString(), anyInt());
+    }
+
+    private PublishRequest getPublishRequest(String path, String environment, ZonedDateTime scheduledDate) {
+        PublishRequest request = new PublishRequest();
+        request.setPath(path);
+        request.setEnvironment(environment);
+        request.setScheduledDate(scheduledDate);
+        request.setPackageId(environment + path);
+        return request;
+    }
+
+    private ContentItemTO getContentItem(String path) {
+        ContentItemTO item = new ContentItemTO();
+        item.uri = path;
+        item.internalName = path;
+        return item;
+    }
+}
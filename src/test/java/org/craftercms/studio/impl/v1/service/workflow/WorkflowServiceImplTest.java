@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v1.service.workflow;
+
+import org.craftercms.studio.api.v1.service.dependency.DependencyService;
+import org.craftercms.studio.api.v1.service.security.SecurityService;
+import org.craftercms.studio.api.v2.dal.Item;
+import org.craftercms.studio.api.v2.event.workflow.WorkflowEvent;
+import org.craftercms.studio.api.v2.service.content.internal.ContentServiceInternal;
+import org.craftercms.studio.api.v2.service.item.internal.ItemServiceInternal;
+import org.craftercms.studio.api.v2.service.workflow.internal.WorkflowServiceInternal;
+import org.craftercms.studio.model.rest.content.SandboxItem;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.craftercms.studio.api.v2.dal.ItemState.IN_WORKFLOW;
+import static org.craftercms.studio.api.v2.dal.ItemState.MODIFIED;
+import static org.craftercms.studio.api.v2.dal.ItemState.SCHEDULED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class WorkflowServiceImplTest {
+
+    private static final String SITE = "site1";
+    private static final String PAGE_PATH = "/site/website/index.xml";
+    private static final String COMPONENT_PATH = "/site/components/header.xml";
+    private static final String DEPENDENCY_PATH = "/static-assets/images/logo.png";
+    private static final String UNCHANGED_DEPENDENCY_PATH = "/static-assets/css/main.css";
+
+    @Mock
+    private ItemServiceInternal itemServiceInternal;
+    @Mock
+    private DependencyService dependencyService;
+    @Mock
+    private ContentServiceInternal contentServiceInternal;
+    @Mock
+    private WorkflowServiceInternal workflowServiceInternal;
+    @Mock
+    private SecurityService securityService;
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @InjectMocks
+    private WorkflowServiceImpl workflowService;
+
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    public void testCancelWorkflowForSeveralItemsPublishesOneEvent() throws Exception {
+        when(itemServiceInternal.getItems(eq(SITE), anyList())).thenReturn(List.of(
+                createItem(PAGE_PATH, IN_WORKFLOW.value),
+                createItem(COMPONENT_PATH, SCHEDULED.value)));
+        when(dependencyService.getPublishingDependencies(eq(SITE), anyList()))
+                .thenReturn(List.of(DEPENDENCY_PATH, UNCHANGED_DEPENDENCY_PATH));
+        when(contentServiceInternal.getSandboxItemsByPath(eq(SITE), anyList(), eq(true))).thenReturn(List.of(
+                createSandboxItem(PAGE_PATH, IN_WORKFLOW.value),
+                createSandboxItem(COMPONENT_PATH, SCHEDULED.value),
+                createSandboxItem(DEPENDENCY_PATH, IN_WORKFLOW.value),
+                createSandboxItem(UNCHANGED_DEPENDENCY_PATH, MODIFIED.value)));
+
+        workflowService.cleanUrisFromWorkflow(new LinkedHashSet<>(Set.of(PAGE_PATH, COMPONENT_PATH)), SITE);
+
+        // All the affected items are cancelled with a single call, dependencies not in workflow are left alone
+        ArgumentCaptor<List<String>> paths = ArgumentCaptor.forClass(List.class);
+        verify(workflowServiceInternal).cancelWorkflow(eq(SITE), paths.capture());
+        assertEquals(Set.of(PAGE_PATH, COMPONENT_PATH, DEPENDENCY_PATH), Set.copyOf(paths.getValue()));
+        assertEquals(3, paths.getValue().size());
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(applicationContext).publishEvent(event.capture());
+        verifyNoMoreInteractions(applicationContext);
+        assertTrue(event.getValue() instanceof WorkflowEvent);
+    }
+
+    @Test
+    public void testNothingIsCancelledForItemsNotInWorkflow() throws Exception {
+        when(itemServiceInternal.getItems(eq(SITE), anyList()))
+                .thenReturn(List.of(createItem(PAGE_PATH, MODIFIED.value)));
+
+        workflowService.cleanUrisFromWorkflow(Set.of(PAGE_PATH), SITE);
+
+        verify(workflowServiceInternal, never()).cancelWorkflow(any(), any());
+        verifyNoInteractions(applicationContext);
+    }
+
+    private Item createItem(String path, long state) {
+        Item item = new Item();
+        item.setPath(path);
+        item.setState(state);
+        return item;
+    }
+
+    private SandboxItem createSandboxItem(String path, long state) {
+        SandboxItem item = new SandboxItem();
+        item.setPath(path);
+        item.setState(state);
+        return item;
+    }
+}
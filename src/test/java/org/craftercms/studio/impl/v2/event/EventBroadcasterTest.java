@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.event;
+
+import org.craftercms.studio.api.v2.event.BatchBroadcastEvent;
+import org.craftercms.studio.api.v2.event.BroadcastEvent;
+import org.craftercms.studio.api.v2.event.SiteBroadcastEvent;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.craftercms.studio.impl.v2.event.EventBroadcaster.DESTINATION_ROOT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class EventBroadcasterTest {
+
+    private static final String SITE = "site";
+    private static final String DESTINATION = DESTINATION_ROOT + "/" + SITE;
+
+    private final List<SentFrame> sentFrames = new CopyOnWriteArrayList<>();
+    private EventBroadcaster eventBroadcaster;
+
+    @After
+    public void tearDown() throws Exception {
+        if (eventBroadcaster != null) {
+            eventBroadcaster.destroy();
+        }
+    }
+
+    @Test
+    public void testEventsAreSentRightAwayWhenBatchingIsDisabled() {
+        createBroadcaster(false, 500, 500);
+
+        eventBroadcaster.publishSiteEvent(new TestEvent("1", "a"));
+        eventBroadcaster.publishSiteEvent(new TestEvent("2", "a"));
+
+        assertEquals(List.of("1", "2"), getSentIds());
+        assertEquals(DESTINATION, sentFrames.get(0).destination);
+    }
+
+    @Test
+    public void testBufferedEventsAreCoalescedAndSentInOrder() {
+        // The window is long enough that only the test flushes the buffers
+        createBroadcaster(true, 60_000, 500);
+
+        eventBroadcaster.publishSiteEvent(new TestEvent("1", "a"));
+        eventBroadcaster.publishSiteEvent(new TestEvent("2", null));
+        eventBroadcaster.publishSiteEvent(new TestEvent("3", "a"));
+        eventBroadcaster.publishSiteEvent(new TestEvent("4", "b"));
+        assertTrue(sentFrames.isEmpty());
+
+        eventBroadcaster.flushAll();
+
+        assertEquals(1, sentFrames.size());
+        assertTrue(sentFrames.get(0).event instanceof BatchBroadcastEvent);
+        // The first 'a' event is replaced by the latest one, which takes its position
+        assertEquals(List.of("2", "3", "4"), getSentIds());
+    }
+
+    @Test
+    public void testFullBuffersAreFlushedInOrderByTheFlushThread() throws Exception {
+        createBroadcaster(true, 60_000, 10);
+
+        IntStream.range(0, 100).forEach(i -> eventBroadcaster.publishSiteEvent(new TestEvent(String.valueOf(i), null)));
+        waitForEvents(10);
+        assertTrue(sentFrames.stream().allMatch(frame -> frame.thread.equals("event-broadcaster")));
+
+        // Send whatever is left in the buffer
+        eventBroadcaster.destroy();
+
+        assertEquals(IntStream.range(0, 100).mapToObj(String::valueOf).collect(toList()), getSentIds());
+    }
+
+    @Test
+    public void testBufferedEventsAreSentOnDestroy() throws Exception {
+        createBroadcaster(true, 60_000, 500);
+        eventBroadcaster.publishSiteEvent(new TestEvent("1", null));
+        eventBroadcaster.publishSiteEvent(new TestEvent("2", null));
+
+        eventBroadcaster.destroy();
+
+        assertEquals(List.of("1", "2"), getSentIds());
+        assertTrue(eventBroadcaster.flushExecutor.isTerminated());
+    }
+
+    private void createBroadcaster(boolean batchEnabled, long batchWindow, int batchMaxSize) {
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            sentFrames.add(new SentFrame(invocation.getArgument(0), invocation.getArgument(1),
+                    Thread.currentThread().getName()));
+            return null;
+        }).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+
+        eventBroadcaster = new EventBroadcaster();
+        eventBroadcaster.messagingTemplate = messagingTemplate;
+        eventBroadcaster.setBatchEnabled(batchEnabled);
+        eventBroadcaster.setBatchWindow(batchWindow);
+        eventBroadcaster.setBatchMaxSize(batchMaxSize);
+        eventBroadcaster.afterPropertiesSet();
+    }
+
+    private void waitForEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (getSentIds().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Returns the ids of all the events sent, unwrapping the batches
+     */
+    private List<String> getSentIds() {
+        return sentFrames.stream()
+                .flatMap(frame -> frame.event instanceof BatchBroadcastEvent ?
+                        ((BatchBroadcastEvent) frame.event).getEvents().stream() : Stream.of(frame.event))
+                .map(event -> ((TestEvent) event).id)
+                .collect(toList());
+    }
+
+    private static class SentFrame {
+
+        private final String destination;
+        private final BroadcastEvent event;
+        private final String thread;
+
+        private SentFrame(String destination, BroadcastEvent event, String thread) {
+            this.destination = destination;
+            this.event = event;
+            this.thread = thread;
+        }
+
+    }
+
+    private static class TestEvent implements SiteBroadcastEvent {
+
+        private final String id;
+        private final String coalescingKey;
+
+        private TestEvent(String id, String coalescingKey) {
+            this.id = id;
+            this.coalescingKey = coalescingKey;
+        }
+
+        @Override
+        public String getSiteId() {
+            return SITE;
+        }
+
+        @Override
+        public String getEventType() {
+            return "TEST_EVENT";
+        }
+
+        @Override
+        public String getCoalescingKey() {
+            return coalescingKey;
+        }
+
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.craftercms.studio.impl.v2.job;
+
+import org.craftercms.studio.api.v1.service.GeneralLockService;
+import org.craftercms.studio.api.v1.service.site.SiteService;
+import org.craftercms.studio.api.v2.deployment.SearchIndexTarget;
+import org.craftercms.studio.api.v2.service.site.SitesService;
+import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.craftercms.studio.impl.v2.repository.GitContentRepository;
+import org.craftercms.studio.test.util.BaseRepositoryTestCase;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.craftercms.studio.api.v1.constant.GitRepositories.SANDBOX;
+import static org.craftercms.studio.api.v1.dal.SiteFeed.STATE_READY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StudioSearchIndexTaskTest extends BaseRepositoryTestCase {
+
+    private static final String SITE_ID = "site1";
+
+    @Mock
+    SiteService siteService;
+    @Mock
+    SitesService sitesService;
+    @Mock
+    GeneralLockService generalLockService;
+    @Mock
+    StudioConfiguration studioConfiguration;
+
+    @InjectMocks
+    GitContentRepository contentRepository;
+
+    private StubSearchIndexTarget target;
+    private StudioSearchIndexTask task;
+    private String headCommitId;
+
+    @Override
+    protected AutoCloseable initMocks() {
+        return MockitoAnnotations.openMocks(this);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        doReturn(db).when(helper).getRepository(SITE_ID, SANDBOX);
+        headCommitId = db.resolve(HEAD).getName();
+
+        target = new StubSearchIndexTarget();
+        task = new StudioSearchIndexTask();
+        task.setSiteService(siteService);
+        task.setSitesService(sitesService);
+        task.setContentRepository(contentRepository);
+        task.setSearchIndexTarget(target);
+        task.setExecuteEveryNCycles(1);
+
+        when(siteService.getSiteState(SITE_ID)).thenReturn(STATE_READY);
+    }
+
+    @Test
+    public void firstCheckLeavesLagToPreviewSync() {
+        when(sitesService.getLastIndexedCommitId(SITE_ID)).thenReturn(firstCommit.getName());
+
+        task.execute(SITE_ID);
+
+        assertTrue(target.ranges.isEmpty());
+        assertEquals(0, target.fullReindexCount);
+        verify(sitesService, never()).updateLastIndexedCommitId(anyString(), anyString());
+    }
+
+    @Test
+    public void progressingSyncDoesNotRequestCatchUp() {
+        // The preview sync records a newer commit between the checks while the repository keeps moving
+        when(sitesService.getLastIndexedCommitId(SITE_ID)).thenReturn(firstCommit.getName(), "another-commit");
+
+        task.execute(SITE_ID);
+        task.execute(SITE_ID);
+
+        assertTrue(target.ranges.isEmpty());
+        verify(sitesService, never()).updateLastIndexedCommitId(anyString(), anyString());
+    }
+
+    @Test
+    public void changesAreIndexedInOneRequest() {
+        String indexedCommitId = firstCommit.getName();
+        when(sitesService.getLastIndexedCommitId(SITE_ID)).thenReturn(indexedCommitId);
+
+        task.execute(SITE_ID);
+        task.execute(SITE_ID);
+
+        assertEquals(List.of(List.of(indexedCommitId, headCommitId)), target.ranges);
+        assertEquals(0, target.fullReindexCount);
+        verify(sitesService).updateLastIndexedCommitId(SITE_ID, headCommitId);
+    }
+
+    @Test
+    public void nothingIsRequestedWhenIndexIsCurrent() {
+        when(sitesService.getLastIndexedCommitId(SITE_ID)).thenReturn(headCommitId);
+
+        task.execute(SITE_ID);
+
+        assertTrue(target.ranges.isEmpty());
+        assertEquals(0, target.fullReindexCount);
+        verify(sitesService, never()).updateLastIndexedCommitId(anyString(), anyString());
+    }
+
+    @Test
+    public void untrackedSiteRecordsStartingCommit() {
+        task.execute(SITE_ID);
+
+        assertTrue(target.ranges.isEmpty());
+        assertEquals(0, target.fullReindexCount);
+        verify(sitesService).updateLastIndexedCommitId(SITE_ID, headCommitId);
+    }
+
+    @Test
+    public void fullReindexWhenLastIndexedCommitIsMissing() throws Exception {
+        // A commit that was never in the site repository, same as one lost after a rebase and a gc
+        Repository other = createWorkRepository();
+        String missingCommitId;
+        try (Git git = new Git(other)) {
+            missingCommitId = git.commit().setMessage("Not in the site").call().getName();
+        }
+        when(sitesService.getLastIndexedCommitId(SITE_ID)).thenReturn(missingCommitId);
+
+        task.execute(SITE_ID);
+        task.execute(SITE_ID);
+
+        assertTrue(target.ranges.isEmpty());
+        assertEquals(1, target.fullReindexCount);
+        verify(sitesService).updateLastIndexedCommitId(SITE_ID, headCommitId);
+    }
+
+    @Test
+    public void failedRequestKeepsLastIndexedCommit() {
+        when(sitesService.getLastIndexedCommitId(SITE_ID)).thenReturn(firstCommit.getName());
+        target.fail = true;
+
+        task.execute(SITE_ID);
+        task.execute(SITE_ID);
+
+        verify(sitesService, never()).updateLastIndexedCommitId(anyString(), anyString());
+
+        // The catch-up is requested again in the next check
+        target.fail = false;
+        task.execute(SITE_ID);
+
+        assertEquals(List.of(List.of(firstCommit.getName(), headCommitId)), target.ranges);
+        verify(sitesService).updateLastIndexedCommitId(SITE_ID, headCommitId);
+    }
+
+    /**
+     * Local target that records the requests instead of calling the deployer
+     */
+    private static class StubSearchIndexTarget implements SearchIndexTarget {
+
+        private final List<List<String>> ranges = new ArrayList<>();
+        private int fullReindexCount;
+        private boolean fail;
+
+        @Override
+        public void reindex(String siteId, String fromCommitId, String toCommitId) {
+            if (fail) {
+                throw new IllegalStateException("Target not available");
+            }
+            ranges.add(List.of(fromCommitId, toCommitId));
+        }
+
+        @Override
+        public void reindexAll(String siteId) {
+            fullReindexCount++;
+        }
+    }
+}
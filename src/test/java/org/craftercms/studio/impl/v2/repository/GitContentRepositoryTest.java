@@ -21,23 +21,35 @@ import org.craftercms.studio.api.v1.service.GeneralLockService;
 import org.craftercms.studio.api.v2.utils.StudioConfiguration;
 import org.craftercms.studio.model.history.ItemVersion;
 import org.craftercms.studio.test.util.BaseRepositoryTestCase;
+import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
+import static org.craftercms.studio.api.v1.constant.GitRepositories.PUBLISHED;
 import static org.craftercms.studio.api.v1.constant.GitRepositories.SANDBOX;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.REPO_DUPLICATE_SHARE_OBJECTS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
 
 public class GitContentRepositoryTest extends BaseRepositoryTestCase {
 
     public static final String SITE_NAME = "site1";
+    public static final String DUPLICATE_SITE_NAME = "site2";
+    public static final String SOURCE_ONLY_FILE_NAME = "source-only.txt";
 
     @Mock
     protected GeneralLockService generalLockService;
@@ -79,5 +91,50 @@ public class GitContentRepositoryTest extends BaseRepositoryTestCase {
         }
     }
 
+    @Test
+    public void duplicateSiteSharesObjectsTest() throws Exception {
+        Path sourcePath = db.getWorkTree().toPath();
+        Path destPath = createTempDirectory("duplicate").toPath().resolve("sandbox");
+        when(studioConfiguration.getProperty(REPO_DUPLICATE_SHARE_OBJECTS, Boolean.class, true)).thenReturn(true);
+        doReturn(sourcePath).when(helper).buildRepoPath(SANDBOX, SITE_NAME);
+        doReturn(destPath).when(helper).buildRepoPath(SANDBOX, DUPLICATE_SITE_NAME);
+        doReturn(null).when(helper).getRepository(DUPLICATE_SITE_NAME, SANDBOX, MASTER);
+        doReturn(null).when(helper).getRepository(SITE_NAME, PUBLISHED);
+
+        gitContentRepository.duplicateSite(SITE_NAME, DUPLICATE_SITE_NAME, MASTER, MASTER);
+
+        ObjectId sourceHead = db.resolve(HEAD);
+        try (Repository duplicate = helper.openRepository(destPath.resolve(".git"));
+             Git git = new Git(duplicate)) {
+            // Same history and a clean working tree with the same files
+            assertEquals(sourceHead, duplicate.resolve(HEAD));
+            assertTrue(git.status().call().isClean());
+            assertEquals(read(RENAMED_2_FILE_NAME), Files.readString(destPath.resolve(RENAMED_2_FILE_NAME)));
+            assertFalse(Files.exists(destPath.resolve(ORIGINAL_FILE_NAME)));
+
+            // The object files are the same files, not copies
+            Path sourceObject = getLooseObjectPath(sourcePath, sourceHead);
+            Path destObject = getLooseObjectPath(destPath, sourceHead);
+            assertTrue(Files.exists(destObject));
+            assertTrue(Files.isSameFile(sourceObject, destObject));
+
+            // New commits in the source are not visible in the duplicate
+            writeTrashFile(SOURCE_ONLY_FILE_NAME, "Only in the source");
+            RevCommit sourceCommit;
+            try (Git sourceGit = new Git(db)) {
+                sourceGit.add().addFilepattern(SOURCE_ONLY_FILE_NAME).call();
+                sourceCommit = sourceGit.commit().setMessage("Added after the duplication").call();
+            }
+            assertEquals(sourceHead, duplicate.resolve(HEAD));
+            assertFalse(duplicate.getObjectDatabase().has(sourceCommit));
+            assertFalse(Files.exists(destPath.resolve(SOURCE_ONLY_FILE_NAME)));
+            assertTrue(git.status().call().isClean());
+        }
+    }
+
+    private Path getLooseObjectPath(Path workTree, ObjectId objectId) {
+        String name = objectId.getName();
+        return workTree.resolve(".git").resolve("objects").resolve(name.substring(0, 2)).resolve(name.substring(2));
+    }
 
 }
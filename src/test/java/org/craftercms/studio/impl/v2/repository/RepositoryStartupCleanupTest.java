@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.repository;
+
+import org.craftercms.studio.test.util.BaseRepositoryTestCase;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockitoAnnotations;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RepositoryStartupCleanupTest extends BaseRepositoryTestCase {
+
+    private RepositoryStartupCleanup cleanup;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cleanup = new RepositoryStartupCleanup();
+    }
+
+    @Override
+    protected AutoCloseable initMocks() {
+        return MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void cleanRepositoryIsNotSuspiciousTest() {
+        assertFalse(cleanup.isRepositorySuspicious(db));
+        assertFalse(cleanup.isRepositoryCorrupted(db));
+    }
+
+    @Test
+    public void staleIndexIsNotSuspiciousTest() throws Exception {
+        // The index is valid but doesn't match the working tree anymore
+        writeTrashFile(RENAMED_2_FILE_NAME, "Changed without updating the index");
+        writeTrashFile(NON_EXISTENT_FILE_NAME, "Not added to the index");
+
+        assertFalse(cleanup.isRepositorySuspicious(db));
+        assertFalse(cleanup.isRepositoryCorrupted(db));
+    }
+
+    @Test
+    public void truncatedIndexIsSuspiciousTest() throws Exception {
+        File indexFile = db.getIndexFile();
+        byte[] index = Files.readAllBytes(indexFile.toPath());
+        Files.write(indexFile.toPath(), Arrays.copyOf(index, index.length / 2));
+
+        assertTrue(cleanup.isRepositorySuspicious(db));
+    }
+
+}
@@ -246,6 +246,18 @@ public class BlobAwareContentRepositoryTest {
         verify(localV1).copyContent(SITE, FOLDER_PATH, NEW_FOLDER_PATH);
     }
 
+    @Test
+    public void writeContentsTest() throws ServiceLayerException {
+        when(store.copyContent(SITE, ORIGINAL_PATH, NEW_FILE_PATH)).thenReturn(EMPTY);
+
+        proxy.writeContents(SITE, Map.of(CONFIG_PATH, CONTENT), Map.of(NEW_FILE_PATH, ORIGINAL_PATH), List.of());
+
+        verify(store).copyContent(SITE, ORIGINAL_PATH, NEW_FILE_PATH);
+        verify(store, never()).writeContent(eq(SITE), eq(CONFIG_PATH), any());
+        verify(localV1).writeContents(SITE, Map.of(CONFIG_PATH, CONTENT), Map.of(NEW_POINTER_PATH, POINTER_PATH),
+                List.of());
+    }
+
     @Test
     public void getContentChildrenWithoutRemoteTest() {
         RepositoryItem item = new RepositoryItem();
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.service.audit.internal;
+
+import org.craftercms.studio.api.v2.dal.ActivityStreamDAO;
+import org.craftercms.studio.api.v2.dal.ActivityStreamEntry;
+import org.craftercms.studio.impl.v2.dal.RetryingDatabaseOperationFacadeImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ActivityStreamServiceInternalImplTest {
+
+    private static final long SITE_ID = 1;
+    private static final long USER_ID = 2;
+    private static final String FAILING_ACTION = "FAILING";
+
+    @Mock
+    private ActivityStreamDAO activityStreamDAO;
+
+    private AutoCloseable mocks;
+    private ActivityStreamServiceInternalImpl activityStreamServiceInternal;
+    /**
+     * Copies of the lists inserted, the service reuses the list between batches
+     */
+    private final List<List<String>> insertedBatches = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            List<ActivityStreamEntry> activities = invocation.getArgument(0);
+            if (activities.stream().anyMatch(entry -> entry.getAction().equals(FAILING_ACTION))) {
+                throw new IllegalStateException("Invalid activity");
+            }
+            insertedBatches.add(activities.stream().map(ActivityStreamEntry::getAction).collect(toList()));
+            return null;
+        }).when(activityStreamDAO).insertActivities(anyList());
+
+        activityStreamServiceInternal = new ActivityStreamServiceInternalImpl();
+        activityStreamServiceInternal.setActivityStreamDAO(activityStreamDAO);
+        activityStreamServiceInternal.setRetryingDatabaseOperationFacade(new RetryingDatabaseOperationFacadeImpl());
+        activityStreamServiceInternal.setWriteBehindEnabled(true);
+        // Only flush when asked to or when the batch size is reached
+        activityStreamServiceInternal.setFlushInterval(3_600_000);
+        activityStreamServiceInternal.setBatchSize(3);
+        activityStreamServiceInternal.setQueueCapacity(5);
+        activityStreamServiceInternal.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        activityStreamServiceInternal.flushExecutor.shutdownNow();
+        mocks.close();
+    }
+
+    @Test
+    public void testQueueIsFlushedWhenBatchSizeIsReached() throws Exception {
+        insertActivity("A1");
+        insertActivity("A2");
+        verify(activityStreamDAO, never()).insertActivities(anyList());
+
+        insertActivity("A3");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (insertedBatches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(List.of("A1", "A2", "A3")), insertedBatches);
+        verify(activityStreamDAO, never()).insertActivity(anyLong(), anyLong(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    public void testActivityIsInsertedSynchronouslyWhenQueueIsFull() {
+        activityStreamServiceInternal.setBatchSize(100);
+        for (int i = 1; i <= 5; i++) {
+            insertActivity("A" + i);
+        }
+        verify(activityStreamDAO, never()).insertActivity(anyLong(), anyLong(), anyString(), any(), any(), any());
+
+        insertActivity("A6");
+
+        // The caller inserts it right away instead of waiting for room in the queue
+        verify(activityStreamDAO).insertActivity(eq(SITE_ID), eq(USER_ID), eq("A6"), any(), isNull(), isNull());
+        assertEquals(5, activityStreamServiceInternal.queue.size());
+        assertTrue(insertedBatches.isEmpty());
+    }
+
+    @Test
+    public void testFailedBatchIsInsertedRowByRow() {
+        activityStreamServiceInternal.setBatchSize(100);
+        insertActivity("A1");
+        insertActivity(FAILING_ACTION);
+        insertActivity("A3");
+
+        activityStreamServiceInternal.flushQueue();
+
+        // Only the invalid activity is lost
+        assertEquals(List.of(List.of("A1"), List.of("A3")), insertedBatches);
+        assertTrue(activityStreamServiceInternal.queue.isEmpty());
+    }
+
+    @Test
+    public void testQueueIsFlushedOnShutdown() throws Exception {
+        activityStreamServiceInternal.setBatchSize(100);
+        insertActivity("A1");
+        insertActivity("A2");
+        verify(activityStreamDAO, never()).insertActivities(anyList());
+
+        activityStreamServiceInternal.destroy();
+
+        assertEquals(List.of(List.of("A1", "A2")), insertedBatches);
+        assertTrue(activityStreamServiceInternal.flushExecutor.isTerminated());
+
+        // Activities after the shutdown started are not queued anymore
+        insertActivity("A3");
+        verify(activityStreamDAO).insertActivity(eq(SITE_ID), eq(USER_ID), eq("A3"), any(), isNull(), isNull());
+    }
+
+    private void insertActivity(String action) {
+        activityStreamServiceInternal.insertActivity(SITE_ID, USER_ID, action, ZonedDateTime.now(), null, null);
+    }
+
+}
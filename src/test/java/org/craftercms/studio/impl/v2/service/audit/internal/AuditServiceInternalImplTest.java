@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.service.audit.internal;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.craftercms.studio.api.v1.service.GeneralLockService;
+import org.craftercms.studio.api.v2.dal.AuditDAO;
+import org.craftercms.studio.api.v2.dal.AuditLog;
+import org.craftercms.studio.api.v2.dal.AuditLogParameter;
+import org.craftercms.studio.api.v2.dal.AuditPartition;
+import org.craftercms.studio.impl.v2.dal.RetryingDatabaseOperationFacadeImpl;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mariadb.jdbc.Driver;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.craftercms.studio.api.v2.dal.AuditLogConstants.OPERATION_PUBLISH;
+import static org.craftercms.studio.api.v2.dal.AuditLogConstants.TARGET_TYPE_CONTENT_ITEM;
+import static org.craftercms.studio.api.v2.dal.AuditPartition.FUTURE_PARTITION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the audit service against an embedded MariaDB with the audit tables upgraded from 4.2.0.9
+ */
+public class AuditServiceInternalImplTest {
+
+    private static final String DATABASE = "crafter";
+    private static final String SCHEMA_4_2_0_9 = "crafter/studio/database/audit-4.2.0.9.sql";
+    private static final String UPGRADE_4_2_0_10 = "crafter/studio/database/upgrade/4.2.x/4.2.0.9-to-4.2.0.10.sql";
+    private static final String CREATE_DDL = "crafter/studio/database/createDDL.sql";
+    private static final String SCHEMA_NAME_PLACEHOLDER = "@crafter_schema_name";
+    private static final List<String> PARTITIONED_TABLES = List.of("audit", "audit_parameters");
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static DB db;
+
+    private BasicDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private AuditDAO auditDao;
+    private AuditServiceInternalImpl auditServiceInternal;
+
+    @BeforeClass
+    public static void startDatabase() throws Exception {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+    }
+
+    @AfterClass
+    public static void stopDatabase() throws Exception {
+        if (db != null) {
+            db.stop();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        recreateDatabase();
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(Driver.class.getName());
+        dataSource.setUrl(getUrl(DATABASE));
+        dataSource.setUsername("root");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        runScript(SCHEMA_4_2_0_9);
+        runScript(UPGRADE_4_2_0_10);
+
+        SqlSessionFactoryBean sqlSessionFactoryBean = new SqlSessionFactoryBean();
+        sqlSessionFactoryBean.setDataSource(dataSource);
+        sqlSessionFactoryBean.setConfigLocation(new ClassPathResource("crafter/studio/database/mybatis-config.xml"));
+        Properties properties = new Properties();
+        properties.setProperty("blobFilePattern", "%.blob");
+        sqlSessionFactoryBean.setConfigurationProperties(properties);
+        sqlSessionFactoryBean.setMapperLocations(new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:org/craftercms/studio/api/v2/dal/*.xml"));
+        SqlSessionFactory sqlSessionFactory = sqlSessionFactoryBean.getObject();
+        auditDao = new SqlSessionTemplate(sqlSessionFactory).getMapper(AuditDAO.class);
+
+        GeneralLockService generalLockService = mock(GeneralLockService.class);
+        when(generalLockService.tryLock(anyString())).thenReturn(true);
+
+        auditServiceInternal = new AuditServiceInternalImpl();
+        auditServiceInternal.setAuditDao(auditDao);
+        auditServiceInternal.setRetryingDatabaseOperationFacade(new RetryingDatabaseOperationFacadeImpl());
+        auditServiceInternal.setSqlSessionFactory(sqlSessionFactory);
+        auditServiceInternal.setGeneralLockService(generalLockService);
+        auditServiceInternal.setParametersBatchSize(2);
+        auditServiceInternal.setPartitionsMonthsAhead(2);
+        auditServiceInternal.setRetentionMonths(2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    public void testUpgradeMovesEntriesToHistoryPartition() {
+        assertEquals("4.2.0.10", jdbcTemplate.queryForObject("SELECT version FROM _meta", String.class));
+        for (String table : PARTITIONED_TABLES) {
+            assertEquals(List.of("p_history", FUTURE_PARTITION), getPartitionNames(table));
+        }
+        assertEquals(0, count("SELECT COUNT(*) FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_parameters'"));
+        assertEquals(3, count("SELECT COUNT(*) FROM audit PARTITION (p_history)"));
+        assertEquals(5, count("SELECT COUNT(*) FROM audit_parameters PARTITION (p_history)"));
+
+        // Parameters got the timestamp of their entry, so the joins still find them
+        AuditLog auditLog = auditServiceInternal.getAuditLogEntry("site1", 2);
+        assertEquals("/site/website/recent.xml", auditLog.getPrimaryTargetValue());
+        assertEquals(Set.of("/site/website/recent.xml", "/site/website/recent-2.xml"), getTargetValues(auditLog));
+    }
+
+    @Test
+    public void testFreshInstallCreatesPartitionedTables() throws Exception {
+        recreateDatabase();
+        runScript(CREATE_DDL);
+
+        for (String table : PARTITIONED_TABLES) {
+            assertEquals(List.of(FUTURE_PARTITION), getPartitionNames(table));
+        }
+        assertEquals(0, count("SELECT COUNT(*) FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_parameters'"));
+
+        // The first maintenance run creates the monthly partitions, no history partition is needed
+        auditServiceInternal.maintainPartitions();
+
+        ZonedDateTime currentMonth = ZonedDateTime.now(UTC).truncatedTo(DAYS).withDayOfMonth(1);
+        List<String> expectedPartitions = List.of(
+                currentMonth.format(PARTITION_NAME_FORMAT),
+                currentMonth.plusMonths(1).format(PARTITION_NAME_FORMAT),
+                currentMonth.plusMonths(2).format(PARTITION_NAME_FORMAT),
+                FUTURE_PARTITION);
+        for (String table : PARTITIONED_TABLES) {
+            assertEquals(expectedPartitions, getPartitionNames(table));
+        }
+
+        AuditLog auditLog = createAuditLog(1, "/site/website/new.xml", "/site/website/new-1.xml",
+                "/site/website/new-2.xml", "/site/website/new-3.xml");
+        assertTrue(auditServiceInternal.insertAuditLog(auditLog));
+        String currentPartition = currentMonth.format(PARTITION_NAME_FORMAT);
+        assertEquals(1, count("SELECT COUNT(*) FROM audit PARTITION (" + currentPartition + ")"));
+        assertEquals(3, count("SELECT COUNT(*) FROM audit_parameters PARTITION (" + currentPartition + ")"));
+        assertEquals(Set.of("/site/website/new-1.xml", "/site/website/new-2.xml", "/site/website/new-3.xml"),
+                getTargetValues(auditServiceInternal.getAuditLogEntry(null, auditLog.getId())));
+    }
+
+    @Test
+    public void testInsertAuditLogs() {
+        List<AuditLog> auditLogs = List.of(
+                createAuditLog(1, "/site/website/a.xml", "/site/website/a-1.xml", "/site/website/a-2.xml",
+                        "/site/website/a-3.xml"),
+                createAuditLog(1, "/site/website/b.xml"),
+                createAuditLog(2, "/site/website/c.xml", "/site/website/c-1.xml", "/site/website/c-2.xml"));
+
+        assertTrue(auditServiceInternal.insertAuditLogs(auditLogs));
+
+        // Every entry got its own generated id from the batch
+        assertEquals(3, auditLogs.stream().mapToLong(AuditLog::getId).filter(id -> id > 3).distinct().count());
+        assertEquals(5 + 5, count("SELECT COUNT(*) FROM audit_parameters"));
+        for (AuditLog auditLog : auditLogs) {
+            AuditLog inserted = auditServiceInternal.getAuditLogEntry(null, auditLog.getId());
+            assertEquals(auditLog.getPrimaryTargetValue(), inserted.getPrimaryTargetValue());
+            assertEquals(getTargetValues(auditLog), getTargetValues(inserted));
+        }
+
+        AuditLog auditLog = createAuditLog(2, "/site/website/d.xml", "/site/website/d-1.xml");
+        assertTrue(auditServiceInternal.insertAuditLog(auditLog));
+        assertEquals(Set.of("/site/website/d-1.xml"),
+                getTargetValues(auditServiceInternal.getAuditLogEntry("site2", auditLog.getId())));
+    }
+
+    @Test
+    public void testDeleteAuditLogForSite() {
+        assertTrue(auditServiceInternal.insertAuditLog(createAuditLog(1, "/site/website/a.xml")));
+
+        auditServiceInternal.deleteAuditLogForSite(1);
+
+        assertEquals(0, count("SELECT COUNT(*) FROM audit WHERE site_id = 1"));
+        assertEquals(0, count("SELECT COUNT(*) FROM audit_parameters WHERE audit_id IN (1, 2)"));
+        assertEquals(1, count("SELECT COUNT(*) FROM audit WHERE site_id = 2"));
+        assertEquals(1, count("SELECT COUNT(*) FROM audit_parameters WHERE audit_id = 3"));
+    }
+
+    @Test
+    public void testMaintainPartitions() {
+        ZonedDateTime currentMonth = ZonedDateTime.now(UTC).truncatedTo(DAYS).withDayOfMonth(1);
+        // Split the history like earlier runs would have, the oldest partition holds the 6 month old entry
+        long expiredBound = currentMonth.minusMonths(3).toEpochSecond();
+        for (String table : PARTITIONED_TABLES) {
+            String historyBound = auditDao.getAuditPartitions(table).get(0).getDescription();
+            jdbcTemplate.execute(format("ALTER TABLE %s REORGANIZE PARTITION p_history INTO (" +
+                    "PARTITION p_expired VALUES LESS THAN (%d), " +
+                    "PARTITION p_history VALUES LESS THAN (%s))", table, expiredBound, historyBound));
+        }
+
+        auditServiceInternal.maintainPartitions();
+
+        List<String> expectedPartitions = List.of("p_history",
+                currentMonth.format(PARTITION_NAME_FORMAT),
+                currentMonth.plusMonths(1).format(PARTITION_NAME_FORMAT),
+                currentMonth.plusMonths(2).format(PARTITION_NAME_FORMAT),
+                FUTURE_PARTITION);
+        for (String table : PARTITIONED_TABLES) {
+            assertEquals(expectedPartitions, getPartitionNames(table));
+        }
+        // The expired partitions were dropped along with their rows
+        assertEquals(0, count("SELECT COUNT(*) FROM audit WHERE id = 1"));
+        assertEquals(0, count("SELECT COUNT(*) FROM audit_parameters WHERE audit_id = 1"));
+        assertEquals(2, count("SELECT COUNT(*) FROM audit"));
+        assertEquals(3, count("SELECT COUNT(*) FROM audit_parameters"));
+
+        // Nothing left to do on the next run
+        auditServiceInternal.maintainPartitions();
+        for (String table : PARTITIONED_TABLES) {
+            assertEquals(expectedPartitions, getPartitionNames(table));
+        }
+
+        // New entries and their parameters go to the partition of the current month
+        AuditLog auditLog = createAuditLog(1, "/site/website/new.xml", "/site/website/new-1.xml");
+        assertTrue(auditServiceInternal.insertAuditLog(auditLog));
+        String currentPartition = currentMonth.format(PARTITION_NAME_FORMAT);
+        assertEquals(1, count("SELECT COUNT(*) FROM audit PARTITION (" + currentPartition + ")"));
+        assertEquals(1, count("SELECT COUNT(*) FROM audit_parameters PARTITION (" + currentPartition + ")"));
+        assertEquals(Set.of("/site/website/new-1.xml"),
+                getTargetValues(auditServiceInternal.getAuditLogEntry("site1", auditLog.getId())));
+    }
+
+    private AuditLog createAuditLog(long siteId, String path, String... parameterPaths) {
+        AuditLog auditLog = auditServiceInternal.createAuditLogEntry();
+        auditLog.setSiteId(siteId);
+        auditLog.setOperation(OPERATION_PUBLISH);
+        auditLog.setActorId("admin");
+        auditLog.setPrimaryTargetId(path);
+        auditLog.setPrimaryTargetType(TARGET_TYPE_CONTENT_ITEM);
+        auditLog.setPrimaryTargetValue(path);
+        auditLog.setParameters(Arrays.stream(parameterPaths)
+                .map(parameterPath -> {
+                    AuditLogParameter parameter = new AuditLogParameter();
+                    parameter.setTargetId(parameterPath);
+                    parameter.setTargetType(TARGET_TYPE_CONTENT_ITEM);
+                    parameter.setTargetValue(parameterPath);
+                    return parameter;
+                })
+                .collect(toList()));
+        return auditLog;
+    }
+
+    private Set<String> getTargetValues(AuditLog auditLog) {
+        return CollectionUtils.emptyIfNull(auditLog.getParameters()).stream()
+                .map(AuditLogParameter::getTargetValue)
+                .collect(toSet());
+    }
+
+    private List<String> getPartitionNames(String table) {
+        return auditDao.getAuditPartitions(table).stream()
+                .map(AuditPartition::getName)
+                .collect(toList());
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private void recreateDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection(getUrl(""), "root", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + DATABASE);
+            statement.execute("CREATE DATABASE " + DATABASE + " DEFAULT CHARACTER SET utf8");
+        }
+    }
+
+    private void runScript(String location) throws Exception {
+        String script;
+        try (InputStream is = Resources.getResourceAsStream(location)) {
+            // Same replacement done by the data source initializer for the create script
+            script = new String(is.readAllBytes(), UTF_8).replace(SCHEMA_NAME_PLACEHOLDER, DATABASE);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            // Same settings used for the upgrade scripts
+            ScriptRunner scriptRunner = new ScriptRunner(connection);
+            scriptRunner.setDelimiter(" ;");
+            scriptRunner.setStopOnError(true);
+            scriptRunner.setLogWriter(null);
+            scriptRunner.runScript(new StringReader(script));
+        }
+    }
+
+    private static String getUrl(String database) {
+        return "jdbc:mariadb://localhost:" + db.getConfiguration().getPort() + "/" + database;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.service.monitor.internal;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.craftercms.studio.api.v2.event.site.SiteDeletedEvent;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+import static org.craftercms.studio.impl.v2.service.monitor.internal.LogEventBufferAppender.EVENT_KEY_MESSAGE;
+import static org.craftercms.studio.impl.v2.service.monitor.internal.LogEventBufferAppender.SITE_CONTEXT_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogEventBufferAppenderTest {
+
+    private static final String DEFAULT_SITE = "craftercms";
+
+    private final LogEventBufferAppender appender = new LogEventBufferAppender("test", 10, DEFAULT_SITE, 2);
+
+    @Test
+    public void testSiteEventsAreAlsoInTheDefaultBuffer() {
+        appender.append(event(null, "global"));
+        appender.append(event("site1", "site1 event"));
+
+        assertEquals(List.of("site1 event"), getMessages("site1"));
+        assertEquals(List.of("global", "site1 event"), getMessages(null));
+        assertEquals(List.of("global", "site1 event"), getMessages(DEFAULT_SITE));
+    }
+
+    @Test
+    public void testNumberOfSiteBuffersIsLimited() {
+        appender.append(event("site1", "site1 event"));
+        appender.append(event("site2", "site2 event"));
+        appender.append(event("site3", "site3 event"));
+
+        assertTrue(appender.hasBuffer("site2"));
+        assertFalse(appender.hasBuffer("site3"));
+        assertEquals(List.of(), getMessages("site3"));
+        assertEquals(List.of("site1 event", "site2 event", "site3 event"), getMessages(null));
+    }
+
+    @Test
+    public void testBufferIsDroppedWhenTheSiteIsDeleted() {
+        appender.append(event("site1", "site1 event"));
+
+        appender.onSiteDeleted(new SiteDeletedEvent("site1", "uuid"));
+
+        assertFalse(appender.hasBuffer("site1"));
+        assertEquals(List.of(), getMessages("site1"));
+    }
+
+    private List<Object> getMessages(String siteId) {
+        return appender.getEventsFromSequence(siteId, 0).stream()
+                .map(event -> event.get(EVENT_KEY_MESSAGE))
+                .collect(toList());
+    }
+
+    private LogEvent event(String siteId, String message) {
+        SortedArrayStringMap contextData = new SortedArrayStringMap();
+        if (siteId != null) {
+            contextData.putValue(SITE_CONTEXT_KEY, siteId);
+        }
+        return Log4jLogEvent.newBuilder()
+                .setLevel(Level.INFO)
+                .setMessage(new SimpleMessage(message))
+                .setContextData(contextData)
+                .setTimeMillis(System.currentTimeMillis())
+                .build();
+    }
+
+}
@@ -40,6 +40,9 @@ import org.testng.annotations.Test;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toSet;
 
 import static org.craftercms.studio.model.policy.Action.METADATA_CONTENT_TYPE;
 import static org.craftercms.studio.model.policy.Action.METADATA_FILE_SIZE;
@@ -147,61 +150,35 @@ public class PolicyServiceInternalImplTest {
      *
      */
     protected void setUpRepository() {
-        when(contentRepository.getContentChildren(SITE_ID, concat(PICS_FOLDER_PATH, SUB_FOLDER_NAME))).thenAnswer(i -> {
-            var item = new RepositoryItem();
-            item.path = concat(PICS_FOLDER_PATH, SUB_FOLDER_NAME);
-            item.name = PIC_FILENAME;
-
-            return new RepositoryItem[] { item };
-        });
-
-        when(contentRepository.getContentChildren(SITE_ID, PICS_FOLDER_PATH)).thenAnswer(i -> {
-            var item = new RepositoryItem();
-            item.isFolder = true;
-            item.path = PICS_FOLDER_PATH;
-            item.name = SUB_FOLDER_NAME;
-
-            return new RepositoryItem[] { item };
-        });
-
-        when(contentRepository.getContentChildren(SITE_ID, concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME))).thenAnswer(i -> {
-            var item1 = new RepositoryItem();
-            item1.path = concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME);
-            item1.name = DOC1_FILENAME;
+        when(contentRepositoryV2.getContentDescendants(SITE_ID, PICS_FOLDER_PATH)).thenAnswer(i -> List.of(
+                folder(PICS_FOLDER_PATH, SUB_FOLDER_NAME),
+                file(concat(PICS_FOLDER_PATH, SUB_FOLDER_NAME), PIC_FILENAME, 1000L)));
 
-            var item2 = new RepositoryItem();
-            item2.path = concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME);
-            item2.name = DOC2_FILENAME;
-
-            var item3 = new RepositoryItem();
-            item3.path = concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME);
-            item3.name = DOC3_FILENAME;
-
-            return new RepositoryItem[] { item1, item2, item3 };
-        });
-
-        when(contentRepository.getContentChildren(SITE_ID, DOCS_FOLDER_PATH)).thenAnswer(i -> {
-            var item = new RepositoryItem();
-            item.isFolder = true;
-            item.path = DOCS_FOLDER_PATH;
-            item.name = SUB_FOLDER_NAME;
-
-            return new RepositoryItem[] { item };
-        });
+        when(contentRepositoryV2.getContentDescendants(SITE_ID, DOCS_FOLDER_PATH)).thenAnswer(i -> List.of(
+                folder(DOCS_FOLDER_PATH, SUB_FOLDER_NAME),
+                file(concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME), DOC1_FILENAME, 20000L),
+                file(concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME), DOC2_FILENAME, 5000L),
+                file(concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME), DOC3_FILENAME, 30000L)));
 
         when(contentRepository.contentExists(SITE_ID, STATIC_ASSETS)).thenAnswer(i -> {
             return true;
         });
+    }
 
-        when(contentRepositoryV2.getContentSize(SITE_ID, concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME, DOC1_FILENAME)))
-                .thenReturn(20000L);
-        when(contentRepositoryV2.getContentSize(SITE_ID, concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME, DOC2_FILENAME)))
-                .thenReturn(5000L);
-        when(contentRepositoryV2.getContentSize(SITE_ID, concat(DOCS_FOLDER_PATH, SUB_FOLDER_NAME, DOC3_FILENAME)))
-                .thenReturn(30000L);
+    protected RepositoryItem folder(String path, String name) {
+        var item = new RepositoryItem();
+        item.isFolder = true;
+        item.path = path;
+        item.name = name;
+        return item;
+    }
 
-        when(contentRepositoryV2.getContentSize(SITE_ID, concat(PICS_FOLDER_PATH, SUB_FOLDER_NAME, PIC_FILENAME)))
-                .thenReturn(1000L);
+    protected RepositoryItem file(String path, String name, long size) {
+        var item = new RepositoryItem();
+        item.path = path;
+        item.name = name;
+        item.size = size;
+        return item;
     }
 
     protected String concat(String... args) {
@@ -407,6 +384,26 @@ public class PolicyServiceInternalImplTest {
         checkSingleResult(results, true);
     }
 
+    @Test
+    public void recursiveTargetPathTest() throws ConfigurationException {
+        var action = new Action();
+        action.setType(Type.COPY);
+        action.setSource(DOCS_FOLDER_PATH);
+        action.setTarget(SIZE_RESTRICTED_FOLDER);
+        action.setRecursive(true);
+
+        var results = policyService.validate(SITE_ID, List.of(action));
+
+        // Items more than one level deep keep their path relative to the source folder
+        var deniedTargets = results.stream()
+                .filter(result -> !result.isAllowed())
+                .map(ValidationResult::getTarget)
+                .collect(toSet());
+        assertEquals(deniedTargets, Set.of(
+                concat(SIZE_RESTRICTED_FOLDER, "docs", SUB_FOLDER_NAME, DOC1_FILENAME),
+                concat(SIZE_RESTRICTED_FOLDER, "docs", SUB_FOLDER_NAME, DOC3_FILENAME)));
+    }
+
     @Test
     public void recursiveMimeTypeTest() throws ConfigurationException, IOException, ContentNotFoundException {
         var action = new Action();
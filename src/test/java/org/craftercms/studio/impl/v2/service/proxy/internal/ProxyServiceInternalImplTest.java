@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.impl.v2.service.proxy.internal;
+
+import com.sun.net.httpserver.HttpServer;
+import org.craftercms.studio.api.v1.service.configuration.ServicesConfig;
+import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_MANAGEMENT_PREVIEW_AUTHORIZATION_TOKEN;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_MANAGEMENT_PREVIEW_PROTECTED_URLS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ProxyServiceInternalImplTest {
+
+    private static final String SITE_ID = "mySite";
+    private static final byte[] BINARY_CONTENT = new byte[] { 0, 1, 2, (byte) 0xFF, 3 };
+
+    private HttpServer engine;
+    private ProxyServiceInternalImpl proxyService;
+    private ProxyServiceInternalImpl timeoutProxyService;
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+    private final AtomicReference<String> lastBody = new AtomicReference<>();
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        engine = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        engine.createContext("/", exchange -> {
+            lastQuery.set(exchange.getRequestURI().getRawQuery());
+            try (InputStream in = exchange.getRequestBody()) {
+                lastBody.set(new String(in.readAllBytes(), UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+            exchange.getResponseHeaders().add("X-Engine", "stub");
+            exchange.sendResponseHeaders(201, BINARY_CONTENT.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BINARY_CONTENT);
+            }
+        });
+        engine.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        engine.start();
+
+        StudioConfiguration studioConfiguration = mock(StudioConfiguration.class);
+        when(studioConfiguration.getProperty(CONFIGURATION_MANAGEMENT_PREVIEW_PROTECTED_URLS))
+                .thenReturn("/api/1/site/context/id, /api/1/monitoring/status.json");
+        when(studioConfiguration.getProperty(CONFIGURATION_MANAGEMENT_PREVIEW_AUTHORIZATION_TOKEN))
+                .thenReturn("secret");
+        ServicesConfig servicesConfig = mock(ServicesConfig.class);
+        when(servicesConfig.getAuthoringUrl(SITE_ID))
+                .thenReturn("http://localhost:" + engine.getAddress().getPort());
+
+        proxyService = new ProxyServiceInternalImpl(studioConfiguration, servicesConfig, 5, 0,
+                "maximumSize=10,expireAfterWrite=1m");
+        timeoutProxyService = new ProxyServiceInternalImpl(studioConfiguration, servicesConfig, 5, 1,
+                "maximumSize=10,expireAfterWrite=1m");
+    }
+
+    @AfterClass
+    public void tearDown() {
+        engine.stop(0);
+    }
+
+    @Test
+    public void testStreamsResponse() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/studio/engine/static-assets/image.png");
+        request.setContextPath("/studio");
+        request.setQueryString("crafterSite=" + SITE_ID);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        proxyService.proxyEngine(SITE_ID, request, response);
+
+        assertEquals(response.getStatus(), 201);
+        assertEquals(response.getContentAsByteArray(), BINARY_CONTENT);
+        assertEquals(response.getHeader("X-Engine"), "stub");
+        assertEquals(lastQuery.get(), "crafterSite=" + SITE_ID + "&site=" + SITE_ID);
+    }
+
+    @Test
+    public void testStreamsRequestBodyAndAddsToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/studio/engine/api/1/site/context/id");
+        request.setContextPath("/studio");
+        request.setQueryString("crafterSite=" + SITE_ID);
+        request.setContentType("application/json");
+        request.setContent("{\"key\":\"value\"}".getBytes(UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        proxyService.proxyEngine(SITE_ID, request, response);
+
+        assertEquals(response.getStatus(), 201);
+        assertEquals(lastBody.get(), "{\"key\":\"value\"}");
+        assertTrue(lastQuery.get().endsWith("&token=secret"));
+    }
+
+    @Test
+    public void testRequestTimeout() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/studio/engine/slow");
+        request.setContextPath("/studio");
+        request.setQueryString("crafterSite=" + SITE_ID);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        timeoutProxyService.proxyEngine(SITE_ID, request, response);
+
+        assertEquals(response.getStatus(), 504);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.service.repository.internal;
+
+import org.craftercms.studio.api.v1.service.GeneralLockService;
+import org.craftercms.studio.api.v2.dal.RemoteRepository;
+import org.craftercms.studio.api.v2.dal.RemoteRepositoryDAO;
+import org.craftercms.studio.api.v2.event.site.SiteDeletedEvent;
+import org.craftercms.studio.api.v2.event.site.SyncFromRepoEvent;
+import org.craftercms.studio.api.v2.service.repository.MergeResult;
+import org.craftercms.studio.api.v2.service.repository.RemoteOperation;
+import org.craftercms.studio.api.v2.service.security.SecurityService;
+import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.craftercms.studio.test.util.BaseRepositoryTestCase;
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.RemoteConfig;
+import org.eclipse.jgit.transport.URIish;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationContext;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.craftercms.studio.api.v1.constant.GitRepositories.SANDBOX;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.REPO_REMOTE_OPERATIONS_MAX_PENDING_PER_SITE;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.REPO_REMOTE_OPERATIONS_RETENTION_MINUTES;
+import static org.craftercms.studio.api.v2.utils.StudioUtils.getSandboxRepoLockKey;
+import static org.craftercms.studio.api.v2.utils.StudioUtils.getStudioTemporaryFilesRoot;
+import static org.craftercms.studio.api.v2.utils.StudioUtils.getSyncFromRepoLockKey;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pulls from a bare repository on disk that acts as the remote of the site
+ */
+public class RepositoryManagementServiceInternalImplTest extends BaseRepositoryTestCase {
+
+    private static final String SITE = "test-site";
+    private static final String REMOTE_NAME = "origin";
+    private static final String REMOTE_FILE_NAME = "remote.txt";
+
+    @Mock
+    private RemoteRepositoryDAO remoteRepositoryDao;
+
+    @Mock
+    private GeneralLockService generalLockService;
+
+    @Mock
+    private StudioConfiguration studioConfiguration;
+
+    @Mock
+    private SecurityService securityService;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    private RepositoryManagementServiceInternalImpl service;
+
+    private String remoteCommitId;
+
+    @Override
+    protected AutoCloseable initMocks() {
+        return MockitoAnnotations.openMocks(this);
+    }
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        Files.createDirectories(getStudioTemporaryFilesRoot());
+
+        // Publish the site history in a bare remote, then add a commit there that the site does not have yet
+        Repository remote = createBareRepository();
+        URIish remoteUri = new URIish(remote.getDirectory().toURI().toURL());
+        StoredConfig config = db.getConfig();
+        RemoteConfig remoteConfig = new RemoteConfig(config, REMOTE_NAME);
+        remoteConfig.addURI(remoteUri);
+        remoteConfig.addFetchRefSpec(new RefSpec("+refs/heads/*:refs/remotes/" + REMOTE_NAME + "/*"));
+        remoteConfig.update(config);
+        config.save();
+        try (Git git = new Git(db)) {
+            git.push().setRemote(REMOTE_NAME).add(MASTER).call();
+        }
+        File otherDir = createTempDirectory("other");
+        try (Git other = Git.cloneRepository().setURI(remoteUri.toString()).setDirectory(otherDir).call()) {
+            Files.writeString(otherDir.toPath().resolve(REMOTE_FILE_NAME), "Added in the remote");
+            other.add().addFilepattern(REMOTE_FILE_NAME).call();
+            remoteCommitId = other.commit().setMessage("Remote change").call().getName();
+            other.push().call();
+        }
+
+        RemoteRepository remoteRepository = new RemoteRepository();
+        remoteRepository.setSiteId(SITE);
+        remoteRepository.setRemoteName(REMOTE_NAME);
+        remoteRepository.setRemoteUrl(remoteUri.toString());
+        remoteRepository.setAuthenticationType("none");
+        when(remoteRepositoryDao.getRemoteRepository(anyMap())).thenReturn(remoteRepository);
+        doReturn(db).when(helper).getRepository(SITE, SANDBOX);
+        doNothing().when(helper).setAuthenticationForCommand(any(), any(), any(), any(), any(), any(), any(),
+                anyBoolean());
+        when(studioConfiguration.getProperty(REPO_REMOTE_OPERATIONS_MAX_PENDING_PER_SITE, Integer.class))
+                .thenReturn(5);
+        when(studioConfiguration.getProperty(REPO_REMOTE_OPERATIONS_RETENTION_MINUTES, Long.class))
+                .thenReturn(60L);
+
+        service = new RepositoryManagementServiceInternalImpl();
+        service.setRemoteRepositoryDao(remoteRepositoryDao);
+        service.setGeneralLockService(generalLockService);
+        service.setGitRepositoryHelper(helper);
+        service.setRetryingRepositoryOperationFacade(retryingRepositoryOperationFacade);
+        service.setStudioConfiguration(studioConfiguration);
+        service.setSecurityService(securityService);
+        service.setApplicationContext(applicationContext);
+        service.setRemoteOperationExecutor(Runnable::run);
+    }
+
+    @Test
+    public void testPullMergesRemoteChanges() throws Exception {
+        MergeResult result = service.pullFromRemote(SITE, REMOTE_NAME, MASTER, "none");
+
+        assertTrue(result.isSuccessful());
+        assertEquals(2, result.getCommitsMerged(), "The previous HEAD and the remote commit should be merged");
+        assertEquals(db.resolve(HEAD).getName(), result.getMergeCommitId());
+        assertTrue(new File(db.getWorkTree(), REMOTE_FILE_NAME).exists());
+        assertNotNull(db.parseCommit(db.resolve(HEAD)).getParent(1));
+        assertEquals(remoteCommitId, db.parseCommit(db.resolve(HEAD)).getParent(1).getName());
+
+        ArgumentCaptor<SyncFromRepoEvent> event = ArgumentCaptor.forClass(SyncFromRepoEvent.class);
+        verify(applicationContext).publishEvent(event.capture());
+        assertEquals(SITE, event.getValue().getSiteId());
+        assertEquals(result.getMergeCommitId(), event.getValue().getCommitId());
+    }
+
+    @Test
+    public void testPullFetchesWithoutLocks() throws Exception {
+        service.pullFromRemote(SITE, REMOTE_NAME, MASTER, "none");
+
+        String gitLockKey = getSandboxRepoLockKey(SITE);
+        String syncLockKey = getSyncFromRepoLockKey(SITE);
+        InOrder inOrder = inOrder(retryingRepositoryOperationFacade, generalLockService);
+        inOrder.verify(retryingRepositoryOperationFacade).call(any(FetchCommand.class));
+        inOrder.verify(generalLockService).lock(gitLockKey);
+        inOrder.verify(generalLockService).lock(syncLockKey);
+        inOrder.verify(retryingRepositoryOperationFacade).call(any(MergeCommand.class));
+        inOrder.verify(generalLockService).unlock(syncLockKey);
+        inOrder.verify(generalLockService).unlock(gitLockKey);
+    }
+
+    @Test
+    public void testSubmittedPullCallsBackWhenDone() throws Exception {
+        List<RemoteOperation> finished = new ArrayList<>();
+        RemoteOperation operation = service.submitPullFromRemote(SITE, REMOTE_NAME, MASTER, "none", op -> {
+            assertNotNull(op.getMergeResult(), "The callback should only run once the pull is done");
+            finished.add(op);
+        });
+
+        assertEquals(List.of(operation), finished);
+        assertEquals(RemoteOperation.State.COMPLETED, operation.getState());
+        assertTrue(operation.getMergeResult().isSuccessful());
+        assertSame(operation, service.getRemoteOperation(SITE, operation.getId()));
+    }
+
+    @Test
+    public void testSiteDeletedForgetsOperations() throws Exception {
+        service.submitPullFromRemote(SITE, REMOTE_NAME, MASTER, "none", op -> {});
+        assertEquals(1, service.getRemoteOperations(SITE).size());
+
+        service.onSiteDeleted(new SiteDeletedEvent(SITE, "uuid"));
+
+        assertTrue(service.getRemoteOperations(SITE).isEmpty());
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.service.search.internal;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.craftercms.studio.api.v1.service.configuration.ServicesConfig;
+import org.craftercms.studio.api.v2.event.content.ContentEvent;
+import org.craftercms.studio.api.v2.service.security.SecurityService;
+import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.craftercms.studio.impl.v2.service.search.PermissionAwareSearchService;
+import org.craftercms.studio.model.search.SearchParams;
+import org.craftercms.studio.model.search.SearchResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.*;
+import static org.craftercms.studio.impl.v2.service.search.internal.SearchServiceInternalImpl.MAX_RESULT_WINDOW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class SearchServiceInternalImplTest {
+
+    private static final String SITE_ID = "mySite";
+    private static final String PATH_FIELD = "localId";
+    private static final int MAX_EXPANSIONS = 50;
+
+    @Mock
+    private PermissionAwareSearchService searchService;
+    @Mock
+    private StudioConfiguration studioConfiguration;
+    @Mock
+    private ServicesConfig servicesConfig;
+    @Mock
+    private SecurityService securityService;
+
+    private SearchServiceInternalImpl service;
+
+    private AutoCloseable mocks;
+
+    @Before
+    public void setUp() throws Exception {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(studioConfiguration.getProperty(SEARCH_PATH_FIELD_NAME)).thenReturn(PATH_FIELD);
+        when(studioConfiguration.getProperty(SEARCH_KEYWORD_SPLIT_REGEX)).thenReturn("\\s+");
+        when(studioConfiguration.getProperty(SEARCH_SNIPPETS_SIZE, Integer.class)).thenReturn(100);
+        when(studioConfiguration.getProperty(SEARCH_NUMBER_OF_SNIPPETS, Integer.class)).thenReturn(1);
+        when(studioConfiguration.getProperty(SEARCH_CACHE_TTL_SECONDS, Integer.class, 0)).thenReturn(60);
+        when(studioConfiguration.getProperty(SEARCH_CACHE_MAX_SIZE, Long.class, 1000L)).thenReturn(100L);
+        when(studioConfiguration.getProperty(SEARCH_CACHE_INVALIDATION_GRACE_SECONDS, Integer.class, 10))
+                .thenReturn(0);
+        when(securityService.getCurrentUser()).thenReturn("admin");
+        when(searchService.search(eq(SITE_ID), any(SearchRequest.class), eq(Map.class)))
+                .thenAnswer(invocation -> response(2, "/site/website/index.xml", "/site/website/about/index.xml"));
+
+        service = new SearchServiceInternalImpl(searchService, studioConfiguration, servicesConfig);
+        service.setSecurityService(securityService);
+        service.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    public void cachedResultIsReusedAsCopy() throws Exception {
+        SearchResult first = service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+        first.getItems().get(0).setPath("/changed-by-caller");
+        first.getItems().clear();
+        SearchResult second = service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+        SearchResult third = service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+
+        verify(searchService, times(1)).search(eq(SITE_ID), any(SearchRequest.class), eq(Map.class));
+        assertNotSame(second, third);
+        assertEquals(2, second.getItems().size());
+        assertEquals("/site/website/index.xml", second.getItems().get(0).getPath());
+    }
+
+    @Test
+    public void contentChangeInvalidatesResults() throws Exception {
+        service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+        service.onContentEvent(new ContentEvent(null, SITE_ID, "/site/website/index.xml"));
+        service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+        service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+
+        verify(searchService, times(2)).search(eq(SITE_ID), any(SearchRequest.class), eq(Map.class));
+    }
+
+    @Test
+    public void resultsAreNotCachedDuringGraceWindow() throws Exception {
+        service.invalidationGraceMillis = 60_000;
+        service.onContentEvent(new ContentEvent(null, SITE_ID, "/site/website/index.xml"));
+        service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+        service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+
+        verify(searchService, times(2)).search(eq(SITE_ID), any(SearchRequest.class), eq(Map.class));
+    }
+
+    @Test
+    public void resultsAreScopedByUser() throws Exception {
+        service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+        when(securityService.getCurrentUser()).thenReturn("author");
+        service.search(SITE_ID, params(0), MAX_EXPANSIONS);
+
+        verify(searchService, times(2)).search(eq(SITE_ID), any(SearchRequest.class), eq(Map.class));
+    }
+
+    @Test
+    public void deepPageUsesSearchAfter() throws Exception {
+        SearchResponse<Map> skipped = response(MAX_RESULT_WINDOW + 20,
+                Collections.nCopies(MAX_RESULT_WINDOW, "/site/website/skipped.xml").toArray(String[]::new));
+        SearchResponse<Map> page = response(MAX_RESULT_WINDOW + 20, "/site/website/a.xml", "/site/website/b.xml");
+        SearchResponse<Map> nextPage = response(MAX_RESULT_WINDOW + 20, "/site/website/c.xml");
+        when(searchService.search(eq(SITE_ID), any(SearchRequest.class), eq(Map.class)))
+                .thenReturn(skipped, page, nextPage);
+
+        SearchResult result = service.search(SITE_ID, params(MAX_RESULT_WINDOW), MAX_EXPANSIONS);
+        // The next page resumes from the cursor kept by the previous one
+        SearchResult next = service.search(SITE_ID, params(MAX_RESULT_WINDOW + 2), MAX_EXPANSIONS);
+
+        ArgumentCaptor<SearchRequest> requests = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(searchService, times(3)).search(eq(SITE_ID), requests.capture(), eq(Map.class));
+        assertTrue(CollectionUtils.isEmpty(requests.getAllValues().get(0).searchAfter()));
+        assertEquals(List.of("/site/website/skipped.xml"), requests.getAllValues().get(1).searchAfter());
+        assertEquals(List.of("/site/website/b.xml"), requests.getAllValues().get(2).searchAfter());
+        assertEquals(List.of("/site/website/a.xml", "/site/website/b.xml"),
+                result.getItems().stream().map(item -> item.getPath()).toList());
+        assertEquals("/site/website/c.xml", next.getItems().get(0).getPath());
+    }
+
+    private SearchParams params(int offset) {
+        SearchParams params = new SearchParams();
+        params.setKeywords("test");
+        params.setOffset(offset);
+        params.setLimit(2);
+        return params;
+    }
+
+    private SearchResponse<Map> response(long total, String... paths) {
+        List<Hit<Map>> hits = new ArrayList<>();
+        Map<String, Hit<Map>> hitsByPath = new HashMap<>();
+        for (String path : paths) {
+            hits.add(hitsByPath.computeIfAbsent(path, key -> {
+                Hit<Map> hit = mock(Hit.class);
+                when(hit.source()).thenReturn(Map.of(PATH_FIELD, key));
+                when(hit.highlight()).thenReturn(Map.of());
+                when(hit.sort()).thenReturn(List.of(key));
+                return hit;
+            }));
+        }
+        SearchResponse<Map> response = mock(SearchResponse.class, RETURNS_DEEP_STUBS);
+        when(response.hits().hits()).thenReturn(hits);
+        when(response.hits().total().value()).thenReturn(total);
+        when(response.aggregations()).thenReturn(Map.of());
+        return response;
+    }
+
+}
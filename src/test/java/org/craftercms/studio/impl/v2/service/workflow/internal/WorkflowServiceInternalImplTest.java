@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.service.workflow.internal;
+
+import org.craftercms.studio.api.v1.dal.SiteFeed;
+import org.craftercms.studio.api.v1.dal.SiteFeedMapper;
+import org.craftercms.studio.api.v2.dal.ItemDAO;
+import org.craftercms.studio.api.v2.dal.PublishRequestDAO;
+import org.craftercms.studio.api.v2.dal.WorkflowDAO;
+import org.craftercms.studio.impl.v2.dal.RetryingDatabaseOperationFacadeImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.craftercms.studio.api.v2.dal.ItemState.CANCEL_WORKFLOW_OFF_MASK;
+import static org.craftercms.studio.api.v2.dal.ItemState.CANCEL_WORKFLOW_ON_MASK;
+import static org.craftercms.studio.api.v2.dal.PublishRequest.State.CANCELLED;
+import static org.craftercms.studio.api.v2.dal.PublishRequest.State.READY_FOR_LIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class WorkflowServiceInternalImplTest {
+
+    private static final String SITE_ID = "site1";
+    private static final long SITE_NUMERIC_ID = 3;
+    private static final String PACKAGE_ID = "package1";
+    private static final List<String> PATHS = List.of("/site/website/index.xml", "/site/website/about/index.xml",
+            "/static-assets/images/logo.png");
+
+    @Mock
+    private WorkflowDAO workflowDao;
+    @Mock
+    private ItemDAO itemDao;
+    @Mock
+    private PublishRequestDAO publishRequestDao;
+    @Mock
+    private SiteFeedMapper siteFeedMapper;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private AutoCloseable mocks;
+    private WorkflowServiceInternalImpl workflowServiceInternal;
+
+    /**
+     * Statements executed inside the transaction, in order
+     */
+    private final List<String> transactionStatements = new ArrayList<>();
+    private boolean inTransaction;
+
+    @Before
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+
+        SiteFeed siteFeed = new SiteFeed();
+        siteFeed.setId(SITE_NUMERIC_ID);
+        when(siteFeedMapper.getSite(anyMap())).thenReturn(siteFeed);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            inTransaction = true;
+            try {
+                action.accept(mock(TransactionStatus.class));
+            } finally {
+                inTransaction = false;
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> recordStatement("cancelScheduledQueueItems"))
+                .when(publishRequestDao).cancelScheduledQueueItems(any(), any(), any(), any(), any());
+        doAnswer(invocation -> recordStatement("deleteWorkflowEntries"))
+                .when(workflowDao).deleteWorkflowEntries(any(), any());
+        doAnswer(invocation -> recordStatement("updateStatesBySiteAndPathBulk"))
+                .when(itemDao).updateStatesBySiteAndPathBulk(eq(SITE_NUMERIC_ID), any(), eq(CANCEL_WORKFLOW_ON_MASK),
+                        eq(CANCEL_WORKFLOW_OFF_MASK));
+
+        workflowServiceInternal = new WorkflowServiceInternalImpl();
+        workflowServiceInternal.setWorkflowDao(workflowDao);
+        workflowServiceInternal.setItemDao(itemDao);
+        workflowServiceInternal.setPublishRequestDao(publishRequestDao);
+        workflowServiceInternal.setSiteFeedMapper(siteFeedMapper);
+        workflowServiceInternal.setRetryingDatabaseOperationFacade(new RetryingDatabaseOperationFacadeImpl());
+        workflowServiceInternal.setTransactionTemplate(transactionTemplate);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    public void testCancelWorkflowRunsBulkStatementsInOneTransaction() {
+        workflowServiceInternal.cancelWorkflow(SITE_ID, PATHS);
+
+        verify(transactionTemplate).executeWithoutResult(any());
+        assertEquals(List.of("cancelScheduledQueueItems", "deleteWorkflowEntries", "updateStatesBySiteAndPathBulk"),
+                transactionStatements);
+
+        // Each statement gets all the paths at once
+        InOrder inOrder = inOrder(publishRequestDao, workflowDao, itemDao);
+        inOrder.verify(publishRequestDao).cancelScheduledQueueItems(eq(SITE_ID), eq(PATHS), any(), eq(CANCELLED),
+                eq(READY_FOR_LIVE));
+        inOrder.verify(workflowDao).deleteWorkflowEntries(SITE_ID, PATHS);
+        inOrder.verify(itemDao).updateStatesBySiteAndPathBulk(SITE_NUMERIC_ID, PATHS, CANCEL_WORKFLOW_ON_MASK,
+                CANCEL_WORKFLOW_OFF_MASK);
+    }
+
+    @Test
+    public void testCancelWorkflowWithoutPathsDoesNothing() {
+        workflowServiceInternal.cancelWorkflow(SITE_ID, List.of());
+
+        verifyNoInteractions(transactionTemplate, publishRequestDao, workflowDao, itemDao);
+    }
+
+    @Test
+    public void testCancelPackageWorkflow() {
+        when(workflowDao.getWorkflowPackagePaths(SITE_ID, PACKAGE_ID)).thenReturn(PATHS);
+
+        assertEquals(PATHS, workflowServiceInternal.cancelPackageWorkflow(SITE_ID, PACKAGE_ID));
+
+        verify(transactionTemplate).executeWithoutResult(any());
+        assertEquals(List.of("cancelScheduledQueueItems", "deleteWorkflowEntries", "updateStatesBySiteAndPathBulk"),
+                transactionStatements);
+        verify(workflowDao).deleteWorkflowEntries(SITE_ID, PATHS);
+    }
+
+    @Test
+    public void testCancelEmptyPackageWorkflow() {
+        when(workflowDao.getWorkflowPackagePaths(SITE_ID, PACKAGE_ID)).thenReturn(List.of());
+
+        assertEquals(List.of(), workflowServiceInternal.cancelPackageWorkflow(SITE_ID, PACKAGE_ID));
+
+        verifyNoInteractions(transactionTemplate, publishRequestDao, itemDao);
+        verify(workflowDao, never()).deleteWorkflowEntries(any(), any());
+    }
+
+    private Object recordStatement(String statement) {
+        transactionStatements.add(inTransaction ? statement : statement + " (outside the transaction)");
+        return null;
+    }
+}
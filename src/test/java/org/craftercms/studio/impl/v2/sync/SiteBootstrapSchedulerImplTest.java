@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.sync;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.craftercms.studio.api.v1.constant.GitRepositories;
+import org.craftercms.studio.api.v1.exception.ServiceLayerException;
+import org.craftercms.studio.api.v2.dal.Site;
+import org.craftercms.studio.api.v2.service.site.SitesService;
+import org.craftercms.studio.api.v2.sync.RepositoryWatcher;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapStatus;
+import org.craftercms.studio.api.v2.sync.SiteBootstrapStatus.SiteState;
+import org.craftercms.studio.api.v2.utils.GitRepositoryHelper;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.craftercms.studio.api.v2.dal.Site.State.READY;
+import static org.craftercms.studio.impl.v2.service.monitor.internal.LogEventBufferAppender.SITE_CONTEXT_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SiteBootstrapSchedulerImplTest {
+
+    private static final int SYNC_CONCURRENCY = 2;
+    private static final List<String> SITES = List.of("site1", "site2", "site3", "site4", "site5", "site6");
+    private static final String UNREGISTERED_SITE = "site3";
+    private static final String FAILING_SITE = "site5";
+
+    @Mock
+    private SitesService sitesService;
+    @Mock
+    private GitRepositoryHelper repositoryHelper;
+    @Mock
+    private RepositoryWatcher repositoryWatcher;
+    @Mock
+    private SyncFromRepositoryTask syncFromRepositoryTask;
+
+    private AutoCloseable mocks;
+    private SiteBootstrapSchedulerImpl scheduler;
+
+    private final AtomicInteger runningSyncs = new AtomicInteger();
+    private final AtomicInteger maxRunningSyncs = new AtomicInteger();
+    private final Map<String, SiteState> statesDuringSync = new ConcurrentHashMap<>();
+    private final Map<String, String> contextSites = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        mocks = MockitoAnnotations.openMocks(this);
+        scheduler = new SiteBootstrapSchedulerImpl(sitesService, repositoryHelper, repositoryWatcher,
+                syncFromRepositoryTask, 4, SYNC_CONCURRENCY, 30);
+
+        when(sitesService.getSitesByState(READY)).thenReturn(SITES.stream().map(this::getSite).toList());
+        Repository repository = mock(Repository.class);
+        when(repository.getDirectory()).thenReturn(new File("sandbox"));
+        when(repositoryHelper.getRepository(anyString(), eq(GitRepositories.SANDBOX))).thenReturn(repository);
+        // The repository of this site can't be opened
+        when(repositoryHelper.getRepository(UNREGISTERED_SITE, GitRepositories.SANDBOX)).thenReturn(null);
+
+        doAnswer(invocation -> {
+            String siteId = invocation.getArgument(0);
+            int running = runningSyncs.incrementAndGet();
+            maxRunningSyncs.accumulateAndGet(running, Math::max);
+            statesDuringSync.put(siteId, scheduler.getStatus().getSites().get(siteId));
+            contextSites.put(siteId, ThreadContext.get(SITE_CONTEXT_KEY));
+            try {
+                Thread.sleep(50);
+            } finally {
+                runningSyncs.decrementAndGet();
+            }
+            if (FAILING_SITE.equals(siteId)) {
+                throw new ServiceLayerException("Sync failed");
+            }
+            return null;
+        }).when(syncFromRepositoryTask).syncRepository(anyString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    public void testSyncConcurrencyAndStates() throws Exception {
+        scheduler.onBootstrapFinished();
+
+        assertTrue(maxRunningSyncs.get() <= SYNC_CONCURRENCY,
+                "No more than " + SYNC_CONCURRENCY + " syncs should run at the same time");
+        verify(syncFromRepositoryTask, never()).syncRepository(UNREGISTERED_SITE);
+
+        // Every synced site is reported as syncing while its sync runs, with the site in the log context
+        assertEquals(SITES.size() - 1, statesDuringSync.size());
+        statesDuringSync.forEach((siteId, state) -> {
+            assertEquals(SiteState.SYNCING, state, "Unexpected state while syncing site " + siteId);
+            assertEquals(siteId, contextSites.get(siteId));
+        });
+
+        SiteBootstrapStatus status = scheduler.getStatus();
+        assertTrue(status.isFinished());
+        assertNotNull(status.getStartedOn());
+        assertEquals(SITES.size(), status.getTotal());
+        assertEquals(SiteState.FAILED, status.getSites().get(UNREGISTERED_SITE));
+        assertEquals(SiteState.FAILED, status.getSites().get(FAILING_SITE));
+        assertEquals(SITES.size() - 2, status.getReady());
+        assertEquals(2, status.getFailed());
+    }
+
+    private Site getSite(String siteId) {
+        Site site = new Site();
+        site.setSiteId(siteId);
+        return site;
+    }
+
+}
@@ -16,22 +16,38 @@
 package org.craftercms.studio.impl.v2.upgrade;
 
 import org.craftercms.commons.config.ConfigurationException;
+import org.apache.commons.io.FileUtils;
+import org.craftercms.studio.api.v2.repository.RetryingRepositoryOperationFacade;
 import org.craftercms.studio.api.v2.service.system.InstanceService;
 import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.GitCommand;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.craftercms.studio.api.v2.utils.StudioConfiguration.CONFIGURATION_ENVIRONMENT_ACTIVE;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.GLOBAL_REPO_PATH;
+import static org.craftercms.studio.api.v2.utils.StudioConfiguration.REPO_BASE_PATH;
 import static org.craftercms.studio.impl.v2.upgrade.StudioUpgradeContext.COMMIT_IDENTIFIER_FORMAT;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author joseross
@@ -48,6 +64,11 @@ public class StudioUpgradeContextTest {
     @Mock
     private InstanceService instanceService;
 
+    @Mock
+    private RetryingRepositoryOperationFacade retryingRepositoryOperationFacade;
+
+    private Path tmpDir;
+
     @InjectMocks
     private StudioUpgradeContext upgradeContext;
 
@@ -57,6 +78,15 @@ public class StudioUpgradeContextTest {
 
         when(instanceService.getInstanceId()).thenReturn(INSTANCE_ID);
         when(studioConfiguration.getProperty(CONFIGURATION_ENVIRONMENT_ACTIVE)).thenReturn(ENVIRONMENT);
+        when(retryingRepositoryOperationFacade.call(any(GitCommand.class)))
+                .thenAnswer(invocation -> ((GitCommand<?>) invocation.getArgument(0)).call());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (tmpDir != null) {
+            FileUtils.deleteQuietly(tmpDir.toFile());
+        }
     }
 
     @Test
@@ -67,4 +97,62 @@ public class StudioUpgradeContextTest {
         assertEquals(upgradeContext.getIdentifier(), expectedIdentifier);
     }
 
+    @Test
+    public void testBatchCollectsChanges() throws Exception {
+        upgradeContext.startBatch();
+        upgradeContext.commitChanges("first", List.of("/a.xml", "/b.xml"), null);
+        upgradeContext.commitChanges("second", List.of("/b.xml"), List.of("/c.xml"));
+
+        assertEquals(List.copyOf(upgradeContext.batchMessages), List.of("first", "second"));
+        assertEquals(List.copyOf(upgradeContext.batchChangedFiles), List.of("/a.xml", "/b.xml"));
+        assertEquals(List.copyOf(upgradeContext.batchDeletedFiles), List.of("/c.xml"));
+    }
+
+    @Test
+    public void testBatchCreatesSingleCommit() throws Exception {
+        // The context without a site works on the global repo
+        tmpDir = Files.createTempDirectory("upgrade-context");
+        Path repoPath = tmpDir.resolve("global");
+        when(studioConfiguration.getProperty(REPO_BASE_PATH)).thenReturn(tmpDir.toString());
+        when(studioConfiguration.getProperty(GLOBAL_REPO_PATH)).thenReturn("global");
+
+        try (Git git = Git.init().setDirectory(repoPath.toFile()).call()) {
+            Files.writeString(repoPath.resolve("a.xml"), "a1");
+            Files.writeString(repoPath.resolve("b.xml"), "b1");
+            git.add().addFilepattern(".").call();
+            RevCommit initialCommit = git.commit().setMessage("initial").call();
+
+            upgradeContext.startBatch();
+            Files.writeString(repoPath.resolve("a.xml"), "a2");
+            Files.writeString(repoPath.resolve("b.xml"), "b2");
+            upgradeContext.commitChanges("first", List.of("/a.xml", "/b.xml"), null);
+            // A later operation deletes a file changed by the first one
+            Files.delete(repoPath.resolve("b.xml"));
+            upgradeContext.commitChanges("second", null, List.of("/b.xml"));
+            Files.writeString(repoPath.resolve("c.xml"), "c1");
+            upgradeContext.commitChanges("third", List.of("/c.xml"), null);
+
+            // Nothing is committed until the batch is completed
+            assertEquals(git.log().call().iterator().next(), initialCommit);
+
+            upgradeContext.commitBatch();
+
+            List<RevCommit> commits = new ArrayList<>();
+            git.log().call().forEach(commits::add);
+            assertEquals(commits.size(), 2);
+            RevCommit batchCommit = commits.get(0);
+            assertTrue(batchCommit.getFullMessage().startsWith("first\nsecond\nthird"));
+            assertTrue(existsInCommit(git, batchCommit, "a.xml"));
+            assertFalse(existsInCommit(git, batchCommit, "b.xml"));
+            assertTrue(existsInCommit(git, batchCommit, "c.xml"));
+            assertTrue(git.status().call().isClean());
+        }
+    }
+
+    private boolean existsInCommit(Git git, RevCommit commit, String path) throws Exception {
+        try (TreeWalk treeWalk = TreeWalk.forPath(git.getRepository(), path, commit.getTree())) {
+            return treeWalk != null;
+        }
+    }
+
 }
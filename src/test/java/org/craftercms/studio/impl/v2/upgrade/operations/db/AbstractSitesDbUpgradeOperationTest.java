@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.craftercms.studio.impl.v2.upgrade.operations.db;
+
+import org.craftercms.commons.upgrade.exception.UpgradeException;
+import org.craftercms.studio.api.v2.utils.StudioConfiguration;
+import org.craftercms.studio.impl.v2.upgrade.StudioUpgradeContext;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class AbstractSitesDbUpgradeOperationTest {
+
+    private TestSitesOperation operation;
+
+    private StudioUpgradeContext context;
+
+    @BeforeMethod
+    public void setUp() {
+        operation = new TestSitesOperation();
+        operation.siteThreadCount = 2;
+        operation.failOnSiteErrors = true;
+        context = mock(StudioUpgradeContext.class);
+    }
+
+    @Test
+    public void testFailedSiteFailsTheOperation() {
+        operation.failingSites.add("site2");
+
+        assertThrows(UpgradeException.class, () -> operation.doExecute(context));
+
+        // The other sites are recorded so the next execution skips them
+        assertEquals(operation.completedSites, Set.of(1L, 3L));
+        assertFalse(operation.progressCleared);
+    }
+
+    @Test
+    public void testNextExecutionOnlyProcessesFailedSites() throws UpgradeException {
+        operation.failingSites.add("site2");
+        assertThrows(UpgradeException.class, () -> operation.doExecute(context));
+
+        operation.failingSites.clear();
+        operation.processedSites.clear();
+        operation.doExecute(context);
+
+        assertEquals(operation.processedSites, List.of("site2"));
+        assertTrue(operation.progressCleared);
+    }
+
+    @Test
+    public void testFailedSiteIsSkippedWhenNotStrict() throws UpgradeException {
+        operation.failOnSiteErrors = false;
+        operation.failingSites.add("site2");
+
+        operation.doExecute(context);
+
+        assertEquals(operation.processedSites.size(), 3);
+        assertTrue(operation.progressCleared);
+    }
+
+    /**
+     * Operation that keeps the sites and the progress in memory
+     */
+    private static class TestSitesOperation extends AbstractSitesDbUpgradeOperation {
+
+        private final Set<String> failingSites = Collections.synchronizedSet(new HashSet<>());
+        private final List<String> processedSites = new CopyOnWriteArrayList<>();
+        private final Set<Long> completedSites = Collections.synchronizedSet(new HashSet<>());
+        private boolean progressCleared;
+
+        TestSitesOperation() {
+            super(mock(StudioConfiguration.class), null, null);
+        }
+
+        @Override
+        protected boolean processSite(StudioUpgradeContext context, long siteId, String site) {
+            processedSites.add(site);
+            return !failingSites.contains(site);
+        }
+
+        @Override
+        protected Map<Long, String> getSites(StudioUpgradeContext context) {
+            Map<Long, String> sites = new LinkedHashMap<>();
+            sites.put(1L, "site1");
+            sites.put(2L, "site2");
+            sites.put(3L, "site3");
+            return sites;
+        }
+
+        @Override
+        protected Set<Long> getCompletedSites(StudioUpgradeContext context, String operationKey) {
+            return new HashSet<>(completedSites);
+        }
+
+        @Override
+        protected void markSiteCompleted(StudioUpgradeContext context, String operationKey, long siteId,
+                                         String site) {
+            completedSites.add(siteId);
+        }
+
+        @Override
+        protected void clearProgress(StudioUpgradeContext context, String operationKey) {
+            completedSites.clear();
+            progressCleared = true;
+        }
+    }
+
+}
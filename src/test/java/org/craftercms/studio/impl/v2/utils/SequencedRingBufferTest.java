@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.craftercms.studio.impl.v2.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SequencedRingBufferTest {
+
+    @Test
+    public void testReadFromSequence() {
+        SequencedRingBuffer<String> buffer = new SequencedRingBuffer<>(5);
+        for (String element : asList("a", "b", "c")) {
+            buffer.write(element);
+        }
+
+        assertEquals(asList("a", "b", "c"), buffer.readFrom(0));
+        assertEquals(asList("b", "c"), buffer.readFrom(1));
+        assertTrue(buffer.readFrom(3).isEmpty());
+        assertEquals(3, buffer.getNextSequence());
+    }
+
+    @Test
+    public void testOverwrittenElementsAreSkipped() {
+        SequencedRingBuffer<Integer> buffer = new SequencedRingBuffer<>(3);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, buffer.write(i));
+        }
+
+        assertEquals(asList(7, 8, 9), buffer.readFrom(0));
+        assertEquals(asList(8, 9), buffer.readFrom(8));
+    }
+
+    @Test
+    public void testReadLatest() {
+        SequencedRingBuffer<Integer> buffer = new SequencedRingBuffer<>(4);
+        for (int i = 0; i < 6; i++) {
+            buffer.write(i);
+        }
+
+        List<Integer> latest = buffer.readLatest(element -> element <= 3);
+        assertEquals(asList(4, 5), latest);
+        assertEquals(asList(2, 3, 4, 5), buffer.readLatest(element -> false));
+    }
+
+    @Test
+    public void testConcurrentWrites() throws InterruptedException {
+        SequencedRingBuffer<Integer> buffer = new SequencedRingBuffer<>(1000);
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                for (int j = 0; j < 250; j++) {
+                    buffer.write(j);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(1000, buffer.getNextSequence());
+        assertEquals(1000, buffer.readFrom(0).size());
+    }
+
+    @Test
+    public void testFailedWriteDoesNotBlockReaders() {
+        SequencedRingBuffer<String> buffer = new SequencedRingBuffer<>(5);
+        buffer.write("a");
+        assertThrows(IllegalStateException.class, () -> buffer.write(sequence -> {
+            throw new IllegalStateException();
+        }));
+        buffer.write("c");
+
+        assertEquals(asList("a", "c"), buffer.readFrom(0));
+        assertEquals(asList("a", "c"), buffer.readLatest(element -> false));
+    }
+
+    @Test
+    public void testReadFromUnknownSequenceStartsOver() {
+        SequencedRingBuffer<String> buffer = new SequencedRingBuffer<>(5);
+        buffer.write("a");
+        buffer.write("b");
+
+        assertTrue(buffer.readFrom(2).isEmpty());
+        assertEquals(asList("a", "b"), buffer.readFrom(100));
+    }
+
+    @Test
+    public void testConcurrentReadersGetEveryElementOnce() throws InterruptedException {
+        int writerCount = 4;
+        int writes = 25000;
+        SequencedRingBuffer<Long> buffer = new SequencedRingBuffer<>(writerCount * writes);
+        List<Long> read = new ArrayList<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        Thread reader = new Thread(() -> {
+            long next = 0;
+            while (writing.get() || next < buffer.getNextSequence()) {
+                for (long element : buffer.readFrom(next)) {
+                    read.add(element);
+                    next = element + 1;
+                }
+            }
+        });
+        reader.start();
+        runWriters(buffer, writerCount, writes);
+        writing.set(false);
+        reader.join();
+
+        // Nothing was overwritten, so polling from the last sequence read must return every element in order
+        assertEquals(writerCount * writes, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals(i, read.get(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentReadersWithWrapAround() throws InterruptedException {
+        int capacity = 64;
+        int writerCount = 4;
+        int writes = 25000;
+        SequencedRingBuffer<Long> buffer = new SequencedRingBuffer<>(capacity);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<String> errors = new ArrayList<>();
+
+        Thread reader = new Thread(() -> {
+            long next = 0;
+            while (writing.get()) {
+                List<Long> elements = buffer.readFrom(next);
+                for (long element : elements) {
+                    if (element < next) {
+                        errors.add("Got element " + element + " reading from " + next);
+                    }
+                    next = element + 1;
+                }
+            }
+        });
+        Thread latestReader = new Thread(() -> {
+            while (writing.get()) {
+                List<Long> elements = buffer.readLatest(element -> false);
+                for (int i = 1; i < elements.size(); i++) {
+                    if (elements.get(i) <= elements.get(i - 1)) {
+                        errors.add("Got element " + elements.get(i) + " after " + elements.get(i - 1));
+                    }
+                }
+            }
+        });
+        reader.start();
+        latestReader.start();
+        runWriters(buffer, writerCount, writes);
+        writing.set(false);
+        reader.join();
+        latestReader.join();
+
+        assertTrue(errors.isEmpty(), () -> String.join(", ", errors));
+        // Once the writers are done the buffer holds exactly the last elements
+        List<Long> expected = new ArrayList<>();
+        for (long i = writerCount * writes - capacity; i < writerCount * writes; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, buffer.readFrom(0));
+        assertEquals(expected, buffer.readLatest(element -> false));
+    }
+
+    private void runWriters(SequencedRingBuffer<Long> buffer, int writerCount, int writes)
+            throws InterruptedException {
+        Thread[] writers = new Thread[writerCount];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                for (int j = 0; j < writes; j++) {
+                    buffer.write(sequence -> sequence);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2007-2024 Crafter Software Corporation. All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as published by
+ * the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+-- Audit tables as of 4.2.0.9 with a few entries to upgrade
+
+CREATE TABLE _meta (
+  `version` VARCHAR(10) NOT NULL,
+  `integrity` BIGINT(10),
+  `studio_id` VARCHAR(40) NOT NULL,
+  PRIMARY KEY (`version`)
+) ;
+
+INSERT INTO _meta (version, studio_id) VALUES ('4.2.0.9', UUID()) ;
+
+CREATE TABLE IF NOT EXISTS `site` (
+  `id`                              BIGINT(20)    NOT NULL AUTO_INCREMENT,
+  `site_uuid`                       VARCHAR(50)   NOT NULL,
+  `site_id`                         VARCHAR(50)   NOT NULL,
+  `name`                            VARCHAR(255)  NOT NULL,
+  `description`                     TEXT          NULL,
+  `deleted`                         INT           NOT NULL DEFAULT 0,
+  `last_commit_id`                  VARCHAR(50)   NULL,
+  `last_indexed_commit_id`          VARCHAR(50)   NULL,
+  `system`                          INT           NOT NULL DEFAULT 0,
+  `publishing_enabled`              INT           NOT NULL DEFAULT 1,
+  `publishing_status`               VARCHAR(20)   NULL,
+  `sandbox_branch`                  VARCHAR(255)  NOT NULL DEFAULT 'master',
+  `published_repo_created`          INT           NOT NULL DEFAULT 0,
+  `state`                           VARCHAR(50)   NOT NULL DEFAULT 'INITIALIZING',
+  PRIMARY KEY (`id`),
+  UNIQUE INDEX `id_unique` (`id` ASC),
+  UNIQUE INDEX `site_uuid_site_id_unique` (`site_uuid` ASC, `site_id` ASC),
+  INDEX `site_id_idx` (`site_id` ASC)
+)
+
+  ENGINE = InnoDB
+  DEFAULT CHARSET = utf8
+  ROW_FORMAT = DYNAMIC ;
+
+CREATE TABLE IF NOT EXISTS `audit` (
+  `id`                        BIGINT(20)    NOT NULL AUTO_INCREMENT,
+  `organization_id`           BIGINT(20)    NOT NULL,
+  `site_id`                   BIGINT(20)    NOT NULL,
+  `operation`                 VARCHAR(32)   NOT NULL,
+  `operation_timestamp`       TIMESTAMP      NOT NULL,
+  `origin`                    VARCHAR(16)   NOT NULL,
+  `primary_target_id`         VARCHAR(1024)  NOT NULL,
+  `primary_target_type`       VARCHAR(32)   NOT NULL,
+  `primary_target_subtype`    VARCHAR(32)   NULL,
+  `primary_target_value`      VARCHAR(1024)  NOT NULL,
+  `actor_id`                  VARCHAR(255)  NOT NULL,
+  `actor_details`             VARCHAR(255)  NULL,
+  `cluster_node_id`           VARCHAR(255)  NULL,
+  `commit_id`                 VARCHAR(50)   NULL,
+  PRIMARY KEY (`id`),
+  KEY `audit_actor_idx` (`actor_id`),
+  KEY `audit_site_idx` (`site_id`),
+  KEY `audit_operation_idx` (`operation`),
+  KEY `audit_origin_idx` (`origin`)
+)
+  ENGINE = InnoDB
+  DEFAULT CHARSET = utf8
+  ROW_FORMAT = DYNAMIC ;
+
+CREATE TABLE IF NOT EXISTS `audit_parameters` (
+    `id`                BIGINT(20) NOT NULL AUTO_INCREMENT,
+    `audit_id`          BIGINT(20) NOT NULL,
+    `target_id`         VARCHAR(1024)  NOT NULL,
+    `target_type`       VARCHAR(32)   NOT NULL,
+    `target_value`      VARCHAR(1024)  NOT NULL,
+    PRIMARY KEY (`id`),
+    FOREIGN KEY `audit_parameters_ix_audit_id` (`audit_id`) REFERENCES `audit` (`id`)
+       ON DELETE CASCADE,
+    KEY `audit_parameters_target_id_idx` (`target_id`),
+    KEY `audit_parameters_target_value_idx` (`target_value`)
+    )
+    ENGINE = InnoDB
+    DEFAULT CHARSET = utf8
+    ROW_FORMAT = DYNAMIC ;
+
+INSERT INTO `site` (`id`, `site_uuid`, `site_id`, `name`, `state`) VALUES
+    (1, UUID(), 'site1', 'site1', 'READY'),
+    (2, UUID(), 'site2', 'site2', 'READY') ;
+
+INSERT INTO `audit` (`id`, `organization_id`, `site_id`, `operation`, `operation_timestamp`, `origin`,
+    `primary_target_id`, `primary_target_type`, `primary_target_value`, `actor_id`) VALUES
+    (1, 1, 1, 'PUBLISH', NOW() - INTERVAL 6 MONTH, 'API', 'site1:/site/website/old.xml', 'content_item',
+        '/site/website/old.xml', 'admin'),
+    (2, 1, 1, 'PUBLISH', NOW() - INTERVAL 1 MONTH, 'API', 'site1:/site/website/recent.xml', 'content_item',
+        '/site/website/recent.xml', 'admin'),
+    (3, 1, 2, 'PUBLISH', NOW() - INTERVAL 1 MONTH, 'API', 'site2:/site/website/index.xml', 'content_item',
+        '/site/website/index.xml', 'admin') ;
+
+INSERT INTO `audit_parameters` (`audit_id`, `target_id`, `target_type`, `target_value`) VALUES
+    (1, 'site1:/site/website/old.xml', 'content_item', '/site/website/old.xml'),
+    (1, 'site1:/site/website/old-2.xml', 'content_item', '/site/website/old-2.xml'),
+    (2, 'site1:/site/website/recent.xml', 'content_item', '/site/website/recent.xml'),
+    (2, 'site1:/site/website/recent-2.xml', 'content_item', '/site/website/recent-2.xml'),
+    (3, 'site2:/site/website/index.xml', 'content_item', '/site/website/index.xml') ;